@@ -0,0 +1,113 @@
+package utn.frc.isi.backend.tpi_Integrador.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import utn.frc.isi.backend.tpi_Integrador.dtos.TarifaDTO;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Índice en memoria de los rangos de vigencia de las tarifas, para resolver qué tarifa
+ * regía en una fecha sin consultar la base de datos (recálculo histórico de tramos).
+ * Las tarifas se ordenan por vigenciaDesde y cada búsqueda es una búsqueda binaria.
+ * Se usa el mismo criterio que {@code TarifaRepository.findTarifasVigentesEnFecha}
+ * (desde &lt;= fecha &lt;= hasta, hasta null = abierta); si varias se superponen gana
+ * la de vigenciaDesde más reciente.
+ * El índice es inmutable: cada reconstrucción publica uno nuevo.
+ */
+@Slf4j
+@Component
+public class IndiceVigenciaTarifas {
+
+    private final AtomicReference<Indice> indice = new AtomicReference<>();
+
+    /**
+     * Reconstruye el índice con el conjunto completo de tarifas
+     */
+    public void reconstruir(List<TarifaDTO> tarifas) {
+        List<TarifaDTO> ordenadas = tarifas.stream()
+                .filter(t -> t.getVigenciaDesde() != null)
+                .sorted(Comparator.comparing(TarifaDTO::getVigenciaDesde).thenComparing(TarifaDTO::getId))
+                .toList();
+        int n = ordenadas.size();
+        LocalDateTime[] desde = new LocalDateTime[n];
+        LocalDateTime[] hastaMaximo = new LocalDateTime[n];
+        TarifaDTO[] porPosicion = new TarifaDTO[n];
+        for (int i = 0; i < n; i++) {
+            TarifaDTO tarifa = ordenadas.get(i);
+            desde[i] = tarifa.getVigenciaDesde();
+            porPosicion[i] = tarifa;
+            LocalDateTime hasta = tarifa.getVigenciaHasta() != null ? tarifa.getVigenciaHasta() : LocalDateTime.MAX;
+            // Máximo vigenciaHasta entre las posiciones 0..i: corta la búsqueda hacia atrás
+            hastaMaximo[i] = i > 0 && hastaMaximo[i - 1].isAfter(hasta) ? hastaMaximo[i - 1] : hasta;
+        }
+        indice.set(new Indice(desde, hastaMaximo, porPosicion));
+        log.info("Índice de vigencia de tarifas reconstruido: {} tarifas", n);
+    }
+
+    public boolean construido() {
+        return indice.get() != null;
+    }
+
+    /**
+     * Tarifa vigente en la fecha indicada
+     */
+    public Optional<TarifaDTO> vigenteEn(LocalDateTime fecha) {
+        return Optional.ofNullable(indiceActual().buscar(fecha));
+    }
+
+    /**
+     * Resuelve la tarifa vigente para cada fecha, en el mismo orden (null si ninguna regía)
+     */
+    public List<TarifaDTO> vigentesEn(List<LocalDateTime> fechas) {
+        Indice actual = indiceActual();
+        List<TarifaDTO> resultado = new ArrayList<>(fechas.size());
+        for (LocalDateTime fecha : fechas) {
+            resultado.add(actual.buscar(fecha));
+        }
+        return resultado;
+    }
+
+    private Indice indiceActual() {
+        Indice actual = indice.get();
+        if (actual == null) {
+            throw new IllegalStateException("El índice de vigencia de tarifas no fue construido");
+        }
+        return actual;
+    }
+
+    private record Indice(LocalDateTime[] desde, LocalDateTime[] hastaMaximo, TarifaDTO[] tarifas) {
+
+        TarifaDTO buscar(LocalDateTime fecha) {
+            if (fecha == null) {
+                return null;
+            }
+            // Última posición con vigenciaDesde <= fecha
+            int bajo = 0;
+            int alto = desde.length - 1;
+            int posicion = -1;
+            while (bajo <= alto) {
+                int medio = (bajo + alto) >>> 1;
+                if (desde[medio].isAfter(fecha)) {
+                    alto = medio - 1;
+                } else {
+                    posicion = medio;
+                    bajo = medio + 1;
+                }
+            }
+            // Retroceder solo mientras alguna tarifa anterior pueda seguir vigente
+            for (int i = posicion; i >= 0 && !hastaMaximo[i].isBefore(fecha); i--) {
+                LocalDateTime hasta = tarifas[i].getVigenciaHasta();
+                if (hasta == null || !hasta.isBefore(fecha)) {
+                    return tarifas[i];
+                }
+            }
+            return null;
+        }
+    }
+}
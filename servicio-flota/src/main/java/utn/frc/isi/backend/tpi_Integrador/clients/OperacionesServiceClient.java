@@ -0,0 +1,100 @@
+package utn.frc.isi.backend.tpi_Integrador.clients;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cliente para avisar a servicio-operaciones de cambios en datos que mantiene en memoria.
+ * Los avisos son de mejor esfuerzo: si servicio-operaciones no responde, igual
+ * revalida por su cuenta cuando vence su copia local. Se envían a los endpoints internos
+ * (/internal/notificaciones) con la credencial del servicio, desde un hilo propio: quien
+ * avisa (el afterCommit de una escritura) no espera a servicio-operaciones. Si la cola de
+ * avisos está llena, el aviso se descarta.
+ */
+@Slf4j
+@Component
+public class OperacionesServiceClient {
+
+    private final RestClient restClient;
+    private final boolean habilitado;
+    private final ThreadPoolExecutor ejecutor;
+
+    public OperacionesServiceClient(@Qualifier("operacionesRestClient") RestClient restClient,
+                                    @Value("${servicio-operaciones.notificaciones.habilitadas:true}") boolean habilitado,
+                                    @Value("${servicio-operaciones.notificaciones.capacidad-cola:100}") int capacidadCola) {
+        this.restClient = restClient;
+        this.habilitado = habilitado;
+        this.ejecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadCola),
+                r -> {
+                    Thread hilo = new Thread(r, "notificaciones-operaciones");
+                    hilo.setDaemon(true);
+                    return hilo;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Avisa que la tarifa activa cambió para que servicio-operaciones descarte su foto local
+     */
+    public void notificarCambioTarifa() {
+        encolar("cambio de tarifa", this::enviarCambioTarifa);
+    }
+
+    /**
+     * Avisa que los datos de un camión cambiaron para que servicio-operaciones descarte
+     * los parámetros de costo que tiene cacheados
+     */
+    public void notificarCambioCamion(Long camionId) {
+        encolar("cambio del camión " + camionId, () -> enviarCambioCamion(camionId));
+    }
+
+    private void encolar(String aviso, Runnable envio) {
+        if (!habilitado) {
+            return;
+        }
+        try {
+            ejecutor.execute(envio);
+        } catch (RejectedExecutionException e) {
+            log.warn("Cola de avisos a servicio-operaciones llena, se descarta el aviso de {}", aviso);
+        }
+    }
+
+    private void enviarCambioTarifa() {
+        try {
+            restClient.post()
+                    .uri("/internal/notificaciones/tarifa")
+                    .retrieve()
+                    .toBodilessEntity();
+            log.info("Cambio de tarifa notificado a servicio-operaciones");
+        } catch (Exception e) {
+            log.warn("No se pudo notificar el cambio de tarifa a servicio-operaciones: {}", e.getMessage());
+        }
+    }
+
+    private void enviarCambioCamion(Long camionId) {
+        try {
+            restClient.post()
+                    .uri("/internal/notificaciones/camiones/{camionId}", camionId)
+                    .retrieve()
+                    .toBodilessEntity();
+            log.debug("Cambio del camión {} notificado a servicio-operaciones", camionId);
+        } catch (Exception e) {
+            log.warn("No se pudo notificar el cambio del camión {} a servicio-operaciones: {}", camionId, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void detener() {
+        ejecutor.shutdownNow();
+    }
+}
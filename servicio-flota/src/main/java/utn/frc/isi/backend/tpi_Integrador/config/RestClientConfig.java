@@ -0,0 +1,67 @@
+package utn.frc.isi.backend.tpi_Integrador.config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.client.AuthorizedClientServiceOAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientProviderBuilder;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientService;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.oauth2.client.web.client.OAuth2ClientHttpRequestInterceptor;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+
+@Configuration
+public class RestClientConfig {
+
+    @Value("${servicio-operaciones.base-url:http://localhost:8082}")
+    private String servicioOperacionesBaseUrl;
+
+    // Registro OAuth2 (client credentials) con el que este servicio se identifica ante los demás
+    @Value("${servicio.credencial.registro:servicio-flota}")
+    private String registroCredencialServicio;
+
+    /**
+     * Tokens de la credencial propia del servicio (client credentials contra Keycloak).
+     * Se guardan en memoria hasta que vencen; no dependen de un request ni de un usuario.
+     */
+    @Bean
+    public OAuth2AuthorizedClientManager credencialServicioManager(ClientRegistrationRepository registros,
+                                                                   OAuth2AuthorizedClientService clientes) {
+        AuthorizedClientServiceOAuth2AuthorizedClientManager manager =
+                new AuthorizedClientServiceOAuth2AuthorizedClientManager(registros, clientes);
+        manager.setAuthorizedClientProvider(OAuth2AuthorizedClientProviderBuilder.builder()
+                .clientCredentials()
+                .build());
+        return manager;
+    }
+
+    /**
+     * Cliente de servicio-operaciones para los avisos de cambios: se autentica con la
+     * credencial del servicio, ya que los endpoints internos solo aceptan el rol SERVICIO
+     */
+    @Bean
+    public RestClient operacionesRestClient(@Value("${servicio-operaciones.notificaciones.timeout-ms:2000}") int timeoutMs,
+                                            @Qualifier("credencialServicioManager") OAuth2AuthorizedClientManager credencialServicioManager) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(Duration.ofMillis(timeoutMs));
+        requestFactory.setReadTimeout(Duration.ofMillis(timeoutMs));
+
+        OAuth2ClientHttpRequestInterceptor credencial = new OAuth2ClientHttpRequestInterceptor(credencialServicioManager);
+        credencial.setClientRegistrationIdResolver(request -> registroCredencialServicio);
+        // Un único token para el servicio, sin importar el usuario del hilo actual
+        Authentication servicio = UsernamePasswordAuthenticationToken.unauthenticated(registroCredencialServicio, null);
+        credencial.setPrincipalResolver(request -> servicio);
+        return RestClient.builder()
+                .baseUrl(servicioOperacionesBaseUrl)
+                .requestFactory(requestFactory)
+                .requestInterceptor(credencial)
+                .build();
+    }
+}
@@ -71,11 +71,22 @@ public class SecurityConfig {
                 // Endpoint público para consulta de tarifa activa (usado por otros microservicios)
                 .requestMatchers(HttpMethod.GET, "/api/tarifas/actual").permitAll()
                 
+                // Feeds de cambios replicados por servicio-operaciones: el replicador corre en segundo plano
+                // y al arrancar, sin un JWT de usuario, y se autentica con la credencial del servicio
+                .requestMatchers(HttpMethod.GET, "/api/camiones/changes", "/api/depositos/changes").hasRole("SERVICIO")
+
+                // Disponibilidad en lote: solo la entrega el outbox de servicio-operaciones con la credencial del servicio
+                .requestMatchers(HttpMethod.PATCH, "/api/camiones/disponibilidad").hasRole("SERVICIO")
+
                 // ===== Endpoints de API =====
                 // Lectura (GET) - cualquier usuario autenticado
                 .requestMatchers(HttpMethod.GET, "/api/**")
                     .hasAnyRole("ADMIN", "FLOTA_MANAGER", "OPERACIONES_MANAGER", "USER")
                 
+                // Consultas por lote (POST de solo lectura) - mismos roles que GET
+                .requestMatchers(HttpMethod.POST, "/api/tarifas/vigentes", "/api/camiones/batch")
+                    .hasAnyRole("ADMIN", "FLOTA_MANAGER", "OPERACIONES_MANAGER", "USER")
+                
                 // Creación (POST) - solo managers
                 .requestMatchers(HttpMethod.POST, "/api/**")
                     .hasAnyRole("ADMIN", "FLOTA_MANAGER")
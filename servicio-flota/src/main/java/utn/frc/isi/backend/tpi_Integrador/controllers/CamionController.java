@@ -7,15 +7,26 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import utn.frc.isi.backend.tpi_Integrador.dtos.CambiosDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.CamionCreateDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.CamionDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.CamionReplicaDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.CamionesBatchRequestDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.CamionUpdateDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.DisponibilidadDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.DisponibilidadLoteDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.DisponibilidadLoteResultadoDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.PaginaDTO;
+import utn.frc.isi.backend.tpi_Integrador.paginacion.ConsultaPagina;
 import utn.frc.isi.backend.tpi_Integrador.services.CamionService;
 
 import java.util.List;
+import java.util.Map;
 
 @Tag(name = "Camiones", description = "API de gestión de camiones de la flota")
 @RestController
@@ -28,17 +39,28 @@ public class CamionController {
         this.camionService = camionService;
     }
 
-    @Operation(summary = "Obtener todos los camiones", 
-               description = "Devuelve una lista completa de todos los camiones registrados en el sistema")
+    @Operation(summary = "Listar camiones", 
+               description = "Devuelve una página de los camiones, filtrable por disponibilidad. " +
+                             "Paginado por keyset: para la página siguiente se envía cursor = siguienteCursor mientras hayMas sea true, " +
+                             "con el mismo sort. limit entre 1 y 500; sort = campo o campo,desc (campos: id, dominio, capacidadPeso, costoPorKm)")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Lista de camiones devuelta exitosamente",
+        @ApiResponse(responseCode = "200", description = "Página de camiones devuelta exitosamente",
                      content = @Content(mediaType = "application/json",
-                     schema = @Schema(implementation = CamionDTO.class)))
+                     schema = @Schema(implementation = PaginaDTO.class))),
+        @ApiResponse(responseCode = "400", description = "limit fuera de rango, sort no permitido o cursor inválido",
+                     content = @Content)
     })
     @GetMapping
-    public ResponseEntity<List<CamionDTO>> obtenerTodos() {
-        List<CamionDTO> camiones = camionService.obtenerTodos();
-        return ResponseEntity.ok(camiones);
+    public ResponseEntity<PaginaDTO<CamionDTO>> listar(
+            @RequestParam(required = false) Boolean disponible,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(defaultValue = "id") String sort) {
+        try {
+            return ResponseEntity.ok(camionService.listar(disponible, new ConsultaPagina(cursor, limit, sort)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @Operation(summary = "Obtener un camión por ID", 
@@ -57,6 +79,40 @@ public class CamionController {
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    @Operation(summary = "Obtener varios camiones por ID", 
+               description = "Devuelve en una sola llamada los camiones pedidos, como mapa ID -> camión. " +
+                             "Los IDs que no existen no aparecen en la respuesta. Acepta y devuelve JSON o CBOR (application/cbor)")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Camiones encontrados devueltos",
+                     content = {@Content(mediaType = "application/json"), @Content(mediaType = "application/cbor")}),
+        @ApiResponse(responseCode = "400", description = "Lista de IDs vacía, con nulos o con más de 1000 elementos",
+                     content = @Content)
+    })
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE}, produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<Map<Long, CamionDTO>> obtenerPorIds(@Valid @RequestBody CamionesBatchRequestDTO request) {
+        return ResponseEntity.ok(camionService.obtenerPorIds(request.getIds()));
+    }
+
+    @Operation(summary = "Feed de cambios de camiones", 
+               description = "Devuelve los camiones creados, modificados o eliminados después de sinceVersion, en orden de versión. " +
+                             "Con sinceVersion=0 devuelve el estado completo (snapshot). El consumidor guarda versionHasta " +
+                             "y la usa como próxima sinceVersion mientras hayMas sea true. Con Accept: application/cbor responde en CBOR")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Página del feed de cambios devuelta",
+                     content = {@Content(mediaType = "application/json"), @Content(mediaType = "application/cbor")}),
+        @ApiResponse(responseCode = "400", description = "sinceVersion negativa o límite fuera de rango (1 a 1000)",
+                     content = @Content)
+    })
+    @GetMapping(value = "/changes", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<CambiosDTO<CamionReplicaDTO>> obtenerCambios(
+            @RequestParam(defaultValue = "0") long sinceVersion,
+            @RequestParam(defaultValue = "500") int limite) {
+        if (sinceVersion < 0 || limite < 1 || limite > 1000) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(camionService.obtenerCambios(sinceVersion, limite));
+    }
+
     @Operation(summary = "Crear un nuevo camión", 
                description = "Registra un nuevo camión en el sistema con todos sus datos técnicos y de operación")
     @ApiResponses(value = {
@@ -145,4 +201,21 @@ public class CamionController {
                 .map(ResponseEntity::ok) // Si el servicio devuelve el DTO, responde 200 OK
                 .orElseGet(() -> ResponseEntity.notFound().build()); // Si devuelve Optional vacío, responde 404
     }
-}
\ No newline at end of file
+
+    @Operation(summary = "Actualizar disponibilidad de varios camiones", 
+               description = "Actualiza en una sola transacción la disponibilidad de los camiones indicados. " +
+                             "Usado por servicio-operaciones para entregar en lote los cambios pendientes. Acepta y devuelve JSON o CBOR")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lote procesado; informa camiones actualizados e inexistentes",
+                     content = {@Content(mediaType = "application/json", schema = @Schema(implementation = DisponibilidadLoteResultadoDTO.class)),
+                                @Content(mediaType = "application/cbor", schema = @Schema(implementation = DisponibilidadLoteResultadoDTO.class))}),
+        @ApiResponse(responseCode = "400", description = "Lote vacío, con más de 1000 cambios o con datos inválidos",
+                     content = @Content)
+    })
+    @PatchMapping(value = "/disponibilidad", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE}, produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<DisponibilidadLoteResultadoDTO> actualizarDisponibilidadLote(
+            @RequestBody @NotEmpty(message = "El lote no puede estar vacío")
+            @Size(max = 1000, message = "No se pueden actualizar más de 1000 camiones por llamada") List<@Valid DisponibilidadLoteDTO> cambios) {
+        return ResponseEntity.ok(camionService.actualizarDisponibilidadLote(cambios));
+    }
+}
@@ -7,15 +7,18 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import utn.frc.isi.backend.tpi_Integrador.dtos.CambiosDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.DepositoCreateDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.DepositoDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.DepositoReplicaDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.DepositoUpdateDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.PaginaDTO;
+import utn.frc.isi.backend.tpi_Integrador.paginacion.ConsultaPagina;
 import utn.frc.isi.backend.tpi_Integrador.services.DepositoService;
 
-import java.util.List;
-
 @Tag(name = "Depósitos", description = "API de gestión de depósitos y centros de distribución")
 @RestController
 @RequestMapping("/api/depositos")
@@ -27,17 +30,27 @@ public class DepositoController {
         this.depositoService = depositoService;
     }
 
-    @Operation(summary = "Obtener todos los depósitos", 
-               description = "Devuelve una lista completa de todos los depósitos registrados en el sistema")
+    @Operation(summary = "Listar depósitos", 
+               description = "Devuelve una página de los depósitos registrados en el sistema. " +
+                             "Paginado por keyset: para la página siguiente se envía cursor = siguienteCursor mientras hayMas sea true, " +
+                             "con el mismo sort. limit entre 1 y 500; sort = campo o campo,desc (campos: id, nombre)")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Lista de depósitos devuelta exitosamente",
+        @ApiResponse(responseCode = "200", description = "Página de depósitos devuelta exitosamente",
                      content = @Content(mediaType = "application/json",
-                     schema = @Schema(implementation = DepositoDTO.class)))
+                     schema = @Schema(implementation = PaginaDTO.class))),
+        @ApiResponse(responseCode = "400", description = "limit fuera de rango, sort no permitido o cursor inválido",
+                     content = @Content)
     })
     @GetMapping
-    public ResponseEntity<List<DepositoDTO>> obtenerTodos() {
-        List<DepositoDTO> depositos = depositoService.obtenerTodos();
-        return ResponseEntity.ok(depositos);
+    public ResponseEntity<PaginaDTO<DepositoDTO>> listar(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(defaultValue = "id") String sort) {
+        try {
+            return ResponseEntity.ok(depositoService.listar(new ConsultaPagina(cursor, limit, sort)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @Operation(summary = "Obtener un depósito por ID", 
@@ -56,6 +69,26 @@ public class DepositoController {
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    @Operation(summary = "Feed de cambios de depósitos", 
+               description = "Devuelve los depósitos creados, modificados o eliminados después de sinceVersion, en orden de versión. " +
+                             "Con sinceVersion=0 devuelve el estado completo (snapshot). El consumidor guarda versionHasta " +
+                             "y la usa como próxima sinceVersion mientras hayMas sea true. Con Accept: application/cbor responde en CBOR")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Página del feed de cambios devuelta",
+                     content = {@Content(mediaType = "application/json"), @Content(mediaType = "application/cbor")}),
+        @ApiResponse(responseCode = "400", description = "sinceVersion negativa o límite fuera de rango (1 a 1000)",
+                     content = @Content)
+    })
+    @GetMapping(value = "/changes", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<CambiosDTO<DepositoReplicaDTO>> obtenerCambios(
+            @RequestParam(defaultValue = "0") long sinceVersion,
+            @RequestParam(defaultValue = "500") int limite) {
+        if (sinceVersion < 0 || limite < 1 || limite > 1000) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(depositoService.obtenerCambios(sinceVersion, limite));
+    }
+
     @Operation(summary = "Crear un nuevo depósito", 
                description = "Registra un nuevo depósito en el sistema con su ubicación y datos operativos")
     @ApiResponses(value = {
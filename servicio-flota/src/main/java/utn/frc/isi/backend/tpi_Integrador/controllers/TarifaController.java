@@ -10,9 +10,12 @@ import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import utn.frc.isi.backend.tpi_Integrador.dtos.TarifaCreateDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.TarifaUpdateDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.TarifaDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.TarifasVigentesDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.TarifasVigentesRequestDTO;
 import utn.frc.isi.backend.tpi_Integrador.services.TarifaService;
 
 import java.util.List;
@@ -35,14 +38,22 @@ public class TarifaController {
         @ApiResponse(responseCode = "200", description = "Tarifa activa encontrada y devuelta",
                      content = @Content(mediaType = "application/json",
                      schema = @Schema(implementation = TarifaDTO.class))),
+        @ApiResponse(responseCode = "304", description = "La tarifa activa no cambió respecto del ETag enviado en If-None-Match",
+                     content = @Content),
         @ApiResponse(responseCode = "404", description = "No existe tarifa activa en el sistema",
                      content = @Content)
     })
     @GetMapping("/actual")
-    public ResponseEntity<TarifaDTO> obtenerTarifaActiva() {
-        return tarifaService.obtenerTarifaActivaDTO()
-                .map(tarifaDTO -> ResponseEntity.ok(tarifaDTO))
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<TarifaDTO> obtenerTarifaActiva(WebRequest request) {
+        TarifaService.TarifaActiva tarifaActiva = tarifaService.tarifaActivaPublicada();
+        if (tarifaActiva.tarifa() == null) {
+            return ResponseEntity.notFound().build();
+        }
+        // Si coincide con If-None-Match se responde 304 sin cuerpo
+        if (request.checkNotModified(tarifaActiva.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(tarifaActiva.etag()).build();
+        }
+        return ResponseEntity.ok().eTag(tarifaActiva.etag()).body(tarifaActiva.tarifa());
     }
 
     @Operation(summary = "Obtener todas las tarifas", 
@@ -58,6 +69,21 @@ public class TarifaController {
         return ResponseEntity.ok(tarifas);
     }
 
+    @Operation(summary = "Resolver la tarifa vigente para un lote de fechas", 
+               description = "Devuelve, para cada fecha, el ID de la tarifa que regía en ese momento (null si ninguna), " +
+                             "junto con las tarifas involucradas. Pensado para recalcular costos históricos de tramos")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Tarifas vigentes resueltas",
+                     content = @Content(mediaType = "application/json",
+                     schema = @Schema(implementation = TarifasVigentesDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Lista de fechas vacía, con nulos o con más de 10000 elementos",
+                     content = @Content)
+    })
+    @PostMapping("/vigentes")
+    public ResponseEntity<TarifasVigentesDTO> obtenerVigentesEnFechas(@Valid @RequestBody TarifasVigentesRequestDTO request) {
+        return ResponseEntity.ok(tarifaService.obtenerVigentesEnFechas(request.getFechas()));
+    }
+
     @Operation(summary = "Obtener una tarifa por ID", 
                description = "Busca y devuelve una tarifa específica mediante su identificador único")
     @ApiResponses(value = {
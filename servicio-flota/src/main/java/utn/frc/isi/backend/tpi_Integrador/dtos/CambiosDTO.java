@@ -0,0 +1,25 @@
+package utn.frc.isi.backend.tpi_Integrador.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO de una página del feed de cambios de una entidad replicada en servicio-operaciones.
+ * Contiene los cambios con versión en (versionDesde, versionHasta]; el consumidor guarda
+ * versionHasta y la usa como sinceVersion en la próxima consulta.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CambiosDTO<T> {
+
+    private long versionDesde;
+    private long versionHasta; // Nueva marca de agua del consumidor
+    private long versionActual; // Última versión estable del servicio (para medir el retraso)
+    private boolean hayMas; // true si quedan cambios después de versionHasta
+    private List<T> actualizados; // Altas y modificaciones, en su estado actual
+    private List<Long> eliminados; // IDs dados de baja
+}
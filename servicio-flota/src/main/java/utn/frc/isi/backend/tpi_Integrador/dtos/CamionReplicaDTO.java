@@ -0,0 +1,24 @@
+package utn.frc.isi.backend.tpi_Integrador.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO compacto de un camión para el feed de cambios: solo los datos operativos que replica
+ * servicio-operaciones (sin datos de contacto del transportista)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CamionReplicaDTO {
+
+    private Long id;
+    private String dominio;
+    private double capacidadPeso;
+    private double capacidadVolumen;
+    private double consumoCombustiblePorKm;
+    private double costoPorKm;
+    private boolean disponible;
+    private long versionCambio;
+}
@@ -0,0 +1,24 @@
+package utn.frc.isi.backend.tpi_Integrador.dtos;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO de entrada para consultar varios camiones en una sola llamada
+ * Usado por el endpoint POST /api/camiones/batch
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CamionesBatchRequestDTO {
+
+    @NotEmpty(message = "Debe indicar al menos un ID de camión")
+    @Size(max = 1000, message = "No se pueden consultar más de 1000 camiones por llamada")
+    private List<@NotNull(message = "Los IDs no pueden ser nulos") Long> ids;
+}
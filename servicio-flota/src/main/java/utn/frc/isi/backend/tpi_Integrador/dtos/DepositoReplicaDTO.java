@@ -0,0 +1,21 @@
+package utn.frc.isi.backend.tpi_Integrador.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO de un depósito para el feed de cambios replicado en servicio-operaciones
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DepositoReplicaDTO {
+
+    private Long id;
+    private String nombre;
+    private String direccion;
+    private double latitud;
+    private double longitud;
+    private long versionCambio;
+}
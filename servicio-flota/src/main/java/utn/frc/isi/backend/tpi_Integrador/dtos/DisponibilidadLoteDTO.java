@@ -0,0 +1,22 @@
+package utn.frc.isi.backend.tpi_Integrador.dtos;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * DTO con la disponibilidad de un camión dentro de una actualización por lote
+ * Usado por el endpoint PATCH /api/camiones/disponibilidad
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DisponibilidadLoteDTO {
+
+    @NotNull(message = "El ID del camión es obligatorio")
+    private Long camionId;
+
+    @NotNull(message = "El estado de disponibilidad es obligatorio")
+    private Boolean disponible;
+}
@@ -0,0 +1,20 @@
+package utn.frc.isi.backend.tpi_Integrador.dtos;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO de salida de una actualización de disponibilidad por lote
+ * Indica qué camiones se actualizaron y cuáles no existen
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DisponibilidadLoteResultadoDTO {
+
+    private List<Long> actualizados;
+    private List<Long> noEncontrados;
+}
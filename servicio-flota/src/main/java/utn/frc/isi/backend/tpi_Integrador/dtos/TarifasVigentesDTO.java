@@ -0,0 +1,22 @@
+package utn.frc.isi.backend.tpi_Integrador.dtos;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO de salida con la tarifa vigente en cada fecha consultada
+ * tarifaIds respeta el orden de las fechas (null si ninguna tarifa regía);
+ * cada tarifa aparece una sola vez en el mapa, indexada por su ID
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TarifasVigentesDTO {
+
+    private List<Long> tarifaIds;
+    private Map<Long, TarifaDTO> tarifas;
+}
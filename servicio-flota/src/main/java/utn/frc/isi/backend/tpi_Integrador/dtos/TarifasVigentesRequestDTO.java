@@ -0,0 +1,25 @@
+package utn.frc.isi.backend.tpi_Integrador.dtos;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO de entrada para resolver la tarifa vigente en un lote de fechas
+ * Usado por el endpoint POST /api/tarifas/vigentes
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TarifasVigentesRequestDTO {
+
+    @NotEmpty(message = "Debe indicar al menos una fecha")
+    @Size(max = 10000, message = "No se pueden consultar más de 10000 fechas por llamada")
+    private List<@NotNull(message = "Las fechas no pueden ser nulas") LocalDateTime> fechas;
+}
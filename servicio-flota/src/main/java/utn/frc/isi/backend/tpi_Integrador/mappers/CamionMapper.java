@@ -3,6 +3,7 @@ package utn.frc.isi.backend.tpi_Integrador.mappers;
 import org.springframework.stereotype.Component;
 import utn.frc.isi.backend.tpi_Integrador.dtos.CamionCreateDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.CamionDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.CamionReplicaDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.CamionUpdateDTO;
 import utn.frc.isi.backend.tpi_Integrador.models.Camion;
 
@@ -44,6 +45,15 @@ public class CamionMapper {
         dto.setCostoPorKm(entity.getCostoPorKm());
         return dto;
     }
+
+    /**
+     * Convierte una entidad Camion al DTO compacto del feed de cambios
+     */
+    public CamionReplicaDTO toReplicaDTO(Camion entity) {
+        return new CamionReplicaDTO(entity.getId(), entity.getDominio(), entity.getCapacidadPeso(),
+                entity.getCapacidadVolumen(), entity.getConsumoCombustiblePorKm(), entity.getCostoPorKm(),
+                entity.isDisponible(), entity.getVersionCambio());
+    }
     
     /**
      * Actualiza una entidad Camion existente con los datos de CamionUpdateDTO
@@ -3,6 +3,7 @@ package utn.frc.isi.backend.tpi_Integrador.mappers;
 import org.springframework.stereotype.Component;
 import utn.frc.isi.backend.tpi_Integrador.dtos.DepositoCreateDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.DepositoDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.DepositoReplicaDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.DepositoUpdateDTO;
 import utn.frc.isi.backend.tpi_Integrador.models.Deposito;
 
@@ -36,6 +37,14 @@ public class DepositoMapper {
         dto.setLongitud(entity.getLongitud());
         return dto;
     }
+
+    /**
+     * Convierte una entidad Deposito al DTO del feed de cambios
+     */
+    public DepositoReplicaDTO toReplicaDTO(Deposito entity) {
+        return new DepositoReplicaDTO(entity.getId(), entity.getNombre(), entity.getDireccion(),
+                entity.getLatitud(), entity.getLongitud(), entity.getVersionCambio());
+    }
     
     /**
      * Actualiza una entidad Deposito existente con los datos de DepositoUpdateDTO
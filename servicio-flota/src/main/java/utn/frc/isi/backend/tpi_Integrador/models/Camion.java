@@ -1,14 +1,23 @@
 package utn.frc.isi.backend.tpi_Integrador.models;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import lombok.Data;
+import utn.frc.isi.backend.tpi_Integrador.replicacion.VersionadoListener;
+
+import java.time.LocalDateTime;
 
 @Entity // Marca esta clase como una entidad que se mapeará a una tabla en la BD
 @Data   // Genera automáticamente getters, setters, toString, etc.
-public class Camion {
+@Table(indexes = @Index(name = "idx_camion_version_cambio", columnList = "versionCambio"))
+@EntityListeners(VersionadoListener.class) // Versiona cada cambio para el feed de servicio-operaciones
+public class Camion implements Versionado {
 
     @Id // Define el campo 'id' como la clave primaria de la tabla
     @GeneratedValue(strategy = GenerationType.IDENTITY) // Indica que el ID será autogenerado por la base de datos
@@ -29,5 +38,10 @@ public class Camion {
     private boolean disponible; // Para saber si está libre u ocupado
 
     // Podríamos agregar más adelante un campo para los costos de traslado por km
-    private double costoPorKm; 
+    private double costoPorKm;
+
+    @Column(nullable = false)
+    private Long versionCambio; // Versión global del último cambio (feed de cambios)
+
+    private LocalDateTime fechaActualizacion; // Momento del último cambio
 }
\ No newline at end of file
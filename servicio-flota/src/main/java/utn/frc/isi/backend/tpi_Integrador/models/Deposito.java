@@ -1,14 +1,23 @@
 package utn.frc.isi.backend.tpi_Integrador.models;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import lombok.Data;
+import utn.frc.isi.backend.tpi_Integrador.replicacion.VersionadoListener;
+
+import java.time.LocalDateTime;
 
 @Entity // Marca esta clase como una entidad que se mapeará a una tabla en la BD
 @Data   // Genera automáticamente getters, setters, toString, etc.
-public class Deposito {
+@Table(indexes = @Index(name = "idx_deposito_version_cambio", columnList = "versionCambio"))
+@EntityListeners(VersionadoListener.class) // Versiona cada cambio para el feed de servicio-operaciones
+public class Deposito implements Versionado {
 
     @Id // Define el campo 'id' como la clave primaria de la tabla
     @GeneratedValue(strategy = GenerationType.IDENTITY) // Indica que el ID será autogenerado por la base de datos
@@ -21,4 +30,9 @@ public class Deposito {
     private double latitud; // Coordenada de latitud para geolocalización
 
     private double longitud; // Coordenada de longitud para geolocalización
+
+    @Column(nullable = false)
+    private Long versionCambio; // Versión global del último cambio (feed de cambios)
+
+    private LocalDateTime fechaActualizacion; // Momento del último cambio
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+package utn.frc.isi.backend.tpi_Integrador.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marca de eliminación de una entidad replicada (camión o depósito).
+ * Permite informar las bajas en el feed de cambios, ya que la fila eliminada no existe más.
+ */
+@Entity
+@Table(name = "eliminaciones_replicadas",
+       indexes = @Index(name = "idx_eliminaciones_tipo_version", columnList = "tipo, versionCambio"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EliminacionReplicada {
+
+    public static final String TIPO_CAMION = "CAMION";
+    public static final String TIPO_DEPOSITO = "DEPOSITO";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String tipo; // CAMION, DEPOSITO
+
+    @Column(nullable = false)
+    private Long entidadId; // ID de la entidad eliminada
+
+    @Column(nullable = false)
+    private Long versionCambio; // Versión global asignada a la baja
+
+    private LocalDateTime fechaEliminacion;
+}
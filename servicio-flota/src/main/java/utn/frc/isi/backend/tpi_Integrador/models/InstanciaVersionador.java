@@ -0,0 +1,31 @@
+package utn.frc.isi.backend.tpi_Integrador.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Concesión (lease) de la única instancia que asigna versiones del feed de cambios.
+ * Tiene una sola fila; la mantiene {@code VersionadorCambios} por JDBC.
+ */
+@Entity
+@Table(name = "versionador_instancia")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InstanciaVersionador {
+
+    public static final long ID_UNICO = 1L;
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private String instancia; // Identificador de la JVM que tiene la concesión
+
+    @Column(nullable = false)
+    private LocalDateTime renovada; // Última renovación; vence pasada la duración configurada
+}
@@ -0,0 +1,14 @@
+package utn.frc.isi.backend.tpi_Integrador.models;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad replicada en servicio-operaciones a través del feed de cambios.
+ * Cada alta o modificación recibe una versión global creciente (ver {@code VersionadoListener}).
+ */
+public interface Versionado {
+
+    void setVersionCambio(Long versionCambio);
+
+    void setFechaActualizacion(LocalDateTime fechaActualizacion);
+}
@@ -0,0 +1,127 @@
+package utn.frc.isi.backend.tpi_Integrador.paginacion;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.stereotype.Component;
+import utn.frc.isi.backend.tpi_Integrador.dtos.PaginaDTO;
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Paginación por keyset común a los listados: en lugar de OFFSET (o de traer la tabla completa)
+ * cada página continúa desde los valores de orden del último elemento de la anterior, así que el
+ * costo de una página no crece con el historial. Usa el scroll de Spring Data, que pide limit + 1
+ * filas para saber si hay más sin contar el total.
+ * <p>
+ * El cursor es opaco para el cliente: JSON en Base64 con el orden pedido y los valores del último
+ * elemento (campo de orden e ID, que desempata). Solo se puede ordenar por los campos que declara
+ * cada listado, que deben ser no nulos.
+ */
+@Component
+public class PaginadorKeyset {
+
+    private final ObjectMapper objectMapper;
+
+    public PaginadorKeyset(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    private record Cursor(String sort, Map<String, Object> claves) {
+    }
+
+    /**
+     * @param repositorio repositorio de la entidad
+     * @param filtro filtros del listado
+     * @param consulta cursor, tamaño de página y orden pedidos
+     * @param camposOrden campos por los que se permite ordenar -> tipo (debe incluir "id")
+     * @param mapper conversión de entidad a DTO
+     * @throws IllegalArgumentException si el límite, el orden o el cursor no son válidos
+     */
+    public <E, D> PaginaDTO<D> paginar(JpaSpecificationExecutor<E> repositorio, Specification<E> filtro,
+                                       ConsultaPagina consulta, Map<String, Class<?>> camposOrden,
+                                       Function<E, D> mapper) {
+        if (consulta.limit() < 1 || consulta.limit() > ConsultaPagina.LIMITE_MAXIMO) {
+            throw new IllegalArgumentException("limit debe estar entre 1 y " + ConsultaPagina.LIMITE_MAXIMO);
+        }
+        String sort = normalizarOrden(consulta.sort(), camposOrden);
+        String[] partes = sort.split(",");
+        Sort orden = Sort.by(Sort.Direction.fromString(partes[1]), partes[0]);
+        if (!partes[0].equals("id")) {
+            orden = orden.and(Sort.by(Sort.Direction.fromString(partes[1]), "id"));
+        }
+
+        ScrollPosition posicion = consulta.cursor() == null || consulta.cursor().isBlank()
+                ? ScrollPosition.keyset()
+                : ScrollPosition.forward(decodificar(consulta.cursor(), sort, camposOrden));
+
+        Sort ordenFinal = orden;
+        Window<E> ventana = repositorio.findBy(filtro, q -> q.sortBy(ordenFinal).limit(consulta.limit()).scroll(posicion));
+
+        List<D> items = ventana.getContent().stream().map(mapper).toList();
+        String siguienteCursor = null;
+        if (ventana.hasNext() && !ventana.isEmpty()) {
+            KeysetScrollPosition ultima = (KeysetScrollPosition) ventana.positionAt(ventana.size() - 1);
+            siguienteCursor = codificar(new Cursor(sort, ultima.getKeys()));
+        }
+        return new PaginaDTO<>(items, siguienteCursor, siguienteCursor != null);
+    }
+
+    /**
+     * Valida el orden pedido y lo lleva a la forma "campo,asc" o "campo,desc"
+     */
+    private String normalizarOrden(String sort, Map<String, Class<?>> camposOrden) {
+        String[] partes = (sort == null || sort.isBlank() ? "id" : sort.trim()).split(",");
+        String campo = partes[0].trim();
+        if (!camposOrden.containsKey(campo)) {
+            throw new IllegalArgumentException("No se puede ordenar por '" + campo + "'. Campos permitidos: "
+                    + camposOrden.keySet());
+        }
+        String direccion = partes.length > 1 ? partes[1].trim().toLowerCase() : "asc";
+        if (partes.length > 2 || !(direccion.equals("asc") || direccion.equals("desc"))) {
+            throw new IllegalArgumentException("Orden no válido: '" + sort + "'. Formato: campo o campo,desc");
+        }
+        return campo + "," + direccion;
+    }
+
+    private String codificar(Cursor cursor) {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(objectMapper.writeValueAsBytes(cursor));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo generar el cursor de la página", e);
+        }
+    }
+
+    private Map<String, Object> decodificar(String valor, String sort, Map<String, Class<?>> camposOrden) {
+        Cursor cursor;
+        try {
+            cursor = objectMapper.readValue(Base64.getUrlDecoder().decode(valor), Cursor.class);
+        } catch (IllegalArgumentException | IOException e) {
+            throw new IllegalArgumentException("Cursor no válido");
+        }
+        if (!sort.equals(cursor.sort()) || cursor.claves() == null) {
+            throw new IllegalArgumentException("El cursor corresponde a otro orden ('" + cursor.sort()
+                    + "'); se debe repetir el mismo sort en todas las páginas");
+        }
+        // Los valores vuelven del JSON como String/Integer/Double: se convierten al tipo del campo
+        Map<String, Object> claves = new LinkedHashMap<>();
+        for (String campo : List.of(sort.split(",")[0], "id")) {
+            Object valorCampo = cursor.claves().get(campo);
+            if (valorCampo == null) {
+                throw new IllegalArgumentException("Cursor no válido");
+            }
+            claves.put(campo, objectMapper.convertValue(valorCampo, camposOrden.get(campo)));
+        }
+        return claves;
+    }
+}
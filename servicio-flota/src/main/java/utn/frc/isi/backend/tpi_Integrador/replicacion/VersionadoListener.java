@@ -0,0 +1,32 @@
+package utn.frc.isi.backend.tpi_Integrador.replicacion;
+
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import org.springframework.stereotype.Component;
+import utn.frc.isi.backend.tpi_Integrador.models.Versionado;
+
+import java.time.LocalDateTime;
+
+/**
+ * Asigna una versión nueva a cada alta o modificación de una entidad replicada,
+ * cualquiera sea el camino por el que se guarde (CRUD, disponibilidad, lotes).
+ * Spring lo instancia para Hibernate, por eso puede recibir dependencias.
+ */
+@Component
+public class VersionadoListener {
+
+    private final VersionadorCambios versionadorCambios;
+
+    public VersionadoListener(VersionadorCambios versionadorCambios) {
+        this.versionadorCambios = versionadorCambios;
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void versionar(Object entidad) {
+        if (entidad instanceof Versionado versionado) {
+            versionado.setVersionCambio(versionadorCambios.siguiente());
+            versionado.setFechaActualizacion(LocalDateTime.now());
+        }
+    }
+}
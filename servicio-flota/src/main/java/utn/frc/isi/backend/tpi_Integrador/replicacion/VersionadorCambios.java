@@ -0,0 +1,193 @@
+package utn.frc.isi.backend.tpi_Integrador.replicacion;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import utn.frc.isi.backend.tpi_Integrador.dtos.CambiosDTO;
+import utn.frc.isi.backend.tpi_Integrador.models.EliminacionReplicada;
+import utn.frc.isi.backend.tpi_Integrador.models.InstanciaVersionador;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.function.ToLongFunction;
+
+/**
+ * Asigna las versiones globales del feed de cambios de camiones y depósitos.
+ *
+ * Las versiones se asignan dentro de la transacción que modifica la fila, pero las transacciones
+ * pueden confirmarse en otro orden. Para que un lector que avanza por versión no saltee cambios,
+ * el feed solo entrega hasta la "versión estable": la mayor versión por debajo de la cual no queda
+ * ninguna transacción en curso. Las versiones en curso se liberan al completar la transacción
+ * (commit o rollback).
+ *
+ * Supone una única instancia de servicio-flota escribiendo sobre la base: el contador y las
+ * versiones en curso viven en memoria, y una transacción en curso en otra JVM no frenaría la
+ * versión estable (un lector podría saltear su cambio). Para que no se rompa en silencio, la
+ * instancia toma una concesión en la tabla versionador_instancia y la renueva al asignar o leer
+ * versiones; si otra instancia la tiene vigente, o se la tomó tras vencer, las operaciones fallan
+ * con IllegalStateException. Escalar a varias instancias requiere llevar las versiones en curso
+ * a la base (no alcanza con una secuencia, que solo evita números repetidos).
+ *
+ * Consulta la base con JDBC sobre el DataSource y no con repositorios porque también lo usa
+ * {@link VersionadoListener}, que Hibernate instancia mientras se construye el EntityManagerFactory.
+ */
+@Slf4j
+@Component
+public class VersionadorCambios {
+
+    private final JdbcTemplate jdbcTemplate;
+    // La concesión se confirma aparte: no debe deshacerse con el rollback de la transacción que versiona
+    private final TransactionTemplate transaccionConcesion;
+    private final Duration duracionConcesion;
+    private final String instancia = UUID.randomUUID().toString();
+
+    // Estado protegido por this
+    private boolean inicializado;
+    private long ultimaVersion;
+    private final TreeSet<Long> enCurso = new TreeSet<>();
+    private LocalDateTime concesionRenovada;
+
+    public VersionadorCambios(DataSource dataSource,
+                              @Value("${replicacion.versionador.concesion-segundos:300}") long concesionSegundos) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transaccionConcesion = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        this.transaccionConcesion.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.duracionConcesion = Duration.ofSeconds(concesionSegundos);
+    }
+
+    /**
+     * Reserva la próxima versión. Si hay una transacción activa queda en curso hasta que termine.
+     */
+    public long siguiente() {
+        long version;
+        synchronized (this) {
+            asegurarConcesion();
+            inicializarSiHaceFalta();
+            version = ++ultimaVersion;
+            enCurso.add(version);
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    liberar(version);
+                }
+            });
+        } else {
+            liberar(version);
+        }
+        return version;
+    }
+
+    /**
+     * Mayor versión tal que todas las versiones menores o iguales ya están confirmadas o descartadas
+     */
+    public synchronized long versionEstable() {
+        asegurarConcesion();
+        inicializarSiHaceFalta();
+        return enCurso.isEmpty() ? ultimaVersion : enCurso.first() - 1;
+    }
+
+    /**
+     * Arma una página del feed combinando altas/modificaciones y bajas del rango (desde, hasta].
+     * Ambas listas vienen ordenadas por versión y acotadas al límite; si entre las dos lo superan
+     * se corta en la versión del elemento número "limite" y se informa que hay más.
+     */
+    public <T> CambiosDTO<T> armarCambios(long desde, long hasta, int limite, List<T> actualizados,
+                                          ToLongFunction<T> versionDe, List<EliminacionReplicada> eliminaciones) {
+        boolean completo = actualizados.size() < limite && eliminaciones.size() < limite
+                && actualizados.size() + eliminaciones.size() <= limite;
+        long corte = hasta;
+        if (!completo) {
+            List<Long> versiones = new ArrayList<>(actualizados.size() + eliminaciones.size());
+            actualizados.forEach(a -> versiones.add(versionDe.applyAsLong(a)));
+            eliminaciones.forEach(e -> versiones.add(e.getVersionCambio()));
+            versiones.sort(null);
+            corte = versiones.get(limite - 1);
+        }
+        long versionCorte = corte;
+        List<T> actualizadosHastaCorte = actualizados.stream()
+                .filter(a -> versionDe.applyAsLong(a) <= versionCorte)
+                .toList();
+        List<Long> eliminados = eliminaciones.stream()
+                .filter(e -> e.getVersionCambio() <= versionCorte)
+                .map(EliminacionReplicada::getEntidadId)
+                .toList();
+        return new CambiosDTO<>(desde, versionCorte, hasta, !completo, actualizadosHastaCorte, eliminados);
+    }
+
+    private synchronized void liberar(long version) {
+        enCurso.remove(version);
+    }
+
+    /**
+     * Renueva la concesión de instancia única cuando pasó la mitad de su duración, para no
+     * escribir en la base en cada versión asignada
+     */
+    private void asegurarConcesion() {
+        LocalDateTime ahora = LocalDateTime.now();
+        if (concesionRenovada != null && ahora.isBefore(concesionRenovada.plus(duracionConcesion.dividedBy(2)))) {
+            return;
+        }
+        boolean primera = concesionRenovada == null;
+        transaccionConcesion.executeWithoutResult(estado -> renovarConcesion(ahora, primera));
+        concesionRenovada = ahora;
+    }
+
+    /**
+     * Renueva la concesión propia; la primera vez también la toma si está vencida o no existe
+     * @throws IllegalStateException si la tiene otra instancia
+     */
+    private void renovarConcesion(LocalDateTime ahora, boolean primera) {
+        int renovadas = jdbcTemplate.update(
+                "UPDATE versionador_instancia SET instancia = ?, renovada = ? " +
+                "WHERE id = ? AND (instancia = ? OR (? AND renovada < ?))",
+                instancia, ahora, InstanciaVersionador.ID_UNICO, instancia,
+                primera, ahora.minus(duracionConcesion));
+        if (renovadas > 0) {
+            return;
+        }
+        if (!primera) {
+            throw new IllegalStateException("Otra instancia tomó la concesión del versionado de cambios; "
+                    + "esta instancia dejó de asignar versiones");
+        }
+        try {
+            jdbcTemplate.update("INSERT INTO versionador_instancia (id, instancia, renovada) VALUES (?, ?, ?)",
+                    InstanciaVersionador.ID_UNICO, instancia, ahora);
+        } catch (DuplicateKeyException e) {
+            throw new IllegalStateException("Otra instancia de servicio-flota tiene vigente la concesión del "
+                    + "versionado de cambios; el feed de cambios admite una sola instancia", e);
+        }
+        log.info("Concesión del versionado de cambios tomada por la instancia {}", instancia);
+    }
+
+    /**
+     * Toma como punto de partida la mayor versión existente (filas de data.sql o de una base persistente)
+     */
+    private void inicializarSiHaceFalta() {
+        if (inicializado) {
+            return;
+        }
+        Long maxima = jdbcTemplate.queryForObject(
+                "SELECT GREATEST(" +
+                "(SELECT COALESCE(MAX(version_cambio), 0) FROM camion), " +
+                "(SELECT COALESCE(MAX(version_cambio), 0) FROM deposito), " +
+                "(SELECT COALESCE(MAX(version_cambio), 0) FROM eliminaciones_replicadas))",
+                Long.class);
+        ultimaVersion = maxima != null ? maxima : 0;
+        inicializado = true;
+        log.info("Versionado de cambios inicializado en la versión {}", ultimaVersion);
+    }
+}
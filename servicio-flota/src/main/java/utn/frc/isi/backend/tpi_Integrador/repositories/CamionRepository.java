@@ -1,10 +1,13 @@
 package utn.frc.isi.backend.tpi_Integrador.repositories;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
 import utn.frc.isi.backend.tpi_Integrador.models.Camion;
 
+import java.util.List;
+
 @Repository // Buena práctica para indicar que es un componente de persistencia
 public interface CamionRepository extends JpaRepository<Camion, Long>, JpaSpecificationExecutor<Camion> {
     // Con solo esta línea, Spring Data JPA nos dará métodos como:
@@ -13,4 +16,9 @@ public interface CamionRepository extends JpaRepository<Camion, Long>, JpaSpecif
     // - findAll()
     // - deleteById()
     // ¡Y muchos más, sin necesidad de implementarlos!
+
+    /**
+     * Camiones modificados con versión en el rango (desde, hasta], en orden de versión (feed de cambios)
+     */
+    List<Camion> findByVersionCambioGreaterThanAndVersionCambioLessThanEqualOrderByVersionCambioAsc(long desde, long hasta, Pageable pageable);
 }
\ No newline at end of file
@@ -1,15 +1,24 @@
 package utn.frc.isi.backend.tpi_Integrador.repositories;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
 import utn.frc.isi.backend.tpi_Integrador.models.Deposito;
 
+import java.util.List;
+
 @Repository // Buena práctica para indicar que es un componente de persistencia
-public interface DepositoRepository extends JpaRepository<Deposito, Long> {
+public interface DepositoRepository extends JpaRepository<Deposito, Long>, JpaSpecificationExecutor<Deposito> {
     // Con solo esta línea, Spring Data JPA nos dará métodos como:
     // - save()
     // - findById()
     // - findAll()
     // - deleteById()
     // ¡Y muchos más, sin necesidad de implementarlos!
+
+    /**
+     * Depósitos modificados con versión en el rango (desde, hasta], en orden de versión (feed de cambios)
+     */
+    List<Deposito> findByVersionCambioGreaterThanAndVersionCambioLessThanEqualOrderByVersionCambioAsc(long desde, long hasta, Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package utn.frc.isi.backend.tpi_Integrador.repositories;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import utn.frc.isi.backend.tpi_Integrador.models.EliminacionReplicada;
+
+import java.util.List;
+
+@Repository
+public interface EliminacionReplicadaRepository extends JpaRepository<EliminacionReplicada, Long> {
+
+    /**
+     * Bajas de un tipo de entidad con versión en el rango (desde, hasta], en orden de versión
+     */
+    List<EliminacionReplicada> findByTipoAndVersionCambioGreaterThanAndVersionCambioLessThanEqualOrderByVersionCambioAsc(
+            String tipo, long desde, long hasta, Pageable pageable);
+}
@@ -2,17 +2,37 @@ package utn.frc.isi.backend.tpi_Integrador.services;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import utn.frc.isi.backend.tpi_Integrador.clients.OperacionesServiceClient;
+import utn.frc.isi.backend.tpi_Integrador.dtos.CambiosDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.CamionCreateDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.CamionDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.CamionReplicaDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.CamionUpdateDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.DisponibilidadLoteDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.DisponibilidadLoteResultadoDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.PaginaDTO;
 import utn.frc.isi.backend.tpi_Integrador.mappers.CamionMapper;
 import utn.frc.isi.backend.tpi_Integrador.models.Camion;
+import utn.frc.isi.backend.tpi_Integrador.models.EliminacionReplicada;
+import utn.frc.isi.backend.tpi_Integrador.paginacion.ConsultaPagina;
+import utn.frc.isi.backend.tpi_Integrador.paginacion.PaginadorKeyset;
+import utn.frc.isi.backend.tpi_Integrador.replicacion.VersionadorCambios;
 import utn.frc.isi.backend.tpi_Integrador.repositories.CamionRepository;
+import utn.frc.isi.backend.tpi_Integrador.repositories.EliminacionReplicadaRepository;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -23,21 +43,44 @@ public class CamionService {
 
     private final CamionRepository camionRepository;
     private final CamionMapper camionMapper;
+    private final OperacionesServiceClient operacionesServiceClient;
+    private final EliminacionReplicadaRepository eliminacionRepository;
+    private final VersionadorCambios versionadorCambios;
+    private final PaginadorKeyset paginadorKeyset;
+
+    // Campos por los que se puede ordenar el listado (no nulos)
+    private static final Map<String, Class<?>> CAMPOS_ORDEN = Map.of(
+            "id", Long.class, "dominio", String.class, "capacidadPeso", Double.class, "costoPorKm", Double.class);
 
     // Inyección de dependencias a través del constructor (práctica recomendada)
-    public CamionService(CamionRepository camionRepository, CamionMapper camionMapper) {
+    public CamionService(CamionRepository camionRepository, CamionMapper camionMapper,
+                         OperacionesServiceClient operacionesServiceClient,
+                         EliminacionReplicadaRepository eliminacionRepository,
+                         VersionadorCambios versionadorCambios,
+                         PaginadorKeyset paginadorKeyset) {
         this.camionRepository = camionRepository;
         this.camionMapper = camionMapper;
+        this.operacionesServiceClient = operacionesServiceClient;
+        this.eliminacionRepository = eliminacionRepository;
+        this.versionadorCambios = versionadorCambios;
+        this.paginadorKeyset = paginadorKeyset;
     }
 
-    public List<CamionDTO> obtenerTodos() {
-        logger.info("Obteniendo todos los camiones");
-        List<CamionDTO> camiones = camionRepository.findAll()
-                .stream()
-                .map(camionMapper::toDTO)
-                .collect(Collectors.toList());
-        logger.info("Se encontraron {} camiones", camiones.size());
-        return camiones;
+    /**
+     * Lista los camiones de a una página (paginación por keyset, ver PaginadorKeyset)
+     * @param disponible si no es null, solo los camiones con esa disponibilidad
+     * @param pagina cursor, tamaño de página y orden
+     */
+    public PaginaDTO<CamionDTO> listar(Boolean disponible, ConsultaPagina pagina) {
+        logger.info("Listando camiones (disponible: {})", disponible);
+        Specification<Camion> filtro = (root, query, cb) -> cb.conjunction();
+        if (disponible != null) {
+            filtro = filtro.and((root, query, cb) -> cb.equal(root.get("disponible"), disponible));
+        }
+        PaginaDTO<CamionDTO> resultado = paginadorKeyset.paginar(camionRepository, filtro, pagina, CAMPOS_ORDEN,
+                camionMapper::toDTO);
+        logger.info("Se devolvieron {} camiones (hay más: {})", resultado.getItems().size(), resultado.isHayMas());
+        return resultado;
     }
 
     public Optional<CamionDTO> obtenerPorId(Long id) {
@@ -50,6 +93,24 @@ public class CamionService {
         return camionOpt;
     }
 
+    /**
+     * Obtener varios camiones por ID con una sola consulta
+     * @param ids IDs de los camiones (los repetidos se consultan una vez)
+     * @return mapa ID -> camión; los IDs inexistentes no aparecen
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, CamionDTO> obtenerPorIds(Collection<Long> ids) {
+        logger.debug("Buscando {} camiones por ID", ids.size());
+        Map<Long, CamionDTO> camiones = camionRepository.findAllById(new HashSet<>(ids))
+                .stream()
+                .map(camionMapper::toDTO)
+                .collect(Collectors.toMap(CamionDTO::getId, camion -> camion));
+        if (camiones.size() < ids.size()) {
+            logger.debug("Se encontraron {} de {} camiones solicitados", camiones.size(), ids.size());
+        }
+        return camiones;
+    }
+
     public CamionDTO crearCamion(CamionCreateDTO dto) {
         logger.info("Creando nuevo camion con dominio: {}", dto.getDominio());
         // Aquí podríamos agregar lógica de negocio.
@@ -74,13 +135,21 @@ public class CamionService {
         camionMapper.updateEntity(dto, camion);
         Camion camionActualizado = camionRepository.save(camion);
         logger.info("Camion con ID: {} actualizado exitosamente", id);
+        notificarCambioDespuesDelCommit(id);
         return camionMapper.toDTO(camionActualizado);
     }
 
+    @Transactional
     public void eliminarCamion(Long id) {
         logger.info("Eliminando camion con ID: {}", id);
+        if (camionRepository.existsById(id)) {
+            // Marca de baja para que servicio-operaciones la reciba en el feed de cambios
+            eliminacionRepository.save(new EliminacionReplicada(null, EliminacionReplicada.TIPO_CAMION, id,
+                    versionadorCambios.siguiente(), LocalDateTime.now()));
+        }
         camionRepository.deleteById(id);
         logger.info("Camion con ID: {} eliminado exitosamente", id);
+        notificarCambioDespuesDelCommit(id);
     }
 
     /**
@@ -140,4 +209,78 @@ public class CamionService {
             return Optional.empty(); // Camión no encontrado
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Actualiza la disponibilidad de varios camiones en una sola transacción
+     * Usado por servicio-operaciones para entregar en lote los cambios de disponibilidad pendientes.
+     * Si un camión aparece más de una vez, prevalece el último valor.
+     * 
+     * @param cambios lista de camión/disponibilidad
+     * @return IDs actualizados y IDs inexistentes
+     */
+    @Transactional
+    public DisponibilidadLoteResultadoDTO actualizarDisponibilidadLote(List<DisponibilidadLoteDTO> cambios) {
+        Map<Long, Boolean> disponibilidadPorCamion = new LinkedHashMap<>();
+        for (DisponibilidadLoteDTO cambio : cambios) {
+            disponibilidadPorCamion.put(cambio.getCamionId(), cambio.getDisponible());
+        }
+        logger.info("Actualizando disponibilidad de {} camiones en lote", disponibilidadPorCamion.size());
+        
+        List<Camion> camiones = camionRepository.findAllById(disponibilidadPorCamion.keySet());
+        List<Long> actualizados = new ArrayList<>();
+        for (Camion camion : camiones) {
+            camion.setDisponible(disponibilidadPorCamion.get(camion.getId()));
+            actualizados.add(camion.getId());
+        }
+        camionRepository.saveAll(camiones);
+        
+        List<Long> noEncontrados = disponibilidadPorCamion.keySet().stream()
+                .filter(id -> !actualizados.contains(id))
+                .toList();
+        if (!noEncontrados.isEmpty()) {
+            logger.warn("Camiones no encontrados al actualizar disponibilidad en lote: {}", noEncontrados);
+        }
+        return new DisponibilidadLoteResultadoDTO(actualizados, noEncontrados);
+    }
+
+    /**
+     * Feed de cambios de camiones para la réplica de servicio-operaciones
+     * @param desdeVersion última versión ya aplicada por el consumidor (0 = snapshot completo)
+     * @param limite cantidad máxima de cambios de la página
+     * @return altas/modificaciones y bajas con versión mayor a desdeVersion, hasta la versión estable
+     */
+    @Transactional(readOnly = true)
+    public CambiosDTO<CamionReplicaDTO> obtenerCambios(long desdeVersion, int limite) {
+        long hasta = versionadorCambios.versionEstable();
+        List<CamionReplicaDTO> actualizados = camionRepository
+                .findByVersionCambioGreaterThanAndVersionCambioLessThanEqualOrderByVersionCambioAsc(desdeVersion, hasta, PageRequest.of(0, limite))
+                .stream()
+                .map(camionMapper::toReplicaDTO)
+                .toList();
+        List<EliminacionReplicada> eliminaciones = eliminacionRepository
+                .findByTipoAndVersionCambioGreaterThanAndVersionCambioLessThanEqualOrderByVersionCambioAsc(
+                        EliminacionReplicada.TIPO_CAMION, desdeVersion, hasta, PageRequest.of(0, limite));
+        CambiosDTO<CamionReplicaDTO> cambios = versionadorCambios.armarCambios(desdeVersion, hasta, limite,
+                actualizados, CamionReplicaDTO::getVersionCambio, eliminaciones);
+        logger.debug("Feed de camiones desde la versión {}: {} actualizados, {} eliminados, hasta {}",
+                desdeVersion, cambios.getActualizados().size(), cambios.getEliminados().size(), cambios.getVersionHasta());
+        return cambios;
+    }
+
+    /**
+     * Avisa a servicio-operaciones que el camión cambió, una vez confirmada la transacción
+     * (la disponibilidad no se avisa: no forma parte de los parámetros de costo cacheados)
+     */
+    private void notificarCambioDespuesDelCommit(Long camionId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            operacionesServiceClient.notificarCambioCamion(camionId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                operacionesServiceClient.notificarCambioCamion(camionId);
+            }
+        });
+    }
+}
@@ -2,17 +2,28 @@ package utn.frc.isi.backend.tpi_Integrador.services;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import utn.frc.isi.backend.tpi_Integrador.dtos.CambiosDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.DepositoCreateDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.DepositoDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.DepositoReplicaDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.DepositoUpdateDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.PaginaDTO;
 import utn.frc.isi.backend.tpi_Integrador.mappers.DepositoMapper;
 import utn.frc.isi.backend.tpi_Integrador.models.Deposito;
+import utn.frc.isi.backend.tpi_Integrador.models.EliminacionReplicada;
+import utn.frc.isi.backend.tpi_Integrador.paginacion.ConsultaPagina;
+import utn.frc.isi.backend.tpi_Integrador.paginacion.PaginadorKeyset;
+import utn.frc.isi.backend.tpi_Integrador.replicacion.VersionadorCambios;
 import utn.frc.isi.backend.tpi_Integrador.repositories.DepositoRepository;
+import utn.frc.isi.backend.tpi_Integrador.repositories.EliminacionReplicadaRepository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service // Marca esta clase como un componente de servicio de Spring
 public class DepositoService {
@@ -21,21 +32,35 @@ public class DepositoService {
 
     private final DepositoRepository depositoRepository;
     private final DepositoMapper depositoMapper;
+    private final EliminacionReplicadaRepository eliminacionRepository;
+    private final VersionadorCambios versionadorCambios;
+    private final PaginadorKeyset paginadorKeyset;
+
+    // Campos por los que se puede ordenar el listado (no nulos)
+    private static final Map<String, Class<?>> CAMPOS_ORDEN = Map.of("id", Long.class, "nombre", String.class);
 
     // Inyección de dependencias a través del constructor (práctica recomendada)
-    public DepositoService(DepositoRepository depositoRepository, DepositoMapper depositoMapper) {
+    public DepositoService(DepositoRepository depositoRepository, DepositoMapper depositoMapper,
+                           EliminacionReplicadaRepository eliminacionRepository,
+                           VersionadorCambios versionadorCambios,
+                           PaginadorKeyset paginadorKeyset) {
         this.depositoRepository = depositoRepository;
         this.depositoMapper = depositoMapper;
+        this.eliminacionRepository = eliminacionRepository;
+        this.versionadorCambios = versionadorCambios;
+        this.paginadorKeyset = paginadorKeyset;
     }
 
-    public List<DepositoDTO> obtenerTodos() {
-        logger.info("Obteniendo todos los depositos");
-        List<DepositoDTO> depositos = depositoRepository.findAll()
-                .stream()
-                .map(depositoMapper::toDTO)
-                .collect(Collectors.toList());
-        logger.info("Se encontraron {} depositos", depositos.size());
-        return depositos;
+    /**
+     * Lista los depósitos de a una página (paginación por keyset, ver PaginadorKeyset)
+     * @param pagina cursor, tamaño de página y orden
+     */
+    public PaginaDTO<DepositoDTO> listar(ConsultaPagina pagina) {
+        logger.info("Listando depositos");
+        PaginaDTO<DepositoDTO> resultado = paginadorKeyset.paginar(depositoRepository, (root, query, cb) -> cb.conjunction(),
+                pagina, CAMPOS_ORDEN, depositoMapper::toDTO);
+        logger.info("Se devolvieron {} depositos (hay más: {})", resultado.getItems().size(), resultado.isHayMas());
+        return resultado;
     }
 
     public Optional<DepositoDTO> obtenerPorId(Long id) {
@@ -75,11 +100,38 @@ public class DepositoService {
         return depositoMapper.toDTO(depositoActualizado);
     }
 
+    @Transactional
     public void eliminarDeposito(Long id) {
         logger.info("Eliminando deposito con ID: {}", id);
+        if (depositoRepository.existsById(id)) {
+            // Marca de baja para que servicio-operaciones la reciba en el feed de cambios
+            eliminacionRepository.save(new EliminacionReplicada(null, EliminacionReplicada.TIPO_DEPOSITO, id,
+                    versionadorCambios.siguiente(), LocalDateTime.now()));
+        }
         depositoRepository.deleteById(id);
         logger.info("Deposito con ID: {} eliminado exitosamente", id);
     }
+
+    /**
+     * Feed de cambios de depósitos para la réplica de servicio-operaciones
+     * @param desdeVersion última versión ya aplicada por el consumidor (0 = snapshot completo)
+     * @param limite cantidad máxima de cambios de la página
+     * @return altas/modificaciones y bajas con versión mayor a desdeVersion, hasta la versión estable
+     */
+    @Transactional(readOnly = true)
+    public CambiosDTO<DepositoReplicaDTO> obtenerCambios(long desdeVersion, int limite) {
+        long hasta = versionadorCambios.versionEstable();
+        List<DepositoReplicaDTO> actualizados = depositoRepository
+                .findByVersionCambioGreaterThanAndVersionCambioLessThanEqualOrderByVersionCambioAsc(desdeVersion, hasta, PageRequest.of(0, limite))
+                .stream()
+                .map(depositoMapper::toReplicaDTO)
+                .toList();
+        List<EliminacionReplicada> eliminaciones = eliminacionRepository
+                .findByTipoAndVersionCambioGreaterThanAndVersionCambioLessThanEqualOrderByVersionCambioAsc(
+                        EliminacionReplicada.TIPO_DEPOSITO, desdeVersion, hasta, PageRequest.of(0, limite));
+        return versionadorCambios.armarCambios(desdeVersion, hasta, limite,
+                actualizados, DepositoReplicaDTO::getVersionCambio, eliminaciones);
+    }
     
     // Aquí se podrían agregar más métodos de negocio en el futuro,
     // como buscarDepositosPorUbicacion(double latitud, double longitud, double radio), etc.
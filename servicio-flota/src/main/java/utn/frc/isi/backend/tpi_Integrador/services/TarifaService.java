@@ -3,17 +3,31 @@ package utn.frc.isi.backend.tpi_Integrador.services;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import utn.frc.isi.backend.tpi_Integrador.cache.IndiceVigenciaTarifas;
+import utn.frc.isi.backend.tpi_Integrador.clients.OperacionesServiceClient;
 import utn.frc.isi.backend.tpi_Integrador.dtos.TarifaCreateDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.TarifaUpdateDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.TarifaDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.TarifasVigentesDTO;
 import utn.frc.isi.backend.tpi_Integrador.mappers.TarifaMapper;
 import utn.frc.isi.backend.tpi_Integrador.models.Tarifa;
 import utn.frc.isi.backend.tpi_Integrador.repositories.TarifaRepository;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 @Transactional
@@ -23,10 +37,19 @@ public class TarifaService {
 
     private final TarifaRepository tarifaRepository;
     private final TarifaMapper tarifaMapper;
+    private final OperacionesServiceClient operacionesServiceClient;
+    private final IndiceVigenciaTarifas indiceVigenciaTarifas;
 
-    public TarifaService(TarifaRepository tarifaRepository, TarifaMapper tarifaMapper) {
+    // Tarifa activa publicada después de cada commit que la modifica; null hasta la primera lectura
+    private final AtomicReference<TarifaActiva> tarifaActiva = new AtomicReference<>();
+
+    public TarifaService(TarifaRepository tarifaRepository, TarifaMapper tarifaMapper,
+                         OperacionesServiceClient operacionesServiceClient,
+                         IndiceVigenciaTarifas indiceVigenciaTarifas) {
         this.tarifaRepository = tarifaRepository;
         this.tarifaMapper = tarifaMapper;
+        this.operacionesServiceClient = operacionesServiceClient;
+        this.indiceVigenciaTarifas = indiceVigenciaTarifas;
     }
 
     /**
@@ -35,7 +58,7 @@ public class TarifaService {
      */
     @Transactional(readOnly = true)
     public Optional<Tarifa> obtenerTarifaActiva() {
-        logger.info("Obteniendo tarifa activa del sistema");
+        logger.debug("Obteniendo tarifa activa del sistema (entidad)");
         Optional<Tarifa> tarifaOpt = tarifaRepository.findByActiva(true);
         if (tarifaOpt.isEmpty()) {
             logger.warn("No se encontró tarifa activa en el sistema");
@@ -44,14 +67,28 @@ public class TarifaService {
     }
 
     /**
-     * Obtener la tarifa activa del sistema como DTO
+     * Obtener la tarifa activa del sistema como DTO.
+     * Se sirve desde la tarifa publicada en memoria, sin acceso a la base de datos;
+     * el DTO devuelto es compartido y no debe modificarse.
      * @return Optional con el DTO de la tarifa activa si existe
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Optional<TarifaDTO> obtenerTarifaActivaDTO() {
-        logger.info("Obteniendo tarifa activa del sistema (DTO)");
-        return tarifaRepository.findByActiva(true)
-                .map(tarifaMapper::toDTO);
+        return Optional.ofNullable(tarifaActivaPublicada().tarifa());
+    }
+
+    /**
+     * Obtener la tarifa activa publicada junto con su ETag precalculado
+     * @return la tarifa activa publicada (con tarifa null si no hay activa)
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public TarifaActiva tarifaActivaPublicada() {
+        TarifaActiva actual = tarifaActiva.get();
+        if (actual == null) {
+            // Primera lectura: todavía no se publicó ninguna tarifa
+            actual = publicarTarifaActiva();
+        }
+        return actual;
     }
 
     /**
@@ -78,6 +115,30 @@ public class TarifaService {
                 .toList();
     }
 
+    /**
+     * Resolver la tarifa vigente en cada una de las fechas indicadas (recálculo histórico).
+     * Se resuelve contra el índice en memoria, sin consultas por fecha.
+     * @param fechas fechas a resolver
+     * @return DTO con el ID de la tarifa vigente por fecha (mismo orden) y las tarifas involucradas
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public TarifasVigentesDTO obtenerVigentesEnFechas(List<LocalDateTime> fechas) {
+        if (!indiceVigenciaTarifas.construido()) {
+            reconstruirIndice();
+        }
+        List<TarifaDTO> vigentes = indiceVigenciaTarifas.vigentesEn(fechas);
+        List<Long> tarifaIds = new ArrayList<>(vigentes.size());
+        Map<Long, TarifaDTO> tarifas = new LinkedHashMap<>();
+        for (TarifaDTO tarifa : vigentes) {
+            tarifaIds.add(tarifa != null ? tarifa.getId() : null);
+            if (tarifa != null) {
+                tarifas.putIfAbsent(tarifa.getId(), tarifa);
+            }
+        }
+        logger.debug("Tarifas vigentes resueltas para {} fechas ({} tarifas distintas)", fechas.size(), tarifas.size());
+        return new TarifasVigentesDTO(tarifaIds, tarifas);
+    }
+
     /**
      * Obtener tarifa por ID
      * @param id ID de la tarifa
@@ -126,6 +187,7 @@ public class TarifaService {
         
         Tarifa tarifaGuardada = tarifaRepository.save(tarifa);
         logger.info("Tarifa creada exitosamente con ID: {}", tarifaGuardada.getId());
+        notificarCambioDespuesDelCommit();
         return tarifaGuardada;
     }
 
@@ -144,6 +206,7 @@ public class TarifaService {
         
         Tarifa tarifaGuardada = tarifaRepository.save(tarifa);
         logger.info("Tarifa creada exitosamente con ID: {}", tarifaGuardada.getId());
+        notificarCambioDespuesDelCommit();
         return tarifaMapper.toDTO(tarifaGuardada);
     }
 
@@ -180,6 +243,7 @@ public class TarifaService {
                     
                     Tarifa guardada = tarifaRepository.save(tarifaExistente);
                     logger.info("Tarifa con ID: {} actualizada exitosamente", id);
+                    notificarCambioDespuesDelCommit();
                     return guardada;
                 });
     }
@@ -205,6 +269,7 @@ public class TarifaService {
                     
                     Tarifa tarifaGuardada = tarifaRepository.save(tarifaExistente);
                     logger.info("Tarifa con ID: {} actualizada exitosamente", id);
+                    notificarCambioDespuesDelCommit();
                     return tarifaMapper.toDTO(tarifaGuardada);
                 });
     }
@@ -225,6 +290,7 @@ public class TarifaService {
                     }
                     tarifaRepository.deleteById(id);
                     logger.info("Tarifa con ID: {} eliminada exitosamente", id);
+                    notificarCambioDespuesDelCommit();
                     return true;
                 })
                 .orElseGet(() -> {
@@ -248,15 +314,93 @@ public class TarifaService {
                 });
     }
 
+    /**
+     * Publica la nueva tarifa activa, reconstruye el índice de vigencias y avisa a
+     * servicio-operaciones, una vez confirmada la transacción (si se hiciera antes,
+     * se publicaría un estado que todavía puede revertirse)
+     */
+    private void notificarCambioDespuesDelCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publicarCambios();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publicarCambios();
+            }
+        });
+    }
+
+    private void publicarCambios() {
+        publicarTarifaActiva();
+        reconstruirIndice();
+        operacionesServiceClient.notificarCambioTarifa();
+    }
+
+    private void reconstruirIndice() {
+        synchronized (indiceVigenciaTarifas) {
+            indiceVigenciaTarifas.reconstruir(tarifaRepository.findAll().stream()
+                    .map(tarifaMapper::toDTO)
+                    .toList());
+        }
+    }
+
+    /**
+     * Relee la tarifa activa confirmada y la publica para las lecturas.
+     * Las publicaciones se serializan para que la última en ejecutarse sea la que
+     * leyó el estado más reciente; las lecturas no toman ningún lock.
+     */
+    private TarifaActiva publicarTarifaActiva() {
+        synchronized (tarifaActiva) {
+            TarifaDTO tarifaDTO = tarifaRepository.findByActiva(true)
+                    .map(tarifaMapper::toDTO)
+                    .orElse(null);
+            TarifaActiva publicada = new TarifaActiva(tarifaDTO, tarifaDTO != null ? etag(tarifaDTO) : null);
+            tarifaActiva.set(publicada);
+            if (tarifaDTO != null) {
+                logger.info("Tarifa activa publicada: ID {} (ETag {})", tarifaDTO.getId(), publicada.etag());
+            } else {
+                logger.warn("No hay tarifa activa para publicar");
+            }
+            return publicada;
+        }
+    }
+
+    /**
+     * ETag de la tarifa: ID más un hash SHA-256 (64 bits) de los valores que intervienen
+     * en el precio y su vigencia, enumerados explícitamente para que no dependa de
+     * equals/hashCode del DTO ni de campos que se agreguen después
+     */
+    static String etag(TarifaDTO tarifaDTO) {
+        String valores = String.join("|",
+                Double.toString(tarifaDTO.getCostoKmBase()),
+                Double.toString(tarifaDTO.getPrecioLitroCombustible()),
+                Double.toString(tarifaDTO.getCargoGestionPorTramo()),
+                Double.toString(tarifaDTO.getCostoEstadiaDiaria()),
+                String.valueOf(tarifaDTO.getVigenciaDesde()),
+                String.valueOf(tarifaDTO.getVigenciaHasta()));
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(valores.getBytes(StandardCharsets.UTF_8));
+            return "\"" + tarifaDTO.getId() + "-" + HexFormat.of().formatHex(hash, 0, 8) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    /**
+     * Tarifa activa publicada (inmutable una vez publicada) con su ETag para respuestas condicionales
+     */
+    public record TarifaActiva(TarifaDTO tarifa, String etag) {
+    }
+
     /**
      * Verificar si existe una tarifa activa en el sistema
      * @return true si existe una tarifa activa
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public boolean existeTarifaActiva() {
         logger.debug("Verificando si existe tarifa activa");
-        boolean existe = tarifaRepository.existsByActiva(true);
-        logger.info("Existe tarifa activa: {}", existe);
-        return existe;
+        return tarifaActivaPublicada().tarifa() != null;
     }
 }
\ No newline at end of file
@@ -0,0 +1,128 @@
+package utn.frc.isi.backend.tpi_Integrador.cache;
+
+import org.junit.jupiter.api.Test;
+import utn.frc.isi.backend.tpi_Integrador.dtos.TarifaDTO;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IndiceVigenciaTarifasTests {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    private static TarifaDTO tarifa(long id, LocalDateTime desde, LocalDateTime hasta) {
+        return new TarifaDTO(id, 100, 850, 5000, 2500, desde, hasta, hasta == null);
+    }
+
+    private static Long idVigente(IndiceVigenciaTarifas indice, LocalDateTime fecha) {
+        return indice.vigenteEn(fecha).map(TarifaDTO::getId).orElse(null);
+    }
+
+    @Test
+    void losLimitesDeLaVigenciaSonInclusivos() {
+        IndiceVigenciaTarifas indice = new IndiceVigenciaTarifas();
+        indice.reconstruir(List.of(tarifa(1, BASE, BASE.plusDays(10))));
+
+        assertNull(idVigente(indice, BASE.minusNanos(1)));
+        assertEquals(1L, idVigente(indice, BASE));
+        assertEquals(1L, idVigente(indice, BASE.plusDays(10)));
+        assertNull(idVigente(indice, BASE.plusDays(10).plusNanos(1)));
+    }
+
+    @Test
+    void enLasSuperposicionesGanaLaDeVigenciaDesdeMasReciente() {
+        IndiceVigenciaTarifas indice = new IndiceVigenciaTarifas();
+        indice.reconstruir(List.of(
+                tarifa(1, BASE, null),                              // abierta
+                tarifa(2, BASE.plusDays(10), BASE.plusDays(20)),    // dentro de la 1
+                tarifa(3, BASE.plusDays(15), BASE.plusDays(16))));  // dentro de la 2
+
+        assertEquals(1L, idVigente(indice, BASE.plusDays(5)));
+        assertEquals(2L, idVigente(indice, BASE.plusDays(10)));
+        assertEquals(3L, idVigente(indice, BASE.plusDays(15)));
+        assertEquals(3L, idVigente(indice, BASE.plusDays(16)));
+        // Vencida la 3 vuelve a regir la 2, y vencida la 2, la 1 (abierta)
+        assertEquals(2L, idVigente(indice, BASE.plusDays(16).plusNanos(1)));
+        assertEquals(1L, idVigente(indice, BASE.plusDays(20).plusNanos(1)));
+        assertEquals(1L, idVigente(indice, BASE.plusYears(50)));
+    }
+
+    @Test
+    void conLaMismaVigenciaDesdeGanaLaDeMayorId() {
+        IndiceVigenciaTarifas indice = new IndiceVigenciaTarifas();
+        indice.reconstruir(List.of(tarifa(7, BASE, BASE.plusDays(1)), tarifa(3, BASE, BASE.plusDays(1))));
+
+        assertEquals(7L, idVigente(indice, BASE));
+    }
+
+    @Test
+    void huecosEntreTarifasYFechasNulas() {
+        IndiceVigenciaTarifas indice = new IndiceVigenciaTarifas();
+        indice.reconstruir(List.of(
+                tarifa(1, BASE, BASE.plusDays(1)),
+                tarifa(2, BASE.plusDays(3), BASE.plusDays(4)),
+                tarifa(3, null, null)));                            // sin vigenciaDesde: se ignora
+
+        assertNull(idVigente(indice, BASE.plusDays(2)));
+        assertNull(idVigente(indice, BASE.minusYears(1)));
+        assertEquals(Arrays.asList(1L, null, 2L, null),
+                indice.vigentesEn(Arrays.asList(BASE, BASE.plusDays(2), BASE.plusDays(4), null)).stream()
+                        .map(t -> t != null ? t.getId() : null).toList());
+    }
+
+    @Test
+    void indiceSinConstruirNoResuelve() {
+        IndiceVigenciaTarifas indice = new IndiceVigenciaTarifas();
+
+        assertFalse(indice.construido());
+        assertThrows(IllegalStateException.class, () -> indice.vigenteEn(BASE));
+        indice.reconstruir(List.of());
+        assertTrue(indice.construido());
+        assertNull(idVigente(indice, BASE));
+    }
+
+    @Test
+    void coincideConLaBusquedaLinealEnRangosAleatorios() {
+        Random random = new Random(13);
+        for (int caso = 0; caso < 200; caso++) {
+            List<TarifaDTO> tarifas = new ArrayList<>();
+            int cantidad = random.nextInt(12);
+            for (long id = 1; id <= cantidad; id++) {
+                LocalDateTime desde = BASE.plusDays(random.nextInt(60));
+                LocalDateTime hasta = random.nextInt(4) == 0 ? null : desde.plusDays(random.nextInt(30));
+                tarifas.add(tarifa(id, desde, hasta));
+            }
+            IndiceVigenciaTarifas indice = new IndiceVigenciaTarifas();
+            indice.reconstruir(tarifas);
+
+            for (int dia = -1; dia <= 100; dia++) {
+                // Cada día, justo en los límites y entre medio
+                for (LocalDateTime fecha : List.of(BASE.plusDays(dia), BASE.plusDays(dia).plusHours(12), BASE.plusDays(dia).minusNanos(1))) {
+                    assertEquals(idLineal(tarifas, fecha), idVigente(indice, fecha), "caso " + caso + " fecha " + fecha);
+                }
+            }
+        }
+    }
+
+    /**
+     * Criterio de referencia: vigente si desde &lt;= fecha &lt;= hasta; gana la de desde más reciente y luego mayor id
+     */
+    private static Long idLineal(List<TarifaDTO> tarifas, LocalDateTime fecha) {
+        return tarifas.stream()
+                .filter(t -> !t.getVigenciaDesde().isAfter(fecha))
+                .filter(t -> t.getVigenciaHasta() == null || !t.getVigenciaHasta().isBefore(fecha))
+                .max(Comparator.comparing(TarifaDTO::getVigenciaDesde).thenComparing(TarifaDTO::getId))
+                .map(TarifaDTO::getId)
+                .orElse(null);
+    }
+}
@@ -0,0 +1,80 @@
+package utn.frc.isi.backend.tpi_Integrador.controllers;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import utn.frc.isi.backend.tpi_Integrador.dtos.CambiosDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.CamionDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.CamionReplicaDTO;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Negociación de application/cbor en las llamadas de alto volumen que hace servicio-operaciones.
+ * Se prueba el formato, no la seguridad: los filtros están deshabilitados.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:camion-controller-cbor")
+@AutoConfigureMockMvc(addFilters = false)
+class CamionControllerCborTests {
+
+    private final ObjectMapper cbor = Jackson2ObjectMapperBuilder.cbor().build();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void consultaPorLoteEnCbor() throws Exception {
+        MvcResult resultado = mockMvc.perform(post("/api/camiones/batch")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(cbor.writeValueAsBytes(Map.of("ids", List.of(1L, 2L, 999L)))))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        Map<Long, CamionDTO> camiones = cbor.readValue(resultado.getResponse().getContentAsByteArray(),
+                new TypeReference<Map<Long, CamionDTO>>() {});
+        assertEquals(Set.of(1L, 2L), camiones.keySet());
+        assertEquals(1L, camiones.get(1L).getId());
+        assertFalse(camiones.get(1L).getDominio().isBlank());
+    }
+
+    @Test
+    void feedDeCambiosEnCbor() throws Exception {
+        MvcResult resultado = mockMvc.perform(get("/api/camiones/changes")
+                        .param("sinceVersion", "0")
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        CambiosDTO<CamionReplicaDTO> cambios = cbor.readValue(resultado.getResponse().getContentAsByteArray(),
+                new TypeReference<CambiosDTO<CamionReplicaDTO>>() {});
+        assertFalse(cambios.getActualizados().isEmpty());
+        assertTrue(cambios.getVersionHasta() > 0);
+    }
+
+    @Test
+    void sinAcceptCborSigueRespondiendoJson() throws Exception {
+        mockMvc.perform(get("/api/camiones/changes").param("sinceVersion", "0"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+}
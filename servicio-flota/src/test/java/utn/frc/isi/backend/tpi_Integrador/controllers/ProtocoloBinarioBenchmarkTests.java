@@ -0,0 +1,109 @@
+package utn.frc.isi.backend.tpi_Integrador.controllers;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import utn.frc.isi.backend.tpi_Integrador.dtos.CambiosDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.CamionDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.CamionReplicaDTO;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tamaño de payload y CPU de serialización JSON vs CBOR en las llamadas de alto volumen entre
+ * servicio-operaciones y servicio-flota: una página del feed de cambios de camiones
+ * (CambiosDTO&lt;CamionReplicaDTO&gt;, 500 cambios) y una respuesta de /api/camiones/batch
+ * (200 camiones). Usa los mismos mappers que arma Spring MVC para cada formato.
+ * No corre con mvn test; se corre con mvn test -Pbenchmark.
+ */
+@Tag("benchmark")
+class ProtocoloBinarioBenchmarkTests {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProtocoloBinarioBenchmarkTests.class);
+
+    private static final int CALENTAMIENTO = 5_000;
+    private static final int MEDICIONES = 20_000;
+
+    private final ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectMapper cbor = Jackson2ObjectMapperBuilder.cbor().build();
+
+    @Test
+    void paginaDelFeedDeCambios() throws IOException {
+        Random random = new Random(1);
+        List<CamionReplicaDTO> actualizados = new ArrayList<>();
+        for (long id = 1; id <= 500; id++) {
+            actualizados.add(new CamionReplicaDTO(id, dominio(random), 10_000 + random.nextInt(20_000),
+                    30 + random.nextInt(60), 0.2 + random.nextDouble() * 0.2, 80 + random.nextDouble() * 60,
+                    random.nextBoolean(), 1_000 + id));
+        }
+        CambiosDTO<CamionReplicaDTO> pagina = new CambiosDTO<>(1_000, 1_500, 2_000, true, actualizados, List.of(7L, 8L, 9L));
+
+        comparar("changes x500", pagina, new TypeReference<CambiosDTO<CamionReplicaDTO>>() {});
+    }
+
+    @Test
+    void respuestaDeLaConsultaPorLote() throws IOException {
+        Random random = new Random(2);
+        Map<Long, CamionDTO> camiones = new LinkedHashMap<>();
+        for (long id = 1; id <= 200; id++) {
+            camiones.put(id, new CamionDTO(id, dominio(random), "Transportista " + id, "351-555-" + (1000 + id),
+                    10_000 + random.nextInt(20_000), 30 + random.nextInt(60), 0.2 + random.nextDouble() * 0.2,
+                    random.nextBoolean(), 80 + random.nextDouble() * 60));
+        }
+
+        comparar("batch x200", camiones, new TypeReference<Map<Long, CamionDTO>>() {});
+    }
+
+    private <T> void comparar(String caso, T valor, TypeReference<T> tipo) throws IOException {
+        for (ObjectMapper mapper : List.of(json, cbor)) {
+            byte[] bytes = mapper.writeValueAsBytes(valor);
+            assertEquals(valor, mapper.readValue(bytes, tipo), caso);
+
+            for (int i = 0; i < CALENTAMIENTO; i++) {
+                mapper.readValue(mapper.writeValueAsBytes(valor), tipo);
+            }
+            long tamanio = 0;
+            long inicio = System.nanoTime();
+            for (int i = 0; i < MEDICIONES; i++) {
+                tamanio += mapper.writeValueAsBytes(valor).length;
+            }
+            long nanosSerializacion = System.nanoTime() - inicio;
+            inicio = System.nanoTime();
+            for (int i = 0; i < MEDICIONES; i++) {
+                tamanio += mapper.readValue(bytes, tipo).hashCode() & 1;
+            }
+            long nanosDeserializacion = System.nanoTime() - inicio;
+
+            assertTrue(tamanio > 0);
+
+            logger.info("{} {}: {} bytes, serialización {} µs, deserialización {} µs",
+                    caso, mapper == json ? "JSON" : "CBOR", bytes.length,
+                    String.format("%.1f", nanosSerializacion / 1e3 / MEDICIONES),
+                    String.format("%.1f", nanosDeserializacion / 1e3 / MEDICIONES));
+        }
+    }
+
+    private static String dominio(Random random) {
+        StringBuilder dominio = new StringBuilder();
+        for (int i = 0; i < 2; i++) {
+            dominio.append((char) ('A' + random.nextInt(26)));
+        }
+        dominio.append(100 + random.nextInt(900));
+        for (int i = 0; i < 2; i++) {
+            dominio.append((char) ('A' + random.nextInt(26)));
+        }
+        return dominio.toString();
+    }
+}
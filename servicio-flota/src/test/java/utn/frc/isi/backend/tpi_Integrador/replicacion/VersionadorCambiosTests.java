@@ -0,0 +1,153 @@
+package utn.frc.isi.backend.tpi_Integrador.replicacion;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import utn.frc.isi.backend.tpi_Integrador.dtos.CambiosDTO;
+import utn.frc.isi.backend.tpi_Integrador.models.EliminacionReplicada;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VersionadorCambiosTests {
+
+    private record Cambio(long id, long version) {
+    }
+
+    private EmbeddedDatabase base;
+
+    @BeforeEach
+    void crearBase() {
+        base = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        JdbcTemplate jdbc = new JdbcTemplate(base);
+        jdbc.execute("CREATE TABLE camion (id BIGINT PRIMARY KEY, version_cambio BIGINT)");
+        jdbc.execute("CREATE TABLE deposito (id BIGINT PRIMARY KEY, version_cambio BIGINT)");
+        jdbc.execute("CREATE TABLE eliminaciones_replicadas (id BIGINT PRIMARY KEY, version_cambio BIGINT)");
+        jdbc.execute("CREATE TABLE versionador_instancia (id BIGINT PRIMARY KEY, instancia VARCHAR(64) NOT NULL, renovada TIMESTAMP NOT NULL)");
+    }
+
+    @AfterEach
+    void cerrarBase() {
+        TransactionSynchronizationManager.clear();
+        base.shutdown();
+    }
+
+    @Test
+    void parteDeLaMayorVersionGuardada() {
+        JdbcTemplate jdbc = new JdbcTemplate(base);
+        jdbc.update("INSERT INTO camion VALUES (1, 4)");
+        jdbc.update("INSERT INTO deposito VALUES (1, 9)");
+        jdbc.update("INSERT INTO eliminaciones_replicadas VALUES (1, 6)");
+        VersionadorCambios versionador = new VersionadorCambios(base, 300);
+
+        assertEquals(9, versionador.versionEstable());
+        assertEquals(10, versionador.siguiente());
+        assertEquals(10, versionador.versionEstable());
+    }
+
+    @Test
+    void laVersionEstableNoPasaTransaccionesEnCursoAunqueOtrasConfirmenAntes() {
+        VersionadorCambios versionador = new VersionadorCambios(base, 300);
+        // Inicializa y toma la concesión fuera de las transacciones simuladas
+        assertEquals(0, versionador.versionEstable());
+
+        // Tres transacciones (simuladas en el mismo hilo) toman las versiones 1, 2 y 3
+        TransactionSynchronizationManager.initSynchronization();
+        assertEquals(1, versionador.siguiente());
+        assertEquals(2, versionador.siguiente());
+        assertEquals(3, versionador.siguiente());
+        List<TransactionSynchronization> transacciones = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        assertEquals(3, transacciones.size());
+        assertEquals(0, versionador.versionEstable());
+
+        // Confirman la 3 y la 2 antes que la 1: la versión estable no avanza hasta que termina la 1
+        transacciones.get(2).afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        transacciones.get(1).afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertEquals(0, versionador.versionEstable());
+
+        transacciones.get(0).afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        assertEquals(3, versionador.versionEstable());
+
+        // Sin transacción activa la versión se libera de inmediato
+        assertEquals(4, versionador.siguiente());
+        assertEquals(4, versionador.versionEstable());
+    }
+
+    @Test
+    void laPaginaSeCortaEnLaVersionDelElementoNumeroLimite() {
+        VersionadorCambios versionador = new VersionadorCambios(base, 300);
+        // Cada lista viene acotada al límite (3); entre las dos lo superan
+        List<Cambio> actualizados = List.of(new Cambio(10, 2), new Cambio(11, 5), new Cambio(12, 7));
+        List<EliminacionReplicada> eliminaciones = List.of(eliminacion(20, 3), eliminacion(21, 4));
+
+        CambiosDTO<Cambio> pagina = versionador.armarCambios(1, 9, 3, actualizados, Cambio::version, eliminaciones);
+
+        assertEquals(1, pagina.getVersionDesde());
+        assertEquals(4, pagina.getVersionHasta());
+        assertEquals(9, pagina.getVersionActual());
+        assertTrue(pagina.isHayMas());
+        assertEquals(List.of(new Cambio(10, 2)), pagina.getActualizados());
+        assertEquals(List.of(20L, 21L), pagina.getEliminados());
+    }
+
+    @Test
+    void laPaginaCompletaLlegaHastaLaVersionEstable() {
+        VersionadorCambios versionador = new VersionadorCambios(base, 300);
+        List<Cambio> actualizados = List.of(new Cambio(10, 2), new Cambio(11, 5));
+        List<EliminacionReplicada> eliminaciones = List.of(eliminacion(20, 3));
+
+        CambiosDTO<Cambio> pagina = versionador.armarCambios(1, 9, 3, actualizados, Cambio::version, eliminaciones);
+
+        assertEquals(9, pagina.getVersionHasta());
+        assertFalse(pagina.isHayMas());
+        assertEquals(actualizados, pagina.getActualizados());
+        assertEquals(List.of(20L), pagina.getEliminados());
+
+        // Una sola lista llena también indica que puede haber más, aunque la otra esté vacía
+        CambiosDTO<Cambio> llena = versionador.armarCambios(1, 9, 2, actualizados, Cambio::version, List.of());
+        assertEquals(5, llena.getVersionHasta());
+        assertTrue(llena.isHayMas());
+    }
+
+    @Test
+    void unaSegundaInstanciaNoPuedeAsignarVersionesMientrasLaConcesionEsteVigente() {
+        VersionadorCambios primera = new VersionadorCambios(base, 300);
+        VersionadorCambios segunda = new VersionadorCambios(base, 300);
+
+        assertEquals(1, primera.siguiente());
+        assertThrows(IllegalStateException.class, segunda::siguiente);
+        assertThrows(IllegalStateException.class, segunda::versionEstable);
+        assertEquals(2, primera.siguiente());
+    }
+
+    @Test
+    void unaConcesionVencidaSeTransfiereYLaInstanciaAnteriorDejaDeVersionar() throws InterruptedException {
+        // Concesión de 0 segundos: vence de inmediato y se renueva en cada llamada
+        VersionadorCambios anterior = new VersionadorCambios(base, 0);
+        VersionadorCambios nueva = new VersionadorCambios(base, 0);
+
+        assertEquals(1, anterior.siguiente());
+        Thread.sleep(5);
+        nueva.versionEstable();
+
+        assertThrows(IllegalStateException.class, anterior::siguiente);
+    }
+
+    private static EliminacionReplicada eliminacion(long entidadId, long version) {
+        return new EliminacionReplicada(null, EliminacionReplicada.TIPO_CAMION, entidadId, version, null);
+    }
+}
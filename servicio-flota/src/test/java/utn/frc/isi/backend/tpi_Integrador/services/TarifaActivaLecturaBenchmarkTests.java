@@ -0,0 +1,82 @@
+package utn.frc.isi.backend.tpi_Integrador.services;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import utn.frc.isi.backend.tpi_Integrador.dtos.TarifaDTO;
+import utn.frc.isi.backend.tpi_Integrador.mappers.TarifaMapper;
+import utn.frc.isi.backend.tpi_Integrador.repositories.TarifaRepository;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Compara la lectura de la tarifa activa por el camino anterior (transacción de solo lectura,
+ * findByActiva(true) y mapeo a DTO, como hacía obtenerTarifaActivaDTO) contra la tarifa
+ * publicada en el AtomicReference de TarifaService, sobre la base H2 con los datos iniciales.
+ * Informa el tiempo medio por lectura de cada camino; la lectura publicada incluye el proxy
+ * transaccional (SUPPORTS) de TarifaService, igual que en los controladores.
+ * Es solo una medición: que la lectura publicada no consulte el repositorio lo verifica
+ * TarifaServiceTests. No corre con mvn test; se corre con mvn test -Pbenchmark.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:tarifa-activa-benchmark",
+        "spring.jpa.show-sql=false"
+})
+class TarifaActivaLecturaBenchmarkTests {
+
+    private static final Logger logger = LoggerFactory.getLogger(TarifaActivaLecturaBenchmarkTests.class);
+
+    private static final int CALENTAMIENTO = 500;
+    private static final int MEDICIONES = 2_000;
+
+    @Autowired
+    private TarifaRepository tarifaRepository;
+    @Autowired
+    private TarifaMapper tarifaMapper;
+    @Autowired
+    private TarifaService tarifaService;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void lecturaDeLaTarifaActivaPorRepositorioYPublicada() {
+        TransactionTemplate soloLectura = new TransactionTemplate(transactionManager);
+        soloLectura.setReadOnly(true);
+        Supplier<TarifaDTO> repositorio = () -> soloLectura.execute(estado ->
+                tarifaRepository.findByActiva(true).map(tarifaMapper::toDTO).orElse(null));
+        Supplier<TarifaDTO> publicada = () -> tarifaService.tarifaActivaPublicada().tarifa();
+
+        TarifaDTO esperada = repositorio.get();
+        assertNotNull(esperada);
+        assertEquals(esperada.getId(), publicada.get().getId());
+
+        double nanosRepositorio = nanosPorLectura(repositorio);
+        double nanosPublicada = nanosPorLectura(publicada);
+        logger.info("Tarifa activa: findByActiva(true) {} ns/lectura, AtomicReference {} ns/lectura ({}x)",
+                String.format("%.0f", nanosRepositorio), String.format("%.1f", nanosPublicada),
+                String.format("%.0f", nanosRepositorio / nanosPublicada));
+    }
+
+    private static double nanosPorLectura(Supplier<TarifaDTO> lectura) {
+        Object sumidero = null;
+        for (int i = 0; i < CALENTAMIENTO; i++) {
+            sumidero = lectura.get();
+        }
+        long inicio = System.nanoTime();
+        for (int i = 0; i < MEDICIONES; i++) {
+            sumidero = lectura.get();
+        }
+        long transcurrido = System.nanoTime() - inicio;
+        assertNotNull(sumidero);
+        return (double) transcurrido / MEDICIONES;
+    }
+}
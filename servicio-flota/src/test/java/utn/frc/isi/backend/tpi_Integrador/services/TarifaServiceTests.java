@@ -0,0 +1,62 @@
+package utn.frc.isi.backend.tpi_Integrador.services;
+
+import org.junit.jupiter.api.Test;
+import utn.frc.isi.backend.tpi_Integrador.cache.IndiceVigenciaTarifas;
+import utn.frc.isi.backend.tpi_Integrador.clients.OperacionesServiceClient;
+import utn.frc.isi.backend.tpi_Integrador.dtos.TarifaDTO;
+import utn.frc.isi.backend.tpi_Integrador.mappers.TarifaMapper;
+import utn.frc.isi.backend.tpi_Integrador.models.Tarifa;
+import utn.frc.isi.backend.tpi_Integrador.repositories.TarifaRepository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+class TarifaServiceTests {
+
+    private static final LocalDateTime DESDE = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    private static TarifaDTO tarifa(Long id, double costoKmBase) {
+        return new TarifaDTO(id, costoKmBase, 850, 5000, 2500, DESDE, null, true);
+    }
+
+    @Test
+    void lasLecturasDeLaTarifaActivaNoConsultanElRepositorio() {
+        TarifaRepository tarifaRepository = mock(TarifaRepository.class);
+        Tarifa activa = new Tarifa(1L, 100, 850, 5000, 2500, DESDE, null, true);
+        when(tarifaRepository.findByActiva(true)).thenReturn(Optional.of(activa));
+        TarifaService tarifaService = new TarifaService(tarifaRepository, new TarifaMapper(),
+                mock(OperacionesServiceClient.class), new IndiceVigenciaTarifas());
+
+        TarifaService.TarifaActiva primera = tarifaService.tarifaActivaPublicada();
+        for (int i = 0; i < 1000; i++) {
+            assertSame(primera.tarifa(), tarifaService.obtenerTarifaActivaDTO().orElseThrow());
+            assertSame(primera, tarifaService.tarifaActivaPublicada());
+        }
+
+        // Solo la primera lectura publica la tarifa desde la base de datos
+        verify(tarifaRepository, times(1)).findByActiva(true);
+        verifyNoMoreInteractions(tarifaRepository);
+    }
+
+    @Test
+    void etagDependeDeLosValoresDeLaTarifa() {
+        String etag = TarifaService.etag(tarifa(1L, 100));
+
+        assertEquals(etag, TarifaService.etag(tarifa(1L, 100)));
+        assertNotEquals(etag, TarifaService.etag(tarifa(1L, 100.5)));
+        assertNotEquals(etag, TarifaService.etag(tarifa(2L, 100)));
+
+        TarifaDTO conFin = tarifa(1L, 100);
+        conFin.setVigenciaHasta(DESDE.plusYears(1));
+        assertNotEquals(etag, TarifaService.etag(conFin));
+    }
+}
@@ -0,0 +1,99 @@
+package utn.frc.isi.backend.tpi_Integrador.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Coalescencia de consultas idénticas concurrentes ("single-flight").
+ * El primer hilo que pide una clave ejecuta la consulta; los que llegan mientras está
+ * en curso esperan el mismo CompletableFuture en lugar de repetir la llamada externa.
+ *
+ * @param <K> Tipo de la clave normalizada
+ * @param <V> Tipo del resultado
+ */
+public class ConsultasEnVuelo<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> enCurso = new ConcurrentHashMap<>();
+    private final AtomicLong ejecutadas = new AtomicLong();
+    private final AtomicLong coalescidas = new AtomicLong();
+
+    /**
+     * Ejecuta la consulta para la clave, o espera el resultado de una idéntica ya en curso
+     */
+    public V ejecutar(K clave, Supplier<V> consulta) {
+        CompletableFuture<V> propia = new CompletableFuture<>();
+        CompletableFuture<V> existente = enCurso.putIfAbsent(clave, propia);
+        if (existente != null) {
+            coalescidas.incrementAndGet();
+            try {
+                return existente.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException causa) {
+                    throw causa;
+                }
+                throw e;
+            }
+        }
+
+        ejecutadas.incrementAndGet();
+        try {
+            V resultado = consulta.get();
+            propia.complete(resultado);
+            return resultado;
+        } catch (RuntimeException e) {
+            propia.completeExceptionally(e);
+            throw e;
+        } finally {
+            enCurso.remove(clave, propia);
+        }
+    }
+
+    /**
+     * Variante para consultas en lote: reserva la clave para el llamador si no hay una
+     * consulta idéntica en curso. El llamador debe terminarla luego con {@link #completar}
+     * o {@link #fallar}.
+     *
+     * @param propia future del llamador
+     * @return null si la clave quedó reservada para el llamador; si no, el future de la consulta en curso
+     */
+    public CompletableFuture<V> reservar(K clave, CompletableFuture<V> propia) {
+        CompletableFuture<V> existente = enCurso.putIfAbsent(clave, propia);
+        if (existente != null) {
+            coalescidas.incrementAndGet();
+            return existente;
+        }
+        ejecutadas.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Entrega el resultado de una clave reservada con {@link #reservar} a quienes la esperan
+     */
+    public void completar(K clave, CompletableFuture<V> propia, V resultado) {
+        propia.complete(resultado);
+        enCurso.remove(clave, propia);
+    }
+
+    /**
+     * Libera una clave reservada con {@link #reservar} cuya consulta falló
+     */
+    public void fallar(K clave, CompletableFuture<V> propia, Throwable error) {
+        propia.completeExceptionally(error);
+        enCurso.remove(clave, propia);
+    }
+
+    public int getEnCurso() {
+        return enCurso.size();
+    }
+
+    public long getEjecutadas() {
+        return ejecutadas.get();
+    }
+
+    public long getCoalescidas() {
+        return coalescidas.get();
+    }
+}
@@ -0,0 +1,269 @@
+package utn.frc.isi.backend.tpi_Integrador.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import utn.frc.isi.backend.tpi_Integrador.dtos.googlemaps.Distance;
+import utn.frc.isi.backend.tpi_Integrador.dtos.googlemaps.Duration;
+import utn.frc.isi.backend.tpi_Integrador.dtos.googlemaps.Element;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caché de distancias y duraciones entre pares origen/destino.
+ * Las coordenadas se cuantizan (redondeo a N decimales) para que puntos muy cercanos
+ * compartan la misma entrada. Tamaño acotado con desalojo LRU, TTL por entrada
+ * y persistencia opcional a disco para sobrevivir reinicios.
+ */
+@Slf4j
+@Component
+public class DistanciaCache {
+
+    private static final int VERSION_ARCHIVO = 1;
+
+    private final int maxEntradas;
+    private final long ttlMillis;
+    private final int decimales;
+    private final String archivoPersistencia;
+
+    private final AtomicLong aciertos = new AtomicLong();
+    private final AtomicLong fallos = new AtomicLong();
+    private final AtomicLong desalojos = new AtomicLong();
+
+    // LinkedHashMap en modo acceso = LRU; el acceso se sincroniza sobre el propio mapa
+    private final LinkedHashMap<String, Entrada> entradas;
+
+    public DistanciaCache(@Value("${distancia.cache.max-entradas:10000}") int maxEntradas,
+                          @Value("${distancia.cache.ttl-horas:168}") long ttlHoras,
+                          @Value("${distancia.cache.decimales:3}") int decimales,
+                          @Value("${distancia.cache.archivo:}") String archivoPersistencia,
+                          MeterRegistry meterRegistry) {
+        this.maxEntradas = maxEntradas;
+        this.ttlMillis = ttlHoras * 3600_000L;
+        this.decimales = decimales;
+        this.archivoPersistencia = archivoPersistencia;
+        this.entradas = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entrada> eldest) {
+                if (size() > DistanciaCache.this.maxEntradas) {
+                    desalojos.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        FunctionCounter.builder("distancia.cache.aciertos", aciertos, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("distancia.cache.fallos", fallos, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("distancia.cache.desalojos", desalojos, AtomicLong::get).register(meterRegistry);
+        meterRegistry.gauge("distancia.cache.tamanio", entradas, m -> tamanio());
+    }
+
+    /**
+     * Busca la distancia cacheada entre dos puntos en formato "lat,lng"
+     * @return Optional con el Element si existe una entrada vigente
+     */
+    public Optional<Element> obtener(String origen, String destino) {
+        Entrada entrada = vigente(clave(origen, destino));
+        if (entrada == null) {
+            fallos.incrementAndGet();
+            return Optional.empty();
+        }
+        aciertos.incrementAndGet();
+        return Optional.of(entrada.toElement());
+    }
+
+    /**
+     * Igual que {@link #obtener} pero sin contar aciertos ni fallos: para volver a mirar
+     * la caché de un par que ya se contó como fallo (ej: tras esperar una consulta en curso)
+     */
+    public Optional<Element> buscar(String origen, String destino) {
+        Entrada entrada = vigente(clave(origen, destino));
+        return entrada != null ? Optional.of(entrada.toElement()) : Optional.empty();
+    }
+
+    private Entrada vigente(String clave) {
+        synchronized (entradas) {
+            Entrada entrada = entradas.get(clave);
+            if (entrada != null && entrada.vencida(System.currentTimeMillis())) {
+                entradas.remove(clave);
+                return null;
+            }
+            return entrada;
+        }
+    }
+
+    /**
+     * Guarda el resultado de una consulta de distancia exitosa
+     */
+    public void guardar(String origen, String destino, Element element) {
+        if (element == null || element.getDistance() == null || element.getDuration() == null
+                || element.getDistance().getValue() == null || element.getDuration().getValue() == null) {
+            return;
+        }
+        Entrada entrada = new Entrada(
+                element.getDistance().getValue(),
+                element.getDuration().getValue(),
+                element.getDistance().getText(),
+                element.getDuration().getText(),
+                System.currentTimeMillis() + ttlMillis);
+        synchronized (entradas) {
+            entradas.put(clave(origen, destino), entrada);
+        }
+    }
+
+    public int tamanio() {
+        synchronized (entradas) {
+            return entradas.size();
+        }
+    }
+
+    public long getAciertos() {
+        return aciertos.get();
+    }
+
+    public long getFallos() {
+        return fallos.get();
+    }
+
+    public long getDesalojos() {
+        return desalojos.get();
+    }
+
+    public void limpiar() {
+        synchronized (entradas) {
+            entradas.clear();
+        }
+    }
+
+    /**
+     * Genera la clave cuantizada "lat,lng|lat,lng" redondeando cada coordenada.
+     * Si el texto no es un par numérico (ej: una dirección) se usa normalizado tal cual.
+     */
+    public String clave(String origen, String destino) {
+        return cuantizar(origen) + "|" + cuantizar(destino);
+    }
+
+    private String cuantizar(String punto) {
+        if (punto == null) {
+            return "";
+        }
+        String[] partes = punto.split(",");
+        if (partes.length == 2) {
+            try {
+                double lat = Double.parseDouble(partes[0].trim());
+                double lng = Double.parseDouble(partes[1].trim());
+                String formato = "%." + decimales + "f,%." + decimales + "f";
+                return String.format(Locale.ROOT, formato, lat, lng);
+            } catch (NumberFormatException e) {
+                // No es un par de coordenadas: se usa el texto normalizado
+            }
+        }
+        return punto.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // ========== PERSISTENCIA ==========
+
+    @PostConstruct
+    void cargarDesdeDisco() {
+        if (archivoPersistencia == null || archivoPersistencia.isBlank()) {
+            return;
+        }
+        Path path = Paths.get(archivoPersistencia);
+        if (!Files.exists(path)) {
+            log.info("No existe archivo de caché de distancias en {}, se inicia vacía", path);
+            return;
+        }
+        long ahora = System.currentTimeMillis();
+        int cargadas = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != VERSION_ARCHIVO) {
+                log.warn("Versión de archivo de caché de distancias incompatible, se ignora {}", path);
+                return;
+            }
+            int cantidad = in.readInt();
+            synchronized (entradas) {
+                for (int i = 0; i < cantidad; i++) {
+                    String clave = in.readUTF();
+                    Entrada entrada = new Entrada(in.readLong(), in.readLong(), in.readUTF(), in.readUTF(), in.readLong());
+                    if (!entrada.vencida(ahora)) {
+                        entradas.put(clave, entrada);
+                        cargadas++;
+                    }
+                }
+            }
+            log.info("Caché de distancias cargada desde {}: {} entradas vigentes", path, cargadas);
+        } catch (IOException e) {
+            log.warn("No se pudo leer la caché de distancias desde {}: {}", path, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void guardarEnDisco() {
+        if (archivoPersistencia == null || archivoPersistencia.isBlank()) {
+            return;
+        }
+        List<Map.Entry<String, Entrada>> copia;
+        synchronized (entradas) {
+            copia = new ArrayList<>(entradas.entrySet());
+        }
+        Path path = Paths.get(archivoPersistencia);
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            // Escribir a un temporal y luego reemplazar para no dejar un archivo corrupto
+            Path temporal = path.resolveSibling(path.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporal)))) {
+                out.writeInt(VERSION_ARCHIVO);
+                out.writeInt(copia.size());
+                for (Map.Entry<String, Entrada> e : copia) {
+                    Entrada entrada = e.getValue();
+                    out.writeUTF(e.getKey());
+                    out.writeLong(entrada.distanciaMetros());
+                    out.writeLong(entrada.duracionSegundos());
+                    out.writeUTF(entrada.distanciaTexto() != null ? entrada.distanciaTexto() : "");
+                    out.writeUTF(entrada.duracionTexto() != null ? entrada.duracionTexto() : "");
+                    out.writeLong(entrada.expiraEn());
+                }
+            }
+            Files.move(temporal, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Caché de distancias persistida en {}: {} entradas", path, copia.size());
+        } catch (IOException e) {
+            log.warn("No se pudo persistir la caché de distancias en {}: {}", path, e.getMessage());
+        }
+    }
+
+    private record Entrada(long distanciaMetros, long duracionSegundos,
+                           String distanciaTexto, String duracionTexto, long expiraEn) {
+
+        boolean vencida(long ahora) {
+            return ahora >= expiraEn;
+        }
+
+        Element toElement() {
+            return new Element("OK",
+                    new Distance(distanciaTexto, distanciaMetros),
+                    new Duration(duracionTexto, duracionSegundos));
+        }
+    }
+}
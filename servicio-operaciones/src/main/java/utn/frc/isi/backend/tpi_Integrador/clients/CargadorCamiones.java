@@ -0,0 +1,146 @@
+package utn.frc.isi.backend.tpi_Integrador.clients;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Component;
+import utn.frc.isi.backend.tpi_Integrador.dtos.flota.CamionDTO;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agrupa consultas sueltas de camiones a servicio-flota (estilo DataLoader).
+ * El primer pedido de una ventana abre un lote y espera unos milisegundos; los pedidos
+ * concurrentes que llegan mientras tanto se suman al mismo lote, y luego ese primer
+ * hilo hace una única llamada a POST /api/camiones/batch y reparte los resultados.
+ * La llamada sale desde el hilo que abrió el lote, con su token JWT; por eso solo se
+ * agrupan pedidos que llevan el mismo token (hay un lote abierto por token).
+ */
+@Slf4j
+@Component
+public class CargadorCamiones {
+
+    // Límite del endpoint batch de servicio-flota
+    private static final int MAXIMO_POR_LOTE = 1000;
+
+    private final FlotaServiceClient flotaServiceClient;
+    private final long ventanaMillis;
+    private final int maximoPorLote;
+    private final DistributionSummary tamanioLote;
+
+    private final Object lock = new Object();
+    private final Map<String, Lote> lotesAbiertos = new HashMap<>(); // protegido por lock
+
+    public CargadorCamiones(FlotaServiceClient flotaServiceClient,
+                            @Value("${servicio-flota.camiones.ventana-lote-ms:2}") long ventanaMillis,
+                            @Value("${servicio-flota.camiones.maximo-por-lote:200}") int maximoPorLote,
+                            MeterRegistry meterRegistry) {
+        this.flotaServiceClient = flotaServiceClient;
+        this.ventanaMillis = ventanaMillis;
+        this.maximoPorLote = Math.max(1, Math.min(maximoPorLote, MAXIMO_POR_LOTE));
+        this.tamanioLote = DistributionSummary.builder("flota.camiones.lote.tamanio")
+                .description("Cantidad de camiones pedidos en cada llamada batch a servicio-flota")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Obtiene un camión, compartiendo la llamada con otros pedidos concurrentes
+     * @param camionId ID del camión en servicio-flota
+     * @return Optional con el camión si existe y la llamada fue exitosa
+     */
+    public Optional<CamionDTO> obtener(Long camionId) {
+        String token = tokenActual();
+        Lote lote;
+        CompletableFuture<Optional<CamionDTO>> resultado;
+        boolean abrioLote = false;
+        synchronized (lock) {
+            lote = lotesAbiertos.get(token);
+            if (lote == null) {
+                lote = new Lote(token);
+                lotesAbiertos.put(token, lote);
+                abrioLote = true;
+            }
+            resultado = lote.pendientes.computeIfAbsent(camionId, id -> new CompletableFuture<>());
+            if (lote.pendientes.size() >= maximoPorLote) {
+                // Lote lleno: se cierra y se despierta al hilo que lo abrió
+                lotesAbiertos.remove(token, lote);
+                lote.lleno.countDown();
+            }
+        }
+        if (abrioLote) {
+            despachar(lote);
+        }
+        return resultado.join();
+    }
+
+    /**
+     * Obtiene los parámetros de costo de un camión: desde la caché cercana si están vigentes,
+     * si no consultando servicio-flota (agrupado con otros pedidos), y si servicio-flota
+     * no responde, desde la caché aunque estén vencidos
+     * @param camionId ID del camión en servicio-flota
+     * @return Optional con los parámetros, vacío si no hay datos utilizables
+     */
+    public Optional<FlotaServiceClient.ParametrosCostoCamion> obtenerParametrosCosto(Long camionId) {
+        return flotaServiceClient.parametrosCostoCacheados(camionId, false)
+                .or(() -> obtener(camionId).map(camion -> FlotaServiceClient.ParametrosCostoCamion.de(camion, System.currentTimeMillis())))
+                .or(() -> flotaServiceClient.parametrosCostoCacheados(camionId, true));
+    }
+
+    private void despachar(Lote lote) {
+        try {
+            lote.lleno.await(ventanaMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Map<Long, CompletableFuture<Optional<CamionDTO>>> pendientes;
+        synchronized (lock) {
+            lotesAbiertos.remove(lote.token, lote);
+            // A partir de acá nadie más se suma a este lote
+            pendientes = new LinkedHashMap<>(lote.pendientes);
+        }
+        Map<Long, CamionDTO> camiones = Map.of();
+        try {
+            tamanioLote.record(pendientes.size());
+            camiones = flotaServiceClient.obtenerCamionesPorIds(pendientes.keySet());
+            if (pendientes.size() > 1) {
+                log.debug("Lote de {} camiones resuelto en una llamada", pendientes.size());
+            }
+        } catch (RuntimeException e) {
+            // Quien abrió el lote tampoco recibe la excepción: todos ven el lote como no resuelto
+            log.error("Error inesperado al resolver un lote de {} camiones", pendientes.size(), e);
+        } finally {
+            // Completar siempre, para no dejar hilos esperando
+            for (Map.Entry<Long, CompletableFuture<Optional<CamionDTO>>> e : pendientes.entrySet()) {
+                e.getValue().complete(Optional.ofNullable(camiones.get(e.getKey())));
+            }
+        }
+    }
+
+    /**
+     * Token JWT con el que saldría la llamada desde este hilo ("" si no hay usuario autenticado)
+     */
+    private static String tokenActual() {
+        Authentication autenticacion = SecurityContextHolder.getContext().getAuthentication();
+        return autenticacion instanceof JwtAuthenticationToken jwt ? jwt.getToken().getTokenValue() : "";
+    }
+
+    private static final class Lote {
+        final String token;
+        final Map<Long, CompletableFuture<Optional<CamionDTO>>> pendientes = new LinkedHashMap<>();
+        final CountDownLatch lleno = new CountDownLatch(1);
+
+        Lote(String token) {
+            this.token = token;
+        }
+    }
+}
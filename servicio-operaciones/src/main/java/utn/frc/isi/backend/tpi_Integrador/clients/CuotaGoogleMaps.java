@@ -0,0 +1,203 @@
+package utn.frc.isi.backend.tpi_Integrador.clients;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Control de cuota del lado cliente para la API Distance Matrix.
+ * Limita las requests por segundo con un token bucket y los elementos consumidos por día
+ * (la cuota de Google se factura por elemento = orígenes × destinos).
+ * Las consultas interactivas (RF#3 / RF#4) tienen prioridad sobre el trabajo en segundo plano:
+ * mientras haya una interactiva esperando, las de segundo plano no toman tokens, y una parte
+ * de la cuota diaria queda reservada para las interactivas.
+ * Si no hay cupo dentro del tiempo máximo de espera la llamada se rechaza y el llamador
+ * degrada (siguiente proveedor o estimador local).
+ */
+@Slf4j
+@Component
+public class CuotaGoogleMaps {
+
+    public enum Prioridad { INTERACTIVA, SEGUNDO_PLANO }
+
+    // Por defecto toda consulta es interactiva; el trabajo en segundo plano se marca explícitamente
+    private static final ThreadLocal<Prioridad> PRIORIDAD_ACTUAL = ThreadLocal.withInitial(() -> Prioridad.INTERACTIVA);
+
+    private final double requestsPorSegundo;
+    private final double capacidadRafaga;
+    private final long cuotaDiariaElementos;
+    private final double reservaInteractiva;
+    private final ZoneId zonaCuota;
+    private final Map<Prioridad, Long> esperaMaximaNanos = new EnumMap<>(Prioridad.class);
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition cambio = lock.newCondition();
+
+    // Estado protegido por lock
+    private double tokens;
+    private long ultimaRecarga;
+    private LocalDate diaActual;
+    private long elementosHoy;
+    private final Map<Prioridad, Integer> esperando = new EnumMap<>(Prioridad.class);
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Prioridad, Timer> tiempoEspera = new EnumMap<>(Prioridad.class);
+
+    public CuotaGoogleMaps(@Value("${google.maps.cuota.requests-por-segundo:10}") double requestsPorSegundo,
+                           @Value("${google.maps.cuota.rafaga:10}") double capacidadRafaga,
+                           @Value("${google.maps.cuota.elementos-por-dia:0}") long cuotaDiariaElementos,
+                           @Value("${google.maps.cuota.reserva-interactiva:0.2}") double reservaInteractiva,
+                           @Value("${google.maps.cuota.zona-horaria:America/Los_Angeles}") String zonaCuota,
+                           @Value("${google.maps.cuota.espera-maxima-interactiva-ms:2000}") long esperaInteractivaMs,
+                           @Value("${google.maps.cuota.espera-maxima-segundo-plano-ms:30000}") long esperaSegundoPlanoMs,
+                           MeterRegistry meterRegistry) {
+        this.requestsPorSegundo = requestsPorSegundo;
+        this.capacidadRafaga = Math.max(1, capacidadRafaga);
+        this.cuotaDiariaElementos = cuotaDiariaElementos;
+        this.reservaInteractiva = reservaInteractiva;
+        this.zonaCuota = ZoneId.of(zonaCuota);
+        this.esperaMaximaNanos.put(Prioridad.INTERACTIVA, TimeUnit.MILLISECONDS.toNanos(esperaInteractivaMs));
+        this.esperaMaximaNanos.put(Prioridad.SEGUNDO_PLANO, TimeUnit.MILLISECONDS.toNanos(esperaSegundoPlanoMs));
+        this.tokens = this.capacidadRafaga;
+        this.ultimaRecarga = System.nanoTime();
+        this.diaActual = LocalDate.now(this.zonaCuota);
+        this.meterRegistry = meterRegistry;
+
+        for (Prioridad prioridad : Prioridad.values()) {
+            esperando.put(prioridad, 0);
+            String tag = prioridad.name().toLowerCase();
+            tiempoEspera.put(prioridad, Timer.builder("google-maps.cuota.espera").tag("prioridad", tag).register(meterRegistry));
+            Gauge.builder("google-maps.cuota.cola", this, c -> c.enEspera(prioridad)).tag("prioridad", tag).register(meterRegistry);
+        }
+        Gauge.builder("google-maps.cuota.elementos-hoy", this, CuotaGoogleMaps::getElementosHoy).register(meterRegistry);
+    }
+
+    /**
+     * Ejecuta la tarea con prioridad de segundo plano (precálculos, recálculos de costos).
+     * Las llamadas a Google Maps que haga quedan detrás de las interactivas.
+     */
+    public <T> T enSegundoPlano(Supplier<T> tarea) {
+        Prioridad anterior = PRIORIDAD_ACTUAL.get();
+        PRIORIDAD_ACTUAL.set(Prioridad.SEGUNDO_PLANO);
+        try {
+            return tarea.get();
+        } finally {
+            PRIORIDAD_ACTUAL.set(anterior);
+        }
+    }
+
+    /**
+     * Reserva cupo para una request que consume la cantidad de elementos indicada.
+     * Espera hasta el tiempo máximo de la prioridad del hilo actual.
+     * @return true si se puede llamar a la API; false si se agotó la espera o la cuota diaria
+     */
+    public boolean adquirir(int elementos) {
+        if (requestsPorSegundo <= 0 && cuotaDiariaElementos <= 0) {
+            return true; // Control de cuota deshabilitado
+        }
+        Prioridad prioridad = PRIORIDAD_ACTUAL.get();
+        long inicio = System.nanoTime();
+        long limite = inicio + esperaMaximaNanos.get(prioridad);
+
+        lock.lock();
+        esperando.merge(prioridad, 1, Integer::sum);
+        try {
+            while (true) {
+                if (!hayCuotaDiaria(prioridad, elementos)) {
+                    rechazar(prioridad, "cuota-diaria");
+                    return false;
+                }
+                recargar();
+                boolean turno = prioridad == Prioridad.INTERACTIVA || esperando.get(Prioridad.INTERACTIVA) == 0;
+                if (turno && (requestsPorSegundo <= 0 || tokens >= 1)) {
+                    tokens -= 1;
+                    elementosHoy += elementos;
+                    return true;
+                }
+                long restante = limite - System.nanoTime();
+                if (restante <= 0) {
+                    rechazar(prioridad, "tiempo-espera");
+                    return false;
+                }
+                // Si es su turno, despertar cuando se recargue el próximo token; si no, cuando cambie la cola
+                long hastaToken = (long) ((1 - tokens) / requestsPorSegundo * 1_000_000_000L);
+                cambio.awaitNanos(turno ? Math.min(restante, Math.max(hastaToken, 1)) : restante);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rechazar(prioridad, "interrumpida");
+            return false;
+        } finally {
+            esperando.merge(prioridad, -1, Integer::sum);
+            cambio.signalAll();
+            lock.unlock();
+            tiempoEspera.get(prioridad).record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public int enEspera(Prioridad prioridad) {
+        lock.lock();
+        try {
+            return esperando.get(prioridad);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getElementosHoy() {
+        lock.lock();
+        try {
+            reiniciarSiCambioElDia();
+            return elementosHoy;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void recargar() {
+        long ahora = System.nanoTime();
+        tokens = Math.min(capacidadRafaga, tokens + (ahora - ultimaRecarga) / 1_000_000_000.0 * requestsPorSegundo);
+        ultimaRecarga = ahora;
+    }
+
+    private boolean hayCuotaDiaria(Prioridad prioridad, int elementos) {
+        if (cuotaDiariaElementos <= 0) {
+            return true;
+        }
+        reiniciarSiCambioElDia();
+        long disponible = prioridad == Prioridad.INTERACTIVA
+                ? cuotaDiariaElementos
+                : (long) (cuotaDiariaElementos * (1 - reservaInteractiva));
+        return elementosHoy + elementos <= disponible;
+    }
+
+    private void reiniciarSiCambioElDia() {
+        LocalDate hoy = LocalDate.now(zonaCuota);
+        if (!hoy.equals(diaActual)) {
+            diaActual = hoy;
+            elementosHoy = 0;
+        }
+    }
+
+    private void rechazar(Prioridad prioridad, String motivo) {
+        log.warn("Llamada a Google Maps rechazada por control de cuota: prioridad={}, motivo={}", prioridad, motivo);
+        Counter.builder("google-maps.cuota.rechazos")
+                .tag("prioridad", prioridad.name().toLowerCase())
+                .tag("motivo", motivo)
+                .register(meterRegistry)
+                .increment();
+    }
+}
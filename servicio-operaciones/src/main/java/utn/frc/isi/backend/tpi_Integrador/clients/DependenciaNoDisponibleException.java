@@ -0,0 +1,12 @@
+package utn.frc.isi.backend.tpi_Integrador.clients;
+
+/**
+ * Llamada a un servicio externo rechazada sin intentarla: el circuito está abierto o se alcanzó
+ * el máximo de llamadas concurrentes. El llamador degrada igual que ante un error de conexión.
+ */
+public class DependenciaNoDisponibleException extends RuntimeException {
+
+    public DependenciaNoDisponibleException(String dependencia, String motivo) {
+        super("Llamada a " + dependencia + " rechazada: " + motivo);
+    }
+}
@@ -1,29 +1,135 @@
 package utn.frc.isi.backend.tpi_Integrador.clients;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClient;
+import utn.frc.isi.backend.tpi_Integrador.dtos.flota.CambiosDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.flota.CamionDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.flota.CamionReplicaDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.flota.DepositoReplicaDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.flota.DisponibilidadLoteResultadoDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.flota.TarifaDTO;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Cliente para comunicarse con el microservicio servicio-flota
- * Obtiene información de Tarifas y Camiones usando RestClient
+ * Obtiene información de Tarifas y Camiones usando RestClient.
+ * La tarifa activa se sirve desde una foto local (ver {@link #obtenerSnapshotTarifa()}) y los
+ * parámetros de costo de cada camión desde una caché cercana con TTL (ver {@link #parametrosCostoCacheados}).
+ * Las llamadas de alto volumen (lote de camiones, feeds de cambios y disponibilidad en lote) pueden
+ * viajar en CBOR en lugar de JSON si servicio-flota.protocolo-binario=true; el resto sigue en JSON.
  */
 @Slf4j
 @Component
 public class FlotaServiceClient {
 
     private final RestClient restClient;
+    // Llamadas en segundo plano, autenticadas con la credencial propia del servicio
+    private final RestClient servicioRestClient;
+    private final long ttlTarifaMillis;
 
-    public FlotaServiceClient(@Qualifier("flotaRestClient") RestClient restClient) {
+    // Formato de las llamadas internas de alto volumen (application/cbor o application/json)
+    private final MediaType formatoInterno;
+
+    // Tarifa activa: cambia pocas veces al año, se mantiene una foto local versionada
+    private final AtomicReference<SnapshotTarifa> snapshotTarifa = new AtomicReference<>();
+    private final Object refrescoTarifa = new Object();
+    // Se incrementa con cada aviso de cambio; un refresco solo deja vigente la foto si no cambió durante la llamada
+    private final AtomicLong generacionTarifa = new AtomicLong();
+
+    // Parámetros de costo por camión: caché cercana acotada (LRU), sincronizada sobre el propio mapa
+    private final long ttlCamionMillis;
+    private final long maxAntiguedadVencidaMillis;
+    private final int maxCamiones;
+    private final LinkedHashMap<Long, ParametrosCostoCamion> parametrosCamiones;
+    private final AtomicLong aciertosCamiones = new AtomicLong();
+    private final AtomicLong fallosCamiones = new AtomicLong();
+    private final AtomicLong vencidosServidos = new AtomicLong();
+    private final Timer antiguedadServida;
+    private final Timer antiguedadVencidaServida;
+
+    public FlotaServiceClient(@Qualifier("flotaRestClient") RestClient restClient,
+                              @Qualifier("flotaServicioRestClient") RestClient servicioRestClient,
+                              @Value("${servicio-flota.tarifa.ttl-segundos:300}") long ttlTarifaSegundos,
+                              @Value("${servicio-flota.camiones.cache.ttl-segundos:600}") long ttlCamionSegundos,
+                              @Value("${servicio-flota.camiones.cache.max-entradas:1000}") int maxCamiones,
+                              @Value("${servicio-flota.camiones.cache.max-antiguedad-vencida-segundos:86400}") long maxAntiguedadVencidaSegundos,
+                              @Value("${servicio-flota.protocolo-binario:false}") boolean protocoloBinario,
+                              MeterRegistry meterRegistry) {
         this.restClient = restClient;
+        this.servicioRestClient = servicioRestClient;
+        this.formatoInterno = protocoloBinario ? MediaType.APPLICATION_CBOR : MediaType.APPLICATION_JSON;
+        this.ttlTarifaMillis = ttlTarifaSegundos * 1000;
+        this.ttlCamionMillis = ttlCamionSegundos * 1000;
+        this.maxAntiguedadVencidaMillis = maxAntiguedadVencidaSegundos * 1000;
+        this.maxCamiones = maxCamiones;
+        this.parametrosCamiones = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ParametrosCostoCamion> eldest) {
+                return size() > FlotaServiceClient.this.maxCamiones;
+            }
+        };
+
+        FunctionCounter.builder("flota.camiones.cache.aciertos", aciertosCamiones, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("flota.camiones.cache.fallos", fallosCamiones, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("flota.camiones.cache.vencidos-servidos", vencidosServidos, AtomicLong::get)
+                .description("Entradas vencidas servidas porque servicio-flota no respondió")
+                .register(meterRegistry);
+        Gauge.builder("flota.camiones.cache.tasa-aciertos", this, FlotaServiceClient::tasaAciertosCamiones).register(meterRegistry);
+        meterRegistry.gauge("flota.camiones.cache.tamanio", parametrosCamiones, m -> tamanioCacheCamiones());
+        this.antiguedadServida = Timer.builder("flota.camiones.cache.antiguedad")
+                .description("Antigüedad de los parámetros de costo servidos desde la caché")
+                .tag("vencida", "false")
+                .register(meterRegistry);
+        this.antiguedadVencidaServida = Timer.builder("flota.camiones.cache.antiguedad")
+                .description("Antigüedad de los parámetros de costo servidos desde la caché")
+                .tag("vencida", "true")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Parámetros de un camión que intervienen en el cálculo de costos (RF#8).
+     * obtenidoEn es el instante (epoch ms) en que se leyeron de servicio-flota.
+     */
+    public record ParametrosCostoCamion(Long camionId, double costoPorKm, double consumoCombustiblePorKm, long obtenidoEn) {
+
+        static ParametrosCostoCamion de(CamionDTO camion, long obtenidoEn) {
+            return new ParametrosCostoCamion(camion.getId(), camion.getCostoPorKm(), camion.getConsumoCombustiblePorKm(), obtenidoEn);
+        }
+    }
+
+    /**
+     * Foto inmutable de la tarifa activa. La versión se incrementa localmente cada vez
+     * que servicio-flota devuelve un contenido distinto (ETag distinto).
+     */
+    public record SnapshotTarifa(TarifaDTO tarifa, long version, String etag, long vigenteHasta) {
+
+        boolean vigente(long ahora) {
+            return ahora < vigenteHasta;
+        }
+
+        SnapshotTarifa renovada(long vigenteHasta) {
+            return new SnapshotTarifa(tarifa, version, etag, vigenteHasta);
+        }
     }
 
     /**
@@ -31,27 +137,107 @@ public class FlotaServiceClient {
      * @return Optional con TarifaDTO si existe una tarifa activa
      */
     public Optional<TarifaDTO> obtenerTarifaActiva() {
+        return obtenerSnapshotTarifa().map(SnapshotTarifa::tarifa);
+    }
+
+    /**
+     * Devuelve la foto local de la tarifa activa. Mientras esté vigente (TTL y sin aviso de cambio)
+     * no hay llamada remota; al vencer se revalida con If-None-Match, y si servicio-flota
+     * no responde se sigue usando la última foto conocida.
+     * @return Optional con la foto si alguna vez se obtuvo una tarifa activa
+     */
+    public Optional<SnapshotTarifa> obtenerSnapshotTarifa() {
+        SnapshotTarifa actual = snapshotTarifa.get();
+        if (actual != null && actual.vigente(System.currentTimeMillis())) {
+            return Optional.of(actual);
+        }
+        synchronized (refrescoTarifa) {
+            // Otro hilo pudo haberla refrescado mientras se esperaba el lock
+            actual = snapshotTarifa.get();
+            if (actual != null && actual.vigente(System.currentTimeMillis())) {
+                return Optional.of(actual);
+            }
+            return Optional.ofNullable(refrescarTarifa(actual));
+        }
+    }
+
+    /**
+     * Descarta la vigencia de la foto de la tarifa (aviso de cambio desde servicio-flota).
+     * La próxima consulta revalida contra servicio-flota.
+     */
+    public void invalidarTarifa() {
+        // Primero la generación: un refresco en vuelo que publique después lo va a ver cambiada
+        generacionTarifa.incrementAndGet();
+        snapshotTarifa.updateAndGet(actual -> actual != null ? actual.renovada(0) : null);
+        log.info("Foto de tarifa activa invalidada por cambio en servicio-flota");
+    }
+
+    private SnapshotTarifa refrescarTarifa(SnapshotTarifa anterior) {
         String uri = "/api/tarifas/actual";
+        long generacion = generacionTarifa.get();
         try {
             log.debug("Consultando tarifa activa a servicio-flota: {}", uri);
             
             ResponseEntity<TarifaDTO> response = restClient.get()
                     .uri(uri)
+                    .headers(headers -> {
+                        if (anterior != null && anterior.etag() != null) {
+                            headers.setIfNoneMatch(anterior.etag());
+                        }
+                    })
                     .retrieve()
                     .toEntity(TarifaDTO.class);
 
+            long vigenteHasta = System.currentTimeMillis() + ttlTarifaMillis;
+            if (response.getStatusCode() == HttpStatus.NOT_MODIFIED && anterior != null) {
+                log.debug("Tarifa activa sin cambios (versión {})", anterior.version());
+                return publicarTarifa(anterior.renovada(vigenteHasta), generacion);
+            }
             if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                log.info("Tarifa activa obtenida exitosamente: ID {}", response.getBody().getId());
-                return Optional.of(response.getBody());
-            } else {
-                log.error("Error al obtener tarifa activa de servicio-flota. Status: {}", response.getStatusCode());
+                long version = anterior != null ? anterior.version() + 1 : 1;
+                SnapshotTarifa nueva = publicarTarifa(
+                        new SnapshotTarifa(response.getBody(), version, response.getHeaders().getETag(), vigenteHasta), generacion);
+                log.info("Tarifa activa obtenida exitosamente: ID {} (versión local {})", nueva.tarifa().getId(), version);
+                return nueva;
             }
+            log.error("Error al obtener tarifa activa de servicio-flota. Status: {}", response.getStatusCode());
         } catch (HttpClientErrorException e) {
+            if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
+                // Ya no hay tarifa activa: no tiene sentido seguir usando la anterior
+                log.warn("No existe tarifa activa en servicio-flota (404)");
+                snapshotTarifa.set(null);
+                return null;
+            }
             log.error("Error HTTP al obtener tarifa activa: {} - {}", e.getStatusCode(), e.getResponseBodyAsString(), e);
+        } catch (DependenciaNoDisponibleException e) {
+            log.warn("No se consultó la tarifa activa: {}", e.getMessage());
         } catch (Exception e) {
             log.error("Error inesperado al obtener tarifa activa desde servicio-flota", e);
         }
-        return Optional.empty();
+        if (anterior != null) {
+            log.warn("Se usa la última tarifa conocida (ID {}, versión local {})", anterior.tarifa().getId(), anterior.version());
+        }
+        return anterior;
+    }
+
+    /**
+     * Publica la foto obtenida. Si llegó un aviso de cambio mientras la llamada estaba en vuelo
+     * (la generación ya no es la del inicio), la respuesta puede ser anterior al cambio: se publica
+     * vencida para que la próxima consulta vuelva a revalidar.
+     */
+    private SnapshotTarifa publicarTarifa(SnapshotTarifa snapshot, long generacion) {
+        if (generacionTarifa.get() != generacion) {
+            log.debug("Aviso de cambio de tarifa durante el refresco, la foto queda vencida");
+            snapshot = snapshot.renovada(0);
+        }
+        snapshotTarifa.set(snapshot);
+        // El aviso pudo llegar entre la verificación y el set
+        if (generacionTarifa.get() != generacion && snapshot.vigenteHasta() != 0) {
+            SnapshotTarifa vencida = snapshot.renovada(0);
+            snapshotTarifa.compareAndSet(snapshot, vencida);
+            return vencida;
+        }
+        return snapshot;
     }
 
     /**
@@ -71,6 +257,7 @@ public class FlotaServiceClient {
 
             if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
                 log.info("Camión {} obtenido exitosamente: {}", camionId, response.getBody().getDominio());
+                guardarParametrosCosto(response.getBody());
                 return Optional.of(response.getBody());
             } else if (response.getStatusCode() == HttpStatus.NOT_FOUND) {
                 log.warn("Camión con ID {} no encontrado en servicio-flota.", camionId);
@@ -82,13 +269,125 @@ public class FlotaServiceClient {
                 log.error("Error HTTP al obtener camión {}: {} - {}", camionId, e.getStatusCode(), e.getResponseBodyAsString(), e);
             } else {
                 log.warn("Camión con ID {} no encontrado en servicio-flota (404).", camionId);
+                invalidarCamion(camionId);
             }
+        } catch (DependenciaNoDisponibleException e) {
+            log.warn("No se consultó el camión {}: {}", camionId, e.getMessage());
         } catch (Exception e) {
             log.error("Error inesperado al obtener camión {} desde servicio-flota", camionId, e);
         }
         return Optional.empty();
     }
     
+    /**
+     * Obtiene varios camiones de servicio-flota en una sola llamada (POST /api/camiones/batch).
+     * Para pedidos sueltos y concurrentes conviene {@link CargadorCamiones}, que los agrupa.
+     * @param camionIds IDs de los camiones a consultar (como máximo 1000)
+     * @return mapa ID -> CamionDTO con los camiones encontrados; vacío si la llamada falla
+     */
+    public Map<Long, CamionDTO> obtenerCamionesPorIds(Collection<Long> camionIds) {
+        String uri = "/api/camiones/batch";
+        if (camionIds.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            log.debug("Consultando {} camiones a servicio-flota en lote", camionIds.size());
+            
+            ResponseEntity<Map<Long, CamionDTO>> response = restClient.post()
+                    .uri(uri)
+                    .contentType(formatoInterno)
+                    .accept(formatoInterno)
+                    .body(Map.of("ids", camionIds))
+                    .retrieve()
+                    .toEntity(new ParameterizedTypeReference<Map<Long, CamionDTO>>() {});
+
+            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
+                Map<Long, CamionDTO> camiones = response.getBody();
+                log.debug("Lote de camiones obtenido: {} de {} encontrados", camiones.size(), camionIds.size());
+                for (Long camionId : camionIds) {
+                    CamionDTO camion = camiones.get(camionId);
+                    if (camion != null) {
+                        guardarParametrosCosto(camion);
+                    } else {
+                        // Ya no existe en servicio-flota: no debe servirse desde la caché
+                        invalidarCamion(camionId);
+                    }
+                }
+                return camiones;
+            }
+            log.error("Error al obtener lote de camiones de servicio-flota. Status: {}", response.getStatusCode());
+        } catch (HttpClientErrorException e) {
+            log.error("Error HTTP al obtener lote de camiones: {} - {}", e.getStatusCode(), e.getResponseBodyAsString(), e);
+        } catch (DependenciaNoDisponibleException e) {
+            log.warn("No se consultó el lote de {} camiones: {}", camionIds.size(), e.getMessage());
+        } catch (Exception e) {
+            log.error("Error inesperado al obtener lote de camiones desde servicio-flota", e);
+        }
+        return Map.of();
+    }
+    
+    /**
+     * Busca en la caché cercana los parámetros de costo de un camión.
+     * @param camionId ID del camión en servicio-flota
+     * @param aceptarVencidos si true, también devuelve una entrada vencida (hasta la antigüedad máxima
+     *                        configurada); se usa cuando servicio-flota no pudo responder
+     * @return Optional con los parámetros si hay una entrada utilizable
+     */
+    public Optional<ParametrosCostoCamion> parametrosCostoCacheados(Long camionId, boolean aceptarVencidos) {
+        ParametrosCostoCamion parametros;
+        synchronized (parametrosCamiones) {
+            parametros = parametrosCamiones.get(camionId);
+        }
+        long antiguedad = parametros != null ? System.currentTimeMillis() - parametros.obtenidoEn() : 0;
+        if (parametros != null && antiguedad < ttlCamionMillis) {
+            aciertosCamiones.incrementAndGet();
+            antiguedadServida.record(antiguedad, TimeUnit.MILLISECONDS);
+            return Optional.of(parametros);
+        }
+        if (!aceptarVencidos) {
+            fallosCamiones.incrementAndGet();
+            return Optional.empty();
+        }
+        if (parametros != null && antiguedad < maxAntiguedadVencidaMillis) {
+            vencidosServidos.incrementAndGet();
+            antiguedadVencidaServida.record(antiguedad, TimeUnit.MILLISECONDS);
+            log.warn("Se usan parámetros de costo vencidos del camión {} (antigüedad {} s)", camionId, antiguedad / 1000);
+            return Optional.of(parametros);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Descarta los parámetros cacheados de un camión (aviso de cambio desde servicio-flota)
+     */
+    public void invalidarCamion(Long camionId) {
+        synchronized (parametrosCamiones) {
+            parametrosCamiones.remove(camionId);
+        }
+    }
+
+    public int tamanioCacheCamiones() {
+        synchronized (parametrosCamiones) {
+            return parametrosCamiones.size();
+        }
+    }
+
+    private double tasaAciertosCamiones() {
+        long aciertos = aciertosCamiones.get();
+        long total = aciertos + fallosCamiones.get();
+        return total == 0 ? 0 : (double) aciertos / total;
+    }
+
+    private void guardarParametrosCosto(CamionDTO camion) {
+        if (camion.getId() == null) {
+            return;
+        }
+        ParametrosCostoCamion parametros = ParametrosCostoCamion.de(camion, System.currentTimeMillis());
+        synchronized (parametrosCamiones) {
+            parametrosCamiones.put(camion.getId(), parametros);
+        }
+    }
+    
     /**
      * Actualiza la disponibilidad de un camión en servicio-flota
      * Se llama cuando un tramo finaliza para liberar el camión
@@ -127,4 +426,84 @@ public class FlotaServiceClient {
             throw new RuntimeException("Error inesperado al actualizar disponibilidad del camión " + camionId, e);
         }
     }
-}
+
+    /**
+     * Actualiza en servicio-flota la disponibilidad de varios camiones en una sola llamada
+     * (PATCH /api/camiones/disponibilidad). Lo usa el despachador del outbox de disponibilidad,
+     * por eso viaja con la credencial del servicio y no con el JWT del hilo actual.
+     * 
+     * @param disponibilidadPorCamion ID del camión -> disponible (como máximo 1000)
+     * @return resultado con los camiones actualizados y los inexistentes
+     * @throws RuntimeException si la llamada falla (el llamador reintenta); los errores de
+     *         conexión se propagan como RestClientException
+     */
+    public DisponibilidadLoteResultadoDTO actualizarDisponibilidadCamiones(Map<Long, Boolean> disponibilidadPorCamion) {
+        String uri = "/api/camiones/disponibilidad";
+        List<Map<String, Object>> requestBody = disponibilidadPorCamion.entrySet().stream()
+                .map(e -> Map.<String, Object>of("camionId", e.getKey(), "disponible", e.getValue()))
+                .toList();
+        try {
+            log.debug("Actualizando disponibilidad de {} camiones en lote", requestBody.size());
+            
+            ResponseEntity<DisponibilidadLoteResultadoDTO> response = servicioRestClient.patch()
+                    .uri(uri)
+                    .contentType(formatoInterno)
+                    .accept(formatoInterno)
+                    .body(requestBody)
+                    .retrieve()
+                    .toEntity(DisponibilidadLoteResultadoDTO.class);
+
+            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
+                return response.getBody();
+            }
+            throw new RuntimeException("Respuesta inesperada de servicio-flota. Status: " + response.getStatusCode());
+        } catch (HttpClientErrorException e) {
+            throw new RuntimeException("Error HTTP al actualizar disponibilidad en lote: " + e.getStatusCode()
+                    + " - " + e.getResponseBodyAsString(), e);
+        }
+    }
+
+    /**
+     * Obtiene una página del feed de cambios de camiones (GET /api/camiones/changes)
+     * @param sinceVersion última versión ya aplicada (0 = snapshot completo)
+     * @param limite cantidad máxima de cambios
+     * @throws RuntimeException si la llamada falla (la réplica reintenta en el próximo ciclo)
+     */
+    public CambiosDTO<CamionReplicaDTO> obtenerCambiosCamiones(long sinceVersion, int limite) {
+        return obtenerCambios("/api/camiones/changes", sinceVersion, limite,
+                new ParameterizedTypeReference<CambiosDTO<CamionReplicaDTO>>() {});
+    }
+
+    /**
+     * Obtiene una página del feed de cambios de depósitos (GET /api/depositos/changes)
+     * @param sinceVersion última versión ya aplicada (0 = snapshot completo)
+     * @param limite cantidad máxima de cambios
+     * @throws RuntimeException si la llamada falla (la réplica reintenta en el próximo ciclo)
+     */
+    public CambiosDTO<DepositoReplicaDTO> obtenerCambiosDepositos(long sinceVersion, int limite) {
+        return obtenerCambios("/api/depositos/changes", sinceVersion, limite,
+                new ParameterizedTypeReference<CambiosDTO<DepositoReplicaDTO>>() {});
+    }
+
+    /**
+     * La réplica consulta los feeds en segundo plano y al arrancar, sin un JWT de usuario:
+     * viaja con la credencial del servicio (rol SERVICIO)
+     */
+    private <T> CambiosDTO<T> obtenerCambios(String uri, long sinceVersion, int limite,
+                                             ParameterizedTypeReference<CambiosDTO<T>> tipo) {
+        log.debug("Consultando feed de cambios {} desde la versión {}", uri, sinceVersion);
+        ResponseEntity<CambiosDTO<T>> response = servicioRestClient.get()
+                .uri(uriBuilder -> uriBuilder.path(uri)
+                        .queryParam("sinceVersion", sinceVersion)
+                        .queryParam("limite", limite)
+                        .build())
+                .accept(formatoInterno)
+                .retrieve()
+                .toEntity(tipo);
+
+        if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
+            return response.getBody();
+        }
+        throw new RuntimeException("Respuesta inesperada del feed de cambios " + uri + ". Status: " + response.getStatusCode());
+    }
+}
\ No newline at end of file
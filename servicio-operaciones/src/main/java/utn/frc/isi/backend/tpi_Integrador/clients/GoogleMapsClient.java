@@ -11,23 +11,37 @@ import org.springframework.web.client.RestClient;
 import utn.frc.isi.backend.tpi_Integrador.dtos.googlemaps.Element;
 import utn.frc.isi.backend.tpi_Integrador.dtos.googlemaps.GoogleDistanceMatrixResponse;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 @Slf4j
 @Component
 public class GoogleMapsClient {
 
+    // Límites de Distance Matrix: 100 elementos por request (origenes x destinos), 25 orígenes o destinos
+    private static final int MAX_PARES_POR_REQUEST = 10;
+    private static final int MAX_ELEMENTOS_POR_REQUEST = 100;
+    private static final int MAX_DIMENSION_POR_REQUEST = 25;
 
     private final RestClient restClient;
     private final String apiKey;
+    private final CuotaGoogleMaps cuotaGoogleMaps;
 
     public GoogleMapsClient(@Qualifier("googleMapsRestClient") RestClient restClient,
-                           @Value("${google.maps.api-key}") String apiKey) {
+                           @Value("${google.maps.api-key}") String apiKey,
+                           CuotaGoogleMaps cuotaGoogleMaps) {
         this.restClient = restClient;
         this.apiKey = apiKey;
+        this.cuotaGoogleMaps = cuotaGoogleMaps;
     }
 
     public Optional<Element> getDistance(String origen, String destino) {
+        // Sin cupo disponible se degrada: el llamador usa otro proveedor o el estimador local
+        if (!cuotaGoogleMaps.adquirir(1)) {
+            return Optional.empty();
+        }
         String uri = "/maps/api/distancematrix/json?origins={origen}&destinations={destino}&units=metric&key={apiKey}";
 
         try {
@@ -72,10 +86,136 @@ public class GoogleMapsClient {
         } catch (HttpClientErrorException e) {
             log.error("Error HTTP al llamar a Google Maps API: {} - {}", 
                        e.getStatusCode(), e.getMessage());
+        } catch (DependenciaNoDisponibleException e) {
+            log.warn("No se consultó Google Maps: {}", e.getMessage());
         } catch (Exception e) {
             log.error("Error inesperado al llamar a Google Maps API: {}", e.getMessage(), e);
         }
 
         return Optional.empty();
     }
+
+    /**
+     * Obtiene en una sola llamada Distance Matrix la distancia de cada par (origenes[i], destinos[i]).
+     * Se envían todos los orígenes y destinos juntos y se toma la diagonal de la matriz resultante.
+     * Si hay más pares que el límite por request, se divide en bloques.
+     *
+     * @param origenes Lista de orígenes en formato "lat,lng"
+     * @param destinos Lista de destinos en formato "lat,lng" (mismo tamaño que origenes)
+     * @return Lista del mismo tamaño con el Element de cada par, vacío si ese par falló
+     */
+    public List<Optional<Element>> getDistancias(List<String> origenes, List<String> destinos) {
+        if (origenes.size() != destinos.size()) {
+            throw new IllegalArgumentException("La cantidad de orígenes y destinos debe coincidir");
+        }
+        List<Optional<Element>> resultado = new ArrayList<>(origenes.size());
+        for (int desde = 0; desde < origenes.size(); desde += MAX_PARES_POR_REQUEST) {
+            int hasta = Math.min(desde + MAX_PARES_POR_REQUEST, origenes.size());
+            resultado.addAll(getDiagonal(origenes.subList(desde, hasta), destinos.subList(desde, hasta)));
+        }
+        return resultado;
+    }
+
+    private List<Optional<Element>> getDiagonal(List<String> origenes, List<String> destinos) {
+        List<List<Optional<Element>>> bloque = consultarBloque(origenes, destinos);
+        List<Optional<Element>> diagonal = new ArrayList<>(origenes.size());
+        for (int i = 0; i < origenes.size(); i++) {
+            diagonal.add(bloque.get(i).get(i));
+        }
+        return diagonal;
+    }
+
+    /**
+     * Obtiene la matriz completa origenes × destinos: cada celda [i][j] es la distancia de
+     * origenes[i] a destinos[j]. Se divide en bloques que respetan los límites de la API
+     * (25 orígenes, 25 destinos y 100 elementos por request), así cada elemento cobrado
+     * de la cuota corresponde a una celda pedida.
+     *
+     * @return Matriz alineada con origenes (filas) y destinos (columnas); celdas vacías si fallaron
+     */
+    public List<List<Optional<Element>>> getMatriz(List<String> origenes, List<String> destinos) {
+        List<List<Optional<Element>>> matriz = new ArrayList<>(origenes.size());
+        for (int i = 0; i < origenes.size(); i++) {
+            matriz.add(new ArrayList<>(Collections.nCopies(destinos.size(), Optional.empty())));
+        }
+        int columnasPorBloque = Math.min(destinos.size(), MAX_DIMENSION_POR_REQUEST);
+        int filasPorBloque = Math.max(1, Math.min(MAX_DIMENSION_POR_REQUEST, MAX_ELEMENTOS_POR_REQUEST / Math.max(1, columnasPorBloque)));
+        for (int fila = 0; fila < origenes.size(); fila += filasPorBloque) {
+            int hastaFila = Math.min(fila + filasPorBloque, origenes.size());
+            for (int columna = 0; columna < destinos.size(); columna += columnasPorBloque) {
+                int hastaColumna = Math.min(columna + columnasPorBloque, destinos.size());
+                List<List<Optional<Element>>> bloque = consultarBloque(
+                        origenes.subList(fila, hastaFila), destinos.subList(columna, hastaColumna));
+                for (int i = fila; i < hastaFila; i++) {
+                    for (int j = columna; j < hastaColumna; j++) {
+                        matriz.get(i).set(j, bloque.get(i - fila).get(j - columna));
+                    }
+                }
+            }
+        }
+        return matriz;
+    }
+
+    /**
+     * Una request Distance Matrix (dentro de los límites de la API); descuenta de la cuota
+     * orígenes × destinos elementos
+     */
+    private List<List<Optional<Element>>> consultarBloque(List<String> origenes, List<String> destinos) {
+        String uri = "/maps/api/distancematrix/json?origins={origenes}&destinations={destinos}&units=metric&key={apiKey}";
+        List<List<Optional<Element>>> bloque = new ArrayList<>(origenes.size());
+        for (int i = 0; i < origenes.size(); i++) {
+            bloque.add(new ArrayList<>(Collections.nCopies(destinos.size(), Optional.empty())));
+        }
+        if (!cuotaGoogleMaps.adquirir(origenes.size() * destinos.size())) {
+            return bloque;
+        }
+
+        try {
+            ResponseEntity<GoogleDistanceMatrixResponse> response = restClient
+                    .get()
+                    .uri(uri, String.join("|", origenes), String.join("|", destinos), apiKey)
+                    .retrieve()
+                    .toEntity(GoogleDistanceMatrixResponse.class);
+
+            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
+                GoogleDistanceMatrixResponse body = response.getBody();
+
+                if ("OK".equals(body.getStatus()) && body.getRows() != null
+                        && body.getRows().size() == origenes.size()) {
+                    for (int i = 0; i < origenes.size(); i++) {
+                        List<Element> elements = body.getRows().get(i).getElements();
+                        if (elements == null) {
+                            continue;
+                        }
+                        for (int j = 0; j < Math.min(elements.size(), destinos.size()); j++) {
+                            Element element = elements.get(j);
+                            if ("OK".equals(element.getStatus())) {
+                                bloque.get(i).set(j, Optional.of(element));
+                            } else {
+                                log.warn("Estado del elemento no OK: {} para ruta {} -> {}",
+                                          element.getStatus(), origenes.get(i), destinos.get(j));
+                            }
+                        }
+                    }
+                    log.info("Distance Matrix en lote obtenida exitosamente para {}x{} elementos", origenes.size(), destinos.size());
+                } else {
+                    log.warn("Respuesta de API inválida en lote: status={} para {}x{} elementos",
+                              body.getStatus(), origenes.size(), destinos.size());
+                }
+            } else {
+                log.error("Respuesta HTTP no OK en lote: {} para {}x{} elementos",
+                           response.getStatusCode(), origenes.size(), destinos.size());
+            }
+
+        } catch (HttpClientErrorException e) {
+            log.error("Error HTTP al llamar a Google Maps API en lote: {} - {}",
+                       e.getStatusCode(), e.getMessage());
+        } catch (DependenciaNoDisponibleException e) {
+            log.warn("No se consultó Google Maps en lote: {}", e.getMessage());
+        } catch (Exception e) {
+            log.error("Error inesperado al llamar a Google Maps API en lote: {}", e.getMessage(), e);
+        }
+
+        return bloque;
+    }
 }
@@ -0,0 +1,84 @@
+package utn.frc.isi.backend.tpi_Integrador.clients;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+
+/**
+ * Protección de las llamadas salientes a una dependencia (servicio-flota, Google Maps),
+ * aplicada como interceptor del RestClient sobre Resilience4j:
+ * <ul>
+ *   <li>Bulkhead: limita las llamadas concurrentes; si no hay lugar dentro de la espera máxima
+ *       se rechaza, para que una dependencia lenta no tome todos los hilos de requests.</li>
+ *   <li>Circuit breaker: sobre una ventana de las últimas llamadas, si la proporción de fallas
+ *       (errores de conexión/timeout y respuestas 5xx, ver {@link #esFalla}) supera el umbral,
+ *       el circuito se abre y las llamadas se rechazan sin intentarse; luego deja pasar unas
+ *       pocas de prueba (semiabierto) y se cierra si salen bien.</li>
+ * </ul>
+ * Los rechazos lanzan {@link DependenciaNoDisponibleException}; los clientes degradan con sus
+ * datos cacheados (foto de la tarifa, parámetros de costo vencidos, estimador local de distancias).
+ * Las métricas las publica resilience4j-micrometer (resilience4j.circuitbreaker.*, resilience4j.bulkhead.*).
+ */
+public class ProteccionDependencia implements ClientHttpRequestInterceptor {
+
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+
+    public ProteccionDependencia(CircuitBreaker circuitBreaker, Bulkhead bulkhead) {
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = bulkhead;
+    }
+
+    /**
+     * Resultado que el circuit breaker cuenta como falla aunque no haya excepción
+     */
+    public static boolean esFalla(Object resultado) {
+        return resultado instanceof ClientHttpResponse response && esError5xx(response);
+    }
+
+    private static boolean esError5xx(ClientHttpResponse response) {
+        try {
+            return response.getStatusCode().is5xxServerError();
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        try {
+            circuitBreaker.acquirePermission();
+        } catch (CallNotPermittedException e) {
+            throw new DependenciaNoDisponibleException(circuitBreaker.getName(), "circuito abierto");
+        }
+        try {
+            bulkhead.acquirePermission();
+        } catch (BulkheadFullException e) {
+            // La llamada no llegó a ejecutarse: se devuelve el permiso (turno de prueba si está semiabierto)
+            circuitBreaker.releasePermission();
+            throw new DependenciaNoDisponibleException(circuitBreaker.getName(), "máximo de llamadas concurrentes");
+        }
+        long inicio = circuitBreaker.getCurrentTimestamp();
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            circuitBreaker.onResult(circuitBreaker.getCurrentTimestamp() - inicio, circuitBreaker.getTimestampUnit(), response);
+            return response;
+        } catch (IOException | RuntimeException e) {
+            circuitBreaker.onError(circuitBreaker.getCurrentTimestamp() - inicio, circuitBreaker.getTimestampUnit(), e);
+            throw e;
+        } finally {
+            bulkhead.onComplete();
+        }
+    }
+
+    public CircuitBreaker.State getEstado() {
+        return circuitBreaker.getState();
+    }
+}
@@ -1,12 +1,39 @@
 package utn.frc.isi.backend.tpi_Integrador.config;
 
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.client.AuthorizedClientServiceOAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientProviderBuilder;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientService;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.oauth2.client.web.client.OAuth2ClientHttpRequestInterceptor;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.web.client.RestClient;
+import utn.frc.isi.backend.tpi_Integrador.clients.ProteccionDependencia;
+
+import java.time.Duration;
 
 @Configuration
 public class RestClientConfig {
@@ -17,17 +44,66 @@ public class RestClientConfig {
     @Value("${servicio-flota.base-url}")
     private String servicioFlotaBaseUrl;
 
+    // Registro OAuth2 (client credentials) con el que este servicio se identifica ante los demás
+    @Value("${servicio.credencial.registro:servicio-operaciones}")
+    private String registroCredencialServicio;
+
+    // Registros de Resilience4j, con sus métricas publicadas en Micrometer
+    @Bean
+    public CircuitBreakerRegistry circuitBreakerRegistry(MeterRegistry meterRegistry) {
+        CircuitBreakerRegistry registro = CircuitBreakerRegistry.ofDefaults();
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registro).bindTo(meterRegistry);
+        return registro;
+    }
+
     @Bean
-    public RestClient googleMapsRestClient() {
+    public BulkheadRegistry bulkheadRegistry(MeterRegistry meterRegistry) {
+        BulkheadRegistry registro = BulkheadRegistry.ofDefaults();
+        TaggedBulkheadMetrics.ofBulkheadRegistry(registro).bindTo(meterRegistry);
+        return registro;
+    }
+
+    // Circuit breaker y límite de concurrencia por dependencia (ver ProteccionDependencia)
+    @Bean
+    public ProteccionDependencia proteccionGoogleMaps(Environment env, CircuitBreakerRegistry circuitBreakers,
+                                                      BulkheadRegistry bulkheads) {
+        return proteccion("google-maps", "google.maps", env, circuitBreakers, bulkheads);
+    }
+
+    @Bean
+    public ProteccionDependencia proteccionFlota(Environment env, CircuitBreakerRegistry circuitBreakers,
+                                                 BulkheadRegistry bulkheads) {
+        return proteccion("servicio-flota", "servicio-flota", env, circuitBreakers, bulkheads);
+    }
+
+    @Bean
+    public RestClient googleMapsRestClient(Environment env,
+                                           @Qualifier("proteccionGoogleMaps") ProteccionDependencia proteccion) {
         return RestClient.builder()
                 .baseUrl(googleMapsBaseUrl)
+                .requestFactory(fabricaConPool("google.maps", env, 5000))
+                .requestInterceptor(proteccion)
                 .build();
     }
 
+    /**
+     * Pool de conexiones a servicio-flota, compartido por los clientes con el JWT del usuario y con la
+     * credencial del servicio: servicio-flota.http.max-conexiones acota el total de conexiones a
+     * servicio-flota, igual que proteccionFlota acota las llamadas concurrentes de ambos.
+     */
+    @Bean
+    public HttpComponentsClientHttpRequestFactory fabricaFlota(Environment env) {
+        return fabricaConPool("servicio-flota", env, 3000);
+    }
+
     @Bean
-    public RestClient flotaRestClient(RestClient.Builder builder) {
+    public RestClient flotaRestClient(RestClient.Builder builder,
+                                      @Qualifier("fabricaFlota") HttpComponentsClientHttpRequestFactory fabricaFlota,
+                                      @Qualifier("proteccionFlota") ProteccionDependencia proteccion) {
         return builder
                 .baseUrl(servicioFlotaBaseUrl)
+                .requestFactory(fabricaFlota)
+                .requestInterceptor(proteccion)
                 .requestInterceptor((request, body, execution) -> {
                     // Propagar el token JWT del contexto de seguridad actual
                     Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -40,4 +116,100 @@ public class RestClientConfig {
                 })
                 .build();
     }
+
+    /**
+     * Tokens de la credencial propia del servicio (client credentials contra Keycloak).
+     * Se guardan en memoria hasta que vencen; no dependen de un request ni de un usuario.
+     */
+    @Bean
+    public OAuth2AuthorizedClientManager credencialServicioManager(ClientRegistrationRepository registros,
+                                                                   OAuth2AuthorizedClientService clientes) {
+        AuthorizedClientServiceOAuth2AuthorizedClientManager manager =
+                new AuthorizedClientServiceOAuth2AuthorizedClientManager(registros, clientes);
+        manager.setAuthorizedClientProvider(OAuth2AuthorizedClientProviderBuilder.builder()
+                .clientCredentials()
+                .build());
+        return manager;
+    }
+
+    /**
+     * Cliente de servicio-flota para las llamadas que hace el propio servicio en segundo plano
+     * (outbox de disponibilidad, réplica de catálogos): se autentica con la credencial del
+     * servicio, nunca con el JWT de un usuario.
+     */
+    @Bean
+    public RestClient flotaServicioRestClient(RestClient.Builder builder,
+                                              @Qualifier("fabricaFlota") HttpComponentsClientHttpRequestFactory fabricaFlota,
+                                              @Qualifier("proteccionFlota") ProteccionDependencia proteccion,
+                                              @Qualifier("credencialServicioManager") OAuth2AuthorizedClientManager credencialServicioManager) {
+        OAuth2ClientHttpRequestInterceptor credencial = new OAuth2ClientHttpRequestInterceptor(credencialServicioManager);
+        credencial.setClientRegistrationIdResolver(request -> registroCredencialServicio);
+        // Un único token para el servicio, sin importar el usuario del hilo actual
+        Authentication servicio = UsernamePasswordAuthenticationToken.unauthenticated(registroCredencialServicio, null);
+        credencial.setPrincipalResolver(request -> servicio);
+        return builder
+                .baseUrl(servicioFlotaBaseUrl)
+                .requestFactory(fabricaFlota)
+                .requestInterceptor(proteccion)
+                .requestInterceptor(credencial)
+                .build();
+    }
+
+    /**
+     * Pool de conexiones HTTP con keep-alive, cantidad de conexiones acotada y timeouts explícitos
+     * (sin timeouts, una dependencia colgada bloquea indefinidamente los hilos de requests).
+     * Propiedades bajo {prefijo}.http: connect-timeout-ms, read-timeout-ms, max-conexiones,
+     * espera-conexion-ms (espera por una conexión libre del pool).
+     */
+    private HttpComponentsClientHttpRequestFactory fabricaConPool(String prefijo, Environment env, long readTimeoutPorDefecto) {
+        long connectTimeout = env.getProperty(prefijo + ".http.connect-timeout-ms", Long.class, 1000L);
+        long readTimeout = env.getProperty(prefijo + ".http.read-timeout-ms", Long.class, readTimeoutPorDefecto);
+        int maxConexiones = env.getProperty(prefijo + ".http.max-conexiones", Integer.class, 20);
+        long esperaConexion = env.getProperty(prefijo + ".http.espera-conexion-ms", Long.class, 500L);
+
+        PoolingHttpClientConnectionManager pool = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConexiones)
+                .setMaxConnPerRoute(maxConexiones)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeout))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeout))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(10))
+                        .setTimeToLive(TimeValue.ofMinutes(5))
+                        .build())
+                .build();
+        return new HttpComponentsClientHttpRequestFactory(HttpClients.custom()
+                .setConnectionManager(pool)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(esperaConexion))
+                        .setResponseTimeout(Timeout.ofMilliseconds(readTimeout))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(30))
+                .build());
+    }
+
+    /**
+     * Propiedades bajo {prefijo}.resiliencia: max-concurrentes, espera-maxima-ms, ventana,
+     * minimo-llamadas, umbral-fallas (proporción, ej: 0.5), duracion-abierto-ms, llamadas-prueba.
+     */
+    private ProteccionDependencia proteccion(String dependencia, String prefijo, Environment env,
+                                             CircuitBreakerRegistry circuitBreakers, BulkheadRegistry bulkheads) {
+        String p = prefijo + ".resiliencia.";
+        int ventana = Math.max(1, env.getProperty(p + "ventana", Integer.class, 20));
+        CircuitBreakerConfig circuito = CircuitBreakerConfig.custom()
+                .slidingWindow(ventana,
+                        Math.max(1, Math.min(env.getProperty(p + "minimo-llamadas", Integer.class, 10), ventana)),
+                        CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .failureRateThreshold((float) (env.getProperty(p + "umbral-fallas", Double.class, 0.5) * 100))
+                .waitDurationInOpenState(Duration.ofMillis(env.getProperty(p + "duracion-abierto-ms", Long.class, 10000L)))
+                .permittedNumberOfCallsInHalfOpenState(Math.max(1, env.getProperty(p + "llamadas-prueba", Integer.class, 3)))
+                .recordResult(ProteccionDependencia::esFalla)
+                .build();
+        BulkheadConfig concurrencia = BulkheadConfig.custom()
+                .maxConcurrentCalls(env.getProperty(p + "max-concurrentes", Integer.class, 20))
+                .maxWaitDuration(Duration.ofMillis(env.getProperty(p + "espera-maxima-ms", Long.class, 100L)))
+                .build();
+        return new ProteccionDependencia(circuitBreakers.circuitBreaker(dependencia, circuito),
+                bulkheads.bulkhead(dependencia, concurrencia));
+    }
 }
@@ -68,16 +68,27 @@ public class SecurityConfig {
                 .requestMatchers("/swagger-resources/**").permitAll()
                 .requestMatchers("/webjars/**").permitAll()
                 
+                // Avisos de cambios desde servicio-flota (sin datos, solo invalidan la foto local):
+                // endpoint interno, solo con la credencial de servicio de servicio-flota
+                .requestMatchers(HttpMethod.POST, "/internal/notificaciones/**").hasRole("SERVICIO")
+                
                 // ===== Endpoints de API =====
                 // Consultas de estado - usuarios autenticados y transportistas
                 .requestMatchers(HttpMethod.GET, "/api/solicitudes/*/estado").authenticated()
                 .requestMatchers(HttpMethod.GET, "/api/contenedores/*/estado").authenticated()
                 .requestMatchers(HttpMethod.GET, "/api/tramos/transportistas/**").hasAnyRole("TRANSPORTISTA", "OPERACIONES_MANAGER", "ADMIN")
                 
+                // Exportaciones masivas (NDJSON) - back-office
+                .requestMatchers(HttpMethod.GET, "/api/solicitudes/export", "/api/tramos/export").hasAnyRole("ADMIN", "OPERACIONES_MANAGER")
+                
                 // Lectura general (GET) - cualquier usuario autenticado
                 .requestMatchers(HttpMethod.GET, "/api/**")
                     .hasAnyRole("ADMIN", "OPERACIONES_MANAGER", "TRANSPORTISTA", "USER")
                 
+                // Cálculo asíncrono de rutas tentativas - mismos roles que la consulta (GET)
+                .requestMatchers(HttpMethod.POST, "/api/solicitudes/*/rutas/tentativas/trabajos")
+                    .hasAnyRole("ADMIN", "OPERACIONES_MANAGER", "TRANSPORTISTA", "USER")
+                
                 // Creación (POST) - solo managers
                 .requestMatchers(HttpMethod.POST, "/api/**")
                     .hasAnyRole("ADMIN", "OPERACIONES_MANAGER")
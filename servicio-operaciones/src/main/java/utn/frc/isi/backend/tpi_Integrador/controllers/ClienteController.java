@@ -12,9 +12,10 @@ import org.springframework.web.bind.annotation.*;
 import utn.frc.isi.backend.tpi_Integrador.dtos.ClienteCreateDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.ClienteDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.ClienteUpdateDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.PaginaDTO;
+import utn.frc.isi.backend.tpi_Integrador.paginacion.ConsultaPagina;
 import utn.frc.isi.backend.tpi_Integrador.services.ClienteService;
 
-import java.util.List;
 
 @Tag(name = "Clientes", description = "API de gestión de clientes del sistema de transporte")
 @RestController
@@ -27,17 +28,23 @@ public class ClienteController {
         this.clienteService = clienteService;
     }
 
-    @Operation(summary = "Obtener todos los clientes", 
-               description = "Devuelve una lista completa de todos los clientes registrados en el sistema")
+    @Operation(summary = "Listar clientes", 
+               description = "Devuelve una página de los clientes registrados en el sistema. " +
+                             "Paginado por keyset: para la página siguiente se envía cursor = siguienteCursor mientras hayMas sea true, " +
+                             "con el mismo sort. limit entre 1 y 500; sort = campo o campo,desc (campos: id, nombre)")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Lista de clientes devuelta exitosamente",
+        @ApiResponse(responseCode = "200", description = "Página de clientes devuelta exitosamente",
                      content = @Content(mediaType = "application/json",
-                     schema = @Schema(implementation = ClienteDTO.class)))
+                     schema = @Schema(implementation = PaginaDTO.class))),
+        @ApiResponse(responseCode = "400", description = "limit fuera de rango, sort no permitido o cursor inválido",
+                     content = @Content)
     })
     @GetMapping
-    public ResponseEntity<List<ClienteDTO>> obtenerTodos() {
-        List<ClienteDTO> clientes = clienteService.obtenerTodos();
-        return ResponseEntity.ok(clientes);
+    public ResponseEntity<PaginaDTO<ClienteDTO>> listar(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(defaultValue = "id") String sort) {
+        return ResponseEntity.ok(clienteService.listar(new ConsultaPagina(cursor, limit, sort)));
     }
 
     @Operation(summary = "Obtener un cliente por ID", 
@@ -14,6 +14,8 @@ import utn.frc.isi.backend.tpi_Integrador.dtos.ContenedorDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.ContenedorEstadoDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.ContenedorPendienteDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.ContenedorUpdateDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.PaginaDTO;
+import utn.frc.isi.backend.tpi_Integrador.paginacion.ConsultaPagina;
 import utn.frc.isi.backend.tpi_Integrador.services.ContenedorService;
 
 import java.util.List;
@@ -29,17 +31,25 @@ public class ContenedorController {
         this.contenedorService = contenedorService;
     }
 
-    @Operation(summary = "Obtener todos los contenedores", 
-               description = "Devuelve una lista completa de todos los contenedores registrados en el sistema")
+    @Operation(summary = "Listar contenedores", 
+               description = "Devuelve una página de los contenedores, filtrable por estado y cliente. " +
+                             "Paginado por keyset: para la página siguiente se envía cursor = siguienteCursor mientras hayMas sea true, " +
+                             "con el mismo sort. limit entre 1 y 500; sort = campo o campo,desc (campos: id, numero, peso)")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Lista de contenedores devuelta exitosamente",
+        @ApiResponse(responseCode = "200", description = "Página de contenedores devuelta exitosamente",
                      content = @Content(mediaType = "application/json",
-                     schema = @Schema(implementation = ContenedorDTO.class)))
+                     schema = @Schema(implementation = PaginaDTO.class))),
+        @ApiResponse(responseCode = "400", description = "limit fuera de rango, sort no permitido o cursor inválido",
+                     content = @Content)
     })
     @GetMapping
-    public ResponseEntity<List<ContenedorDTO>> obtenerTodos() {
-        List<ContenedorDTO> contenedores = contenedorService.obtenerTodos();
-        return ResponseEntity.ok(contenedores);
+    public ResponseEntity<PaginaDTO<ContenedorDTO>> listar(
+            @RequestParam(required = false) String estado,
+            @RequestParam(required = false) Long clienteId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(defaultValue = "id") String sort) {
+        return ResponseEntity.ok(contenedorService.listar(estado, clienteId, new ConsultaPagina(cursor, limit, sort)));
     }
 
     @Operation(summary = "Obtener un contenedor por ID", 
@@ -127,15 +137,26 @@ public class ContenedorController {
     }
     
     @Operation(summary = "Consultar contenedores pendientes (RF#5)", 
-               description = "Retorna la lista de contenedores que aún no han sido entregados y están disponibles para asignación a rutas de transporte")
+               description = "Retorna una página de contenedores que aún no han sido entregados y están disponibles para asignación " +
+                             "a rutas de transporte, ordenados por ID. Para la página siguiente se envía afterId = ID del último " +
+                             "contenedor recibido; una página con menos de limit elementos es la última")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Lista de contenedores pendientes devuelta exitosamente",
                      content = @Content(mediaType = "application/json",
-                     schema = @Schema(implementation = ContenedorPendienteDTO.class)))
+                     schema = @Schema(implementation = ContenedorPendienteDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Estado no pendiente, afterId negativo o limit fuera de rango (1 a 1000)",
+                     content = @Content)
     })
     @GetMapping("/pendientes")
-    public ResponseEntity<List<ContenedorPendienteDTO>> consultarContenedoresPendientes() {
-        List<ContenedorPendienteDTO> pendientes = contenedorService.consultarPendientes();
+    public ResponseEntity<List<ContenedorPendienteDTO>> consultarContenedoresPendientes(
+            @RequestParam(required = false) String estado,
+            @RequestParam(required = false) Long clienteId,
+            @RequestParam(defaultValue = "0") long afterId,
+            @RequestParam(defaultValue = "500") int limit) {
+        if (afterId < 0 || limit < 1 || limit > 1000) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<ContenedorPendienteDTO> pendientes = contenedorService.consultarPendientes(estado, clienteId, afterId, limit);
         return ResponseEntity.ok(pendientes);
     }
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package utn.frc.isi.backend.tpi_Integrador.controllers;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import utn.frc.isi.backend.tpi_Integrador.clients.FlotaServiceClient;
+
+/**
+ * Recibe avisos de cambios desde servicio-flota para invalidar los datos que
+ * este servicio mantiene en memoria. Los avisos no llevan datos: solo fuerzan
+ * que la próxima consulta se revalide contra servicio-flota.
+ * Es un endpoint interno (fuera de /api, el gateway no lo expone) y solo acepta
+ * la credencial de servicio (rol SERVICIO).
+ */
+@RestController
+@RequestMapping("/internal/notificaciones")
+public class FlotaNotificacionController {
+
+    private final FlotaServiceClient flotaServiceClient;
+
+    public FlotaNotificacionController(FlotaServiceClient flotaServiceClient) {
+        this.flotaServiceClient = flotaServiceClient;
+    }
+
+    /**
+     * POST /internal/notificaciones/tarifa
+     * Aviso de que la tarifa activa cambió (alta, modificación o activación)
+     */
+    @PostMapping("/tarifa")
+    public ResponseEntity<Void> tarifaModificada() {
+        flotaServiceClient.invalidarTarifa();
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * POST /internal/notificaciones/camiones/{camionId}
+     * Aviso de que los datos de un camión cambiaron o el camión fue eliminado
+     */
+    @PostMapping("/camiones/{camionId}")
+    public ResponseEntity<Void> camionModificado(@PathVariable Long camionId) {
+        flotaServiceClient.invalidarCamion(camionId);
+        return ResponseEntity.noContent().build();
+    }
+}
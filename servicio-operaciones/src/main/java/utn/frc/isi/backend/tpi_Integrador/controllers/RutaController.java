@@ -9,11 +9,12 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import utn.frc.isi.backend.tpi_Integrador.dtos.PaginaDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.RutaDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.RutaUpdateDTO;
+import utn.frc.isi.backend.tpi_Integrador.paginacion.ConsultaPagina;
 import utn.frc.isi.backend.tpi_Integrador.services.RutaService;
 
-import java.util.List;
 
 @Tag(name = "Rutas", description = "API de gestión de rutas de transporte y planificación de trayectos")
 @RestController
@@ -26,17 +27,23 @@ public class RutaController {
         this.rutaService = rutaService;
     }
 
-    @Operation(summary = "Obtener todas las rutas", 
-               description = "Retorna la lista completa de rutas registradas en el sistema")
+    @Operation(summary = "Listar rutas", 
+               description = "Retorna una página de las rutas registradas en el sistema. " +
+                             "Paginado por keyset: para la página siguiente se envía cursor = siguienteCursor mientras hayMas sea true, " +
+                             "con el mismo sort. limit entre 1 y 500; sort = campo o campo,desc (campos: id, distanciaKm)")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Lista de rutas retornada exitosamente",
+        @ApiResponse(responseCode = "200", description = "Página de rutas devuelta exitosamente",
                      content = @Content(mediaType = "application/json",
-                     schema = @Schema(implementation = RutaDTO.class)))
+                     schema = @Schema(implementation = PaginaDTO.class))),
+        @ApiResponse(responseCode = "400", description = "limit fuera de rango, sort no permitido o cursor inválido",
+                     content = @Content)
     })
     @GetMapping
-    public ResponseEntity<List<RutaDTO>> obtenerTodas() {
-        List<RutaDTO> rutas = rutaService.obtenerTodas();
-        return ResponseEntity.ok(rutas);
+    public ResponseEntity<PaginaDTO<RutaDTO>> listar(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(defaultValue = "id") String sort) {
+        return ResponseEntity.ok(rutaService.listar(new ConsultaPagina(cursor, limit, sort)));
     }
 
     @Operation(summary = "Obtener ruta por ID", 
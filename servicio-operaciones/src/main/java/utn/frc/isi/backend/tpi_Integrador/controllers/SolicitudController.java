@@ -7,9 +7,14 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import utn.frc.isi.backend.tpi_Integrador.dtos.FinalizacionSolicitudDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.PaginaDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.RutaCreateDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.RutaDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.RutaTentativaDTO;
@@ -17,10 +22,19 @@ import utn.frc.isi.backend.tpi_Integrador.dtos.SolicitudCreateDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.SolicitudDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.SolicitudEstadoDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.SolicitudUpdateDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.TrabajoRutasDTO;
+import utn.frc.isi.backend.tpi_Integrador.paginacion.ConsultaPagina;
+import utn.frc.isi.backend.tpi_Integrador.services.ExportacionService;
 import utn.frc.isi.backend.tpi_Integrador.services.RutaService;
 import utn.frc.isi.backend.tpi_Integrador.services.SolicitudService;
+import utn.frc.isi.backend.tpi_Integrador.services.TrabajoRutasService;
 
+import java.net.URI;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @Tag(name = "Solicitudes", description = "API de gestión de solicitudes de transporte y logística")
 @RestController
@@ -29,23 +43,61 @@ public class SolicitudController {
 
     private final SolicitudService solicitudService;
     private final RutaService rutaService;
+    private final TrabajoRutasService trabajoRutasService;
+    private final ExportacionService exportacionService;
+    private final long esperaMaximaTrabajoSegundos;
 
-    public SolicitudController(SolicitudService solicitudService, RutaService rutaService) {
+    public SolicitudController(SolicitudService solicitudService, RutaService rutaService,
+                               TrabajoRutasService trabajoRutasService,
+                               ExportacionService exportacionService,
+                               @Value("${rutas.trabajos.espera-maxima-segundos:30}") long esperaMaximaTrabajoSegundos) {
         this.solicitudService = solicitudService;
         this.rutaService = rutaService;
+        this.trabajoRutasService = trabajoRutasService;
+        this.exportacionService = exportacionService;
+        this.esperaMaximaTrabajoSegundos = esperaMaximaTrabajoSegundos;
     }
 
-    @Operation(summary = "Obtener todas las solicitudes", 
-               description = "Devuelve una lista completa de todas las solicitudes de transporte registradas en el sistema")
+    @Operation(summary = "Listar solicitudes", 
+               description = "Devuelve una página de las solicitudes de transporte, filtrable por estado, cliente y rango de fechas. " +
+                             "Paginado por keyset: para la página siguiente se envía cursor = siguienteCursor mientras hayMas sea true, " +
+                             "con el mismo sort. limit entre 1 y 500; sort = campo o campo,desc (campos: id, costoEstimado)")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Lista de solicitudes devuelta exitosamente",
+        @ApiResponse(responseCode = "200", description = "Página de solicitudes devuelta exitosamente",
                      content = @Content(mediaType = "application/json",
-                     schema = @Schema(implementation = SolicitudDTO.class)))
+                     schema = @Schema(implementation = PaginaDTO.class))),
+        @ApiResponse(responseCode = "400", description = "limit fuera de rango, sort no permitido o cursor inválido",
+                     content = @Content)
     })
     @GetMapping
-    public ResponseEntity<List<SolicitudDTO>> obtenerTodas() {
-        List<SolicitudDTO> solicitudes = solicitudService.obtenerTodas();
-        return ResponseEntity.ok(solicitudes);
+    public ResponseEntity<PaginaDTO<SolicitudDTO>> listar(
+            @RequestParam(required = false) String estado,
+            @RequestParam(required = false) Long clienteId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaDesde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaHasta,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(defaultValue = "id") String sort) {
+        return ResponseEntity.ok(solicitudService.listar(estado, clienteId, fechaDesde, fechaHasta, new ConsultaPagina(cursor, limit, sort)));
+    }
+
+    @Operation(summary = "Exportar solicitudes (NDJSON)",
+               description = "Descarga las solicitudes en NDJSON (un objeto JSON por línea, ordenados por ID), escrito a medida que se lee de la base. " +
+                             "Con since (fecha-hora ISO) solo incluye los modificados desde ese momento, para exportaciones incrementales: " +
+                             "el cliente guarda el mayor fechaActualizacion recibido y lo envía como since en la próxima llamada (puede repetir filas, se deduplican por id)")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Exportación en curso",
+                     content = @Content(mediaType = "application/x-ndjson")),
+        @ApiResponse(responseCode = "400", description = "since con formato inválido",
+                     content = @Content)
+    })
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+        StreamingResponseBody cuerpo = salida -> exportacionService.exportarSolicitudes(since, salida);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(cuerpo);
     }
 
     @Operation(summary = "Crear nueva solicitud de transporte (RF#1)", 
@@ -90,7 +142,8 @@ public class SolicitudController {
     }
     
     @Operation(summary = "Consultar rutas tentativas (RF#3)", 
-               description = "Calcula y devuelve opciones de rutas posibles con estimaciones de costo, tiempo y distancia para evaluar antes de la asignación definitiva")
+               description = "Calcula y devuelve opciones de rutas posibles con estimaciones de costo, tiempo y distancia para evaluar antes de la asignación definitiva. " +
+                             "modo=ESTIMADO usa un estimador local sin llamadas externas; modo=PRECISO (por defecto) usa Google Maps con respaldo local")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Rutas tentativas calculadas exitosamente",
                      content = @Content(mediaType = "application/json",
@@ -99,16 +152,86 @@ public class SolicitudController {
                      content = @Content)
     })
     @GetMapping("/{solicitudId}/rutas/tentativas")
-    public ResponseEntity<List<RutaTentativaDTO>> consultarRutasTentativas(@PathVariable Long solicitudId) {
+    public ResponseEntity<List<RutaTentativaDTO>> consultarRutasTentativas(
+            @PathVariable Long solicitudId,
+            @RequestParam(defaultValue = RutaService.MODO_PRECISO) String modo) {
         try {
-            List<RutaTentativaDTO> rutas = rutaService.calcularRutasTentativas(solicitudId);
+            // Si ya hay un resultado precalculado se reutiliza; si no, se calcula en el momento (sin esperar al precálculo)
+            String modoCalculo = modo.toUpperCase();
+            List<RutaTentativaDTO> rutas = trabajoRutasService
+                    .obtenerRutasCalculadas(solicitudId, modoCalculo)
+                    .orElseGet(() -> rutaService.calcularRutasTentativas(solicitudId, modoCalculo));
             return ResponseEntity.ok(rutas);
+        } catch (IllegalArgumentException e) {
+            // Modo de cálculo inválido
+            return ResponseEntity.badRequest().build();
         } catch (RuntimeException e) {
             // Si la solicitud no existe o no tiene ruta asociada
             return ResponseEntity.notFound().build();
         }
     }
     
+    @Operation(summary = "Calcular rutas tentativas en segundo plano (RF#3)", 
+               description = "Crea un trabajo de cálculo de rutas tentativas y devuelve su ID de inmediato. " +
+                             "Si ya existe un trabajo vigente para la misma solicitud y modo, se devuelve ese")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Trabajo creado; consultar su estado con el ID devuelto",
+                     content = @Content(mediaType = "application/json",
+                     schema = @Schema(implementation = TrabajoRutasDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Modo de cálculo inválido",
+                     content = @Content),
+        @ApiResponse(responseCode = "503", description = "Demasiados cálculos en curso, reintentar más tarde",
+                     content = @Content)
+    })
+    @PostMapping("/{solicitudId}/rutas/tentativas/trabajos")
+    public ResponseEntity<TrabajoRutasDTO> crearTrabajoRutasTentativas(
+            @PathVariable Long solicitudId,
+            @RequestParam(defaultValue = RutaService.MODO_PRECISO) String modo) {
+        try {
+            TrabajoRutasDTO trabajo = trabajoRutasService.crearTrabajo(solicitudId, modo.toUpperCase());
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/solicitudes/" + solicitudId + "/rutas/tentativas/trabajos/" + trabajo.getId()))
+                    .body(trabajo);
+        } catch (IllegalArgumentException e) {
+            // Modo de cálculo inválido
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            // Pool de cálculo saturado
+            return ResponseEntity.status(503).build();
+        }
+    }
+    
+    @Operation(summary = "Consultar trabajo de rutas tentativas (RF#3)", 
+               description = "Devuelve el estado del trabajo y, si está COMPLETADO, las rutas calculadas. " +
+                             "Con esperaSegundos > 0 la respuesta se demora hasta que el trabajo termine o venza la espera (long-polling)")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Estado del trabajo",
+                     content = @Content(mediaType = "application/json",
+                     schema = @Schema(implementation = TrabajoRutasDTO.class))),
+        @ApiResponse(responseCode = "404", description = "Trabajo inexistente o vencido",
+                     content = @Content)
+    })
+    @GetMapping("/{solicitudId}/rutas/tentativas/trabajos/{trabajoId}")
+    public CompletableFuture<ResponseEntity<TrabajoRutasDTO>> consultarTrabajoRutasTentativas(
+            @PathVariable Long solicitudId,
+            @PathVariable String trabajoId,
+            @RequestParam(defaultValue = "0") long esperaSegundos) {
+        long espera = Math.min(Math.max(esperaSegundos, 0), esperaMaximaTrabajoSegundos);
+        if (espera == 0) {
+            return CompletableFuture.completedFuture(respuestaTrabajo(trabajoRutasService.obtenerTrabajo(trabajoId), solicitudId));
+        }
+        return trabajoRutasService.esperarTrabajo(trabajoId, espera)
+                .map(futuro -> futuro.thenApply(t -> respuestaTrabajo(Optional.of(t), solicitudId)))
+                .orElseGet(() -> CompletableFuture.completedFuture(ResponseEntity.notFound().build()));
+    }
+    
+    private static ResponseEntity<TrabajoRutasDTO> respuestaTrabajo(Optional<TrabajoRutasDTO> trabajo, Long solicitudId) {
+        // El trabajo debe pertenecer a la solicitud de la URL
+        return trabajo.filter(t -> t.getSolicitudId().equals(solicitudId))
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+    
     @Operation(summary = "Asignar ruta definitiva a solicitud (RF#6)", 
                description = "Confirma una ruta tentativa como definitiva, crea los tramos de transporte y cambia el estado de la solicitud a PROGRAMADA")
     @ApiResponses(value = {
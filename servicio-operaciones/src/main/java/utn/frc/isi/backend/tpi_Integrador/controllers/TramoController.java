@@ -7,12 +7,20 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import utn.frc.isi.backend.tpi_Integrador.dtos.AsignacionCamionDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.PaginaDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.TramoDTO;
+import utn.frc.isi.backend.tpi_Integrador.paginacion.ConsultaPagina;
+import utn.frc.isi.backend.tpi_Integrador.services.ExportacionService;
 import utn.frc.isi.backend.tpi_Integrador.services.TramoService;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Tag(name = "Tramos", description = "API de gestión de tramos de transporte, asignación de camiones y seguimiento de viajes")
@@ -21,22 +29,53 @@ import java.util.List;
 public class TramoController {
 
     private final TramoService tramoService;
+    private final ExportacionService exportacionService;
 
-    public TramoController(TramoService tramoService) {
+    public TramoController(TramoService tramoService, ExportacionService exportacionService) {
         this.tramoService = tramoService;
+        this.exportacionService = exportacionService;
     }
 
-    @Operation(summary = "Obtener todos los tramos", 
-               description = "Retorna la lista completa de tramos registrados en el sistema")
+    @Operation(summary = "Listar tramos", 
+               description = "Retorna una página de los tramos, filtrable por estado, ruta y rango de fechas de inicio estimado. " +
+                             "Paginado por keyset: para la página siguiente se envía cursor = siguienteCursor mientras hayMas sea true, " +
+                             "con el mismo sort. limit entre 1 y 500; sort = campo o campo,desc (campos: id, orden)")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Lista de tramos retornada exitosamente",
+        @ApiResponse(responseCode = "200", description = "Página de tramos devuelta exitosamente",
                      content = @Content(mediaType = "application/json",
-                     schema = @Schema(implementation = TramoDTO.class)))
+                     schema = @Schema(implementation = PaginaDTO.class))),
+        @ApiResponse(responseCode = "400", description = "limit fuera de rango, sort no permitido o cursor inválido",
+                     content = @Content)
     })
     @GetMapping
-    public ResponseEntity<List<TramoDTO>> obtenerTodos() {
-        List<TramoDTO> tramos = tramoService.obtenerTodos();
-        return ResponseEntity.ok(tramos);
+    public ResponseEntity<PaginaDTO<TramoDTO>> listar(
+            @RequestParam(required = false) String estado,
+            @RequestParam(required = false) Long rutaId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaDesde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaHasta,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(defaultValue = "id") String sort) {
+        return ResponseEntity.ok(tramoService.listar(estado, rutaId, fechaDesde, fechaHasta, new ConsultaPagina(cursor, limit, sort)));
+    }
+
+    @Operation(summary = "Exportar tramos (NDJSON)",
+               description = "Descarga los tramos en NDJSON (un objeto JSON por línea, ordenados por ID), escrito a medida que se lee de la base. " +
+                             "Con since (fecha-hora ISO) solo incluye los modificados desde ese momento, para exportaciones incrementales: " +
+                             "el cliente guarda el mayor fechaActualizacion recibido y lo envía como since en la próxima llamada (puede repetir filas, se deduplican por id)")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Exportación en curso",
+                     content = @Content(mediaType = "application/x-ndjson")),
+        @ApiResponse(responseCode = "400", description = "since con formato inválido",
+                     content = @Content)
+    })
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+        StreamingResponseBody cuerpo = salida -> exportacionService.exportarTramos(since, salida);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(cuerpo);
     }
 
     @Operation(summary = "Obtener tramo por ID", 
@@ -1,12 +1,14 @@
 package utn.frc.isi.backend.tpi_Integrador.dtos;
 
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 /**
  * DTO para RF#5: Consultar contenedores pendientes de asignación a transporte
  * Representa un contenedor que aún no ha sido asignado a ningún viaje
  */
 @Data
+@NoArgsConstructor
 public class ContenedorPendienteDTO {
     private Long id;
     private String numero;
@@ -14,4 +16,13 @@ public class ContenedorPendienteDTO {
     private String ubicacionActual;
     private String cliente;
     private Long solicitudId;
+
+    // Usado por la proyección de ContenedorRepository; la ubicación se completa en el servicio
+    public ContenedorPendienteDTO(Long id, String numero, String estado, String cliente, Long solicitudId) {
+        this.id = id;
+        this.numero = numero;
+        this.estado = estado;
+        this.cliente = cliente;
+        this.solicitudId = solicitudId;
+    }
 }
@@ -0,0 +1,22 @@
+package utn.frc.isi.backend.tpi_Integrador.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Página de un listado paginado por keyset (ver PaginadorKeyset).
+ * No informa el total de elementos: para la página siguiente se envía siguienteCursor
+ * mientras hayMas sea true.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaDTO<T> {
+
+    private List<T> items;
+    private String siguienteCursor; // null si no hay más páginas
+    private boolean hayMas;
+}
@@ -0,0 +1,25 @@
+package utn.frc.isi.backend.tpi_Integrador.dtos;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Fila de la exportación de solicitudes (GET /api/solicitudes/export, una línea NDJSON por solicitud).
+ * Plana, con las relaciones como IDs, para conciliación en el back-office.
+ */
+@Data
+public class SolicitudExportDTO {
+    private Long id;
+    private String fechaSolicitud;
+    private String estado;
+    private String observaciones;
+    private Long contenedorId;
+    private Long clienteId;
+    private Long rutaId;
+    private double costoEstimado;
+    private double tiempoEstimado;
+    private double costoFinal;
+    private double tiempoReal;
+    private LocalDateTime fechaActualizacion; // Para pedir la próxima exportación incremental (since)
+}
@@ -0,0 +1,34 @@
+package utn.frc.isi.backend.tpi_Integrador.dtos;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO para consultar un cálculo asíncrono de rutas tentativas (RF#3)
+ * El cliente crea el trabajo, recibe el ID de inmediato y consulta hasta que esté COMPLETADO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrabajoRutasDTO {
+    
+    private String id; // Identificador del trabajo
+    
+    private Long solicitudId; // Solicitud para la que se calculan las rutas
+    
+    private String modo; // Modo de cálculo: ESTIMADO o PRECISO
+    
+    private String estado; // Estado del trabajo: PENDIENTE, EN_CURSO, COMPLETADO, ERROR
+    
+    private LocalDateTime fechaCreacion; // Momento en que se creó el trabajo
+    
+    private LocalDateTime fechaFinalizacion; // Momento en que terminó (null si sigue en curso)
+    
+    private List<RutaTentativaDTO> rutas; // Rutas tentativas calculadas (solo si está COMPLETADO)
+    
+    private String error; // Motivo del error (solo si está en ERROR)
+}
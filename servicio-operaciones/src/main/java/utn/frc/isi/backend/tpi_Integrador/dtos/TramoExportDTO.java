@@ -0,0 +1,40 @@
+package utn.frc.isi.backend.tpi_Integrador.dtos;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Fila de la exportación de tramos (GET /api/tramos/export, una línea NDJSON por tramo).
+ * Plana, con las relaciones como IDs e incluyendo los precios capturados al asignar el camión.
+ */
+@Data
+public class TramoExportDTO {
+    private Long id;
+    private Long rutaId;
+    private int orden;
+    private String tipo;
+    private String estado;
+    private String puntoInicio;
+    private String puntoFin;
+    private double distanciaKm;
+    private int tiempoEstimadoHoras;
+    private LocalDateTime fechaEstimadaInicio;
+    private LocalDateTime fechaEstimadaFin;
+    private LocalDateTime fechaRealInicio;
+    private LocalDateTime fechaRealFin;
+    private double costoReal;
+    private Long camionIdFlota;
+    private String dominioCamion;
+    private Long depositoOrigenId;
+    private Long depositoDestinoId;
+    private Long tarifaId;
+    private String versionTarifa;
+    private Double cargoGestionPorTramo;
+    private Double precioLitroCombustible;
+    private Double costoEstadiaDiaria;
+    private Double costoPorKmCamion;
+    private Double consumoCombustiblePorKm;
+    private LocalDateTime fechaCapturaPrecios;
+    private LocalDateTime fechaActualizacion; // Para pedir la próxima exportación incremental (since)
+}
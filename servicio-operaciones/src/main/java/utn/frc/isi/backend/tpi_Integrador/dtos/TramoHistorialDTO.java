@@ -30,4 +30,8 @@ public class TramoHistorialDTO {
     private LocalDateTime fechaHoraFin; // Fecha/hora de finalización real del tramo
     
     private String camion; // Dominio del camión asignado (ej: "ABC-123")
+    
+    private String depositoOrigen; // Nombre del depósito de origen (si el tramo sale de un depósito)
+    
+    private String depositoDestino; // Nombre del depósito de destino (si el tramo termina en un depósito)
 }
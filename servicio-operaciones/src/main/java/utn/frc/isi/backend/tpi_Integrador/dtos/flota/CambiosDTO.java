@@ -0,0 +1,26 @@
+package utn.frc.isi.backend.tpi_Integrador.dtos.flota;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO para recibir una página del feed de cambios de servicio-flota
+ * (GET /api/camiones/changes y /api/depositos/changes)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CambiosDTO<T> {
+
+    private long versionDesde;
+    private long versionHasta; // Próxima sinceVersion
+    private long versionActual; // Última versión estable de servicio-flota
+    private boolean hayMas;
+    private List<T> actualizados;
+    private List<Long> eliminados;
+}
@@ -0,0 +1,25 @@
+package utn.frc.isi.backend.tpi_Integrador.dtos.flota;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO compacto de un camión recibido en el feed de cambios de servicio-flota
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CamionReplicaDTO {
+
+    private Long id;
+    private String dominio;
+    private double capacidadPeso;
+    private double capacidadVolumen;
+    private double consumoCombustiblePorKm;
+    private double costoPorKm;
+    private boolean disponible;
+    private long versionCambio;
+}
@@ -0,0 +1,23 @@
+package utn.frc.isi.backend.tpi_Integrador.dtos.flota;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO de un depósito recibido en el feed de cambios de servicio-flota
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class DepositoReplicaDTO {
+
+    private Long id;
+    private String nombre;
+    private String direccion;
+    private double latitud;
+    private double longitud;
+    private long versionCambio;
+}
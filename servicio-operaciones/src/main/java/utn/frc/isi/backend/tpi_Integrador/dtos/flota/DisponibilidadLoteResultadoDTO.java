@@ -0,0 +1,22 @@
+package utn.frc.isi.backend.tpi_Integrador.dtos.flota;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO para recibir el resultado de una actualización de disponibilidad por lote en servicio-flota
+ * Refleja la estructura de DisponibilidadLoteResultadoDTO en servicio-flota
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class DisponibilidadLoteResultadoDTO {
+
+    private List<Long> actualizados;
+    private List<Long> noEncontrados;
+}
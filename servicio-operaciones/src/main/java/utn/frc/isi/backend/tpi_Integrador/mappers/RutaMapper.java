@@ -35,6 +35,20 @@ public class RutaMapper {
         if (ruta == null) {
             return null;
         }
+        // Obtener los tramos asociados a esta ruta
+        return toDTO(ruta, tramoRepository.findByRutaId(ruta.getId()));
+    }
+
+    /**
+     * Convierte una entidad Ruta a RutaDTO con tramos ya cargados (sin volver a consultarlos)
+     * @param ruta entidad a convertir
+     * @param tramos tramos de la ruta, con camión y depósitos
+     * @return RutaDTO o null si la ruta es null
+     */
+    public RutaDTO toDTO(Ruta ruta, List<Tramo> tramos) {
+        if (ruta == null) {
+            return null;
+        }
 
         RutaDTO dto = new RutaDTO();
         dto.setId(ruta.getId());
@@ -45,9 +59,6 @@ public class RutaMapper {
         dto.setLatitudDestino(ruta.getLatitudDestino());
         dto.setLongitudDestino(ruta.getLongitudDestino());
         
-        // Obtener los tramos asociados a esta ruta
-        List<Tramo> tramos = tramoRepository.findByRutaId(ruta.getId());
-        
         // Calcular campos derivados
         dto.setSolicitudId(null); // La relación no es bidireccional, se setea externamente
         dto.setCantidadTramos(tramos.size());
@@ -5,6 +5,7 @@ import org.springframework.stereotype.Component;
 import utn.frc.isi.backend.tpi_Integrador.dtos.RutaDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.SolicitudCreateDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.SolicitudDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.SolicitudExportDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.SolicitudUpdateDTO;
 import utn.frc.isi.backend.tpi_Integrador.models.Solicitud;
 import utn.frc.isi.backend.tpi_Integrador.repositories.ClienteRepository;
@@ -82,4 +83,24 @@ public class SolicitudMapper {
             solicitud.setTiempoReal(dto.getTiempoReal());
         }
     }
+
+    /**
+     * Convierte una Solicitud a la fila plana de exportación (sin cargar la ruta ni sus tramos)
+     */
+    public SolicitudExportDTO toExportDTO(Solicitud solicitud) {
+        SolicitudExportDTO dto = new SolicitudExportDTO();
+        dto.setId(solicitud.getId());
+        dto.setFechaSolicitud(solicitud.getFechaSolicitud());
+        dto.setEstado(solicitud.getEstado());
+        dto.setObservaciones(solicitud.getObservaciones());
+        dto.setContenedorId(solicitud.getContenedor() != null ? solicitud.getContenedor().getId() : null);
+        dto.setClienteId(solicitud.getCliente() != null ? solicitud.getCliente().getId() : null);
+        dto.setRutaId(solicitud.getRuta() != null ? solicitud.getRuta().getId() : null);
+        dto.setCostoEstimado(solicitud.getCostoEstimado());
+        dto.setTiempoEstimado(solicitud.getTiempoEstimado());
+        dto.setCostoFinal(solicitud.getCostoFinal());
+        dto.setTiempoReal(solicitud.getTiempoReal());
+        dto.setFechaActualizacion(solicitud.getFechaActualizacion());
+        return dto;
+    }
 }
@@ -85,9 +85,9 @@ public class TramoMapper {
         DepositoReferenceDTO dto = new DepositoReferenceDTO();
         dto.setId(entity.getId());
         dto.setNombre(entity.getNombre());
-        dto.setDireccion(null); // No disponible en DepositoReference
-        dto.setLatitud(null); // No disponible en DepositoReference
-        dto.setLongitud(null); // No disponible en DepositoReference
+        dto.setDireccion(entity.getDireccion());
+        dto.setLatitud(entity.getLatitud());
+        dto.setLongitud(entity.getLongitud());
         return dto;
     }
     
@@ -102,4 +102,41 @@ public class TramoMapper {
         // TramoUpdateDTO solo tiene estado y observaciones
         // El campo observaciones no existe en Tramo, por lo que lo ignoramos
     }
+
+    /**
+     * Convierte un Tramo a la fila plana de exportación
+     */
+    public TramoExportDTO toExportDTO(Tramo entity) {
+        TramoExportDTO dto = new TramoExportDTO();
+        dto.setId(entity.getId());
+        dto.setRutaId(entity.getRuta() != null ? entity.getRuta().getId() : null);
+        dto.setOrden(entity.getOrden());
+        dto.setTipo(entity.getTipo());
+        dto.setEstado(entity.getEstado());
+        dto.setPuntoInicio(entity.getPuntoInicio());
+        dto.setPuntoFin(entity.getPuntoFin());
+        dto.setDistanciaKm(entity.getDistanciaKm());
+        dto.setTiempoEstimadoHoras(entity.getTiempoEstimadoHoras());
+        dto.setFechaEstimadaInicio(entity.getFechaEstimadaInicio());
+        dto.setFechaEstimadaFin(entity.getFechaEstimadaFin());
+        dto.setFechaRealInicio(entity.getFechaRealInicio());
+        dto.setFechaRealFin(entity.getFechaRealFin());
+        dto.setCostoReal(entity.getCostoReal());
+        if (entity.getCamionReference() != null) {
+            dto.setCamionIdFlota(entity.getCamionReference().getCamionIdFlota());
+            dto.setDominioCamion(entity.getCamionReference().getDominio());
+        }
+        dto.setDepositoOrigenId(entity.getDepositoOrigen() != null ? entity.getDepositoOrigen().getId() : null);
+        dto.setDepositoDestinoId(entity.getDepositoDestino() != null ? entity.getDepositoDestino().getId() : null);
+        dto.setTarifaId(entity.getTarifaId());
+        dto.setVersionTarifa(entity.getVersionTarifa());
+        dto.setCargoGestionPorTramo(entity.getCargoGestionPorTramo());
+        dto.setPrecioLitroCombustible(entity.getPrecioLitroCombustible());
+        dto.setCostoEstadiaDiaria(entity.getCostoEstadiaDiaria());
+        dto.setCostoPorKmCamion(entity.getCostoPorKmCamion());
+        dto.setConsumoCombustiblePorKm(entity.getConsumoCombustiblePorKm());
+        dto.setFechaCapturaPrecios(entity.getFechaCapturaPrecios());
+        dto.setFechaActualizacion(entity.getFechaActualizacion());
+        return dto;
+    }
 }
@@ -1,14 +1,23 @@
 package utn.frc.isi.backend.tpi_Integrador.models;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.Table;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 @Entity // Marca esta clase como una entidad que se mapeará a una tabla en la BD
+@Table(indexes = @Index(name = "idx_contenedor_estado_id", columnList = "estado, id")) // Consulta de pendientes por estado, paginada por ID
+@NamedEntityGraph(name = "Contenedor.conCliente", attributeNodes = @NamedAttributeNode("cliente")) // ContenedorDTO incluye el cliente
 @Data   // Genera automáticamente getters, setters, toString, etc.
 public class Contenedor {
 
@@ -26,7 +35,9 @@ public class Contenedor {
 
     private String estado; // Estado del contenedor (ej: EN_ORIGEN, EN_VIAJE, EN_DEPOSITO, ENTREGADO)
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @JoinColumn(name = "cliente_id") // Así se llamará la columna en la BD
     private Cliente cliente; // Cliente asociado al contenedor
 }
\ No newline at end of file
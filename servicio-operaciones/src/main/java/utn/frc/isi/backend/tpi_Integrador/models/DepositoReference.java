@@ -12,4 +12,10 @@ public class DepositoReference {
     private Long id; // ID del Deposito en el servicio-flota
 
     private String nombre; // Cache del nombre para consultas rápidas
+
+    private String direccion; // Cache de la dirección del depósito
+
+    private Double latitud; // Coordenadas del depósito, usadas para calcular rutas con depósitos (RF#3)
+
+    private Double longitud;
 }
\ No newline at end of file
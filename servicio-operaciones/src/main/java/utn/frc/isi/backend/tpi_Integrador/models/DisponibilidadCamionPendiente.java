@@ -0,0 +1,44 @@
+package utn.frc.isi.backend.tpi_Integrador.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Cambio de disponibilidad de un camión pendiente de entregar a servicio-flota (outbox).
+ * Se escribe en la misma transacción que el cambio del tramo y lo entrega un despachador
+ * en segundo plano. Hay una sola fila por camión: un cambio nuevo reemplaza al pendiente
+ * (gana la última escritura) e incrementa la secuencia con un UPDATE atómico. La fila no se
+ * borra al entregar el cambio: queda con proximoIntento nulo, que indica que no hay cambio pendiente.
+ */
+@Entity
+@Table(name = "outbox_disponibilidad_camion",
+       indexes = @Index(name = "idx_outbox_disponibilidad_proximo_intento", columnList = "proximoIntento"))
+@Data
+public class DisponibilidadCamionPendiente {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true)
+    private Long camionIdFlota; // ID del camión en servicio-flota
+
+    private boolean disponible; // Último valor de disponibilidad a entregar
+
+    private long secuencia; // Se incrementa con cada cambio; evita borrar un cambio más nuevo que el entregado
+
+    private LocalDateTime fechaRegistro; // Momento del último cambio (para medir la latencia de entrega)
+
+    private int intentos; // Intentos de entrega fallidos desde el último cambio
+
+    private LocalDateTime proximoIntento; // No se reintenta antes de este momento (backoff); nulo si no hay cambio pendiente
+
+    private String ultimoError; // Último error de entrega, para diagnóstico
+}
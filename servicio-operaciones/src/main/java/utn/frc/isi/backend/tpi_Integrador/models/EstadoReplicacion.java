@@ -0,0 +1,29 @@
+package utn.frc.isi.backend.tpi_Integrador.models;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marca de agua de la réplica de una entidad de servicio-flota (camiones, depósitos):
+ * última versión del feed de cambios ya aplicada. Se guarda en la misma transacción que los cambios.
+ */
+@Entity
+@Table(name = "estado_replicacion")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstadoReplicacion {
+
+    @Id
+    private String entidad; // CAMIONES, DEPOSITOS
+
+    private long versionAplicada; // Próxima sinceVersion del feed
+
+    private LocalDateTime fechaSincronizacion; // Última sincronización exitosa
+}
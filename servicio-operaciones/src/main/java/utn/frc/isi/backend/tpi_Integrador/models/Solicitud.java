@@ -1,14 +1,29 @@
 package utn.frc.isi.backend.tpi_Integrador.models;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
 
 @Entity // Marca esta clase como una entidad que se mapeará a una tabla en la BD
+@Table(indexes = @Index(name = "idx_solicitud_fecha_actualizacion", columnList = "fechaActualizacion"))
+// Grafos de carga por caso de uso (las relaciones son LAZY; los repositorios eligen qué traer en el mismo SELECT)
+@NamedEntityGraph(name = "Solicitud.conRuta", attributeNodes = @NamedAttributeNode("ruta")) // SolicitudDTO, finalización, rutas tentativas
+@NamedEntityGraph(name = "Solicitud.conContenedor", attributeNodes = @NamedAttributeNode("contenedor")) // Ciclo de vida de los tramos
 @Data   // Genera automáticamente getters, setters, toString, etc.
 public class Solicitud {
 
@@ -22,15 +37,21 @@ public class Solicitud {
 
     private String observaciones; // Observaciones adicionales de la solicitud
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @JoinColumn(name = "contenedor_id") // Así se llamará la columna en la BD
     private Contenedor contenedor; // Contenedor asociado a la solicitud
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @JoinColumn(name = "cliente_id") // Así se llamará la columna en la BD
     private Cliente cliente; // Cliente asociado a la solicitud
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @JoinColumn(name = "ruta_id") // Así se llamará la columna en la BD
     private Ruta ruta; // Ruta asociada a la solicitud
 
@@ -41,4 +62,12 @@ public class Solicitud {
     private double costoFinal; // Costo final real de la operación
 
     private double tiempoReal; // Tiempo real en horas
+
+    private LocalDateTime fechaActualizacion; // Momento del último cambio (exportación incremental con since)
+
+    @PrePersist
+    @PreUpdate
+    void registrarActualizacion() {
+        fechaActualizacion = LocalDateTime.now();
+    }
 }
\ No newline at end of file
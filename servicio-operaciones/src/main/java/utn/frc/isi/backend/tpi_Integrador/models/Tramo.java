@@ -1,15 +1,29 @@
 package utn.frc.isi.backend.tpi_Integrador.models;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import java.time.LocalDateTime;
 
 @Entity // Marca esta clase como una entidad que se mapeará a una tabla en la BD
+@Table(indexes = @Index(name = "idx_tramo_fecha_actualizacion", columnList = "fechaActualizacion"))
+// Referencias que se muestran en TramoDTO (listado del transportista, salida del mapper) y se usan al asignar,
+// iniciar y finalizar; la ruta queda LAZY porque de ella solo se necesita el ID
+@NamedEntityGraph(name = "Tramo.detalle", attributeNodes = {
+        @NamedAttributeNode("camionReference"), @NamedAttributeNode("depositoOrigen"), @NamedAttributeNode("depositoDestino")})
 @Data   // Genera automáticamente getters, setters, toString, etc.
 public class Tramo {
 
@@ -49,19 +63,61 @@ public class Tramo {
     
     private double costoReal; // Costo real calculado al finalizar el tramo
 
-    @ManyToOne
+    // Precios capturados al asignar el camión (RF#6): el costo real se calcula con estos
+    // valores al finalizar, sin consultar a servicio-flota. Null si no se pudieron capturar.
+    private Long tarifaId; // ID de la tarifa de servicio-flota aplicada
+
+    private String versionTarifa; // ETag de la tarifa aplicada (detecta cambios de precios)
+
+    private Double cargoGestionPorTramo; // Cargo de gestión por tramo de la tarifa
+
+    private Double precioLitroCombustible; // Precio del litro de combustible de la tarifa
+
+    private Double costoEstadiaDiaria; // Costo por día de estadía en depósito de la tarifa
+
+    private Double costoPorKmCamion; // Costo por km del camión asignado
+
+    private Double consumoCombustiblePorKm; // Consumo del camión asignado (litros/km)
+
+    private LocalDateTime fechaCapturaPrecios; // Momento en que se capturaron los precios
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @JoinColumn(name = "ruta_id") // Así se llamará la columna en la BD
     private Ruta ruta; // Ruta a la que pertenece este tramo
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @JoinColumn(name = "camion_reference_id") // Así se llamará la columna en la BD
     private CamionReference camionReference; // Referencia al camión asignado al tramo
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @JoinColumn(name = "deposito_origen_id") // Depósito de origen del tramo (opcional)
     private DepositoReference depositoOrigen; // Referencia al depósito de origen
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @JoinColumn(name = "deposito_destino_id") // Depósito de destino del tramo (opcional)
     private DepositoReference depositoDestino; // Referencia al depósito de destino
-}
\ No newline at end of file
+
+    private LocalDateTime fechaActualizacion; // Momento del último cambio (exportación incremental con since)
+
+    /**
+     * Indica si el tramo tiene todos los precios necesarios para calcular su costo localmente
+     */
+    public boolean tienePreciosCapturados() {
+        return cargoGestionPorTramo != null && precioLitroCombustible != null && costoEstadiaDiaria != null
+                && costoPorKmCamion != null && consumoCombustiblePorKm != null;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void registrarActualizacion() {
+        fechaActualizacion = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,13 @@
+package utn.frc.isi.backend.tpi_Integrador.paginacion;
+
+/**
+ * Parámetros comunes de los listados paginados por keyset.
+ * @param cursor siguienteCursor de la página anterior (null = primera página)
+ * @param limit tamaño de página (1 a {@link #LIMITE_MAXIMO})
+ * @param sort campo de orden, opcionalmente con dirección: "campo" o "campo,desc" (por defecto "id")
+ */
+public record ConsultaPagina(String cursor, int limit, String sort) {
+
+    public static final int LIMITE_POR_DEFECTO = 50;
+    public static final int LIMITE_MAXIMO = 500;
+}
@@ -1,9 +1,15 @@
 package utn.frc.isi.backend.tpi_Integrador.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import utn.frc.isi.backend.tpi_Integrador.models.CamionReference;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository // Buena práctica para indicar que es un componente de persistencia
 public interface CamionReferenceRepository extends JpaRepository<CamionReference, Long> {
     // Con solo esta línea, Spring Data JPA nos dará métodos como:
@@ -12,4 +18,15 @@ public interface CamionReferenceRepository extends JpaRepository<CamionReference
     // - findAll()
     // - deleteById()
     // ¡Y muchos más, sin necesidad de implementarlos!
-}
\ No newline at end of file
+
+    /**
+     * Referencias locales de varios camiones de servicio-flota (réplica del feed de cambios)
+     */
+    List<CamionReference> findByCamionIdFlotaIn(Collection<Long> camionIdsFlota);
+
+    /**
+     * ID en servicio-flota de la referencia local, para resolver sus precios antes de abrir la transacción
+     */
+    @Query("SELECT c.camionIdFlota FROM CamionReference c WHERE c.id = :id")
+    Optional<Long> findCamionIdFlotaById(@Param("id") Long id);
+}
@@ -1,14 +1,21 @@
 package utn.frc.isi.backend.tpi_Integrador.repositories;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import utn.frc.isi.backend.tpi_Integrador.dtos.ContenedorPendienteDTO;
 import utn.frc.isi.backend.tpi_Integrador.models.Contenedor;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository // Buena práctica para indicar que es un componente de persistencia
-public interface ContenedorRepository extends JpaRepository<Contenedor, Long> {
+public interface ContenedorRepository extends JpaRepository<Contenedor, Long>, JpaSpecificationExecutor<Contenedor> {
     // Con solo esta línea, Spring Data JPA nos dará métodos como:
     // - save()
     // - findById()
@@ -17,9 +24,38 @@ public interface ContenedorRepository extends JpaRepository<Contenedor, Long> {
     // ¡Y muchos más, sin necesidad de implementarlos!
     
     /**
-     * RF#5: Buscar contenedores pendientes (no entregados)
-     * Retorna todos los contenedores que NO están en estado ENTREGADO
+     * Contenedor con su cliente (ContenedorDTO lo incluye)
      */
-    @Query("SELECT c FROM Contenedor c WHERE c.estado IN ('EN_ORIGEN', 'EN_DEPOSITO')")
-    List<Contenedor> findContenedoresPendientes();
+    @EntityGraph("Contenedor.conCliente")
+    Optional<Contenedor> findConClienteById(Long id);
+
+    /**
+     * RF#5: Página de contenedores pendientes, proyectada en una sola consulta con el nombre del
+     * cliente y la solicitud asociada (sin cargar entidades ni consultar la solicitud por fila).
+     * Paginación por keyset: devuelve los contenedores con ID mayor a afterId, ordenados por ID;
+     * el tamaño de página lo da el Pageable (siempre la página 0).
+     * @param estados estados a incluir
+     * @param clienteId si no es null, solo los contenedores de ese cliente
+     */
+    @Query("SELECT new utn.frc.isi.backend.tpi_Integrador.dtos.ContenedorPendienteDTO(" +
+           "c.id, c.numero, c.estado, cl.nombre, " +
+           "(SELECT MAX(s.id) FROM Solicitud s WHERE s.contenedor = c)) " +
+           "FROM Contenedor c LEFT JOIN c.cliente cl " +
+           "WHERE c.estado IN :estados AND c.id > :afterId " +
+           "AND (:clienteId IS NULL OR cl.id = :clienteId) " +
+           "ORDER BY c.id")
+    List<ContenedorPendienteDTO> findPendientes(@Param("estados") Collection<String> estados,
+                                                @Param("clienteId") Long clienteId,
+                                                @Param("afterId") long afterId,
+                                                Pageable pageable);
+
+    /**
+     * RF#2: Resumen de un contenedor (cliente y solicitud asociada) en una sola consulta
+     */
+    @Query("SELECT new utn.frc.isi.backend.tpi_Integrador.dtos.ContenedorPendienteDTO(" +
+           "c.id, c.numero, c.estado, cl.nombre, " +
+           "(SELECT MAX(s.id) FROM Solicitud s WHERE s.contenedor = c)) " +
+           "FROM Contenedor c LEFT JOIN c.cliente cl " +
+           "WHERE c.id = :id")
+    Optional<ContenedorPendienteDTO> findResumenById(@Param("id") Long id);
 }
\ No newline at end of file
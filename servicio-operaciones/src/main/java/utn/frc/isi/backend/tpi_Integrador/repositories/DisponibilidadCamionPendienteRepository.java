@@ -0,0 +1,61 @@
+package utn.frc.isi.backend.tpi_Integrador.repositories;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import utn.frc.isi.backend.tpi_Integrador.models.DisponibilidadCamionPendiente;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DisponibilidadCamionPendienteRepository extends JpaRepository<DisponibilidadCamionPendiente, Long> {
+
+    Optional<DisponibilidadCamionPendiente> findByCamionIdFlota(Long camionIdFlota);
+
+    /**
+     * Registra un cambio sobre la fila existente del camión incrementando la secuencia en la base,
+     * de forma atómica. Devuelve 0 si el camión todavía no tiene fila.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE DisponibilidadCamionPendiente d SET d.disponible = :disponible, d.secuencia = d.secuencia + 1, " +
+           "d.fechaRegistro = :ahora, d.intentos = 0, d.proximoIntento = :ahora, d.ultimoError = null " +
+           "WHERE d.camionIdFlota = :camionIdFlota")
+    int registrarCambio(Long camionIdFlota, boolean disponible, LocalDateTime ahora);
+
+    /**
+     * Cantidad de cambios pendientes de entregar (sin contar filas sin cambio)
+     */
+    long countByProximoIntentoIsNotNull();
+
+    /**
+     * Cambios listos para entregar (cuyo backoff ya venció), los más antiguos primero
+     */
+    List<DisponibilidadCamionPendiente> findByProximoIntentoLessThanEqualOrderByFechaRegistroAsc(LocalDateTime ahora, Pageable pageable);
+
+    /**
+     * Marca el cambio como entregado (la fila del camión queda, sin cambio pendiente) solo si no
+     * fue reemplazado por uno más nuevo mientras se entregaba
+     */
+    @Modifying
+    @Query("UPDATE DisponibilidadCamionPendiente d SET d.proximoIntento = null, d.intentos = 0, d.ultimoError = null " +
+           "WHERE d.id = :id AND d.secuencia = :secuencia")
+    int marcarEntregado(Long id, long secuencia);
+
+    /**
+     * Registra un intento fallido y el momento del próximo intento, si el cambio no fue reemplazado
+     */
+    @Modifying
+    @Query("UPDATE DisponibilidadCamionPendiente d SET d.intentos = d.intentos + 1, d.proximoIntento = :proximoIntento, " +
+           "d.ultimoError = :error WHERE d.id = :id AND d.secuencia = :secuencia")
+    int registrarFallo(Long id, long secuencia, LocalDateTime proximoIntento, String error);
+
+    /**
+     * Cambios pendientes de varios camiones: la réplica no pisa una disponibilidad que todavía no se entregó
+     */
+    List<DisponibilidadCamionPendiente> findByCamionIdFlotaInAndProximoIntentoIsNotNull(Collection<Long> camionIdsFlota);
+}
\ No newline at end of file
@@ -1,11 +1,12 @@
 package utn.frc.isi.backend.tpi_Integrador.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
 import utn.frc.isi.backend.tpi_Integrador.models.Ruta;
 
 @Repository // Buena práctica para indicar que es un componente de persistencia
-public interface RutaRepository extends JpaRepository<Ruta, Long> {
+public interface RutaRepository extends JpaRepository<Ruta, Long>, JpaSpecificationExecutor<Ruta> {
     // Con solo esta línea, Spring Data JPA nos dará métodos como:
     // - save()
     // - findById()
@@ -1,15 +1,25 @@
 package utn.frc.isi.backend.tpi_Integrador.repositories;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import utn.frc.isi.backend.tpi_Integrador.models.Contenedor;
 import utn.frc.isi.backend.tpi_Integrador.models.Ruta;
 import utn.frc.isi.backend.tpi_Integrador.models.Solicitud;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository // Buena práctica para indicar que es un componente de persistencia
-public interface SolicitudRepository extends JpaRepository<Solicitud, Long> {
+public interface SolicitudRepository extends JpaRepository<Solicitud, Long>, JpaSpecificationExecutor<Solicitud> {
     // Con solo esta línea, Spring Data JPA nos dará métodos como:
     // - save()
     // - findById()
@@ -25,7 +35,40 @@ public interface SolicitudRepository extends JpaRepository<Solicitud, Long> {
     
     /**
      * Buscar solicitud por ruta
-     * Usado en la asignación de camiones para validar capacidad
+     * Usado en la asignación de camiones para validar capacidad; trae el contenedor, que se valida o actualiza
      */
+    @EntityGraph("Solicitud.conContenedor")
     Optional<Solicitud> findByRuta(Ruta ruta);
-}
\ No newline at end of file
+
+    /**
+     * RF#2: Seguimiento en una sola consulta. Devuelve una fila [Solicitud, Tramo] por tramo de la ruta,
+     * ordenadas por orden del tramo, con contenedor, cliente, ruta, camión y depósitos ya cargados.
+     * Si la solicitud no tiene ruta o la ruta no tiene tramos, devuelve una única fila con Tramo null;
+     * si la solicitud no existe, la lista está vacía.
+     */
+    @Query("SELECT s, t FROM Solicitud s " +
+           "LEFT JOIN FETCH s.contenedor LEFT JOIN FETCH s.cliente LEFT JOIN FETCH s.ruta r " +
+           "LEFT JOIN Tramo t ON t.ruta = r " +
+           "LEFT JOIN FETCH t.camionReference LEFT JOIN FETCH t.depositoOrigen LEFT JOIN FETCH t.depositoDestino " +
+           "WHERE s.id = :id ORDER BY t.orden")
+    List<Object[]> findSeguimiento(@Param("id") Long id);
+
+    /**
+     * Solicitud con su ruta, para armar SolicitudDTO, finalizarla o calcular rutas tentativas
+     * (también fuera de un request, en los trabajos en segundo plano)
+     */
+    @EntityGraph("Solicitud.conRuta")
+    Optional<Solicitud> findConRutaById(Long id);
+
+    /**
+     * Exportación: recorre las solicitudes modificadas desde {@code since} (todas si es null) con un
+     * cursor JDBC. De las relaciones solo se exportan los IDs, que están en la misma fila (no se cargan).
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT s FROM Solicitud s WHERE (:since IS NULL OR s.fechaActualizacion >= :since) ORDER BY s.id")
+    Stream<Solicitud> streamParaExportar(@Param("since") LocalDateTime since);
+}
@@ -1,14 +1,24 @@
 package utn.frc.isi.backend.tpi_Integrador.repositories;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import utn.frc.isi.backend.tpi_Integrador.models.Ruta;
 import utn.frc.isi.backend.tpi_Integrador.models.Tramo;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository // Buena práctica para indicar que es un componente de persistencia
-public interface TramoRepository extends JpaRepository<Tramo, Long> {
+public interface TramoRepository extends JpaRepository<Tramo, Long>, JpaSpecificationExecutor<Tramo> {
     // Con solo esta línea, Spring Data JPA nos dará métodos como:
     // - save()
     // - findById()
@@ -23,9 +33,26 @@ public interface TramoRepository extends JpaRepository<Tramo, Long> {
     List<Tramo> findByRutaOrderByOrdenAsc(Ruta ruta);
     
     /**
-     * Busca todos los tramos de una ruta por su ID
+     * Busca todos los tramos de una ruta por su ID, con camión y depósitos (se mapean a TramoDTO)
      */
+    @EntityGraph("Tramo.detalle")
     List<Tramo> findByRutaId(Long rutaId);
+
+    /**
+     * Tramo con camión y depósitos, para mostrarlo y para asignar, iniciar, finalizar o reconciliar su costo
+     */
+    @EntityGraph("Tramo.detalle")
+    Optional<Tramo> findDetalleById(Long id);
+    
+    /**
+     * ID en servicio-flota del camión del tramo, solo si al tramo le faltan precios capturados
+     * (ver {@link Tramo#tienePreciosCapturados()}); así la finalización sabe, antes de abrir la
+     * transacción, si tiene que consultar los precios a servicio-flota
+     */
+    @Query("SELECT c.camionIdFlota FROM Tramo t JOIN t.camionReference c WHERE t.id = :id " +
+           "AND (t.cargoGestionPorTramo IS NULL OR t.precioLitroCombustible IS NULL OR t.costoEstadiaDiaria IS NULL " +
+           "OR t.costoPorKmCamion IS NULL OR t.consumoCombustiblePorKm IS NULL)")
+    Optional<Long> findCamionIdFlotaSinPreciosCapturados(@Param("id") Long id);
     
     /**
      * RF#7: Busca tramos asignados a un camión específico que NO estén finalizados
@@ -35,5 +62,29 @@ public interface TramoRepository extends JpaRepository<Tramo, Long> {
      * @param estados Lista de estados a excluir (típicamente "FINALIZADO")
      * @return Lista de tramos asignados al camión que no están en los estados excluidos
      */
+    @EntityGraph("Tramo.detalle")
     List<Tramo> findByCamionReference_IdAndEstadoNotIn(Long camionId, List<String> estados);
-}
\ No newline at end of file
+
+    /**
+     * Indica si algún tramo referencia al camión (no se puede borrar su referencia local)
+     */
+    boolean existsByCamionReference_Id(Long camionReferenceId);
+
+    /**
+     * Indica si algún tramo tiene al depósito como origen o destino
+     */
+    boolean existsByDepositoOrigen_IdOrDepositoDestino_Id(Long depositoOrigenId, Long depositoDestinoId);
+
+    /**
+     * Exportación: recorre los tramos modificados desde {@code since} (todos si es null) con un
+     * cursor JDBC, trayendo el camión en el mismo SELECT (de la ruta y los depósitos solo se exportan
+     * los IDs). Debe consumirse dentro de una transacción y cerrarse al terminar.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Tramo t LEFT JOIN FETCH t.camionReference " +
+           "WHERE (:since IS NULL OR t.fechaActualizacion >= :since) ORDER BY t.id")
+    Stream<Tramo> streamParaExportar(@Param("since") LocalDateTime since);
+}
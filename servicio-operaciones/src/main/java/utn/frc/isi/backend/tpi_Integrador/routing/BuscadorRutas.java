@@ -0,0 +1,272 @@
+package utn.frc.isi.backend.tpi_Integrador.routing;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import utn.frc.isi.backend.tpi_Integrador.dtos.flota.TarifaDTO;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Búsqueda de rutas alternativas con paradas en depósitos (RF#3).
+ * Arma un grafo completo origen + depósitos + destino, pondera cada arista con el modelo de costo
+ * de tramos (cargo de gestión + kilometraje + combustible + estadía si termina en depósito) y
+ * enumera los k caminos sin ciclos de menor costo con una búsqueda best-first (A*). La heurística
+ * es una cota inferior consistente del costo al destino, por lo que los caminos completos salen en
+ * orden de costo y las distancias solo se calculan para los nodos que se expanden. Se poda por
+ * cantidad máxima de depósitos y por un costo máximo relativo a la mejor alternativa (antes de
+ * armar el grafo se descartan los depósitos fuera de ese límite).
+ */
+@Slf4j
+@Component
+public class BuscadorRutas {
+
+    // Límite de caminos parciales expandidos por búsqueda (protección ante catálogos grandes)
+    private static final int MAX_EXPANSIONES = 200_000;
+
+    private final EstimadorDistancia estimadorDistancia;
+    private final int cantidadAlternativas;
+    private final int maxDepositos;
+    private final double factorCostoMaximo;
+
+    // Parámetros de costo por defecto (si no se dispone de la tarifa activa de servicio-flota)
+    private final double cargoGestionPorTramo;
+    private final double costoKmBase;
+    private final double precioLitroCombustible;
+    private final double costoEstadiaDiaria;
+    private final double consumoPromedioLitrosKm;
+    private final double diasEstadiaPorDeposito;
+
+    private final Timer tiempoBusqueda;
+    private final DistributionSummary depositosEvaluados;
+
+    public BuscadorRutas(EstimadorDistancia estimadorDistancia,
+                         @Value("${rutas.tentativas.cantidad:3}") int cantidadAlternativas,
+                         @Value("${rutas.tentativas.max-depositos:2}") int maxDepositos,
+                         @Value("${rutas.tentativas.factor-costo-maximo:1.5}") double factorCostoMaximo,
+                         @Value("${rutas.costo.cargo-gestion-por-tramo:5000}") double cargoGestionPorTramo,
+                         @Value("${rutas.costo.costo-km-base:100}") double costoKmBase,
+                         @Value("${rutas.costo.precio-litro-combustible:850}") double precioLitroCombustible,
+                         @Value("${rutas.costo.estadia-diaria:2500}") double costoEstadiaDiaria,
+                         @Value("${rutas.costo.consumo-promedio-litros-km:0.3}") double consumoPromedioLitrosKm,
+                         @Value("${rutas.costo.dias-estadia-por-deposito:1}") double diasEstadiaPorDeposito,
+                         MeterRegistry meterRegistry) {
+        this.estimadorDistancia = estimadorDistancia;
+        this.cantidadAlternativas = cantidadAlternativas;
+        this.maxDepositos = maxDepositos;
+        this.factorCostoMaximo = factorCostoMaximo;
+        this.cargoGestionPorTramo = cargoGestionPorTramo;
+        this.costoKmBase = costoKmBase;
+        this.precioLitroCombustible = precioLitroCombustible;
+        this.costoEstadiaDiaria = costoEstadiaDiaria;
+        this.consumoPromedioLitrosKm = consumoPromedioLitrosKm;
+        this.diasEstadiaPorDeposito = diasEstadiaPorDeposito;
+        this.tiempoBusqueda = Timer.builder("rutas.busqueda.tiempo").register(meterRegistry);
+        this.depositosEvaluados = DistributionSummary.builder("rutas.busqueda.depositos").register(meterRegistry);
+    }
+
+    /**
+     * Arma el modelo de costo a partir de la tarifa activa.
+     * Como todavía no hay camión asignado, el combustible se estima con un consumo promedio.
+     * @param tarifa Tarifa activa, o null para usar los valores por defecto configurados
+     */
+    public ModeloCosto modeloCosto(TarifaDTO tarifa) {
+        double gestion = tarifa != null ? tarifa.getCargoGestionPorTramo() : cargoGestionPorTramo;
+        double km = tarifa != null ? tarifa.getCostoKmBase() : costoKmBase;
+        double litro = tarifa != null ? tarifa.getPrecioLitroCombustible() : precioLitroCombustible;
+        double estadia = tarifa != null ? tarifa.getCostoEstadiaDiaria() : costoEstadiaDiaria;
+        return new ModeloCosto(gestion, km + consumoPromedioLitrosKm * litro, estadia * diasEstadiaPorDeposito);
+    }
+
+    /**
+     * Busca las k alternativas de menor costo entre origen y destino pasando por 0..n depósitos
+     * @return Alternativas ordenadas por costo ascendente (la primera es la más barata)
+     */
+    public List<Alternativa> buscar(Punto origen, Punto destino, List<Punto> depositos, ModeloCosto modelo) {
+        long inicio = System.nanoTime();
+
+        // Cota inferior del costo hasta el destino: un tramo en línea recta con el menor factor de
+        // tortuosidad. Es consistente porque cada tramo extra suma su cargo de gestión y la
+        // distancia ortodrómica cumple la desigualdad triangular.
+        double factorMinimo = estimadorDistancia.factorTortuosidadMinimo();
+        double costoDirecto = modelo.costoTramo(estimadorDistancia.distanciaVialKm(
+                origen.latitud(), origen.longitud(), destino.latitud(), destino.longitud()), false);
+        double costoMaximo = costoDirecto * factorCostoMaximo;
+
+        // Nodos: 0 = origen, 1..n = depósitos, n + 1 = destino.
+        // Poda previa (elipse): se descartan los depósitos cuyo desvío mínimo ya supera el costo máximo.
+        List<Punto> nodos = new ArrayList<>(depositos.size() + 2);
+        List<Double> cotasNodos = new ArrayList<>(depositos.size() + 2);
+        nodos.add(origen);
+        cotasNodos.add(cotaHastaDestino(origen, destino, modelo, factorMinimo));
+        for (Punto deposito : depositos) {
+            double cota = cotaHastaDestino(deposito, destino, modelo, factorMinimo);
+            double minimo = modelo.costoTramo(factorMinimo * EstimadorDistancia.distanciaOrtodromicaKm(
+                    origen.latitud(), origen.longitud(), deposito.latitud(), deposito.longitud()), true) + cota;
+            if (minimo <= costoMaximo) {
+                nodos.add(deposito);
+                cotasNodos.add(cota);
+            }
+        }
+        nodos.add(destino);
+        cotasNodos.add(0.0);
+        double[] cotas = cotasNodos.stream().mapToDouble(Double::doubleValue).toArray();
+        int cantidad = nodos.size();
+        int nodoDestino = cantidad - 1;
+
+        // Distancias estimadas por fila, calculadas solo para los nodos que se expanden
+        double[][] km = new double[cantidad][];
+
+        List<Alternativa> alternativas = new ArrayList<>(cantidadAlternativas);
+        PriorityQueue<Etiqueta> abiertos = new PriorityQueue<>();
+        abiertos.add(new Etiqueta(0, 0, cotas[0], 0, null));
+        int expansiones = 0;
+
+        while (!abiertos.isEmpty() && alternativas.size() < cantidadAlternativas && expansiones < MAX_EXPANSIONES) {
+            Etiqueta actual = abiertos.poll();
+            if (actual.prioridad > costoMaximo) {
+                break;
+            }
+            if (actual.nodo == nodoDestino) {
+                if (alternativas.isEmpty()) {
+                    // La primera alternativa es la óptima: el límite pasa a ser relativo a ella
+                    costoMaximo = actual.costo * factorCostoMaximo;
+                }
+                alternativas.add(armarAlternativa(actual, nodos, km));
+                continue;
+            }
+            expansiones++;
+            double[] fila = km[actual.nodo];
+            if (fila == null) {
+                fila = calcularFila(actual.nodo, nodos);
+                km[actual.nodo] = fila;
+            }
+            for (int siguiente = 1; siguiente < cantidad; siguiente++) {
+                if (siguiente == actual.nodo || actual.visita(siguiente)) {
+                    continue;
+                }
+                int depositosUsados = actual.depositos + (siguiente != nodoDestino ? 1 : 0);
+                if (depositosUsados > maxDepositos) {
+                    continue;
+                }
+                double g = actual.costo + modelo.costoTramo(fila[siguiente], siguiente != nodoDestino);
+                double f = g + cotas[siguiente];
+                // Poda: ninguna extensión de este camino puede quedar dentro del costo máximo
+                if (f > costoMaximo) {
+                    continue;
+                }
+                abiertos.add(new Etiqueta(siguiente, g, f, depositosUsados, actual));
+            }
+        }
+
+        long nanos = System.nanoTime() - inicio;
+        tiempoBusqueda.record(nanos, TimeUnit.NANOSECONDS);
+        depositosEvaluados.record(depositos.size());
+        log.debug("Búsqueda de rutas: {} depósitos ({} tras la poda), {} expansiones, {} alternativas en {} µs",
+                depositos.size(), cantidad - 2, expansiones, alternativas.size(), nanos / 1000);
+        return alternativas;
+    }
+
+    private double[] calcularFila(int desde, List<Punto> nodos) {
+        Punto punto = nodos.get(desde);
+        double[] fila = new double[nodos.size()];
+        for (int j = 1; j < nodos.size(); j++) {
+            if (j != desde) {
+                Punto hasta = nodos.get(j);
+                fila[j] = estimadorDistancia.distanciaVialKm(punto.latitud(), punto.longitud(), hasta.latitud(), hasta.longitud());
+            }
+        }
+        return fila;
+    }
+
+    private static double cotaHastaDestino(Punto punto, Punto destino, ModeloCosto modelo, double factorMinimo) {
+        return modelo.costoTramo(factorMinimo * EstimadorDistancia.distanciaOrtodromicaKm(
+                punto.latitud(), punto.longitud(), destino.latitud(), destino.longitud()), false);
+    }
+
+    private static Alternativa armarAlternativa(Etiqueta fin, List<Punto> nodos, double[][] km) {
+        List<Integer> camino = new ArrayList<>();
+        for (Etiqueta e = fin; e != null; e = e.previo) {
+            camino.add(e.nodo);
+        }
+        Collections.reverse(camino);
+
+        List<Punto> puntos = new ArrayList<>(camino.size());
+        List<Double> distanciasKm = new ArrayList<>(camino.size() - 1);
+        for (int i = 0; i < camino.size(); i++) {
+            puntos.add(nodos.get(camino.get(i)));
+            if (i > 0) {
+                distanciasKm.add(km[camino.get(i - 1)][camino.get(i)]);
+            }
+        }
+        return new Alternativa(puntos, distanciasKm, fin.costo);
+    }
+
+    /**
+     * Camino parcial de la búsqueda; se encadena con el previo para no copiar listas
+     */
+    private static final class Etiqueta implements Comparable<Etiqueta> {
+        final int nodo;
+        final double costo;
+        final double prioridad;
+        final int depositos;
+        final Etiqueta previo;
+
+        Etiqueta(int nodo, double costo, double prioridad, int depositos, Etiqueta previo) {
+            this.nodo = nodo;
+            this.costo = costo;
+            this.prioridad = prioridad;
+            this.depositos = depositos;
+            this.previo = previo;
+        }
+
+        boolean visita(int otro) {
+            for (Etiqueta e = this; e != null; e = e.previo) {
+                if (e.nodo == otro) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public int compareTo(Etiqueta otra) {
+            return Double.compare(prioridad, otra.prioridad);
+        }
+    }
+
+    /**
+     * Punto del grafo: origen, destino (depositoId null) o un depósito del catálogo
+     */
+    public record Punto(Long depositoId, String nombre, double latitud, double longitud) {
+    }
+
+    /**
+     * Modelo de costo de un tramo: gestión fija + costo por km (kilometraje + combustible)
+     * + estadía si el tramo termina en un depósito
+     */
+    public record ModeloCosto(double cargoGestionPorTramo, double costoPorKm, double costoEstadiaPorDeposito) {
+
+        public double costoTramo(double distanciaKm, boolean terminaEnDeposito) {
+            return cargoGestionPorTramo + distanciaKm * costoPorKm + (terminaEnDeposito ? costoEstadiaPorDeposito : 0);
+        }
+    }
+
+    /**
+     * Alternativa encontrada: puntos en orden (origen, depósitos..., destino),
+     * distancia estimada de cada tramo y costo total según el modelo
+     */
+    public record Alternativa(List<Punto> puntos, List<Double> distanciasKm, double costo) {
+
+        public int cantidadDepositos() {
+            return puntos.size() - 2;
+        }
+    }
+}
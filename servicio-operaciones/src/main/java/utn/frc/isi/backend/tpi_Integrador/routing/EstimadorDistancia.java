@@ -0,0 +1,172 @@
+package utn.frc.isi.backend.tpi_Integrador.routing;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import utn.frc.isi.backend.tpi_Integrador.dtos.googlemaps.Distance;
+import utn.frc.isi.backend.tpi_Integrador.dtos.googlemaps.Duration;
+import utn.frc.isi.backend.tpi_Integrador.dtos.googlemaps.Element;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Estimador local de distancia y tiempo por ruta, sin I/O.
+ * Calcula la distancia ortodrómica (haversine) y la ajusta con un factor de tortuosidad
+ * por región; el tiempo se obtiene con un perfil de velocidades (urbano / ruta).
+ * Se usa para cotizaciones rápidas (modo ESTIMADO) y como respaldo si Google Maps no responde.
+ */
+@Slf4j
+@Component
+public class EstimadorDistancia {
+
+    private static final double RADIO_TIERRA_KM = 6371.0088;
+
+    private final double tortuosidadPorDefecto;
+    private final List<Region> regiones;
+    private final double velocidadUrbanaKmh;
+    private final double velocidadRutaKmh;
+    private final double umbralUrbanoKm;
+
+    /**
+     * @param regiones Lista de regiones "nombre:latMin:latMax:lngMin:lngMax:factor" separadas por ";".
+     *                 Se aplica el factor de la primera región que contenga el punto medio del trayecto.
+     */
+    public EstimadorDistancia(@Value("${estimador.tortuosidad.default:1.25}") double tortuosidadPorDefecto,
+                              @Value("${estimador.tortuosidad.regiones:}") String regiones,
+                              @Value("${estimador.velocidad.urbana-kmh:35}") double velocidadUrbanaKmh,
+                              @Value("${estimador.velocidad.ruta-kmh:75}") double velocidadRutaKmh,
+                              @Value("${estimador.umbral-urbano-km:30}") double umbralUrbanoKm) {
+        this.tortuosidadPorDefecto = tortuosidadPorDefecto;
+        this.regiones = parsearRegiones(regiones);
+        this.velocidadUrbanaKmh = velocidadUrbanaKmh;
+        this.velocidadRutaKmh = velocidadRutaKmh;
+        this.umbralUrbanoKm = umbralUrbanoKm;
+    }
+
+    /**
+     * Estima distancia y duración entre dos coordenadas
+     * @return Element con distancia en metros y duración en segundos (mismo formato que Google Maps)
+     */
+    public Element estimar(double latOrigen, double lngOrigen, double latDestino, double lngDestino) {
+        double distanciaKm = distanciaVialKm(latOrigen, lngOrigen, latDestino, lngDestino);
+        double horas = horasEstimadas(distanciaKm);
+
+        long metros = Math.round(distanciaKm * 1000);
+        long segundos = Math.round(horas * 3600);
+        return new Element("OK",
+                new Distance(String.format("%.1f km (estimado)", distanciaKm), metros),
+                new Duration(String.format("%.1f horas (estimado)", horas), segundos));
+    }
+
+    /**
+     * Estima distancia y duración a partir de puntos en formato "lat,lng"
+     * @return Optional vacío si alguno de los puntos no es un par de coordenadas válido
+     */
+    public Optional<Element> estimar(String origen, String destino) {
+        double[] o = parsearPunto(origen);
+        double[] d = parsearPunto(destino);
+        if (o == null || d == null) {
+            return Optional.empty();
+        }
+        return Optional.of(estimar(o[0], o[1], d[0], d[1]));
+    }
+
+    /**
+     * Distancia ortodrómica ajustada por el factor de tortuosidad de la región
+     */
+    public double distanciaVialKm(double latOrigen, double lngOrigen, double latDestino, double lngDestino) {
+        double ortodromica = distanciaOrtodromicaKm(latOrigen, lngOrigen, latDestino, lngDestino);
+        double factor = factorTortuosidad((latOrigen + latDestino) / 2, (lngOrigen + lngDestino) / 2);
+        return ortodromica * factor;
+    }
+
+    /**
+     * Tiempo de viaje: el tramo inicial (hasta el umbral urbano) a velocidad urbana
+     * y el resto a velocidad de ruta
+     */
+    public double horasEstimadas(double distanciaKm) {
+        double urbano = Math.min(distanciaKm, umbralUrbanoKm);
+        double ruta = Math.max(0, distanciaKm - umbralUrbanoKm);
+        return urbano / velocidadUrbanaKmh + ruta / velocidadRutaKmh;
+    }
+
+    /**
+     * Menor factor de tortuosidad configurado: distancia ortodrómica por este factor
+     * es una cota inferior de cualquier distancia estimada
+     */
+    public double factorTortuosidadMinimo() {
+        double minimo = tortuosidadPorDefecto;
+        for (Region region : regiones) {
+            minimo = Math.min(minimo, region.factor());
+        }
+        return minimo;
+    }
+
+    public static double distanciaOrtodromicaKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * RADIO_TIERRA_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    private double factorTortuosidad(double lat, double lng) {
+        for (Region region : regiones) {
+            if (region.contiene(lat, lng)) {
+                return region.factor();
+            }
+        }
+        return tortuosidadPorDefecto;
+    }
+
+    /**
+     * Convierte un punto "lat,lng" en {lat, lng}
+     * @return null si el texto no es un par de coordenadas válido
+     */
+    static double[] parsearPunto(String punto) {
+        if (punto == null) {
+            return null;
+        }
+        String[] partes = punto.split(",");
+        if (partes.length != 2) {
+            return null;
+        }
+        try {
+            return new double[]{Double.parseDouble(partes[0].trim()), Double.parseDouble(partes[1].trim())};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static List<Region> parsearRegiones(String definicion) {
+        List<Region> resultado = new ArrayList<>();
+        if (definicion == null || definicion.isBlank()) {
+            return resultado;
+        }
+        for (String item : definicion.split(";")) {
+            String[] p = item.trim().split(":");
+            if (p.length != 6) {
+                log.warn("Definición de región de tortuosidad inválida, se ignora: {}", item);
+                continue;
+            }
+            try {
+                resultado.add(new Region(p[0],
+                        Double.parseDouble(p[1]), Double.parseDouble(p[2]),
+                        Double.parseDouble(p[3]), Double.parseDouble(p[4]),
+                        Double.parseDouble(p[5])));
+            } catch (NumberFormatException e) {
+                log.warn("Definición de región de tortuosidad inválida, se ignora: {}", item);
+            }
+        }
+        return resultado;
+    }
+
+    private record Region(String nombre, double latMin, double latMax, double lngMin, double lngMax, double factor) {
+        boolean contiene(double lat, double lng) {
+            return lat >= latMin && lat <= latMax && lng >= lngMin && lng <= lngMax;
+        }
+    }
+}
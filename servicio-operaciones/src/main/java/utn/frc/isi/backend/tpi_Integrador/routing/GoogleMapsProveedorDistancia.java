@@ -0,0 +1,43 @@
+package utn.frc.isi.backend.tpi_Integrador.routing;
+
+import org.springframework.stereotype.Component;
+import utn.frc.isi.backend.tpi_Integrador.clients.GoogleMapsClient;
+import utn.frc.isi.backend.tpi_Integrador.dtos.googlemaps.Element;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Proveedor de distancias respaldado por la API Distance Matrix de Google Maps
+ */
+@Component
+public class GoogleMapsProveedorDistancia implements ProveedorDistancia {
+
+    public static final String NOMBRE = "google";
+
+    private final GoogleMapsClient googleMapsClient;
+
+    public GoogleMapsProveedorDistancia(GoogleMapsClient googleMapsClient) {
+        this.googleMapsClient = googleMapsClient;
+    }
+
+    @Override
+    public String getNombre() {
+        return NOMBRE;
+    }
+
+    @Override
+    public Optional<Element> obtenerDistancia(String origen, String destino) {
+        return googleMapsClient.getDistance(origen, destino);
+    }
+
+    @Override
+    public List<Optional<Element>> obtenerDistancias(List<String> origenes, List<String> destinos) {
+        return googleMapsClient.getDistancias(origenes, destinos);
+    }
+
+    @Override
+    public List<List<Optional<Element>>> obtenerMatriz(List<String> origenes, List<String> destinos) {
+        return googleMapsClient.getMatriz(origenes, destinos);
+    }
+}
@@ -0,0 +1,457 @@
+package utn.frc.isi.backend.tpi_Integrador.routing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Red vial en memoria preprocesada con Contraction Hierarchies (CH).
+ * El preprocesamiento ordena los nodos por importancia, los contrae agregando atajos
+ * (shortcuts) solo cuando no existe un camino testigo más corto, y deja dos grafos
+ * "hacia arriba" en formato CSR. Cada consulta es un Dijkstra bidireccional que solo
+ * sube de rango, por lo que visita una fracción mínima de la red.
+ * <p>
+ * El costo optimizado es el tiempo (segundos); la distancia en metros se acumula
+ * a lo largo del camino elegido. La instancia es inmutable y segura entre hilos
+ * (cada hilo usa su propio espacio de trabajo para las consultas).
+ */
+public final class GrafoVial {
+
+    // Límite de nodos asentados en la búsqueda de testigos durante la contracción
+    private static final int LIMITE_BUSQUEDA_TESTIGO = 200;
+
+    private final double[] latitudes;
+    private final double[] longitudes;
+
+    // Grafo hacia arriba (búsqueda desde el origen)
+    private final int[] subidaInicio;
+    private final int[] subidaDestino;
+    private final double[] subidaSegundos;
+    private final double[] subidaMetros;
+
+    // Grafo hacia arriba invertido (búsqueda desde el destino)
+    private final int[] bajadaInicio;
+    private final int[] bajadaDestino;
+    private final double[] bajadaSegundos;
+    private final double[] bajadaMetros;
+
+    private final int cantidadAtajos;
+
+    private final ThreadLocal<EspacioConsulta> espacios;
+
+    private GrafoVial(double[] latitudes, double[] longitudes,
+                      int[] subidaInicio, int[] subidaDestino, double[] subidaSegundos, double[] subidaMetros,
+                      int[] bajadaInicio, int[] bajadaDestino, double[] bajadaSegundos, double[] bajadaMetros,
+                      int cantidadAtajos) {
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.subidaInicio = subidaInicio;
+        this.subidaDestino = subidaDestino;
+        this.subidaSegundos = subidaSegundos;
+        this.subidaMetros = subidaMetros;
+        this.bajadaInicio = bajadaInicio;
+        this.bajadaDestino = bajadaDestino;
+        this.bajadaSegundos = bajadaSegundos;
+        this.bajadaMetros = bajadaMetros;
+        this.cantidadAtajos = cantidadAtajos;
+        this.espacios = ThreadLocal.withInitial(() -> new EspacioConsulta(latitudes.length));
+    }
+
+    public int getCantidadNodos() {
+        return latitudes.length;
+    }
+
+    public int getCantidadAtajos() {
+        return cantidadAtajos;
+    }
+
+    public double getLatitud(int nodo) {
+        return latitudes[nodo];
+    }
+
+    public double getLongitud(int nodo) {
+        return longitudes[nodo];
+    }
+
+    /**
+     * Resultado de una consulta de camino mínimo
+     */
+    public record Camino(double segundos, double metros) {
+    }
+
+    /**
+     * Camino más rápido entre dos nodos (índices internos)
+     * @return Camino con segundos y metros, o null si no hay conexión
+     */
+    public Camino consultar(int origen, int destino) {
+        if (origen == destino) {
+            return new Camino(0, 0);
+        }
+        EspacioConsulta espacio = espacios.get();
+        espacio.reiniciar();
+        Busqueda adelante = espacio.adelante;
+        Busqueda atras = espacio.atras;
+        adelante.iniciar(origen);
+        atras.iniciar(destino);
+
+        double mejor = Double.POSITIVE_INFINITY;
+        double mejorMetros = 0;
+
+        while (!adelante.cola.isEmpty() || !atras.cola.isEmpty()) {
+            double minAdelante = adelante.minimo();
+            double minAtras = atras.minimo();
+            if (Math.min(minAdelante, minAtras) >= mejor) {
+                break;
+            }
+            boolean haciaAdelante = minAdelante <= minAtras;
+            Busqueda propia = haciaAdelante ? adelante : atras;
+            Busqueda opuesta = haciaAdelante ? atras : adelante;
+
+            double[] actual = propia.cola.poll();
+            int nodo = (int) actual[0];
+            if (actual[1] > propia.segundos(nodo)) {
+                continue; // entrada obsoleta
+            }
+
+            if (opuesta.alcanzado(nodo)) {
+                double total = propia.segundos(nodo) + opuesta.segundos(nodo);
+                if (total < mejor) {
+                    mejor = total;
+                    mejorMetros = propia.metros(nodo) + opuesta.metros(nodo);
+                }
+            }
+
+            int[] inicio = haciaAdelante ? subidaInicio : bajadaInicio;
+            int[] destinos = haciaAdelante ? subidaDestino : bajadaDestino;
+            double[] segundos = haciaAdelante ? subidaSegundos : bajadaSegundos;
+            double[] metros = haciaAdelante ? subidaMetros : bajadaMetros;
+
+            for (int e = inicio[nodo]; e < inicio[nodo + 1]; e++) {
+                propia.relajar(destinos[e], propia.segundos(nodo) + segundos[e], propia.metros(nodo) + metros[e]);
+            }
+        }
+        return mejor == Double.POSITIVE_INFINITY ? null : new Camino(mejor, mejorMetros);
+    }
+
+    /**
+     * Arreglos reutilizables por hilo; una marca de época evita limpiarlos en cada consulta
+     */
+    private static final class EspacioConsulta {
+        private final Busqueda adelante;
+        private final Busqueda atras;
+
+        EspacioConsulta(int n) {
+            this.adelante = new Busqueda(n);
+            this.atras = new Busqueda(n);
+        }
+
+        void reiniciar() {
+            adelante.reiniciar();
+            atras.reiniciar();
+        }
+    }
+
+    private static final class Busqueda {
+        private final double[] segundos;
+        private final double[] metros;
+        private final int[] epoca;
+        private int epocaActual;
+        private final PriorityQueue<double[]> cola = new PriorityQueue<>((a, b) -> Double.compare(a[1], b[1]));
+
+        Busqueda(int n) {
+            this.segundos = new double[n];
+            this.metros = new double[n];
+            this.epoca = new int[n];
+        }
+
+        void reiniciar() {
+            cola.clear();
+            if (++epocaActual == Integer.MAX_VALUE) {
+                Arrays.fill(epoca, 0);
+                epocaActual = 1;
+            }
+        }
+
+        void iniciar(int nodo) {
+            relajar(nodo, 0, 0);
+        }
+
+        boolean alcanzado(int nodo) {
+            return epoca[nodo] == epocaActual;
+        }
+
+        double segundos(int nodo) {
+            return alcanzado(nodo) ? segundos[nodo] : Double.POSITIVE_INFINITY;
+        }
+
+        double metros(int nodo) {
+            return metros[nodo];
+        }
+
+        double minimo() {
+            return cola.isEmpty() ? Double.POSITIVE_INFINITY : cola.peek()[1];
+        }
+
+        void relajar(int nodo, double nuevosSegundos, double nuevosMetros) {
+            if (nuevosSegundos < segundos(nodo)) {
+                epoca[nodo] = epocaActual;
+                segundos[nodo] = nuevosSegundos;
+                metros[nodo] = nuevosMetros;
+                cola.add(new double[]{nodo, nuevosSegundos});
+            }
+        }
+    }
+
+    // ========== CONSTRUCCIÓN Y PREPROCESAMIENTO ==========
+
+    /**
+     * Acumula nodos y aristas y luego ejecuta la contracción
+     */
+    public static final class Constructor {
+
+        private final List<double[]> coordenadas = new ArrayList<>();
+        // Grafo "vivo": solo contiene aristas entre nodos todavía no contraídos
+        private final List<Map<Integer, double[]>> salientes = new ArrayList<>();
+        private final List<Map<Integer, double[]>> entrantes = new ArrayList<>();
+        private int aristasOriginales;
+
+        // Espacio de trabajo de la búsqueda de testigos (marca de época para no limpiar arreglos)
+        private double[] distanciaTestigo;
+        private int[] epocaTestigo;
+        private int epocaActual;
+
+        /**
+         * @return índice interno del nodo agregado
+         */
+        public int agregarNodo(double latitud, double longitud) {
+            coordenadas.add(new double[]{latitud, longitud});
+            salientes.add(new HashMap<>());
+            entrantes.add(new HashMap<>());
+            return coordenadas.size() - 1;
+        }
+
+        /**
+         * Agrega una arista dirigida; si ya existe se conserva la más rápida
+         */
+        public void agregarArista(int desde, int hasta, double metros, double segundos) {
+            if (ponerArista(desde, hasta, segundos, metros)) {
+                aristasOriginales++;
+            }
+        }
+
+        private boolean ponerArista(int desde, int hasta, double segundos, double metros) {
+            if (desde == hasta) {
+                return false;
+            }
+            double[] existente = salientes.get(desde).get(hasta);
+            if (existente != null && existente[0] <= segundos) {
+                return false;
+            }
+            double[] peso = {segundos, metros};
+            salientes.get(desde).put(hasta, peso);
+            entrantes.get(hasta).put(desde, peso);
+            return existente == null;
+        }
+
+        public GrafoVial construir() {
+            int n = coordenadas.size();
+            distanciaTestigo = new double[n];
+            epocaTestigo = new int[n];
+            boolean[] contraido = new boolean[n];
+            int[] vecinosContraidos = new int[n];
+            int[] nivel = new int[n];
+            // Aristas finales: hacia arriba desde cada nodo y hacia arriba invertidas hacia cada nodo
+            List<List<double[]>> subida = new ArrayList<>(n);
+            List<List<double[]>> bajada = new ArrayList<>(n);
+            for (int v = 0; v < n; v++) {
+                subida.add(new ArrayList<>());
+                bajada.add(new ArrayList<>());
+            }
+
+            PriorityQueue<int[]> cola = new PriorityQueue<>((a, b) -> Integer.compare(a[1], b[1]));
+            for (int v = 0; v < n; v++) {
+                cola.add(new int[]{v, prioridad(v, vecinosContraidos, nivel)});
+            }
+
+            int totalAristas = aristasOriginales;
+            while (!cola.isEmpty()) {
+                int[] candidato = cola.poll();
+                int v = candidato[0];
+                if (contraido[v]) {
+                    continue;
+                }
+                // Actualización perezosa: si la prioridad empeoró, reinsertar
+                int actual = prioridad(v, vecinosContraidos, nivel);
+                if (!cola.isEmpty() && actual > cola.peek()[1]) {
+                    cola.add(new int[]{v, actual});
+                    continue;
+                }
+
+                for (double[] atajo : atajosNecesarios(v)) {
+                    if (ponerArista((int) atajo[0], (int) atajo[1], atajo[2], atajo[3])) {
+                        totalAristas++;
+                    }
+                }
+
+                // Las aristas restantes de v van a nodos de mayor rango: pasan al grafo final
+                for (Map.Entry<Integer, double[]> out : salientes.get(v).entrySet()) {
+                    int w = out.getKey();
+                    subida.get(v).add(new double[]{w, out.getValue()[0], out.getValue()[1]});
+                    entrantes.get(w).remove(v);
+                    vecinosContraidos[w]++;
+                    nivel[w] = Math.max(nivel[w], nivel[v] + 1);
+                }
+                for (Map.Entry<Integer, double[]> in : entrantes.get(v).entrySet()) {
+                    int u = in.getKey();
+                    bajada.get(v).add(new double[]{u, in.getValue()[0], in.getValue()[1]});
+                    salientes.get(u).remove(v);
+                    vecinosContraidos[u]++;
+                    nivel[u] = Math.max(nivel[u], nivel[v] + 1);
+                }
+                salientes.get(v).clear();
+                entrantes.get(v).clear();
+                contraido[v] = true;
+            }
+
+            return armar(subida, bajada, totalAristas - aristasOriginales);
+        }
+
+        /**
+         * Diferencia de aristas (atajos necesarios - aristas eliminadas) + vecinos ya contraídos + nivel.
+         * Los dos últimos términos reparten la contracción de forma uniforme y mantienen baja la jerarquía.
+         */
+        private int prioridad(int v, int[] vecinosContraidos, int[] nivel) {
+            int eliminadas = entrantes.get(v).size() + salientes.get(v).size();
+            return 2 * (atajosNecesarios(v).size() - eliminadas) + vecinosContraidos[v] + nivel[v];
+        }
+
+        /**
+         * Atajos u->w que requiere contraer v, como {u, w, segundos, metros}
+         */
+        private List<double[]> atajosNecesarios(int v) {
+            List<double[]> atajos = new ArrayList<>();
+            Map<Integer, double[]> salidas = salientes.get(v);
+            if (salidas.isEmpty()) {
+                return atajos;
+            }
+            for (Map.Entry<Integer, double[]> in : entrantes.get(v).entrySet()) {
+                int u = in.getKey();
+                // Con aristas de peso cero maxVia puede ser 0 aunque haya destinos: se registra aparte
+                boolean existeVia = false;
+                double maxVia = 0;
+                for (Map.Entry<Integer, double[]> out : salidas.entrySet()) {
+                    if (out.getKey() != u) {
+                        existeVia = true;
+                        maxVia = Math.max(maxVia, in.getValue()[0] + out.getValue()[0]);
+                    }
+                }
+                if (!existeVia) {
+                    continue;
+                }
+                busquedaTestigo(u, v, maxVia);
+                for (Map.Entry<Integer, double[]> out : salidas.entrySet()) {
+                    int w = out.getKey();
+                    if (w == u) {
+                        continue;
+                    }
+                    double via = in.getValue()[0] + out.getValue()[0];
+                    if (distanciaTestigo(w) > via) {
+                        atajos.add(new double[]{u, w, via, in.getValue()[1] + out.getValue()[1]});
+                    }
+                }
+            }
+            return atajos;
+        }
+
+        /**
+         * Dijkstra acotado desde u sobre el grafo vivo que ignora el nodo excluido;
+         * las distancias quedan disponibles en distanciaTestigo(nodo)
+         */
+        private void busquedaTestigo(int u, int excluido, double limite) {
+            epocaActual++;
+            PriorityQueue<double[]> cola = new PriorityQueue<>((a, b) -> Double.compare(a[1], b[1]));
+            epocaTestigo[u] = epocaActual;
+            distanciaTestigo[u] = 0;
+            cola.add(new double[]{u, 0});
+            int asentados = 0;
+            while (!cola.isEmpty() && asentados < LIMITE_BUSQUEDA_TESTIGO) {
+                double[] actual = cola.poll();
+                int nodo = (int) actual[0];
+                if (actual[1] > distanciaTestigo[nodo]) {
+                    continue;
+                }
+                if (actual[1] > limite) {
+                    break;
+                }
+                asentados++;
+                for (Map.Entry<Integer, double[]> out : salientes.get(nodo).entrySet()) {
+                    int w = out.getKey();
+                    if (w == excluido) {
+                        continue;
+                    }
+                    double nuevo = actual[1] + out.getValue()[0];
+                    if (nuevo < distanciaTestigo(w)) {
+                        epocaTestigo[w] = epocaActual;
+                        distanciaTestigo[w] = nuevo;
+                        cola.add(new double[]{w, nuevo});
+                    }
+                }
+            }
+        }
+
+        private double distanciaTestigo(int nodo) {
+            return epocaTestigo[nodo] == epocaActual ? distanciaTestigo[nodo] : Double.POSITIVE_INFINITY;
+        }
+
+        /**
+         * Convierte las listas de aristas finales al formato CSR
+         */
+        private GrafoVial armar(List<List<double[]>> subida, List<List<double[]>> bajada, int atajos) {
+            int n = coordenadas.size();
+            int[] subidaInicio = new int[n + 1];
+            int[] bajadaInicio = new int[n + 1];
+            for (int v = 0; v < n; v++) {
+                subidaInicio[v + 1] = subidaInicio[v] + subida.get(v).size();
+                bajadaInicio[v + 1] = bajadaInicio[v] + bajada.get(v).size();
+            }
+
+            int[] subidaDestino = new int[subidaInicio[n]];
+            double[] subidaSegundos = new double[subidaInicio[n]];
+            double[] subidaMetros = new double[subidaInicio[n]];
+            int[] bajadaDestino = new int[bajadaInicio[n]];
+            double[] bajadaSegundos = new double[bajadaInicio[n]];
+            double[] bajadaMetros = new double[bajadaInicio[n]];
+
+            for (int v = 0; v < n; v++) {
+                int p = subidaInicio[v];
+                for (double[] arista : subida.get(v)) {
+                    subidaDestino[p] = (int) arista[0];
+                    subidaSegundos[p] = arista[1];
+                    subidaMetros[p] = arista[2];
+                    p++;
+                }
+                p = bajadaInicio[v];
+                for (double[] arista : bajada.get(v)) {
+                    bajadaDestino[p] = (int) arista[0];
+                    bajadaSegundos[p] = arista[1];
+                    bajadaMetros[p] = arista[2];
+                    p++;
+                }
+            }
+
+            double[] latitudes = new double[n];
+            double[] longitudes = new double[n];
+            for (int i = 0; i < n; i++) {
+                latitudes[i] = coordenadas.get(i)[0];
+                longitudes[i] = coordenadas.get(i)[1];
+            }
+            return new GrafoVial(latitudes, longitudes,
+                    subidaInicio, subidaDestino, subidaSegundos, subidaMetros,
+                    bajadaInicio, bajadaDestino, bajadaSegundos, bajadaMetros,
+                    atajos);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package utn.frc.isi.backend.tpi_Integrador.routing;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import utn.frc.isi.backend.tpi_Integrador.dtos.googlemaps.Distance;
+import utn.frc.isi.backend.tpi_Integrador.dtos.googlemaps.Duration;
+import utn.frc.isi.backend.tpi_Integrador.dtos.googlemaps.Element;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Proveedor de distancias local sobre una red vial offline.
+ * Carga nodos y aristas desde archivos CSV, los preprocesa con Contraction Hierarchies
+ * y responde consultas en proceso, sin llamadas remotas.
+ * <p>
+ * Formato de nodos: {@code id,latitud,longitud}<br>
+ * Formato de aristas: {@code desde,hasta,metros,segundos[,unico_sentido]} (por defecto doble sentido)<br>
+ * Las líneas vacías, comentarios (#) y encabezados no numéricos se ignoran.
+ */
+@Slf4j
+@Component
+public class GrafoVialProveedorDistancia implements ProveedorDistancia {
+
+    public static final String NOMBRE = "grafo-vial";
+
+    // Tamaño de celda del índice espacial para ubicar el nodo más cercano (grados)
+    private static final double TAMANIO_CELDA = 0.05;
+    // Kilómetros por grado de latitud (y de longitud sobre el ecuador)
+    private static final double KM_POR_GRADO = 111.0;
+    // Cota del coseno cerca de los polos para que el radio en celdas de longitud siga siendo finito
+    private static final double COSENO_MINIMO = 0.01;
+    // Velocidad asumida para el acceso desde el punto consultado hasta el nodo de la red
+    private static final double VELOCIDAD_ACCESO_KMH = 30.0;
+
+    private final String archivoNodos;
+    private final String archivoAristas;
+    private final double distanciaMaximaAccesoKm;
+
+    private volatile GrafoVial grafo;
+    private volatile Map<Long, int[]> indiceEspacial = Map.of();
+
+    public GrafoVialProveedorDistancia(@Value("${grafo-vial.nodos:}") String archivoNodos,
+                                       @Value("${grafo-vial.aristas:}") String archivoAristas,
+                                       @Value("${grafo-vial.distancia-maxima-acceso-km:5}") double distanciaMaximaAccesoKm) {
+        this.archivoNodos = archivoNodos;
+        this.archivoAristas = archivoAristas;
+        this.distanciaMaximaAccesoKm = distanciaMaximaAccesoKm;
+    }
+
+    @Override
+    public String getNombre() {
+        return NOMBRE;
+    }
+
+    @Override
+    public boolean isDisponible() {
+        return grafo != null;
+    }
+
+    @PostConstruct
+    void cargar() {
+        if (archivoNodos.isBlank() || archivoAristas.isBlank()) {
+            log.info("Red vial offline no configurada (grafo-vial.nodos / grafo-vial.aristas)");
+            return;
+        }
+        long inicio = System.currentTimeMillis();
+        try {
+            GrafoVial.Constructor constructor = new GrafoVial.Constructor();
+            Map<Long, Integer> indices = new HashMap<>();
+
+            for (String[] campos : leerCsv(Paths.get(archivoNodos))) {
+                if (campos.length < 3) {
+                    continue;
+                }
+                long id = Long.parseLong(campos[0]);
+                indices.put(id, constructor.agregarNodo(Double.parseDouble(campos[1]), Double.parseDouble(campos[2])));
+            }
+
+            int aristas = 0;
+            for (String[] campos : leerCsv(Paths.get(archivoAristas))) {
+                if (campos.length < 4) {
+                    continue;
+                }
+                Integer desde = indices.get(Long.parseLong(campos[0]));
+                Integer hasta = indices.get(Long.parseLong(campos[1]));
+                if (desde == null || hasta == null) {
+                    continue;
+                }
+                double metros = Double.parseDouble(campos[2]);
+                double segundos = Double.parseDouble(campos[3]);
+                boolean unicoSentido = campos.length > 4 && ("1".equals(campos[4]) || "true".equalsIgnoreCase(campos[4]));
+                constructor.agregarArista(desde, hasta, metros, segundos);
+                if (!unicoSentido) {
+                    constructor.agregarArista(hasta, desde, metros, segundos);
+                }
+                aristas++;
+            }
+
+            GrafoVial construido = constructor.construir();
+            this.indiceEspacial = construirIndice(construido);
+            this.grafo = construido;
+            log.info("Red vial offline cargada: {} nodos, {} aristas, {} atajos CH en {} ms",
+                    construido.getCantidadNodos(), aristas, construido.getCantidadAtajos(),
+                    System.currentTimeMillis() - inicio);
+        } catch (IOException | RuntimeException e) {
+            log.error("No se pudo cargar la red vial offline desde {} / {}: {}", archivoNodos, archivoAristas, e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Optional<Element> obtenerDistancia(String origen, String destino) {
+        GrafoVial g = grafo;
+        double[] o = EstimadorDistancia.parsearPunto(origen);
+        double[] d = EstimadorDistancia.parsearPunto(destino);
+        if (g == null || o == null || d == null) {
+            return Optional.empty();
+        }
+
+        int nodoOrigen = nodoMasCercano(g, o[0], o[1]);
+        int nodoDestino = nodoMasCercano(g, d[0], d[1]);
+        if (nodoOrigen < 0 || nodoDestino < 0) {
+            log.debug("Punto fuera de la cobertura de la red vial offline: {} -> {}", origen, destino);
+            return Optional.empty();
+        }
+
+        GrafoVial.Camino camino = g.consultar(nodoOrigen, nodoDestino);
+        if (camino == null) {
+            log.debug("Sin camino en la red vial offline entre {} y {}", origen, destino);
+            return Optional.empty();
+        }
+
+        // Sumar el acceso desde/hasta los puntos reales al nodo más cercano
+        double accesoKm = EstimadorDistancia.distanciaOrtodromicaKm(o[0], o[1], g.getLatitud(nodoOrigen), g.getLongitud(nodoOrigen))
+                + EstimadorDistancia.distanciaOrtodromicaKm(d[0], d[1], g.getLatitud(nodoDestino), g.getLongitud(nodoDestino));
+        long metros = Math.round(camino.metros() + accesoKm * 1000);
+        long segundos = Math.round(camino.segundos() + accesoKm / VELOCIDAD_ACCESO_KMH * 3600);
+
+        return Optional.of(new Element("OK",
+                new Distance(String.format("%.1f km", metros / 1000.0), metros),
+                new Duration(String.format("%.1f horas", segundos / 3600.0), segundos)));
+    }
+
+    /**
+     * Busca el nodo más cercano en la celda del punto y sus vecinas
+     * @return índice del nodo o -1 si no hay ninguno dentro de la distancia máxima de acceso
+     */
+    private int nodoMasCercano(GrafoVial g, double lat, double lng) {
+        long celdaLat = (long) Math.floor(lat / TAMANIO_CELDA);
+        long celdaLng = (long) Math.floor(lng / TAMANIO_CELDA);
+        // Un grado de longitud mide 111 km * cos(latitud): lejos del ecuador hacen falta más celdas
+        int radioLat = (int) Math.ceil(distanciaMaximaAccesoKm / (TAMANIO_CELDA * KM_POR_GRADO));
+        double kmPorGradoLng = KM_POR_GRADO * Math.max(Math.cos(Math.toRadians(lat)), COSENO_MINIMO);
+        int radioLng = (int) Math.ceil(distanciaMaximaAccesoKm / (TAMANIO_CELDA * kmPorGradoLng));
+
+        int mejor = -1;
+        double mejorKm = distanciaMaximaAccesoKm;
+        for (long i = celdaLat - radioLat; i <= celdaLat + radioLat; i++) {
+            for (long j = celdaLng - radioLng; j <= celdaLng + radioLng; j++) {
+                int[] nodos = indiceEspacial.get(claveCelda(i, j));
+                if (nodos == null) {
+                    continue;
+                }
+                for (int nodo : nodos) {
+                    double km = EstimadorDistancia.distanciaOrtodromicaKm(lat, lng, g.getLatitud(nodo), g.getLongitud(nodo));
+                    if (km <= mejorKm) {
+                        mejorKm = km;
+                        mejor = nodo;
+                    }
+                }
+            }
+        }
+        return mejor;
+    }
+
+    private static Map<Long, int[]> construirIndice(GrafoVial g) {
+        Map<Long, List<Integer>> celdas = new HashMap<>();
+        for (int nodo = 0; nodo < g.getCantidadNodos(); nodo++) {
+            long clave = claveCelda((long) Math.floor(g.getLatitud(nodo) / TAMANIO_CELDA),
+                    (long) Math.floor(g.getLongitud(nodo) / TAMANIO_CELDA));
+            celdas.computeIfAbsent(clave, k -> new ArrayList<>()).add(nodo);
+        }
+        Map<Long, int[]> indice = new HashMap<>(celdas.size() * 2);
+        celdas.forEach((clave, nodos) -> indice.put(clave, nodos.stream().mapToInt(Integer::intValue).toArray()));
+        return indice;
+    }
+
+    private static long claveCelda(long celdaLat, long celdaLng) {
+        return (celdaLat << 32) ^ (celdaLng & 0xffffffffL);
+    }
+
+    private static List<String[]> leerCsv(Path path) throws IOException {
+        List<String[]> filas = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String linea;
+            while ((linea = reader.readLine()) != null) {
+                linea = linea.trim();
+                if (linea.isEmpty() || linea.startsWith("#") || !Character.isDigit(linea.charAt(0)) && linea.charAt(0) != '-') {
+                    continue;
+                }
+                String[] campos = linea.split(",");
+                for (int i = 0; i < campos.length; i++) {
+                    campos[i] = campos[i].trim();
+                }
+                filas.add(campos);
+            }
+        }
+        return filas;
+    }
+}
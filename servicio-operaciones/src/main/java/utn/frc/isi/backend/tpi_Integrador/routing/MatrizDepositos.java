@@ -0,0 +1,416 @@
+package utn.frc.isi.backend.tpi_Integrador.routing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import utn.frc.isi.backend.tpi_Integrador.clients.CuotaGoogleMaps;
+import utn.frc.isi.backend.tpi_Integrador.dtos.googlemaps.Distance;
+import utn.frc.isi.backend.tpi_Integrador.dtos.googlemaps.Duration;
+import utn.frc.isi.backend.tpi_Integrador.dtos.googlemaps.Element;
+import utn.frc.isi.backend.tpi_Integrador.models.DepositoReference;
+import utn.frc.isi.backend.tpi_Integrador.repositories.DepositoReferenceRepository;
+import utn.frc.isi.backend.tpi_Integrador.services.GoogleMapsService;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matriz precalculada de distancias y duraciones entre todos los depósitos (N×N).
+ * Se guarda en un archivo binario mapeado en memoria: al iniciar solo se lee el encabezado
+ * (ids y coordenadas) y los valores se consultan directo del archivo, sin parsearlo.
+ * Un hilo en segundo plano calcula los pares faltantes con los proveedores de distancia
+ * configurados (con prioridad baja en la cuota de Google Maps), recalcula solo
+ * las filas/columnas de los depósitos creados, movidos o eliminados y reintenta con
+ * espera creciente los pares que quedaron sin calcular.
+ * <p>
+ * Formato: {@code MAGIC, VERSION, n}, luego n × {@code (id, latitud, longitud)} y
+ * n × n × {@code (metros, segundos)} como enteros; -1 indica un par todavía no calculado.
+ */
+@Slf4j
+@Component
+public class MatrizDepositos {
+
+    private static final int MAGIC = 0x4D445031; // "MDP1"
+    private static final int VERSION_ARCHIVO = 1;
+    private static final int BYTES_ENCABEZADO = 12;
+    private static final int BYTES_DEPOSITO = 24;
+    private static final int BYTES_PAR = 8;
+    private static final int SIN_CALCULAR = -1;
+
+    private final DepositoReferenceRepository depositoReferenceRepository;
+    private final GoogleMapsService googleMapsService;
+    private final CuotaGoogleMaps cuotaGoogleMaps;
+    private final String archivo;
+
+    private final long reintentoInicialMillis;
+    private final long reintentoMaximoMillis;
+
+    // Un solo hilo: los recálculos quedan serializados y no compiten con las consultas
+    private final ScheduledExecutorService ejecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread hilo = new Thread(r, "matriz-depositos");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    private volatile Matriz matriz;
+    // Solo se usan desde el hilo del ejecutor
+    private long esperaReintentoMillis;
+    private ScheduledFuture<?> reintento;
+
+    public MatrizDepositos(DepositoReferenceRepository depositoReferenceRepository,
+                           GoogleMapsService googleMapsService,
+                           CuotaGoogleMaps cuotaGoogleMaps,
+                           @Value("${depositos.matriz.archivo:}") String archivo,
+                           @Value("${depositos.matriz.reintento-inicial-ms:60000}") long reintentoInicialMillis,
+                           @Value("${depositos.matriz.reintento-maximo-ms:3600000}") long reintentoMaximoMillis,
+                           MeterRegistry meterRegistry) {
+        this.depositoReferenceRepository = depositoReferenceRepository;
+        this.googleMapsService = googleMapsService;
+        this.cuotaGoogleMaps = cuotaGoogleMaps;
+        this.archivo = archivo;
+        this.reintentoInicialMillis = reintentoInicialMillis;
+        this.reintentoMaximoMillis = reintentoMaximoMillis;
+        this.esperaReintentoMillis = reintentoInicialMillis;
+
+        meterRegistry.gauge("depositos.matriz.depositos", this, m -> m.matriz != null ? m.matriz.cantidad : 0);
+        meterRegistry.gauge("depositos.matriz.pares-pendientes", this, m -> m.matriz != null ? m.matriz.pendientes() : 0);
+    }
+
+    /**
+     * Distancia precalculada entre dos depósitos
+     * @return Optional vacío si alguno no está en la matriz o el par todavía no se calculó
+     */
+    public Optional<Element> obtener(Long desdeId, Long hastaId) {
+        Matriz m = matriz;
+        if (m == null) {
+            return Optional.empty();
+        }
+        Integer i = m.indices.get(desdeId);
+        Integer j = m.indices.get(hastaId);
+        if (i == null || j == null) {
+            return Optional.empty();
+        }
+        int metros = m.metros(i, j);
+        int segundos = m.segundos(i, j);
+        if (metros < 0 || segundos < 0) {
+            return Optional.empty();
+        }
+        return Optional.of(new Element("OK",
+                new Distance(String.format("%.1f km", metros / 1000.0), (long) metros),
+                new Duration(String.format("%.1f horas", segundos / 3600.0), (long) segundos)));
+    }
+
+    /**
+     * Programa un recálculo incremental tras crear, mover o eliminar un depósito
+     */
+    public void depositosModificados() {
+        if (!archivo.isBlank()) {
+            ejecutor.submit(this::reconciliar);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void iniciar() {
+        if (archivo.isBlank()) {
+            log.info("Matriz de depósitos deshabilitada (depositos.matriz.archivo vacío)");
+            return;
+        }
+        Path path = Paths.get(archivo);
+        if (Files.exists(path)) {
+            try {
+                matriz = Matriz.abrir(path);
+                log.info("Matriz de depósitos cargada desde {}: {} depósitos", path, matriz.cantidad);
+            } catch (IOException | RuntimeException e) {
+                log.warn("No se pudo abrir la matriz de depósitos {}: {}, se recalcula", path, e.getMessage());
+            }
+        }
+        ejecutor.submit(this::reconciliar);
+    }
+
+    @PreDestroy
+    void detener() throws InterruptedException {
+        ejecutor.shutdownNow();
+        ejecutor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Compara el catálogo de depósitos con la matriz actual: conserva los pares de depósitos
+     * sin cambios, reconstruye el archivo si cambió el conjunto o alguna coordenada,
+     * calcula los pares pendientes y, si alguno falló, programa un reintento
+     */
+    private void reconciliar() {
+        try {
+            List<DepositoReference> depositos = new ArrayList<>(depositoReferenceRepository.findAll().stream()
+                    .filter(d -> d.getLatitud() != null && d.getLongitud() != null)
+                    .toList());
+            depositos.sort(Comparator.comparing(DepositoReference::getId));
+
+            Matriz actual = matriz;
+            if (actual == null || !actual.coincideCon(depositos)) {
+                actual = reconstruir(actual, depositos);
+                matriz = actual;
+            }
+            calcularPendientes(actual);
+        } catch (IOException | RuntimeException e) {
+            log.error("Error al actualizar la matriz de depósitos: {}", e.getMessage(), e);
+        }
+        programarReintento();
+    }
+
+    private Matriz reconstruir(Matriz anterior, List<DepositoReference> depositos) throws IOException {
+        Path path = Paths.get(archivo);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        // Escribir a un temporal y luego reemplazar para no dejar un archivo corrupto
+        Path temporal = path.resolveSibling(path.getFileName() + ".tmp");
+        Matriz nueva = Matriz.crear(temporal, depositos);
+
+        int conservados = 0;
+        if (anterior != null) {
+            // Índice en la matriz anterior de cada depósito que no se movió
+            int[] previo = new int[nueva.cantidad];
+            for (int i = 0; i < nueva.cantidad; i++) {
+                Integer k = anterior.indices.get(nueva.id(i));
+                previo[i] = k != null && anterior.latitud(k) == nueva.latitud(i) && anterior.longitud(k) == nueva.longitud(i) ? k : -1;
+            }
+            for (int i = 0; i < nueva.cantidad; i++) {
+                for (int j = 0; j < nueva.cantidad; j++) {
+                    if (i != j && previo[i] >= 0 && previo[j] >= 0) {
+                        nueva.guardar(i, j, anterior.metros(previo[i], previo[j]), anterior.segundos(previo[i], previo[j]));
+                        conservados++;
+                    }
+                }
+            }
+        }
+        nueva.buffer.force();
+        Files.move(temporal, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.info("Matriz de depósitos reconstruida: {} depósitos, {} pares conservados", nueva.cantidad, conservados);
+        return nueva;
+    }
+
+    /**
+     * Calcula los pares pendientes pidiendo matrices filas × columnas de depósitos.
+     * Las filas se agrupan por su conjunto de columnas pendientes; las que tienen pendiente
+     * la mitad o más de las columnas (ej: un depósito nuevo o una matriz vacía) se piden contra
+     * todas, así una matriz vacía sale en bloques completos sin elementos desperdiciados.
+     * Cada celda devuelta se guarda, no solo la diagonal.
+     */
+    private void calcularPendientes(Matriz m) {
+        Map<BitSet, List<Integer>> grupos = new LinkedHashMap<>();
+        int pendientes = 0;
+        for (int i = 0; i < m.cantidad; i++) {
+            BitSet columnas = new BitSet(m.cantidad);
+            for (int j = 0; j < m.cantidad; j++) {
+                if (i != j && m.metros(i, j) < 0) {
+                    if (m.latitud(i) == m.latitud(j) && m.longitud(i) == m.longitud(j)) {
+                        // Dos depósitos en la misma coordenada: no hay nada que consultar
+                        m.guardar(i, j, 0, 0);
+                        continue;
+                    }
+                    columnas.set(j);
+                }
+            }
+            if (columnas.isEmpty()) {
+                continue;
+            }
+            pendientes += columnas.cardinality();
+            if (columnas.cardinality() * 2 >= m.cantidad) {
+                columnas.set(0, m.cantidad);
+            }
+            grupos.computeIfAbsent(columnas, k -> new ArrayList<>()).add(i);
+        }
+        if (pendientes == 0) {
+            return;
+        }
+
+        log.info("Calculando {} pares pendientes de la matriz de depósitos en {} grupos de filas", pendientes, grupos.size());
+        int calculados = 0;
+        for (Map.Entry<BitSet, List<Integer>> grupo : grupos.entrySet()) {
+            List<Integer> filas = grupo.getValue();
+            List<Integer> columnas = grupo.getKey().stream().boxed().toList();
+            List<String> origenes = filas.stream().map(i -> m.latitud(i) + "," + m.longitud(i)).toList();
+            List<String> destinos = columnas.stream().map(j -> m.latitud(j) + "," + m.longitud(j)).toList();
+
+            List<List<Optional<Element>>> elementos = cuotaGoogleMaps.enSegundoPlano(
+                    () -> googleMapsService.obtenerMatrizDistancias(origenes, destinos));
+            for (int f = 0; f < filas.size(); f++) {
+                int i = filas.get(f);
+                for (int c = 0; c < columnas.size(); c++) {
+                    int j = columnas.get(c);
+                    Optional<Element> elementOpt = elementos.get(f).get(c);
+                    if (i == j || elementOpt.isEmpty()) {
+                        continue;
+                    }
+                    if (m.metros(i, j) < 0) {
+                        calculados++;
+                    }
+                    Element element = elementOpt.get();
+                    m.guardar(i, j, element.getDistance().getValue().intValue(), element.getDuration().getValue().intValue());
+                }
+            }
+        }
+        m.buffer.force();
+        log.info("Matriz de depósitos: {} de {} pares calculados ({} quedan pendientes)",
+                calculados, pendientes, pendientes - calculados);
+    }
+
+    /**
+     * Reprograma la reconciliación mientras queden pares pendientes (fallas del proveedor o
+     * cuota agotada), con espera exponencial hasta depositos.matriz.reintento-maximo-ms
+     */
+    private void programarReintento() {
+        Matriz m = matriz;
+        if (m != null && m.pendientes() == 0) {
+            esperaReintentoMillis = reintentoInicialMillis;
+            return;
+        }
+        if (reintento != null && !reintento.isDone()) {
+            reintento.cancel(false);
+        }
+        long espera = esperaReintentoMillis;
+        esperaReintentoMillis = Math.min(espera * 2, reintentoMaximoMillis);
+        log.info("Matriz de depósitos con pares pendientes, reintento en {} ms", espera);
+        reintento = ejecutor.schedule(this::reconciliar, espera, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Vista sobre el archivo mapeado: encabezado ya indexado y acceso directo a los pares
+     */
+    private static final class Matriz {
+        final MappedByteBuffer buffer;
+        final int cantidad;
+        final Map<Long, Integer> indices;
+
+        private Matriz(MappedByteBuffer buffer) {
+            this.buffer = buffer;
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION_ARCHIVO) {
+                throw new IllegalStateException("Formato de matriz de depósitos no reconocido");
+            }
+            this.cantidad = buffer.getInt(8);
+            if (buffer.capacity() != tamanio(cantidad)) {
+                throw new IllegalStateException("Tamaño de matriz de depósitos inconsistente");
+            }
+            this.indices = new HashMap<>(cantidad * 2);
+            for (int i = 0; i < cantidad; i++) {
+                indices.put(id(i), i);
+            }
+        }
+
+        static Matriz abrir(Path path) throws IOException {
+            try (FileChannel canal = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                return new Matriz(canal.map(FileChannel.MapMode.READ_WRITE, 0, canal.size()));
+            }
+        }
+
+        static Matriz crear(Path path, List<DepositoReference> depositos) throws IOException {
+            int n = depositos.size();
+            try (FileChannel canal = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer buffer = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamanio(n));
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(4, VERSION_ARCHIVO);
+                buffer.putInt(8, n);
+                for (int i = 0; i < n; i++) {
+                    DepositoReference deposito = depositos.get(i);
+                    int offset = BYTES_ENCABEZADO + i * BYTES_DEPOSITO;
+                    buffer.putLong(offset, deposito.getId());
+                    buffer.putDouble(offset + 8, deposito.getLatitud());
+                    buffer.putDouble(offset + 16, deposito.getLongitud());
+                }
+                for (int i = 0; i < n; i++) {
+                    for (int j = 0; j < n; j++) {
+                        int offset = offsetPar(n, i, j);
+                        buffer.putInt(offset, i == j ? 0 : SIN_CALCULAR);
+                        buffer.putInt(offset + 4, i == j ? 0 : SIN_CALCULAR);
+                    }
+                }
+                return new Matriz(buffer);
+            }
+        }
+
+        static long tamanio(int n) {
+            return BYTES_ENCABEZADO + (long) n * BYTES_DEPOSITO + (long) n * n * BYTES_PAR;
+        }
+
+        static int offsetPar(int n, int i, int j) {
+            return BYTES_ENCABEZADO + n * BYTES_DEPOSITO + (i * n + j) * BYTES_PAR;
+        }
+
+        long id(int i) {
+            return buffer.getLong(BYTES_ENCABEZADO + i * BYTES_DEPOSITO);
+        }
+
+        double latitud(int i) {
+            return buffer.getDouble(BYTES_ENCABEZADO + i * BYTES_DEPOSITO + 8);
+        }
+
+        double longitud(int i) {
+            return buffer.getDouble(BYTES_ENCABEZADO + i * BYTES_DEPOSITO + 16);
+        }
+
+        int metros(int i, int j) {
+            return buffer.getInt(offsetPar(cantidad, i, j));
+        }
+
+        int segundos(int i, int j) {
+            return buffer.getInt(offsetPar(cantidad, i, j) + 4);
+        }
+
+        void guardar(int i, int j, int metros, int segundos) {
+            int offset = offsetPar(cantidad, i, j);
+            buffer.putInt(offset, metros);
+            buffer.putInt(offset + 4, segundos);
+        }
+
+        int pendientes() {
+            int pendientes = 0;
+            for (int i = 0; i < cantidad; i++) {
+                for (int j = 0; j < cantidad; j++) {
+                    if (i != j && metros(i, j) < 0) {
+                        pendientes++;
+                    }
+                }
+            }
+            return pendientes;
+        }
+
+        /**
+         * Indica si la matriz tiene exactamente los mismos depósitos (ids y coordenadas)
+         */
+        boolean coincideCon(List<DepositoReference> depositos) {
+            if (depositos.size() != cantidad) {
+                return false;
+            }
+            for (int i = 0; i < cantidad; i++) {
+                DepositoReference deposito = depositos.get(i);
+                if (deposito.getId() != id(i) || deposito.getLatitud() != latitud(i) || deposito.getLongitud() != longitud(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
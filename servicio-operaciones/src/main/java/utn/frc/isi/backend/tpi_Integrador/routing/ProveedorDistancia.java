@@ -0,0 +1,56 @@
+package utn.frc.isi.backend.tpi_Integrador.routing;
+
+import utn.frc.isi.backend.tpi_Integrador.dtos.googlemaps.Element;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Fuente de distancias y duraciones por ruta entre dos puntos "lat,lng".
+ * GoogleMapsService recorre los proveedores configurados en orden hasta obtener respuesta.
+ */
+public interface ProveedorDistancia {
+
+    /**
+     * Nombre usado en la propiedad distancia.proveedores (ej: "google", "grafo-vial")
+     */
+    String getNombre();
+
+    /**
+     * Indica si el proveedor está en condiciones de responder (ej: grafo cargado)
+     */
+    default boolean isDisponible() {
+        return true;
+    }
+
+    Optional<Element> obtenerDistancia(String origen, String destino);
+
+    /**
+     * Distancias de varios pares alineados (origenes[i], destinos[i]).
+     * Por defecto consulta par por par; los proveedores remotos pueden agruparlos en una llamada.
+     */
+    default List<Optional<Element>> obtenerDistancias(List<String> origenes, List<String> destinos) {
+        List<Optional<Element>> resultado = new ArrayList<>(origenes.size());
+        for (int i = 0; i < origenes.size(); i++) {
+            resultado.add(obtenerDistancia(origenes.get(i), destinos.get(i)));
+        }
+        return resultado;
+    }
+
+    /**
+     * Matriz origenes × destinos: celda [i][j] = distancia de origenes[i] a destinos[j].
+     * Por defecto consulta celda por celda; los proveedores remotos la piden como matriz.
+     */
+    default List<List<Optional<Element>>> obtenerMatriz(List<String> origenes, List<String> destinos) {
+        List<List<Optional<Element>>> resultado = new ArrayList<>(origenes.size());
+        for (String origen : origenes) {
+            List<Optional<Element>> fila = new ArrayList<>(destinos.size());
+            for (String destino : destinos) {
+                fila.add(origen.equals(destino) ? Optional.empty() : obtenerDistancia(origen, destino));
+            }
+            resultado.add(fila);
+        }
+        return resultado;
+    }
+}
@@ -6,13 +6,15 @@ import org.springframework.stereotype.Service;
 import utn.frc.isi.backend.tpi_Integrador.dtos.ClienteCreateDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.ClienteDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.ClienteUpdateDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.PaginaDTO;
 import utn.frc.isi.backend.tpi_Integrador.mappers.ClienteMapper;
 import utn.frc.isi.backend.tpi_Integrador.models.Cliente;
+import utn.frc.isi.backend.tpi_Integrador.paginacion.ConsultaPagina;
+import utn.frc.isi.backend.tpi_Integrador.paginacion.PaginadorKeyset;
 import utn.frc.isi.backend.tpi_Integrador.repositories.ClienteRepository;
 
-import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service // Marca esta clase como un componente de servicio de Spring
 public class ClienteService {
@@ -21,21 +23,29 @@ public class ClienteService {
 
     private final ClienteRepository clienteRepository;
     private final ClienteMapper clienteMapper;
+    private final PaginadorKeyset paginadorKeyset;
+
+    // Campos por los que se puede ordenar el listado (no nulos)
+    private static final Map<String, Class<?>> CAMPOS_ORDEN = Map.of("id", Long.class, "nombre", String.class);
 
     // Inyección de dependencias a través del constructor (práctica recomendada)
-    public ClienteService(ClienteRepository clienteRepository, ClienteMapper clienteMapper) {
+    public ClienteService(ClienteRepository clienteRepository, ClienteMapper clienteMapper,
+                          PaginadorKeyset paginadorKeyset) {
         this.clienteRepository = clienteRepository;
         this.clienteMapper = clienteMapper;
+        this.paginadorKeyset = paginadorKeyset;
     }
 
-    public List<ClienteDTO> obtenerTodos() {
-        logger.info("Obteniendo todos los clientes");
-        List<ClienteDTO> clientes = clienteRepository.findAll()
-                .stream()
-                .map(clienteMapper::toDTO)
-                .collect(Collectors.toList());
-        logger.info("Se encontraron {} clientes", clientes.size());
-        return clientes;
+    /**
+     * Lista los clientes de a una página (paginación por keyset, ver PaginadorKeyset)
+     * @param pagina cursor, tamaño de página y orden
+     */
+    public PaginaDTO<ClienteDTO> listar(ConsultaPagina pagina) {
+        logger.info("Listando clientes");
+        PaginaDTO<ClienteDTO> resultado = paginadorKeyset.paginar(clienteRepository, (root, query, cb) -> cb.conjunction(),
+                pagina, CAMPOS_ORDEN, clienteMapper::toDTO);
+        logger.info("Se devolvieron {} clientes (hay más: {})", resultado.getItems().size(), resultado.isHayMas());
+        return resultado;
     }
 
     public Optional<ClienteDTO> obtenerPorId(Long id) {
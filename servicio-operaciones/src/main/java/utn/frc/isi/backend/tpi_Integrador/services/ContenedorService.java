@@ -2,52 +2,77 @@ package utn.frc.isi.backend.tpi_Integrador.services;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import utn.frc.isi.backend.tpi_Integrador.dtos.ContenedorCreateDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.ContenedorDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.ContenedorEstadoDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.ContenedorPendienteDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.ContenedorUpdateDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.PaginaDTO;
 import utn.frc.isi.backend.tpi_Integrador.mappers.ContenedorMapper;
 import utn.frc.isi.backend.tpi_Integrador.models.Contenedor;
+import utn.frc.isi.backend.tpi_Integrador.paginacion.ConsultaPagina;
+import utn.frc.isi.backend.tpi_Integrador.paginacion.PaginadorKeyset;
 import utn.frc.isi.backend.tpi_Integrador.repositories.ContenedorRepository;
-import utn.frc.isi.backend.tpi_Integrador.repositories.SolicitudRepository;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @Service // Marca esta clase como un componente de servicio de Spring
 public class ContenedorService {
 
     private static final Logger logger = LoggerFactory.getLogger(ContenedorService.class);
 
+    // RF#5: estados en los que un contenedor está pendiente de entrega
+    private static final Set<String> ESTADOS_PENDIENTES = Set.of("EN_ORIGEN", "EN_DEPOSITO");
+
     private final ContenedorRepository contenedorRepository;
-    private final SolicitudRepository solicitudRepository;
     private final ContenedorMapper contenedorMapper;
+    private final PaginadorKeyset paginadorKeyset;
+
+    // Campos por los que se puede ordenar el listado (no nulos)
+    private static final Map<String, Class<?>> CAMPOS_ORDEN = Map.of(
+            "id", Long.class, "numero", String.class, "peso", Double.class);
 
     // Inyección de dependencias a través del constructor (práctica recomendada)
     public ContenedorService(ContenedorRepository contenedorRepository,
-                           SolicitudRepository solicitudRepository,
-                           ContenedorMapper contenedorMapper) {
+                           ContenedorMapper contenedorMapper,
+                           PaginadorKeyset paginadorKeyset) {
         this.contenedorRepository = contenedorRepository;
-        this.solicitudRepository = solicitudRepository;
         this.contenedorMapper = contenedorMapper;
+        this.paginadorKeyset = paginadorKeyset;
     }
 
-    public List<ContenedorDTO> obtenerTodos() {
-        logger.info("Obteniendo todos los contenedores");
-        List<ContenedorDTO> contenedores = contenedorRepository.findAll()
-                .stream()
-                .map(contenedorMapper::toDTO)
-                .collect(Collectors.toList());
-        logger.info("Se encontraron {} contenedores", contenedores.size());
-        return contenedores;
+    /**
+     * Lista los contenedores de a una página (paginación por keyset, ver PaginadorKeyset)
+     * @param estado si no es null, solo los contenedores en ese estado
+     * @param clienteId si no es null, solo los contenedores de ese cliente
+     * @param pagina cursor, tamaño de página y orden
+     */
+    @Transactional(readOnly = true)
+    public PaginaDTO<ContenedorDTO> listar(String estado, Long clienteId, ConsultaPagina pagina) {
+        logger.info("Listando contenedores (estado: {}, cliente: {})", estado, clienteId);
+        Specification<Contenedor> filtro = (root, query, cb) -> cb.conjunction();
+        if (estado != null) {
+            filtro = filtro.and((root, query, cb) -> cb.equal(root.get("estado"), estado.toUpperCase()));
+        }
+        if (clienteId != null) {
+            filtro = filtro.and((root, query, cb) -> cb.equal(root.get("cliente").get("id"), clienteId));
+        }
+        PaginaDTO<ContenedorDTO> resultado = paginadorKeyset.paginar(contenedorRepository, filtro, pagina, CAMPOS_ORDEN,
+                contenedorMapper::toDTO);
+        logger.info("Se devolvieron {} contenedores (hay más: {})", resultado.getItems().size(), resultado.isHayMas());
+        return resultado;
     }
 
     public Optional<ContenedorDTO> obtenerPorId(Long id) {
         logger.info("Buscando Contenedor con ID: {}", id);
-        Optional<ContenedorDTO> contenedorOpt = contenedorRepository.findById(id)
+        Optional<ContenedorDTO> contenedorOpt = contenedorRepository.findConClienteById(id)
                 .map(contenedorMapper::toDTO);
         if (contenedorOpt.isEmpty()) {
             logger.warn("Contenedor con ID: {} no encontrado", id);
@@ -68,7 +93,7 @@ public class ContenedorService {
     public ContenedorDTO actualizarContenedor(Long id, ContenedorUpdateDTO dto) {
         logger.info("Actualizando contenedor con ID: {}", id);
         // Buscar el contenedor existente
-        Optional<Contenedor> contenedorOpt = contenedorRepository.findById(id);
+        Optional<Contenedor> contenedorOpt = contenedorRepository.findConClienteById(id);
         
         if (contenedorOpt.isEmpty()) {
             logger.warn("Contenedor con ID: {} no encontrado para actualizar", id);
@@ -97,27 +122,20 @@ public class ContenedorService {
      */
     public Optional<ContenedorEstadoDTO> consultarEstado(Long id) {
         logger.info("Consultando estado del contenedor ID: {}", id);
-        Optional<ContenedorEstadoDTO> resultado = contenedorRepository.findById(id).map(contenedor -> {
+        // Contenedor, cliente y solicitud asociada en una sola consulta
+        Optional<ContenedorEstadoDTO> resultado = contenedorRepository.findResumenById(id).map(resumen -> {
             ContenedorEstadoDTO dto = new ContenedorEstadoDTO();
-            dto.setId(contenedor.getId());
-            dto.setNumero(contenedor.getNumero());
-            dto.setEstado(contenedor.getEstado());
-            
-            // Obtener información del cliente
-            if (contenedor.getCliente() != null) {
-                dto.setNombreCliente(contenedor.getCliente().getNombre());
-            }
-            
-            // Obtener ID de la solicitud asociada
-            solicitudRepository.findByContenedor(contenedor).ifPresent(solicitud -> {
-                dto.setSolicitudId(solicitud.getId());
-            });
+            dto.setId(resumen.getId());
+            dto.setNumero(resumen.getNumero());
+            dto.setEstado(resumen.getEstado());
+            dto.setNombreCliente(resumen.getCliente());
+            dto.setSolicitudId(resumen.getSolicitudId());
             
             // Determinar ubicación actual según el estado
-            String ubicacion = determinarUbicacionPorEstado(contenedor.getEstado());
+            String ubicacion = determinarUbicacionPorEstado(resumen.getEstado());
             dto.setUbicacionActual(ubicacion);
             
-            logger.debug("Estado del contenedor ID: {} - Estado: {}, Ubicacion: {}", id, contenedor.getEstado(), ubicacion);
+            logger.debug("Estado del contenedor ID: {} - Estado: {}, Ubicacion: {}", id, resumen.getEstado(), ubicacion);
             return dto;
         });
         
@@ -152,43 +170,34 @@ public class ContenedorService {
     
     /**
      * RF#5: Consultar contenedores pendientes de asignación
-     * Retorna la lista de contenedores que aún no han sido entregados
+     * Retorna una página de contenedores que aún no han sido entregados, ordenados por ID.
+     * Paginación por keyset: la página siguiente se pide con afterId = ID del último contenedor recibido.
      * 
+     * @param estado si no es null, solo ese estado (EN_ORIGEN o EN_DEPOSITO)
+     * @param clienteId si no es null, solo los contenedores de ese cliente
+     * @param afterId devolver contenedores con ID mayor a este (0 = desde el principio)
+     * @param limit tamaño máximo de la página
      * @return Lista de ContenedorPendienteDTO con información básica de contenedores pendientes
+     * @throws IllegalArgumentException si el estado no es un estado pendiente
      */
-    public List<ContenedorPendienteDTO> consultarPendientes() {
-        logger.info("Consultando contenedores pendientes");
-        List<ContenedorPendienteDTO> pendientes = contenedorRepository.findContenedoresPendientes()
-                .stream()
-                .map(this::mapToPendienteDTO)
-                .collect(Collectors.toList());
-        logger.info("Se encontraron {} contenedores pendientes", pendientes.size());
-        return pendientes;
-    }
-    
-    /**
-     * Método helper para mapear de Contenedor a ContenedorPendienteDTO
-     */
-    private ContenedorPendienteDTO mapToPendienteDTO(Contenedor contenedor) {
-        ContenedorPendienteDTO dto = new ContenedorPendienteDTO();
-        dto.setId(contenedor.getId());
-        dto.setNumero(contenedor.getNumero());
-        dto.setEstado(contenedor.getEstado());
-        
-        // Obtener nombre del cliente
-        if (contenedor.getCliente() != null) {
-            dto.setCliente(contenedor.getCliente().getNombre());
+    public List<ContenedorPendienteDTO> consultarPendientes(String estado, Long clienteId, long afterId, int limit) {
+        logger.info("Consultando contenedores pendientes (estado: {}, cliente: {}, afterId: {}, limit: {})",
+                estado, clienteId, afterId, limit);
+        Set<String> estados = ESTADOS_PENDIENTES;
+        if (estado != null) {
+            if (!ESTADOS_PENDIENTES.contains(estado.toUpperCase())) {
+                throw new IllegalArgumentException("Estado no válido para contenedores pendientes: " + estado
+                        + ". Valores permitidos: " + ESTADOS_PENDIENTES);
+            }
+            estados = Set.of(estado.toUpperCase());
         }
         
-        // Determinar ubicación según estado
-        dto.setUbicacionActual(determinarUbicacionPorEstado(contenedor.getEstado()));
-        
-        // Buscar solicitud asociada
-        solicitudRepository.findByContenedor(contenedor).ifPresent(solicitud -> {
-            dto.setSolicitudId(solicitud.getId());
-        });
-        
-        return dto;
+        // Una sola consulta: contenedor, nombre del cliente y solicitud asociada ya proyectados
+        List<ContenedorPendienteDTO> pendientes = contenedorRepository.findPendientes(estados, clienteId, afterId,
+                PageRequest.ofSize(limit));
+        pendientes.forEach(dto -> dto.setUbicacionActual(determinarUbicacionPorEstado(dto.getEstado())));
+        logger.info("Se encontraron {} contenedores pendientes", pendientes.size());
+        return pendientes;
     }
     
     // Aquí se podrían agregar más métodos de negocio en el futuro,
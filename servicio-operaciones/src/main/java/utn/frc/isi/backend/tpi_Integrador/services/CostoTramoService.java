@@ -0,0 +1,286 @@
+package utn.frc.isi.backend.tpi_Integrador.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import utn.frc.isi.backend.tpi_Integrador.clients.CargadorCamiones;
+import utn.frc.isi.backend.tpi_Integrador.clients.FlotaServiceClient;
+import utn.frc.isi.backend.tpi_Integrador.models.Tramo;
+import utn.frc.isi.backend.tpi_Integrador.repositories.TramoRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cálculo del costo real de los tramos (RF#8).
+ * Los precios (tarifa y coeficientes del camión) se capturan en el tramo al asignar el camión,
+ * así la finalización calcula el costo sin llamadas a servicio-flota. Los precios se resuelven
+ * antes de abrir la transacción que los aplica, nunca dentro de ella.
+ * Opcionalmente, después del commit de la finalización se reconcilia el costo contra los
+ * precios vigentes en ese momento, por si cambiaron entre la asignación y el fin del viaje.
+ */
+@Service
+public class CostoTramoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CostoTramoService.class);
+
+    private final TramoRepository tramoRepository;
+    private final FlotaServiceClient flotaServiceClient;
+    private final CargadorCamiones cargadorCamiones;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean reconciliar;
+    private final ThreadPoolExecutor ejecutorReconciliacion;
+    private final MeterRegistry meterRegistry;
+
+    public CostoTramoService(TramoRepository tramoRepository,
+                             FlotaServiceClient flotaServiceClient,
+                             CargadorCamiones cargadorCamiones,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${tramos.costo.reconciliar:false}") boolean reconciliar,
+                             @Value("${tramos.costo.reconciliacion.capacidad-cola:100}") int capacidadCola,
+                             MeterRegistry meterRegistry) {
+        this.tramoRepository = tramoRepository;
+        this.flotaServiceClient = flotaServiceClient;
+        this.cargadorCamiones = cargadorCamiones;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.reconciliar = reconciliar;
+        this.meterRegistry = meterRegistry;
+        this.ejecutorReconciliacion = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadCola),
+                r -> {
+                    Thread hilo = new Thread(r, "tramos-reconciliacion");
+                    hilo.setDaemon(true);
+                    return hilo;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Consulta a servicio-flota la tarifa activa y los coeficientes de costo del camión.
+     * Hace llamadas remotas: debe llamarse antes de abrir la transacción que los aplica
+     * al tramo, así no se retiene una conexión de la base mientras se espera a servicio-flota.
+     * 
+     * @param camionIdFlota ID del camión en servicio-flota
+     * @return los precios, o vacío si servicio-flota no pudo responder
+     */
+    public Optional<PreciosTramo> resolverPrecios(Long camionIdFlota) {
+        Optional<FlotaServiceClient.SnapshotTarifa> snapshotTarifa = flotaServiceClient.obtenerSnapshotTarifa();
+        Optional<FlotaServiceClient.ParametrosCostoCamion> parametrosCamion = camionIdFlota != null
+                ? cargadorCamiones.obtenerParametrosCosto(camionIdFlota)
+                : Optional.empty();
+        if (snapshotTarifa.isEmpty() || parametrosCamion.isEmpty()) {
+            logger.warn("No se pudieron obtener los precios para el camión ID: {} (tarifa: {}, camión: {})",
+                    camionIdFlota, snapshotTarifa.isPresent(), parametrosCamion.isPresent());
+            return Optional.empty();
+        }
+        return Optional.of(new PreciosTramo(snapshotTarifa.get(), parametrosCamion.get()));
+    }
+
+    /**
+     * Captura en el tramo los precios resueltos con {@link #resolverPrecios(Long)}
+     * 
+     * @param tramo Tramo al que se asigna el camión
+     * @param precios Tarifa activa y coeficientes del camión
+     */
+    public void capturarPrecios(Tramo tramo, PreciosTramo precios) {
+        aplicarPrecios(tramo, precios.tarifa(), precios.camion());
+        logger.info("Precios capturados en tramo ID: {} (tarifa ID {}, versión {})",
+                tramo.getId(), tramo.getTarifaId(), tramo.getVersionTarifa());
+    }
+
+    /**
+     * Calcula el costo real del tramo con los precios capturados en él.
+     * Requiere {@link Tramo#tienePreciosCapturados()}.
+     * 
+     * @param tramo Tramo a costear
+     * @param fechaFin Momento de finalización (para la estadía en depósito)
+     * @return Costo total del tramo
+     */
+    public double calcularCostoReal(Tramo tramo, LocalDateTime fechaFin) {
+        // Componentes del costo según el enunciado:
+        // Cargo de Gestión por Tramo
+        double cargoGestion = tramo.getCargoGestionPorTramo();
+        
+        // Costo por Kilometraje
+        double costoKilometraje = tramo.getCostoPorKmCamion() * tramo.getDistanciaKm();
+        
+        // Costo de Combustible
+        double costoCombustible = tramo.getConsumoCombustiblePorKm()
+                                  * tramo.getDistanciaKm()
+                                  * tramo.getPrecioLitroCombustible();
+        
+        // Costo de Estadía (si el tramo termina en depósito)
+        double costoEstadia = calcularCostoEstadia(tramo, fechaFin);
+        
+        double costoTotalTramo = cargoGestion + costoKilometraje + costoCombustible + costoEstadia;
+        logger.info("Costo real calculado para tramo {}: cargoGestion={}, costoKm={}, combustible={}, estadia={}, TOTAL={}", 
+                   tramo.getId(), cargoGestion, costoKilometraje, costoCombustible, costoEstadia, costoTotalTramo);
+        return costoTotalTramo;
+    }
+
+    /**
+     * Programa la reconciliación del costo del tramo para después del commit de la finalización.
+     * No hace nada si la reconciliación está deshabilitada (tramos.costo.reconciliar).
+     */
+    public void reconciliarDespuesDelCommit(Long tramoId) {
+        if (!reconciliar) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            encolarReconciliacion(tramoId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                encolarReconciliacion(tramoId);
+            }
+        });
+    }
+
+    private void encolarReconciliacion(Long tramoId) {
+        try {
+            // Se propaga el contexto de seguridad para que las consultas a servicio-flota lleven el JWT
+            ejecutorReconciliacion.execute(new DelegatingSecurityContextRunnable(() -> reconciliarCosto(tramoId)));
+        } catch (RejectedExecutionException e) {
+            logger.warn("Cola de reconciliación llena, se omite la reconciliación del tramo ID: {}", tramoId);
+            registrarReconciliacion("omitida");
+        }
+    }
+
+    /**
+     * Recalcula el costo del tramo finalizado con los precios vigentes; si difieren de los
+     * capturados en la asignación, actualiza el tramo con los nuevos precios y costo.
+     */
+    private void reconciliarCosto(Long tramoId) {
+        try {
+            Tramo tramo = tramoRepository.findDetalleById(tramoId).orElse(null);
+            if (tramo == null || !"FINALIZADO".equals(tramo.getEstado()) || tramo.getCamionReference() == null) {
+                return;
+            }
+            Optional<FlotaServiceClient.SnapshotTarifa> snapshotTarifa = flotaServiceClient.obtenerSnapshotTarifa();
+            Optional<FlotaServiceClient.ParametrosCostoCamion> parametrosCamion =
+                    cargadorCamiones.obtenerParametrosCosto(tramo.getCamionReference().getCamionIdFlota());
+            if (snapshotTarifa.isEmpty() || parametrosCamion.isEmpty()) {
+                logger.warn("No se pudo reconciliar el costo del tramo ID: {}: precios vigentes no disponibles", tramoId);
+                registrarReconciliacion("error");
+                return;
+            }
+            if (mismosPrecios(tramo, snapshotTarifa.get(), parametrosCamion.get())) {
+                registrarReconciliacion("sin-cambios");
+                return;
+            }
+            transactionTemplate.executeWithoutResult(estado -> tramoRepository.findDetalleById(tramoId).ifPresent(actual -> {
+                double costoAnterior = actual.getCostoReal();
+                aplicarPrecios(actual, snapshotTarifa.get(), parametrosCamion.get());
+                actual.setCostoReal(calcularCostoReal(actual, actual.getFechaRealFin()));
+                tramoRepository.save(actual);
+                logger.info("Costo del tramo ID: {} reconciliado con los precios vigentes: {} -> {}",
+                        tramoId, costoAnterior, actual.getCostoReal());
+            }));
+            registrarReconciliacion("ajustado");
+        } catch (RuntimeException e) {
+            logger.warn("Error al reconciliar el costo del tramo ID: {}: {}", tramoId, e.getMessage());
+            registrarReconciliacion("error");
+        }
+    }
+
+    private boolean mismosPrecios(Tramo tramo, FlotaServiceClient.SnapshotTarifa snapshotTarifa,
+                                  FlotaServiceClient.ParametrosCostoCamion parametrosCamion) {
+        boolean mismaTarifa = tramo.getVersionTarifa() != null && snapshotTarifa.etag() != null
+                ? tramo.getVersionTarifa().equals(snapshotTarifa.etag())
+                : Objects.equals(tramo.getTarifaId(), snapshotTarifa.tarifa().getId())
+                    && Objects.equals(tramo.getCargoGestionPorTramo(), snapshotTarifa.tarifa().getCargoGestionPorTramo())
+                    && Objects.equals(tramo.getPrecioLitroCombustible(), snapshotTarifa.tarifa().getPrecioLitroCombustible())
+                    && Objects.equals(tramo.getCostoEstadiaDiaria(), snapshotTarifa.tarifa().getCostoEstadiaDiaria());
+        return mismaTarifa
+                && Objects.equals(tramo.getCostoPorKmCamion(), parametrosCamion.costoPorKm())
+                && Objects.equals(tramo.getConsumoCombustiblePorKm(), parametrosCamion.consumoCombustiblePorKm());
+    }
+
+    private void aplicarPrecios(Tramo tramo, FlotaServiceClient.SnapshotTarifa snapshotTarifa,
+                                FlotaServiceClient.ParametrosCostoCamion parametrosCamion) {
+        tramo.setTarifaId(snapshotTarifa.tarifa().getId());
+        tramo.setVersionTarifa(snapshotTarifa.etag());
+        tramo.setCargoGestionPorTramo(snapshotTarifa.tarifa().getCargoGestionPorTramo());
+        tramo.setPrecioLitroCombustible(snapshotTarifa.tarifa().getPrecioLitroCombustible());
+        tramo.setCostoEstadiaDiaria(snapshotTarifa.tarifa().getCostoEstadiaDiaria());
+        tramo.setCostoPorKmCamion(parametrosCamion.costoPorKm());
+        tramo.setConsumoCombustiblePorKm(parametrosCamion.consumoCombustiblePorKm());
+        tramo.setFechaCapturaPrecios(LocalDateTime.now());
+    }
+
+    /**
+     * Calcula el costo de estadía si el tramo finaliza en un depósito
+     * 
+     * @param tramo El tramo que está finalizando
+     * @param fechaFin Momento de finalización del tramo
+     * @return Costo de estadía calculado (0 si no termina en depósito)
+     */
+    private double calcularCostoEstadia(Tramo tramo, LocalDateTime fechaFin) {
+        // Verificar si el tramo termina en un depósito
+        if (tramo.getDepositoDestino() == null) {
+            logger.debug("Tramo {} no termina en depósito, costo estadía = 0", tramo.getId());
+            return 0.0;
+        }
+        
+        // Calcular días de estadía
+        LocalDateTime fechaInicio = tramo.getFechaRealInicio();
+        
+        if (fechaInicio == null || fechaFin == null) {
+            logger.warn("Tramo {} no tiene fechas reales de inicio y fin, asumiendo 0 días de estadía", tramo.getId());
+            return 0.0;
+        }
+        
+        // Calcular diferencia en días (redondeado hacia arriba)
+        long horasEstadia = Duration.between(fechaInicio, fechaFin).toHours();
+        int diasEstadia = (int) Math.ceil(horasEstadia / 24.0);
+        
+        // Si la estadía es menor a 1 día, cobrar 1 día mínimo
+        if (diasEstadia < 1 && horasEstadia > 0) {
+            diasEstadia = 1;
+        }
+        
+        // Costo de estadía diaria capturado de la tarifa
+        double costoEstadiaDiaria = tramo.getCostoEstadiaDiaria();
+        double costoTotal = diasEstadia * costoEstadiaDiaria;
+        
+        logger.debug("Costo estadía para tramo {}: {} días × {} = {}", 
+                    tramo.getId(), diasEstadia, costoEstadiaDiaria, costoTotal);
+        
+        return costoTotal;
+    }
+
+    private void registrarReconciliacion(String resultado) {
+        Counter.builder("tramos.costo.reconciliaciones")
+                .tag("resultado", resultado)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Tarifa activa y coeficientes de costo del camión, resueltos fuera de la transacción
+     */
+    public record PreciosTramo(FlotaServiceClient.SnapshotTarifa tarifa, FlotaServiceClient.ParametrosCostoCamion camion) {
+    }
+
+    @PreDestroy
+    public void detener() {
+        ejecutorReconciliacion.shutdownNow();
+    }
+}
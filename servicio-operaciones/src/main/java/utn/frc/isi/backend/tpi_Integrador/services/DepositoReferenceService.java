@@ -3,6 +3,7 @@ package utn.frc.isi.backend.tpi_Integrador.services;
 import org.springframework.stereotype.Service;
 import utn.frc.isi.backend.tpi_Integrador.models.DepositoReference;
 import utn.frc.isi.backend.tpi_Integrador.repositories.DepositoReferenceRepository;
+import utn.frc.isi.backend.tpi_Integrador.routing.MatrizDepositos;
 
 import java.util.List;
 import java.util.Optional;
@@ -11,10 +12,13 @@ import java.util.Optional;
 public class DepositoReferenceService {
 
     private final DepositoReferenceRepository depositoReferenceRepository;
+    private final MatrizDepositos matrizDepositos;
 
     // Inyección de dependencias a través del constructor (práctica recomendada)
-    public DepositoReferenceService(DepositoReferenceRepository depositoReferenceRepository) {
+    public DepositoReferenceService(DepositoReferenceRepository depositoReferenceRepository,
+                                    MatrizDepositos matrizDepositos) {
         this.depositoReferenceRepository = depositoReferenceRepository;
+        this.matrizDepositos = matrizDepositos;
     }
 
     public List<DepositoReference> obtenerTodos() {
@@ -29,20 +33,25 @@ public class DepositoReferenceService {
         // Aquí podríamos agregar lógica de negocio.
         // Por ejemplo: validar que el depositoId exista en el servicio-flota, sincronizar datos, etc.
         // Por ahora, solo lo guardamos.
-        return depositoReferenceRepository.save(depositoReference);
+        DepositoReference guardado = depositoReferenceRepository.save(depositoReference);
+        matrizDepositos.depositosModificados(); // Calcular distancias del nuevo depósito en segundo plano
+        return guardado;
     }
 
     public DepositoReference actualizarDepositoReference(Long id, DepositoReference depositoReference) {
         // Verificar si la referencia existe
         if (depositoReferenceRepository.existsById(id)) {
             depositoReference.setId(id); // Asegurar que el ID sea el correcto
-            return depositoReferenceRepository.save(depositoReference);
+            DepositoReference actualizado = depositoReferenceRepository.save(depositoReference);
+            matrizDepositos.depositosModificados(); // Si cambiaron las coordenadas se recalcula su fila/columna
+            return actualizado;
         }
         return null; // Retorna null si no existe
     }
 
     public void eliminarDepositoReference(Long id) {
         depositoReferenceRepository.deleteById(id);
+        matrizDepositos.depositosModificados();
     }
     
     // Aquí se podrían agregar más métodos de negocio en el futuro,
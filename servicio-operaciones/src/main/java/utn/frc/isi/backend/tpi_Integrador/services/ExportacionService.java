@@ -0,0 +1,127 @@
+package utn.frc.isi.backend.tpi_Integrador.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import utn.frc.isi.backend.tpi_Integrador.mappers.SolicitudMapper;
+import utn.frc.isi.backend.tpi_Integrador.mappers.TramoMapper;
+import utn.frc.isi.backend.tpi_Integrador.repositories.SolicitudRepository;
+import utn.frc.isi.backend.tpi_Integrador.repositories.TramoRepository;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Exportación masiva de solicitudes y tramos en NDJSON (un objeto JSON por línea) para el back-office.
+ * Las filas se leen con un cursor JDBC (fetch size acotado) y se escriben a la respuesta a medida que
+ * llegan: cada {@code exportacion.tamanio-lote} filas se vacía el contexto de persistencia y se hace
+ * flush de la salida, así la memoria usada no depende del tamaño de la tabla.
+ * Con {@code since} solo se exportan las filas modificadas desde ese momento (exportación incremental).
+ */
+@Service
+public class ExportacionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportacionService.class);
+
+    private static final int TAMANIO_BUFFER = 64 * 1024;
+
+    private final SolicitudRepository solicitudRepository;
+    private final TramoRepository tramoRepository;
+    private final SolicitudMapper solicitudMapper;
+    private final TramoMapper tramoMapper;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanioLote;
+    private final MeterRegistry meterRegistry;
+
+    public ExportacionService(SolicitudRepository solicitudRepository,
+                              TramoRepository tramoRepository,
+                              SolicitudMapper solicitudMapper,
+                              TramoMapper tramoMapper,
+                              EntityManager entityManager,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${exportacion.tamanio-lote:500}") int tamanioLote,
+                              MeterRegistry meterRegistry) {
+        this.solicitudRepository = solicitudRepository;
+        this.tramoRepository = tramoRepository;
+        this.solicitudMapper = solicitudMapper;
+        this.tramoMapper = tramoMapper;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.tamanioLote = Math.max(1, tamanioLote);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Escribe las solicitudes modificadas desde {@code since} (todas si es null), ordenadas por ID
+     *
+     * @return cantidad de filas exportadas
+     */
+    public long exportarSolicitudes(LocalDateTime since, OutputStream salida) {
+        return exportar("solicitudes", () -> solicitudRepository.streamParaExportar(since),
+                solicitudMapper::toExportDTO, salida);
+    }
+
+    /**
+     * Escribe los tramos modificados desde {@code since} (todos si es null), ordenados por ID
+     *
+     * @return cantidad de filas exportadas
+     */
+    public long exportarTramos(LocalDateTime since, OutputStream salida) {
+        return exportar("tramos", () -> tramoRepository.streamParaExportar(since),
+                tramoMapper::toExportDTO, salida);
+    }
+
+    private <E, D> long exportar(String entidad, Supplier<Stream<E>> consulta, Function<E, D> mapper, OutputStream salida) {
+        Counter filasExportadas = Counter.builder("exportacion.filas")
+                .description("Filas escritas por las exportaciones NDJSON")
+                .tag("entidad", entidad)
+                .register(meterRegistry);
+        long inicio = System.currentTimeMillis();
+
+        Long total = transactionTemplate.execute(status -> {
+            BufferedOutputStream buffer = new BufferedOutputStream(salida, TAMANIO_BUFFER);
+            long filas = 0;
+            try (Stream<E> stream = consulta.get()) {
+                Iterator<E> iterador = stream.iterator();
+                while (iterador.hasNext()) {
+                    buffer.write(objectMapper.writeValueAsBytes(mapper.apply(iterador.next())));
+                    buffer.write('\n');
+                    if (++filas % tamanioLote == 0) {
+                        // Liberar las entidades ya escritas y enviar lo acumulado al cliente
+                        entityManager.clear();
+                        buffer.flush();
+                        filasExportadas.increment(tamanioLote);
+                    }
+                }
+                buffer.flush();
+            } catch (IOException e) {
+                // Típicamente el cliente cortó la conexión: se cierra el cursor y se aborta
+                throw new UncheckedIOException("Error escribiendo la exportación de " + entidad, e);
+            }
+            filasExportadas.increment(filas % tamanioLote);
+            return filas;
+        });
+
+        logger.info("Exportación de {}: {} filas en {} ms", entidad, total, System.currentTimeMillis() - inicio);
+        return total != null ? total : 0;
+    }
+}
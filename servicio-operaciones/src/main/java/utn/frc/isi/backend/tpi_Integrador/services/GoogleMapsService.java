@@ -1,34 +1,299 @@
 package utn.frc.isi.backend.tpi_Integrador.services;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import utn.frc.isi.backend.tpi_Integrador.clients.GoogleMapsClient;
+import utn.frc.isi.backend.tpi_Integrador.cache.ConsultasEnVuelo;
+import utn.frc.isi.backend.tpi_Integrador.cache.DistanciaCache;
 import utn.frc.isi.backend.tpi_Integrador.dtos.googlemaps.Element;
+import utn.frc.isi.backend.tpi_Integrador.routing.ProveedorDistancia;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+/**
+ * Punto de acceso a distancias y duraciones por ruta.
+ * Consulta la caché y luego los proveedores configurados en distancia.proveedores,
+ * en orden, hasta que alguno responde (ej: "grafo-vial,google").
+ */
 @Service
 public class GoogleMapsService {
 
     private static final Logger logger = LoggerFactory.getLogger(GoogleMapsService.class);
 
-    private final GoogleMapsClient googleMapsClient;
+    private final List<ProveedorDistancia> proveedores;
+    private final DistanciaCache distanciaCache;
+    // Consultas idénticas concurrentes (misma clave cuantizada) comparten una sola llamada
+    private final ConsultasEnVuelo<String, Optional<Element>> consultasEnVuelo = new ConsultasEnVuelo<>();
 
-    public GoogleMapsService(GoogleMapsClient googleMapsClient) {
-        this.googleMapsClient = googleMapsClient;
+    public GoogleMapsService(List<ProveedorDistancia> disponibles,
+                             @Value("${distancia.proveedores:google}") List<String> nombres,
+                             DistanciaCache distanciaCache,
+                             MeterRegistry meterRegistry) {
+        Map<String, ProveedorDistancia> porNombre = disponibles.stream()
+                .collect(Collectors.toMap(ProveedorDistancia::getNombre, Function.identity()));
+        this.proveedores = new ArrayList<>();
+        for (String nombre : nombres) {
+            ProveedorDistancia proveedor = porNombre.get(nombre.trim());
+            if (proveedor == null) {
+                throw new IllegalStateException("Proveedor de distancias desconocido: " + nombre
+                        + ". Disponibles: " + porNombre.keySet());
+            }
+            this.proveedores.add(proveedor);
+        }
+        this.distanciaCache = distanciaCache;
+        logger.info("Proveedores de distancia configurados: {}", nombres);
+
+        FunctionCounter.builder("distancia.consultas.ejecutadas", consultasEnVuelo, ConsultasEnVuelo::getEjecutadas)
+                .register(meterRegistry);
+        FunctionCounter.builder("distancia.consultas.coalescidas", consultasEnVuelo, ConsultasEnVuelo::getCoalescidas)
+                .register(meterRegistry);
+        meterRegistry.gauge("distancia.consultas.en-curso", consultasEnVuelo, ConsultasEnVuelo::getEnCurso);
     }
 
     /**
      * Obtiene información de distancia y duración entre dos puntos geográficos
-     * usando la API de Google Maps Distance Matrix.
+     * usando los proveedores configurados (por defecto, Google Maps Distance Matrix).
+     * Primero consulta la caché de distancias (coordenadas cuantizadas); solo se llama
+     * a los proveedores cuando el corredor no está cacheado o la entrada venció.
+     * Si otro hilo ya está consultando el mismo corredor, se espera su resultado.
      * 
      * @param origen Coordenadas de origen en formato "lat,lng" (ej: "-31.4201,-64.1888")
      * @param destino Coordenadas de destino en formato "lat,lng" (ej: "-34.6037,-58.3816")
      * @return Optional con Element que contiene distancia y duración, vacío si falla
      */
     public Optional<Element> obtenerInformacionDistancia(String origen, String destino) {
+        Optional<Element> cacheado = distanciaCache.obtener(origen, destino);
+        if (cacheado.isPresent()) {
+            logger.debug("Distancia de {} a {} obtenida desde caché", origen, destino);
+            return cacheado;
+        }
+
+        return consultasEnVuelo.ejecutar(distanciaCache.clave(origen, destino), () -> {
+            // Otra consulta del mismo corredor pudo completarse mientras tanto (sin contar otro fallo)
+            Optional<Element> recienCacheado = distanciaCache.buscar(origen, destino);
+            if (recienCacheado.isPresent()) {
+                return recienCacheado;
+            }
+            return consultarProveedores(origen, destino);
+        });
+    }
+
+    private Optional<Element> consultarProveedores(String origen, String destino) {
         logger.debug("Solicitando información de distancia de {} a {}", origen, destino);
-        return googleMapsClient.getDistance(origen, destino);
+        for (ProveedorDistancia proveedor : proveedores) {
+            if (!proveedor.isDisponible()) {
+                continue;
+            }
+            Optional<Element> elementOpt = proveedor.obtenerDistancia(origen, destino);
+            if (elementOpt.isPresent()) {
+                distanciaCache.guardar(origen, destino, elementOpt.get());
+                return elementOpt;
+            }
+            logger.debug("Proveedor {} sin respuesta para {} -> {}", proveedor.getNombre(), origen, destino);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Obtiene la distancia de varios pares origen/destino (ej: todos los tramos de una ruta).
+     * Los pares cacheados se resuelven localmente y el resto se pide en lote a cada proveedor
+     * (Google Maps lo resuelve en una única llamada Distance Matrix tomando la diagonal).
+     * Igual que la consulta individual, los pares que ya está consultando otro hilo no se
+     * vuelven a pedir: se espera ese resultado.
+     *
+     * @param origenes Orígenes en formato "lat,lng"
+     * @param destinos Destinos en formato "lat,lng", alineados con origenes
+     * @return Lista alineada con los pares; cada posición vacía si no se pudo calcular
+     */
+    public List<Optional<Element>> obtenerInformacionDistancias(List<String> origenes, List<String> destinos) {
+        List<Optional<Element>> resultado = new ArrayList<>(Collections.nCopies(origenes.size(), Optional.empty()));
+        // Claves reservadas por este lote (un par repetido en el lote se consulta una vez)
+        Map<String, CompletableFuture<Optional<Element>>> propias = new LinkedHashMap<>();
+        // Posiciones cuyo par consulta otro hilo, con el resultado a esperar
+        Map<Integer, CompletableFuture<Optional<Element>>> ajenas = new LinkedHashMap<>();
+        Map<String, Integer> primeraPosicion = new HashMap<>();
+        List<Integer> indicesPendientes = new ArrayList<>();
+
+        for (int i = 0; i < origenes.size(); i++) {
+            Optional<Element> cacheado = distanciaCache.obtener(origenes.get(i), destinos.get(i));
+            if (cacheado.isPresent()) {
+                resultado.set(i, cacheado);
+                continue;
+            }
+            String clave = distanciaCache.clave(origenes.get(i), destinos.get(i));
+            CompletableFuture<Optional<Element>> propia = propias.get(clave);
+            if (propia != null) {
+                ajenas.put(i, propia);
+                continue;
+            }
+            propia = new CompletableFuture<>();
+            CompletableFuture<Optional<Element>> enCurso = consultasEnVuelo.reservar(clave, propia);
+            if (enCurso != null) {
+                ajenas.put(i, enCurso);
+                continue;
+            }
+            propias.put(clave, propia);
+            primeraPosicion.put(clave, i);
+            // Otra consulta del mismo par pudo completarse mientras tanto (sin contar otro fallo)
+            Optional<Element> recienCacheado = distanciaCache.buscar(origenes.get(i), destinos.get(i));
+            if (recienCacheado.isPresent()) {
+                resultado.set(i, recienCacheado);
+            } else {
+                indicesPendientes.add(i);
+            }
+        }
+
+        try {
+            if (!indicesPendientes.isEmpty()) {
+                logger.debug("Solicitando {} distancias en lote ({} desde caché, {} en curso en otros hilos)",
+                        indicesPendientes.size(), origenes.size() - indicesPendientes.size() - ajenas.size(), ajenas.size());
+                consultarProveedoresEnLote(origenes, destinos, indicesPendientes, resultado);
+            }
+        } catch (RuntimeException e) {
+            propias.forEach((clave, propia) -> consultasEnVuelo.fallar(clave, propia, e));
+            throw e;
+        }
+        propias.forEach((clave, propia) -> consultasEnVuelo.completar(clave, propia, resultado.get(primeraPosicion.get(clave))));
+
+        for (Map.Entry<Integer, CompletableFuture<Optional<Element>>> ajena : ajenas.entrySet()) {
+            try {
+                resultado.set(ajena.getKey(), ajena.getValue().join());
+            } catch (CompletionException e) {
+                logger.debug("Falló la consulta en curso de {} -> {}: {}", origenes.get(ajena.getKey()),
+                        destinos.get(ajena.getKey()), e.getMessage());
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Pide los pares pendientes a cada proveedor en orden; los que un proveedor no resuelve
+     * pasan al siguiente
+     */
+    private void consultarProveedoresEnLote(List<String> origenes, List<String> destinos,
+                                            List<Integer> indicesPendientes, List<Optional<Element>> resultado) {
+        List<String> origenesPendientes = indicesPendientes.stream().map(origenes::get).collect(Collectors.toList());
+        List<String> destinosPendientes = indicesPendientes.stream().map(destinos::get).collect(Collectors.toList());
+        for (ProveedorDistancia proveedor : proveedores) {
+            if (indicesPendientes.isEmpty()) {
+                break;
+            }
+            if (!proveedor.isDisponible()) {
+                continue;
+            }
+            List<Optional<Element>> consultados = proveedor.obtenerDistancias(origenesPendientes, destinosPendientes);
+            List<Integer> sinRespuesta = new ArrayList<>();
+            for (int j = 0; j < indicesPendientes.size(); j++) {
+                int i = indicesPendientes.get(j);
+                Optional<Element> elementOpt = consultados.get(j);
+                if (elementOpt.isPresent()) {
+                    distanciaCache.guardar(origenes.get(i), destinos.get(i), elementOpt.get());
+                    resultado.set(i, elementOpt);
+                } else {
+                    sinRespuesta.add(i);
+                }
+            }
+            // Los pares sin respuesta pasan al siguiente proveedor
+            indicesPendientes = sinRespuesta;
+            origenesPendientes = sinRespuesta.stream().map(origenes::get).collect(Collectors.toList());
+            destinosPendientes = sinRespuesta.stream().map(destinos::get).collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Obtiene la matriz de distancias origenes × destinos (ej: entre depósitos).
+     * Las celdas cacheadas se resuelven localmente; el resto se pide a cada proveedor como
+     * matriz de las filas y columnas que todavía tienen celdas sin resolver, de modo que
+     * Google Maps cobra solo los elementos de ese recorte y todos se aprovechan.
+     * Las celdas con origen igual al destino se dejan vacías. No se coalesce con consultas
+     * en curso: es trabajo en segundo plano (matriz de depósitos) y la caché ya evita repetirlo.
+     *
+     * @return Matriz alineada con origenes (filas) y destinos (columnas); vacías si no se pudieron calcular
+     */
+    public List<List<Optional<Element>>> obtenerMatrizDistancias(List<String> origenes, List<String> destinos) {
+        List<List<Optional<Element>>> resultado = new ArrayList<>(origenes.size());
+        boolean[][] pendiente = new boolean[origenes.size()][destinos.size()];
+        int pendientes = 0;
+        for (int i = 0; i < origenes.size(); i++) {
+            List<Optional<Element>> fila = new ArrayList<>(Collections.nCopies(destinos.size(), Optional.empty()));
+            for (int j = 0; j < destinos.size(); j++) {
+                if (origenes.get(i).equals(destinos.get(j))) {
+                    continue;
+                }
+                Optional<Element> cacheado = distanciaCache.obtener(origenes.get(i), destinos.get(j));
+                if (cacheado.isPresent()) {
+                    fila.set(j, cacheado);
+                } else {
+                    pendiente[i][j] = true;
+                    pendientes++;
+                }
+            }
+            resultado.add(fila);
+        }
+
+        for (ProveedorDistancia proveedor : proveedores) {
+            if (pendientes == 0) {
+                break;
+            }
+            if (!proveedor.isDisponible()) {
+                continue;
+            }
+            // Recorte de filas y columnas con alguna celda sin resolver
+            List<Integer> filas = new ArrayList<>();
+            List<Integer> columnas = new ArrayList<>();
+            boolean[] columnaPendiente = new boolean[destinos.size()];
+            for (int i = 0; i < origenes.size(); i++) {
+                boolean filaPendiente = false;
+                for (int j = 0; j < destinos.size(); j++) {
+                    if (pendiente[i][j]) {
+                        filaPendiente = true;
+                        columnaPendiente[j] = true;
+                    }
+                }
+                if (filaPendiente) {
+                    filas.add(i);
+                }
+            }
+            for (int j = 0; j < destinos.size(); j++) {
+                if (columnaPendiente[j]) {
+                    columnas.add(j);
+                }
+            }
+
+            logger.debug("Solicitando matriz de {}x{} distancias a {}", filas.size(), columnas.size(), proveedor.getNombre());
+            List<List<Optional<Element>>> consultados = proveedor.obtenerMatriz(
+                    filas.stream().map(origenes::get).collect(Collectors.toList()),
+                    columnas.stream().map(destinos::get).collect(Collectors.toList()));
+            for (int f = 0; f < filas.size(); f++) {
+                int i = filas.get(f);
+                for (int c = 0; c < columnas.size(); c++) {
+                    int j = columnas.get(c);
+                    Optional<Element> elementOpt = consultados.get(f).get(c);
+                    if (elementOpt.isEmpty() || origenes.get(i).equals(destinos.get(j))) {
+                        continue;
+                    }
+                    distanciaCache.guardar(origenes.get(i), destinos.get(j), elementOpt.get());
+                    resultado.get(i).set(j, elementOpt);
+                    if (pendiente[i][j]) {
+                        pendiente[i][j] = false;
+                        pendientes--;
+                    }
+                }
+            }
+        }
+        return resultado;
     }
 }
@@ -0,0 +1,266 @@
+package utn.frc.isi.backend.tpi_Integrador.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import utn.frc.isi.backend.tpi_Integrador.clients.FlotaServiceClient;
+import utn.frc.isi.backend.tpi_Integrador.dtos.flota.DisponibilidadLoteResultadoDTO;
+import utn.frc.isi.backend.tpi_Integrador.models.DisponibilidadCamionPendiente;
+import utn.frc.isi.backend.tpi_Integrador.repositories.DisponibilidadCamionPendienteRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Outbox de cambios de disponibilidad de camiones hacia servicio-flota.
+ * Asignar o finalizar un tramo registra el cambio en la misma transacción (tabla
+ * outbox_disponibilidad_camion) y el request no espera a servicio-flota: un despachador
+ * en segundo plano entrega los pendientes en lotes (PATCH /api/camiones/disponibilidad),
+ * con reintentos y backoff exponencial. Por camión solo se conserva el último cambio.
+ *
+ * El despacho se dispara después de cada commit y, además, periódicamente para los reintentos.
+ * Las entregas se autentican con la credencial propia del servicio (client credentials), así
+ * no dependen de que haya un request reciente ni del token de ningún usuario.
+ */
+@Service
+public class OutboxDisponibilidadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxDisponibilidadService.class);
+    private static final int MAX_LOTE = 1000;
+
+    private final DisponibilidadCamionPendienteRepository pendienteRepository;
+    private final FlotaServiceClient flotaServiceClient;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate transaccionPropia;
+    private final int tamanioLote;
+    private final long intervaloMillis;
+    private final Duration backoffInicial;
+    private final Duration backoffMaximo;
+    private final boolean despachoAutomatico;
+    private final ScheduledThreadPoolExecutor ejecutor;
+
+    // Evita encolar despachos repetidos mientras hay uno pendiente de ejecutar
+    private final AtomicBoolean despachoEncolado = new AtomicBoolean();
+
+    private final AtomicLong pendientes = new AtomicLong();
+    private final Timer latenciaEntrega;
+    private final Counter entregados;
+    private final Counter fallidos;
+
+    public OutboxDisponibilidadService(DisponibilidadCamionPendienteRepository pendienteRepository,
+                                       FlotaServiceClient flotaServiceClient,
+                                       PlatformTransactionManager transactionManager,
+                                       @Value("${servicio-flota.outbox.tamanio-lote:50}") int tamanioLote,
+                                       @Value("${servicio-flota.outbox.intervalo-ms:5000}") long intervaloMillis,
+                                       @Value("${servicio-flota.outbox.backoff-inicial-ms:1000}") long backoffInicialMs,
+                                       @Value("${servicio-flota.outbox.backoff-maximo-ms:300000}") long backoffMaximoMs,
+                                       @Value("${servicio-flota.outbox.despacho-automatico:true}") boolean despachoAutomatico,
+                                       MeterRegistry meterRegistry) {
+        this.pendienteRepository = pendienteRepository;
+        this.flotaServiceClient = flotaServiceClient;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transaccionPropia = new TransactionTemplate(transactionManager);
+        this.transaccionPropia.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        // servicio-flota rechaza lotes de más de 1000 cambios
+        this.tamanioLote = Math.min(tamanioLote, MAX_LOTE);
+        this.intervaloMillis = intervaloMillis;
+        this.backoffInicial = Duration.ofMillis(backoffInicialMs);
+        this.backoffMaximo = Duration.ofMillis(backoffMaximoMs);
+        this.despachoAutomatico = despachoAutomatico;
+        this.ejecutor = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread hilo = new Thread(r, "flota-outbox");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+
+        Gauge.builder("flota.outbox.disponibilidad.pendientes", pendientes, AtomicLong::get)
+                .description("Cambios de disponibilidad pendientes de entregar a servicio-flota")
+                .register(meterRegistry);
+        this.latenciaEntrega = Timer.builder("flota.outbox.disponibilidad.latencia")
+                .description("Tiempo entre el registro de un cambio y su entrega a servicio-flota")
+                .register(meterRegistry);
+        this.entregados = Counter.builder("flota.outbox.disponibilidad.entregas")
+                .tag("resultado", "ok")
+                .register(meterRegistry);
+        this.fallidos = Counter.builder("flota.outbox.disponibilidad.entregas")
+                .tag("resultado", "error")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registra el cambio de disponibilidad de un camión dentro de la transacción actual.
+     * Si ya había un cambio pendiente para el camión, lo reemplaza (gana la última escritura).
+     * El despacho se dispara después del commit.
+     *
+     * @param camionIdFlota ID del camión en servicio-flota
+     * @param disponible nueva disponibilidad
+     */
+    @Transactional
+    public void registrar(Long camionIdFlota, boolean disponible) {
+        if (camionIdFlota == null) {
+            logger.warn("Cambio de disponibilidad sin ID de camión de servicio-flota, se ignora");
+            return;
+        }
+        // El UPDATE atómico toma el lock de la fila: dos cambios concurrentes del mismo camión se
+        // serializan y cada uno obtiene su propia secuencia, así no se borra un cambio sin entregar
+        LocalDateTime ahora = LocalDateTime.now();
+        if (pendienteRepository.registrarCambio(camionIdFlota, disponible, ahora) == 0) {
+            crearFilaSiNoExiste(camionIdFlota);
+            pendienteRepository.registrarCambio(camionIdFlota, disponible, ahora);
+        }
+        logger.info("Cambio de disponibilidad del camión {} a {} registrado para entregar a servicio-flota",
+                camionIdFlota, disponible);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    encolarDespacho();
+                }
+            });
+        } else {
+            encolarDespacho();
+        }
+    }
+
+    /**
+     * Crea la fila del camión en una transacción propia y sin cambio pendiente (proximoIntento nulo).
+     * Si otra transacción la creó al mismo tiempo, la violación de unicidad se descarta acá y no
+     * revierte la transacción del tramo.
+     */
+    private void crearFilaSiNoExiste(Long camionIdFlota) {
+        try {
+            transaccionPropia.executeWithoutResult(estado -> {
+                if (pendienteRepository.findByCamionIdFlota(camionIdFlota).isEmpty()) {
+                    DisponibilidadCamionPendiente nuevo = new DisponibilidadCamionPendiente();
+                    nuevo.setCamionIdFlota(camionIdFlota);
+                    pendienteRepository.saveAndFlush(nuevo);
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            logger.debug("La fila del outbox del camión {} la creó otra transacción", camionIdFlota);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void iniciar() {
+        pendientes.set(pendienteRepository.countByProximoIntentoIsNotNull());
+        if (!despachoAutomatico) {
+            logger.info("Despacho automático del outbox de disponibilidad deshabilitado");
+            return;
+        }
+        ejecutor.scheduleWithFixedDelay(this::despachar, intervaloMillis, intervaloMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void encolarDespacho() {
+        if (despachoAutomatico && despachoEncolado.compareAndSet(false, true)) {
+            ejecutor.execute(() -> {
+                despachoEncolado.set(false);
+                despachar();
+            });
+        }
+    }
+
+    /**
+     * Entrega los cambios listos en lotes hasta vaciar el outbox o hasta que falle una entrega
+     */
+    void despachar() {
+        try {
+            while (true) {
+                List<DisponibilidadCamionPendiente> lote = pendienteRepository
+                        .findByProximoIntentoLessThanEqualOrderByFechaRegistroAsc(LocalDateTime.now(), PageRequest.of(0, tamanioLote));
+                if (lote.isEmpty() || !entregar(lote) || lote.size() < tamanioLote) {
+                    break;
+                }
+            }
+            pendientes.set(pendienteRepository.countByProximoIntentoIsNotNull());
+        } catch (RuntimeException e) {
+            logger.error("Error inesperado en el despacho del outbox de disponibilidad", e);
+        }
+    }
+
+    private boolean entregar(List<DisponibilidadCamionPendiente> lote) {
+        Map<Long, Boolean> disponibilidadPorCamion = new LinkedHashMap<>();
+        for (DisponibilidadCamionPendiente pendiente : lote) {
+            disponibilidadPorCamion.put(pendiente.getCamionIdFlota(), pendiente.isDisponible());
+        }
+        DisponibilidadLoteResultadoDTO resultado;
+        try {
+            resultado = flotaServiceClient.actualizarDisponibilidadCamiones(disponibilidadPorCamion);
+        } catch (RuntimeException e) {
+            logger.warn("No se pudo entregar un lote de {} cambios de disponibilidad a servicio-flota: {}",
+                    lote.size(), e.getMessage());
+            registrarFallo(lote, e.getMessage());
+            fallidos.increment(lote.size());
+            return false;
+        }
+
+        Set<Long> noEncontrados = resultado.getNoEncontrados() != null ? new HashSet<>(resultado.getNoEncontrados()) : Set.of();
+        LocalDateTime ahora = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(estado -> {
+            for (DisponibilidadCamionPendiente pendiente : lote) {
+                // Los camiones inexistentes en servicio-flota no tienen sentido reintentarlos
+                if (pendienteRepository.marcarEntregado(pendiente.getId(), pendiente.getSecuencia()) > 0
+                        && !noEncontrados.contains(pendiente.getCamionIdFlota())) {
+                    latenciaEntrega.record(Duration.between(pendiente.getFechaRegistro(), ahora));
+                }
+            }
+        });
+        if (!noEncontrados.isEmpty()) {
+            logger.warn("Cambios de disponibilidad descartados: camiones {} inexistentes en servicio-flota", noEncontrados);
+        }
+        entregados.increment(lote.size() - noEncontrados.size());
+        logger.info("Lote de {} cambios de disponibilidad entregado a servicio-flota", lote.size());
+        return true;
+    }
+
+    private void registrarFallo(List<DisponibilidadCamionPendiente> lote, String error) {
+        LocalDateTime ahora = LocalDateTime.now();
+        String mensaje = error != null && error.length() > 255 ? error.substring(0, 255) : error;
+        transactionTemplate.executeWithoutResult(estado -> {
+            for (DisponibilidadCamionPendiente pendiente : lote) {
+                pendienteRepository.registrarFallo(pendiente.getId(), pendiente.getSecuencia(),
+                        ahora.plus(backoff(pendiente.getIntentos() + 1)), mensaje);
+            }
+        });
+    }
+
+    /**
+     * Backoff exponencial: inicial × 2^(intentos-1), acotado al máximo
+     */
+    private Duration backoff(int intentos) {
+        long factor = 1L << Math.min(intentos - 1, 20);
+        Duration espera = backoffInicial.multipliedBy(factor);
+        return espera.compareTo(backoffMaximo) > 0 ? backoffMaximo : espera;
+    }
+
+    @PreDestroy
+    public void detener() {
+        ejecutor.shutdownNow();
+    }
+}
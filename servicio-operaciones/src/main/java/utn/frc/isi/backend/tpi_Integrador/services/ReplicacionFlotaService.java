@@ -0,0 +1,307 @@
+package utn.frc.isi.backend.tpi_Integrador.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import utn.frc.isi.backend.tpi_Integrador.clients.FlotaServiceClient;
+import utn.frc.isi.backend.tpi_Integrador.dtos.flota.CambiosDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.flota.CamionReplicaDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.flota.DepositoReplicaDTO;
+import utn.frc.isi.backend.tpi_Integrador.models.CamionReference;
+import utn.frc.isi.backend.tpi_Integrador.models.DepositoReference;
+import utn.frc.isi.backend.tpi_Integrador.models.DisponibilidadCamionPendiente;
+import utn.frc.isi.backend.tpi_Integrador.models.EstadoReplicacion;
+import utn.frc.isi.backend.tpi_Integrador.repositories.CamionReferenceRepository;
+import utn.frc.isi.backend.tpi_Integrador.repositories.DepositoReferenceRepository;
+import utn.frc.isi.backend.tpi_Integrador.repositories.DisponibilidadCamionPendienteRepository;
+import utn.frc.isi.backend.tpi_Integrador.repositories.EstadoReplicacionRepository;
+import utn.frc.isi.backend.tpi_Integrador.repositories.TramoRepository;
+import utn.frc.isi.backend.tpi_Integrador.routing.MatrizDepositos;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Réplica incremental de camiones y depósitos de servicio-flota en las referencias locales
+ * (CamionReference, DepositoReference), a partir de los feeds de cambios por versión.
+ *
+ * Al arrancar, sin marca de agua guardada, la primera consulta (sinceVersion=0) trae el estado
+ * completo; luego se consulta periódicamente desde la última versión aplicada. Cada página se aplica
+ * en una transacción junto con la nueva marca de agua, así que un corte a mitad de camino no pierde
+ * ni duplica cambios.
+ *
+ * La disponibilidad de un camión con un cambio pendiente en el outbox no se pisa: el valor local
+ * es más nuevo que el de servicio-flota hasta que el outbox lo entregue. Las referencias usadas por
+ * tramos no se borran ante una baja (el camión queda no disponible).
+ */
+@Service
+public class ReplicacionFlotaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicacionFlotaService.class);
+
+    static final String CAMIONES = "CAMIONES";
+    static final String DEPOSITOS = "DEPOSITOS";
+
+    private final FlotaServiceClient flotaServiceClient;
+    private final CamionReferenceRepository camionReferenceRepository;
+    private final DepositoReferenceRepository depositoReferenceRepository;
+    private final DisponibilidadCamionPendienteRepository pendienteRepository;
+    private final EstadoReplicacionRepository estadoRepository;
+    private final TramoRepository tramoRepository;
+    private final MatrizDepositos matrizDepositos;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean habilitada;
+    private final long intervaloMillis;
+    private final int tamanioLote;
+    private final MeterRegistry meterRegistry;
+    private final ScheduledThreadPoolExecutor ejecutor;
+
+    private final Map<String, Seguimiento> seguimientos = Map.of(CAMIONES, new Seguimiento(), DEPOSITOS, new Seguimiento());
+
+    /**
+     * Estado en memoria de la réplica de una entidad, para las métricas de retraso
+     */
+    private static class Seguimiento {
+        final AtomicLong versionAplicada = new AtomicLong();
+        final AtomicLong versionActual = new AtomicLong();
+        final AtomicLong ultimaSincronizacion = new AtomicLong(); // epoch millis, 0 = nunca
+
+        double retrasoVersiones() {
+            return Math.max(0, versionActual.get() - versionAplicada.get());
+        }
+
+        double antiguedadSegundos() {
+            long ultima = ultimaSincronizacion.get();
+            return ultima == 0 ? Double.NaN : (System.currentTimeMillis() - ultima) / 1000.0;
+        }
+    }
+
+    public ReplicacionFlotaService(FlotaServiceClient flotaServiceClient,
+                                   CamionReferenceRepository camionReferenceRepository,
+                                   DepositoReferenceRepository depositoReferenceRepository,
+                                   DisponibilidadCamionPendienteRepository pendienteRepository,
+                                   EstadoReplicacionRepository estadoRepository,
+                                   TramoRepository tramoRepository,
+                                   MatrizDepositos matrizDepositos,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${servicio-flota.replicacion.habilitada:true}") boolean habilitada,
+                                   @Value("${servicio-flota.replicacion.intervalo-ms:30000}") long intervaloMillis,
+                                   @Value("${servicio-flota.replicacion.tamanio-lote:500}") int tamanioLote,
+                                   MeterRegistry meterRegistry) {
+        this.flotaServiceClient = flotaServiceClient;
+        this.camionReferenceRepository = camionReferenceRepository;
+        this.depositoReferenceRepository = depositoReferenceRepository;
+        this.pendienteRepository = pendienteRepository;
+        this.estadoRepository = estadoRepository;
+        this.tramoRepository = tramoRepository;
+        this.matrizDepositos = matrizDepositos;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.habilitada = habilitada;
+        this.intervaloMillis = intervaloMillis;
+        this.tamanioLote = tamanioLote;
+        this.meterRegistry = meterRegistry;
+        this.ejecutor = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread hilo = new Thread(r, "flota-replicacion");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+
+        seguimientos.forEach((entidad, seguimiento) -> {
+            String tag = entidad.toLowerCase();
+            Gauge.builder("flota.replicacion.retraso-versiones", seguimiento, Seguimiento::retrasoVersiones)
+                    .description("Versiones de servicio-flota todavía no aplicadas en la réplica local")
+                    .tag("entidad", tag)
+                    .register(meterRegistry);
+            Gauge.builder("flota.replicacion.antiguedad-segundos", seguimiento, Seguimiento::antiguedadSegundos)
+                    .description("Segundos desde la última sincronización exitosa con servicio-flota")
+                    .tag("entidad", tag)
+                    .register(meterRegistry);
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void iniciar() {
+        if (!habilitada) {
+            logger.info("Réplica de camiones y depósitos de servicio-flota deshabilitada");
+            return;
+        }
+        // La primera pasada (sin demora) precarga las referencias desde el snapshot de servicio-flota
+        ejecutor.scheduleWithFixedDelay(this::sincronizar, 0, intervaloMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Aplica los cambios pendientes de camiones y depósitos. Un error en una entidad no
+     * impide sincronizar la otra; se reintenta en el próximo ciclo desde la marca de agua.
+     */
+    public void sincronizar() {
+        sincronizar(CAMIONES, flotaServiceClient::obtenerCambiosCamiones, this::aplicarCamiones);
+        sincronizar(DEPOSITOS, flotaServiceClient::obtenerCambiosDepositos, this::aplicarDepositos);
+    }
+
+    private <T> void sincronizar(String entidad, BiFunction<Long, Integer, CambiosDTO<T>> consulta,
+                                 Consumer<CambiosDTO<T>> aplicar) {
+        Seguimiento seguimiento = seguimientos.get(entidad);
+        try {
+            long desde = estadoRepository.findById(entidad).map(EstadoReplicacion::getVersionAplicada).orElse(0L);
+            if (desde == 0) {
+                logger.info("Réplica de {}: carga inicial desde el snapshot de servicio-flota", entidad);
+            }
+            CambiosDTO<T> cambios;
+            do {
+                cambios = consulta.apply(desde, tamanioLote);
+                CambiosDTO<T> pagina = cambios;
+                transactionTemplate.executeWithoutResult(estado -> {
+                    aplicar.accept(pagina);
+                    estadoRepository.save(new EstadoReplicacion(entidad, pagina.getVersionHasta(), LocalDateTime.now()));
+                });
+                contarCambios(entidad, pagina);
+                desde = cambios.getVersionHasta();
+                seguimiento.versionAplicada.set(desde);
+                seguimiento.versionActual.set(cambios.getVersionActual());
+            } while (cambios.isHayMas());
+            seguimiento.ultimaSincronizacion.set(System.currentTimeMillis());
+        } catch (RuntimeException e) {
+            logger.warn("No se pudo sincronizar la réplica de {} con servicio-flota: {}", entidad, e.getMessage());
+            Counter.builder("flota.replicacion.errores")
+                    .tag("entidad", entidad.toLowerCase())
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+
+    private void aplicarCamiones(CambiosDTO<CamionReplicaDTO> cambios) {
+        List<CamionReplicaDTO> actualizados = cambios.getActualizados() != null ? cambios.getActualizados() : List.of();
+        List<Long> eliminados = cambios.getEliminados() != null ? cambios.getEliminados() : List.of();
+        if (actualizados.isEmpty() && eliminados.isEmpty()) {
+            return;
+        }
+        Set<Long> ids = new HashSet<>(eliminados);
+        actualizados.forEach(camion -> ids.add(camion.getId()));
+
+        Map<Long, CamionReference> locales = new HashMap<>();
+        for (CamionReference referencia : camionReferenceRepository.findByCamionIdFlotaIn(ids)) {
+            locales.putIfAbsent(referencia.getCamionIdFlota(), referencia);
+        }
+        Set<Long> conCambioPendiente = pendienteRepository.findByCamionIdFlotaInAndProximoIntentoIsNotNull(ids).stream()
+                .map(DisponibilidadCamionPendiente::getCamionIdFlota)
+                .collect(Collectors.toSet());
+
+        for (CamionReplicaDTO camion : actualizados) {
+            CamionReference referencia = locales.computeIfAbsent(camion.getId(), id -> {
+                CamionReference nueva = new CamionReference();
+                nueva.setCamionIdFlota(id);
+                nueva.setDisponible(camion.isDisponible());
+                return nueva;
+            });
+            referencia.setDominio(camion.getDominio());
+            referencia.setCapacidadPeso(camion.getCapacidadPeso());
+            referencia.setCapacidadVolumen(camion.getCapacidadVolumen());
+            referencia.setCostoPorKm(camion.getCostoPorKm());
+            if (!conCambioPendiente.contains(camion.getId())) {
+                referencia.setDisponible(camion.isDisponible());
+            }
+            camionReferenceRepository.save(referencia);
+        }
+
+        for (Long camionIdFlota : eliminados) {
+            CamionReference referencia = locales.get(camionIdFlota);
+            if (referencia == null) {
+                continue;
+            }
+            if (tramoRepository.existsByCamionReference_Id(referencia.getId())) {
+                // Los tramos conservan la referencia; solo se evita que se vuelva a asignar
+                referencia.setDisponible(false);
+                camionReferenceRepository.save(referencia);
+                logger.warn("Camión {} eliminado en servicio-flota pero usado en tramos: se marca no disponible",
+                        referencia.getDominio());
+            } else {
+                camionReferenceRepository.delete(referencia);
+            }
+        }
+    }
+
+    private void aplicarDepositos(CambiosDTO<DepositoReplicaDTO> cambios) {
+        List<DepositoReplicaDTO> actualizados = cambios.getActualizados() != null ? cambios.getActualizados() : List.of();
+        List<Long> eliminados = cambios.getEliminados() != null ? cambios.getEliminados() : List.of();
+        if (actualizados.isEmpty() && eliminados.isEmpty()) {
+            return;
+        }
+        Map<Long, DepositoReference> locales = depositoReferenceRepository
+                .findAllById(actualizados.stream().map(DepositoReplicaDTO::getId).toList())
+                .stream()
+                .collect(Collectors.toMap(DepositoReference::getId, deposito -> deposito));
+
+        for (DepositoReplicaDTO deposito : actualizados) {
+            DepositoReference referencia = locales.getOrDefault(deposito.getId(), new DepositoReference());
+            referencia.setId(deposito.getId());
+            referencia.setNombre(deposito.getNombre());
+            referencia.setDireccion(deposito.getDireccion());
+            referencia.setLatitud(deposito.getLatitud());
+            referencia.setLongitud(deposito.getLongitud());
+            depositoReferenceRepository.save(referencia);
+        }
+
+        for (Long depositoId : eliminados) {
+            if (!depositoReferenceRepository.existsById(depositoId)) {
+                continue;
+            }
+            if (tramoRepository.existsByDepositoOrigen_IdOrDepositoDestino_Id(depositoId, depositoId)) {
+                logger.warn("Depósito {} eliminado en servicio-flota pero usado en tramos: se conserva la referencia", depositoId);
+            } else {
+                depositoReferenceRepository.deleteById(depositoId);
+            }
+        }
+        // Recalcular en segundo plano las distancias de los depósitos nuevos, movidos o eliminados,
+        // una vez confirmados (el recálculo lee los depósitos desde otro hilo)
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                matrizDepositos.depositosModificados();
+            }
+        });
+    }
+
+    private void contarCambios(String entidad, CambiosDTO<?> cambios) {
+        String tag = entidad.toLowerCase();
+        int actualizados = cambios.getActualizados() != null ? cambios.getActualizados().size() : 0;
+        int eliminados = cambios.getEliminados() != null ? cambios.getEliminados().size() : 0;
+        if (actualizados > 0) {
+            Counter.builder("flota.replicacion.cambios").tag("entidad", tag).tag("tipo", "actualizado")
+                    .register(meterRegistry).increment(actualizados);
+        }
+        if (eliminados > 0) {
+            Counter.builder("flota.replicacion.cambios").tag("entidad", tag).tag("tipo", "eliminado")
+                    .register(meterRegistry).increment(eliminados);
+        }
+        if (actualizados + eliminados > 0) {
+            logger.info("Réplica de {}: {} actualizados y {} eliminados aplicados (versión {})",
+                    entidad, actualizados, eliminados, cambios.getVersionHasta());
+        }
+    }
+
+    @PreDestroy
+    public void detener() {
+        ejecutor.shutdownNow();
+    }
+}
@@ -3,25 +3,38 @@ package utn.frc.isi.backend.tpi_Integrador.services;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import utn.frc.isi.backend.tpi_Integrador.clients.FlotaServiceClient;
 import utn.frc.isi.backend.tpi_Integrador.dtos.Coordenada;
+import utn.frc.isi.backend.tpi_Integrador.dtos.PaginaDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.RutaCreateDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.RutaDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.RutaTentativaDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.RutaUpdateDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.TramoCreateDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.TramoTentativoDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.flota.TarifaDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.googlemaps.Element;
 import utn.frc.isi.backend.tpi_Integrador.mappers.RutaMapper;
 import utn.frc.isi.backend.tpi_Integrador.models.Ruta;
 import utn.frc.isi.backend.tpi_Integrador.models.Solicitud;
 import utn.frc.isi.backend.tpi_Integrador.models.Tramo;
+import utn.frc.isi.backend.tpi_Integrador.paginacion.ConsultaPagina;
+import utn.frc.isi.backend.tpi_Integrador.paginacion.PaginadorKeyset;
+import utn.frc.isi.backend.tpi_Integrador.repositories.DepositoReferenceRepository;
 import utn.frc.isi.backend.tpi_Integrador.repositories.RutaRepository;
 import utn.frc.isi.backend.tpi_Integrador.repositories.SolicitudRepository;
 import utn.frc.isi.backend.tpi_Integrador.repositories.TramoRepository;
+import utn.frc.isi.backend.tpi_Integrador.routing.BuscadorRutas;
+import utn.frc.isi.backend.tpi_Integrador.routing.EstimadorDistancia;
+import utn.frc.isi.backend.tpi_Integrador.routing.MatrizDepositos;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -30,37 +43,65 @@ public class RutaService {
 
     private static final Logger logger = LoggerFactory.getLogger(RutaService.class);
 
+    // Modos de cálculo de rutas tentativas (RF#3)
+    public static final String MODO_ESTIMADO = "ESTIMADO"; // Estimador local, sin llamadas externas
+    public static final String MODO_PRECISO = "PRECISO";   // Google Maps, con respaldo al estimador local
+
     private final RutaRepository rutaRepository;
     private final SolicitudRepository solicitudRepository;
     private final TramoRepository tramoRepository;
     private final GoogleMapsService googleMapsService;
+    private final EstimadorDistancia estimadorDistancia;
+    private final BuscadorRutas buscadorRutas;
+    private final DepositoReferenceRepository depositoReferenceRepository;
+    private final MatrizDepositos matrizDepositos;
+    private final FlotaServiceClient flotaServiceClient;
     private final RutaMapper rutaMapper;
+    private final PaginadorKeyset paginadorKeyset;
+    private final TransactionTemplate transactionTemplate;
+
+    // Campos por los que se puede ordenar el listado (no nulos)
+    private static final Map<String, Class<?>> CAMPOS_ORDEN = Map.of("id", Long.class, "distanciaKm", Double.class);
 
     // Inyección de dependencias a través del constructor (práctica recomendada)
     public RutaService(RutaRepository rutaRepository, 
                       SolicitudRepository solicitudRepository, 
                       TramoRepository tramoRepository,
                       GoogleMapsService googleMapsService,
-                      RutaMapper rutaMapper) {
+                      EstimadorDistancia estimadorDistancia,
+                      BuscadorRutas buscadorRutas,
+                      DepositoReferenceRepository depositoReferenceRepository,
+                      MatrizDepositos matrizDepositos,
+                      FlotaServiceClient flotaServiceClient,
+                      RutaMapper rutaMapper,
+                      PaginadorKeyset paginadorKeyset,
+                      PlatformTransactionManager transactionManager) {
         this.rutaRepository = rutaRepository;
         this.solicitudRepository = solicitudRepository;
         this.tramoRepository = tramoRepository;
         this.googleMapsService = googleMapsService;
+        this.estimadorDistancia = estimadorDistancia;
+        this.buscadorRutas = buscadorRutas;
+        this.depositoReferenceRepository = depositoReferenceRepository;
+        this.matrizDepositos = matrizDepositos;
+        this.flotaServiceClient = flotaServiceClient;
         this.rutaMapper = rutaMapper;
+        this.paginadorKeyset = paginadorKeyset;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     /**
-     * Obtiene todas las rutas
-     * @return Lista de RutaDTO
+     * Lista las rutas de a una página (paginación por keyset, ver PaginadorKeyset)
+     * @param pagina cursor, tamaño de página y orden
+     * @return Página de RutaDTO
      */
-    public List<RutaDTO> obtenerTodas() {
-        logger.info("Obteniendo todas las rutas");
-        List<RutaDTO> rutas = rutaRepository.findAll()
-                .stream()
-                .map(rutaMapper::toDTO)
-                .collect(Collectors.toList());
-        logger.info("Se encontraron {} rutas", rutas.size());
-        return rutas;
+    @Transactional(readOnly = true)
+    public PaginaDTO<RutaDTO> listar(ConsultaPagina pagina) {
+        logger.info("Listando rutas");
+        PaginaDTO<RutaDTO> resultado = paginadorKeyset.paginar(rutaRepository, (root, query, cb) -> cb.conjunction(),
+                pagina, CAMPOS_ORDEN, rutaMapper::toDTO);
+        logger.info("Se devolvieron {} rutas (hay más: {})", resultado.getItems().size(), resultado.isHayMas());
+        return resultado;
     }
 
     /**
@@ -113,9 +154,26 @@ public class RutaService {
      * @return Lista de rutas tentativas con sus respectivos tramos
      */
     public List<RutaTentativaDTO> calcularRutasTentativas(Long solicitudId) {
-        logger.info("Calculando rutas tentativas para solicitud ID: {}", solicitudId);
+        return calcularRutasTentativas(solicitudId, MODO_PRECISO);
+    }
+
+    /**
+     * Calcula rutas tentativas para una solicitud con el modo de cálculo indicado.
+     * Propone la ruta directa y las alternativas con paradas en depósitos de menor costo.
+     * ESTIMADO usa solo datos locales: estimador y matriz de depósitos (microsegundos, sin I/O).
+     * PRECISO consulta Google Maps y, si no responde, recurre al estimador local.
+     * 
+     * @param solicitudId ID de la solicitud
+     * @param modo "ESTIMADO" o "PRECISO"
+     * @return Lista de rutas tentativas con sus respectivos tramos
+     */
+    public List<RutaTentativaDTO> calcularRutasTentativas(Long solicitudId, String modo) {
+        logger.info("Calculando rutas tentativas para solicitud ID: {} (modo {})", solicitudId, modo);
+        if (!MODO_ESTIMADO.equals(modo) && !MODO_PRECISO.equals(modo)) {
+            throw new IllegalArgumentException("Modo de cálculo inválido: " + modo + ". Valores permitidos: ESTIMADO, PRECISO");
+        }
         // Buscar la solicitud
-        Solicitud solicitud = solicitudRepository.findById(solicitudId)
+        Solicitud solicitud = solicitudRepository.findConRutaById(solicitudId)
                 .orElseThrow(() -> {
                     logger.error("Solicitud no encontrada con ID: {}", solicitudId);
                     return new RuntimeException("Solicitud no encontrada con ID: " + solicitudId);
@@ -128,102 +186,207 @@ public class RutaService {
             throw new RuntimeException("La solicitud no tiene una ruta asignada");
         }
         
-        List<RutaTentativaDTO> rutasTentativas = new ArrayList<>();
-        
-        // Formatear coordenadas para Google Maps API (formato: "lat,lng")
-        String origenLatLng = ruta.getLatitudOrigen() + "," + ruta.getLongitudOrigen();
-        String destinoLatLng = ruta.getLatitudDestino() + "," + ruta.getLongitudDestino();
+        // Catálogo de depósitos con coordenadas conocidas
+        List<BuscadorRutas.Punto> depositos = depositoReferenceRepository.findAll().stream()
+                .filter(d -> d.getLatitud() != null && d.getLongitud() != null)
+                .map(d -> new BuscadorRutas.Punto(d.getId(), d.getNombre(), d.getLatitud(), d.getLongitud()))
+                .collect(Collectors.toList());
+        BuscadorRutas.Punto origen = new BuscadorRutas.Punto(null, ruta.getOrigen(), ruta.getLatitudOrigen(), ruta.getLongitudOrigen());
+        BuscadorRutas.Punto destino = new BuscadorRutas.Punto(null, ruta.getDestino(), ruta.getLatitudDestino(), ruta.getLongitudDestino());
         
-        // Obtener información de Google Maps
-        Optional<Element> elementOpt = googleMapsService.obtenerInformacionDistancia(origenLatLng, destinoLatLng);
+        // Modelo de costo: tarifa activa en modo PRECISO; valores configurados en modo ESTIMADO (sin I/O)
+        TarifaDTO tarifa = MODO_PRECISO.equals(modo) ? flotaServiceClient.obtenerTarifaActiva().orElse(null) : null;
+        BuscadorRutas.ModeloCosto modelo = buscadorRutas.modeloCosto(tarifa);
         
-        double distanciaKm;
-        double tiempoHoras;
+        // Buscar las k mejores alternativas (0..n depósitos) con distancias estimadas
+        List<BuscadorRutas.Alternativa> alternativas = buscadorRutas.buscar(origen, destino, depositos, modelo);
         
-        if (elementOpt.isPresent()) {
-            Element element = elementOpt.get();
-            // Convertir distancia de metros a kilómetros
-            distanciaKm = element.getDistance().getValue() / 1000.0;
-            // Convertir duración de segundos a horas
-            tiempoHoras = element.getDuration().getValue() / 3600.0;
-        } else {
-            // Si Google Maps falla, lanzar excepción
-            throw new RuntimeException("No se pudo calcular la distancia usando Google Maps API. Verifique las coordenadas y la conectividad.");
+        // Distancias de los tramos candidatos, en el orden en que se recorren las alternativas:
+        // entre depósitos salen de la matriz precalculada (sin llamadas remotas); en modo PRECISO
+        // el resto se confirma con Google Maps en una sola consulta; lo que falte se estima localmente
+        List<Optional<Element>> elementos = new ArrayList<>();
+        List<String> fuentes = new ArrayList<>();
+        List<Integer> pendientes = new ArrayList<>();
+        List<String> origenes = new ArrayList<>();
+        List<String> destinos = new ArrayList<>();
+        for (BuscadorRutas.Alternativa alternativa : alternativas) {
+            List<BuscadorRutas.Punto> puntos = alternativa.puntos();
+            for (int i = 1; i < puntos.size(); i++) {
+                BuscadorRutas.Punto inicio = puntos.get(i - 1);
+                BuscadorRutas.Punto fin = puntos.get(i);
+                Optional<Element> precalculado = inicio.depositoId() != null && fin.depositoId() != null
+                        ? matrizDepositos.obtener(inicio.depositoId(), fin.depositoId())
+                        : Optional.empty();
+                elementos.add(precalculado);
+                fuentes.add(precalculado.isPresent() ? " (distancia precalculada entre depósitos)" : null);
+                if (precalculado.isEmpty() && MODO_PRECISO.equals(modo) && (inicio.depositoId() == null || fin.depositoId() == null)) {
+                    pendientes.add(elementos.size() - 1);
+                    origenes.add(inicio.latitud() + "," + inicio.longitud());
+                    destinos.add(fin.latitud() + "," + fin.longitud());
+                }
+            }
+        }
+        if (!pendientes.isEmpty()) {
+            List<Optional<Element>> confirmados = googleMapsService.obtenerInformacionDistancias(origenes, destinos);
+            for (int p = 0; p < pendientes.size(); p++) {
+                if (confirmados.get(p).isPresent()) {
+                    elementos.set(pendientes.get(p), confirmados.get(p));
+                    fuentes.set(pendientes.get(p), " (calculada con Google Maps)");
+                }
+            }
+            if (confirmados.stream().anyMatch(Optional::isEmpty)) {
+                logger.warn("Google Maps no disponible para algunos tramos de la solicitud ID: {}, se usa el estimador local", solicitudId);
+            }
         }
         
-        // Estimar costo ($5 por km como ejemplo)
-        double costoEstimado = distanciaKm * 5.0;
-        
-        // Crear objeto Coordenada para punto inicio
-        Coordenada puntoInicio = new Coordenada();
-        puntoInicio.setLatitud(ruta.getLatitudOrigen());
-        puntoInicio.setLongitud(ruta.getLongitudOrigen());
-        
-        // Crear objeto Coordenada para punto fin
-        Coordenada puntoFin = new Coordenada();
-        puntoFin.setLatitud(ruta.getLatitudDestino());
-        puntoFin.setLongitud(ruta.getLongitudDestino());
-        
-        // Crear el tramo único (ruta directa)
-        TramoTentativoDTO tramo = new TramoTentativoDTO();
-        tramo.setOrden(1);
-        tramo.setTipo("ORIGEN-DESTINO");
-        tramo.setPuntoInicio(puntoInicio);
-        tramo.setPuntoFin(puntoFin);
-        tramo.setDistanciaKm(distanciaKm);
-        tramo.setTiempoEstimadoHoras(tiempoHoras);
-        tramo.setCostoAproximado(costoEstimado);
-        tramo.setObservaciones("Ruta directa sin paradas intermedias (calculada con Google Maps)");
-        
-        // Crear la ruta tentativa
-        RutaTentativaDTO rutaTentativa = new RutaTentativaDTO();
-        rutaTentativa.setTramos(List.of(tramo));
-        rutaTentativa.setCostoEstimadoTotal(costoEstimado);
-        rutaTentativa.setTiempoEstimadoTotal(tiempoHoras);
-        rutaTentativa.setDistanciaTotal(distanciaKm);
-        rutaTentativa.setCantidadTramos(1);
-        rutaTentativa.setCantidadDepositos(0);
-        rutaTentativa.setTipoRuta("DIRECTA");
-        rutaTentativa.setDescripcion("Ruta directa de " + String.format("%.2f", distanciaKm) + " km sin paradas intermedias");
-        
-        rutasTentativas.add(rutaTentativa);
+        List<RutaTentativaDTO> rutasTentativas = new ArrayList<>(alternativas.size());
+        int indiceTramo = 0;
+        for (BuscadorRutas.Alternativa alternativa : alternativas) {
+            List<BuscadorRutas.Punto> puntos = alternativa.puntos();
+            List<TramoTentativoDTO> tramos = new ArrayList<>(puntos.size() - 1);
+            double costoTotal = 0;
+            double tiempoTotal = 0;
+            double distanciaTotal = 0;
+            
+            for (int i = 1; i < puntos.size(); i++) {
+                BuscadorRutas.Punto inicio = puntos.get(i - 1);
+                BuscadorRutas.Punto fin = puntos.get(i);
+                Optional<Element> elementOpt = elementos.get(indiceTramo);
+                String fuente = fuentes.get(indiceTramo);
+                indiceTramo++;
+                Element element = elementOpt.orElseGet(() -> estimadorDistancia.estimar(
+                        inicio.latitud(), inicio.longitud(), fin.latitud(), fin.longitud()));
+                
+                // Convertir distancia de metros a kilómetros y duración de segundos a horas
+                double distanciaKm = element.getDistance().getValue() / 1000.0;
+                double tiempoHoras = element.getDuration().getValue() / 3600.0;
+                boolean terminaEnDeposito = fin.depositoId() != null;
+                double costoTramo = modelo.costoTramo(distanciaKm, terminaEnDeposito);
+                
+                TramoTentativoDTO tramo = new TramoTentativoDTO();
+                tramo.setOrden(i);
+                tramo.setTipo(tipoTramo(inicio, fin));
+                tramo.setPuntoInicio(coordenada(inicio));
+                tramo.setPuntoFin(coordenada(fin));
+                tramo.setDistanciaKm(distanciaKm);
+                tramo.setTiempoEstimadoHoras(tiempoHoras);
+                tramo.setCostoAproximado(costoTramo);
+                String detalle = terminaEnDeposito
+                        ? "Parada en " + fin.nombre() + " (incluye estadía estimada)"
+                        : puntos.size() == 2 ? "Ruta directa sin paradas intermedias" : "Tramo final hasta el destino";
+                tramo.setObservaciones(detalle + (fuente != null ? fuente : " (estimación local, sujeta a confirmación)"));
+                tramos.add(tramo);
+                
+                costoTotal += costoTramo;
+                tiempoTotal += tiempoHoras;
+                distanciaTotal += distanciaKm;
+            }
+            
+            RutaTentativaDTO rutaTentativa = new RutaTentativaDTO();
+            rutaTentativa.setTramos(tramos);
+            rutaTentativa.setCostoEstimadoTotal(costoTotal);
+            rutaTentativa.setTiempoEstimadoTotal(tiempoTotal);
+            rutaTentativa.setDistanciaTotal(distanciaTotal);
+            rutaTentativa.setCantidadTramos(tramos.size());
+            rutaTentativa.setCantidadDepositos(alternativa.cantidadDepositos());
+            if (alternativa.cantidadDepositos() == 0) {
+                rutaTentativa.setTipoRuta("DIRECTA");
+                rutaTentativa.setDescripcion("Ruta directa de " + String.format("%.2f", distanciaTotal) + " km sin paradas intermedias");
+            } else {
+                rutaTentativa.setTipoRuta("CON_DEPOSITOS");
+                rutaTentativa.setDescripcion("Ruta de " + String.format("%.2f", distanciaTotal) + " km con "
+                        + alternativa.cantidadDepositos() + " depósito(s): "
+                        + puntos.subList(1, puntos.size() - 1).stream().map(BuscadorRutas.Punto::nombre).collect(Collectors.joining(", ")));
+            }
+            rutasTentativas.add(rutaTentativa);
+        }
         
+        // Las distancias confirmadas pueden cambiar el orden respecto de la estimación
+        rutasTentativas.sort(Comparator.comparingDouble(RutaTentativaDTO::getCostoEstimadoTotal));
+        logger.info("Se calcularon {} rutas tentativas para solicitud ID: {} ({} depósitos evaluados)",
+                rutasTentativas.size(), solicitudId, depositos.size());
         return rutasTentativas;
     }
     
+    private static String tipoTramo(BuscadorRutas.Punto inicio, BuscadorRutas.Punto fin) {
+        String desde = inicio.depositoId() != null ? "DEPOSITO" : "ORIGEN";
+        String hasta = fin.depositoId() != null ? "DEPOSITO" : "DESTINO";
+        return desde + "-" + hasta;
+    }
+    
+    private static Coordenada coordenada(BuscadorRutas.Punto punto) {
+        Coordenada coordenada = new Coordenada();
+        coordenada.setLatitud(punto.latitud());
+        coordenada.setLongitud(punto.longitud());
+        return coordenada;
+    }
+    
+    /**
+     * Registra en la solicitud y su ruta la estimación de la mejor ruta tentativa
+     * (distancia, costo y tiempo). Se usa desde el precálculo posterior a la creación;
+     * no pisa una estimación existente ni toca solicitudes que ya salieron de BORRADOR.
+     * 
+     * @param solicitudId ID de la solicitud
+     * @param mejor Ruta tentativa de menor costo
+     */
+    @Transactional
+    public void registrarEstimacion(Long solicitudId, RutaTentativaDTO mejor) {
+        solicitudRepository.findConRutaById(solicitudId).ifPresent(solicitud -> {
+            if (!"BORRADOR".equals(solicitud.getEstado()) || solicitud.getCostoEstimado() > 0 || solicitud.getRuta() == null) {
+                logger.debug("Solicitud ID: {} ya tiene estimación o ruta definitiva, no se actualiza", solicitudId);
+                return;
+            }
+            Ruta ruta = solicitud.getRuta();
+            ruta.setDistanciaKm(mejor.getDistanciaTotal());
+            ruta.setTiempoEstimadoHoras((int) Math.ceil(mejor.getTiempoEstimadoTotal()));
+            rutaRepository.save(ruta);
+            
+            solicitud.setCostoEstimado(mejor.getCostoEstimadoTotal());
+            solicitud.setTiempoEstimado(mejor.getTiempoEstimadoTotal());
+            solicitudRepository.save(solicitud);
+            logger.info("Estimación precalculada para solicitud ID: {}: {} km, costo {}, {} horas", solicitudId,
+                    String.format("%.2f", mejor.getDistanciaTotal()), String.format("%.2f", mejor.getCostoEstimadoTotal()),
+                    String.format("%.1f", mejor.getTiempoEstimadoTotal()));
+        });
+    }
+    
     /**
      * Asigna una ruta definitiva a una solicitud (RF#4)
      * Crea una nueva ruta con sus tramos y la asocia a la solicitud.
      * Cambia el estado de la solicitud a "PROGRAMADA".
-     * Utiliza Google Maps Distance Matrix API para calcular distancias reales.
+     * Utiliza Google Maps Distance Matrix API para calcular distancias reales; la consulta
+     * se hace antes de abrir la transacción.
      * 
      * @param solicitudId ID de la solicitud
      * @param dto DTO con la información de la ruta y sus tramos
      * @return RutaDTO de la ruta creada y asignada
      */
-    @Transactional
     public RutaDTO asignarRutaASolicitud(Long solicitudId, RutaCreateDTO dto) {
-        // 1. Buscar la solicitud
-        Solicitud solicitud = solicitudRepository.findById(solicitudId)
-                .orElseThrow(() -> new RuntimeException("Solicitud no encontrada con ID: " + solicitudId));
+        // 1. Verificar que la solicitud exista (no gastar cuota de Google Maps si no)
+        if (!solicitudRepository.existsById(solicitudId)) {
+            throw new RuntimeException("Solicitud no encontrada con ID: " + solicitudId);
+        }
+        
+        // 2. Obtener las distancias de todos los tramos en una sola consulta a Google Maps,
+        //    sin retener una conexión de la base, y calcular los totales de la ruta
+        //    (se reutilizan al crear los tramos)
+        List<TramoCreateDTO> tramosDto = dto.getTramos();
+        List<String> origenes = new ArrayList<>(tramosDto.size());
+        List<String> destinos = new ArrayList<>(tramosDto.size());
+        for (TramoCreateDTO tramoDto : tramosDto) {
+            origenes.add(tramoDto.getLatitudInicio() + "," + tramoDto.getLongitudInicio());
+            destinos.add(tramoDto.getLatitudFin() + "," + tramoDto.getLongitudFin());
+        }
+        List<Optional<Element>> elementos = googleMapsService.obtenerInformacionDistancias(origenes, destinos);
         
-        // 2. Calcular totales de la ruta basándose en los tramos usando Google Maps
         double distanciaTotal = 0;
         double tiempoTotal = 0;
         
-        for (TramoCreateDTO tramoDto : dto.getTramos()) {
-            // Formatear coordenadas para Google Maps API
-            String origenLatLng = tramoDto.getLatitudInicio() + "," + tramoDto.getLongitudInicio();
-            String destinoLatLng = tramoDto.getLatitudFin() + "," + tramoDto.getLongitudFin();
-            
-            // Obtener información de Google Maps
-            Optional<Element> elementOpt = googleMapsService.obtenerInformacionDistancia(origenLatLng, destinoLatLng);
-            
+        for (Optional<Element> elementOpt : elementos) {
             if (elementOpt.isPresent()) {
                 Element element = elementOpt.get();
                 // Convertir distancia de metros a kilómetros
-                double distanciaTramo = element.getDistance().getValue() / 1000.0;
-                distanciaTotal += distanciaTramo;
+                distanciaTotal += element.getDistance().getValue() / 1000.0;
                 // Convertir duración de segundos a horas
                 tiempoTotal += element.getDuration().getValue() / 3600.0;
             } else {
@@ -231,12 +394,23 @@ public class RutaService {
             }
         }
         
+        double distanciaKm = distanciaTotal;
+        double tiempoHoras = tiempoTotal;
+        return transactionTemplate.execute(estado ->
+                guardarRutaAsignada(solicitudId, tramosDto, elementos, distanciaKm, tiempoHoras));
+    }
+    
+    private RutaDTO guardarRutaAsignada(Long solicitudId, List<TramoCreateDTO> tramosDto, List<Optional<Element>> elementos,
+                                        double distanciaTotal, double tiempoTotal) {
+        Solicitud solicitud = solicitudRepository.findById(solicitudId)
+                .orElseThrow(() -> new RuntimeException("Solicitud no encontrada con ID: " + solicitudId));
+        
         // 3. Crear y guardar la nueva entidad Ruta
         Ruta nuevaRuta = new Ruta();
         
         // Usar coordenadas del primer y último tramo
-        TramoCreateDTO primerTramo = dto.getTramos().get(0);
-        TramoCreateDTO ultimoTramo = dto.getTramos().get(dto.getTramos().size() - 1);
+        TramoCreateDTO primerTramo = tramosDto.get(0);
+        TramoCreateDTO ultimoTramo = tramosDto.get(tramosDto.size() - 1);
         
         nuevaRuta.setOrigen("Origen de la ruta");
         nuevaRuta.setDestino("Destino de la ruta");
@@ -250,7 +424,8 @@ public class RutaService {
         Ruta rutaGuardada = rutaRepository.save(nuevaRuta);
         
         // 4. Crear y guardar cada Tramo de la ruta
-        for (TramoCreateDTO tramoDto : dto.getTramos()) {
+        for (int i = 0; i < tramosDto.size(); i++) {
+            TramoCreateDTO tramoDto = tramosDto.get(i);
             Tramo nuevoTramo = new Tramo();
             nuevoTramo.setRuta(rutaGuardada);
             nuevoTramo.setOrden(tramoDto.getOrden());
@@ -263,22 +438,13 @@ public class RutaService {
             nuevoTramo.setFechaEstimadaInicio(tramoDto.getFechaEstimadaInicio());
             nuevoTramo.setFechaEstimadaFin(tramoDto.getFechaEstimadaFin());
             
-            // Calcular distancia del tramo usando Google Maps
-            String origenLatLng = tramoDto.getLatitudInicio() + "," + tramoDto.getLongitudInicio();
-            String destinoLatLng = tramoDto.getLatitudFin() + "," + tramoDto.getLongitudFin();
-            
-            Optional<Element> elementOpt = googleMapsService.obtenerInformacionDistancia(origenLatLng, destinoLatLng);
+            // Distancia del tramo ya obtenida en el paso 2
+            Element element = elementos.get(i).get();
+            double distanciaTramo = element.getDistance().getValue() / 1000.0;
+            double tiempoTramo = element.getDuration().getValue() / 3600.0;
             
-            if (elementOpt.isPresent()) {
-                Element element = elementOpt.get();
-                double distanciaTramo = element.getDistance().getValue() / 1000.0;
-                double tiempoTramo = element.getDuration().getValue() / 3600.0;
-                
-                nuevoTramo.setDistanciaKm(distanciaTramo);
-                nuevoTramo.setTiempoEstimadoHoras((int) Math.ceil(tiempoTramo));
-            } else {
-                throw new RuntimeException("No se pudo calcular la distancia del tramo usando Google Maps API");
-            }
+            nuevoTramo.setDistanciaKm(distanciaTramo);
+            nuevoTramo.setTiempoEstimadoHoras((int) Math.ceil(tiempoTramo));
             
             // Por ahora, no manejamos depósitos (se implementará en futuro)
             // Los campos depositoOrigen y depositoDestino quedarán null
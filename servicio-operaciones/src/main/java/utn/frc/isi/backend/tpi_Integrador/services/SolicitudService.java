@@ -2,14 +2,17 @@ package utn.frc.isi.backend.tpi_Integrador.services;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import utn.frc.isi.backend.tpi_Integrador.dtos.ContenedorEstadoDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.PaginaDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.RutaDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.SolicitudCreateDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.SolicitudDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.SolicitudEstadoDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.SolicitudUpdateDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.TramoHistorialDTO;
 import utn.frc.isi.backend.tpi_Integrador.mappers.SolicitudMapper;
 import utn.frc.isi.backend.tpi_Integrador.mappers.RutaMapper;
 import utn.frc.isi.backend.tpi_Integrador.models.Cliente;
@@ -17,16 +20,21 @@ import utn.frc.isi.backend.tpi_Integrador.models.Contenedor;
 import utn.frc.isi.backend.tpi_Integrador.models.Solicitud;
 import utn.frc.isi.backend.tpi_Integrador.models.Ruta;
 import utn.frc.isi.backend.tpi_Integrador.models.Tramo;
+import utn.frc.isi.backend.tpi_Integrador.paginacion.ConsultaPagina;
+import utn.frc.isi.backend.tpi_Integrador.paginacion.PaginadorKeyset;
 import utn.frc.isi.backend.tpi_Integrador.repositories.SolicitudRepository;
 import utn.frc.isi.backend.tpi_Integrador.repositories.ClienteRepository;
 import utn.frc.isi.backend.tpi_Integrador.repositories.ContenedorRepository;
 import utn.frc.isi.backend.tpi_Integrador.repositories.RutaRepository;
 import utn.frc.isi.backend.tpi_Integrador.repositories.TramoRepository;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.Duration;
-import java.util.ArrayList;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -45,6 +53,12 @@ public class SolicitudService {
     private final TramoRepository tramoRepository;
     private final SolicitudMapper solicitudMapper;
     private final RutaMapper rutaMapper;
+    private final TrabajoRutasService trabajoRutasService;
+    private final PaginadorKeyset paginadorKeyset;
+
+    // Campos por los que se puede ordenar el listado (no nulos; fechaSolicitud queda afuera porque es texto libre y admite null)
+    private static final Map<String, Class<?>> CAMPOS_ORDEN = Map.of(
+            "id", Long.class, "costoEstimado", Double.class);
 
     // Inyección de dependencias a través del constructor (práctica recomendada)
     public SolicitudService(SolicitudRepository solicitudRepository, 
@@ -55,7 +69,9 @@ public class SolicitudService {
                           RutaRepository rutaRepository,
                           TramoRepository tramoRepository,
                           SolicitudMapper solicitudMapper,
-                          RutaMapper rutaMapper) {
+                          RutaMapper rutaMapper,
+                          TrabajoRutasService trabajoRutasService,
+                          PaginadorKeyset paginadorKeyset) {
         this.solicitudRepository = solicitudRepository;
         this.clienteService = clienteService;
         this.contenedorService = contenedorService;
@@ -65,20 +81,41 @@ public class SolicitudService {
         this.tramoRepository = tramoRepository;
         this.solicitudMapper = solicitudMapper;
         this.rutaMapper = rutaMapper;
+        this.trabajoRutasService = trabajoRutasService;
+        this.paginadorKeyset = paginadorKeyset;
     }
 
     /**
-     * Obtiene todas las solicitudes
-     * @return Lista de SolicitudDTO
+     * Lista las solicitudes de a una página (paginación por keyset, ver PaginadorKeyset)
+     * @param estado si no es null, solo las solicitudes en ese estado
+     * @param clienteId si no es null, solo las solicitudes de ese cliente
+     * @param fechaDesde si no es null, solo las solicitudes de esa fecha en adelante
+     * @param fechaHasta si no es null, solo las solicitudes hasta esa fecha inclusive
+     * @param pagina cursor, tamaño de página y orden
+     * @return Página de SolicitudDTO
      */
-    public List<SolicitudDTO> obtenerTodas() {
-        logger.info("Obteniendo todas las solicitudes");
-        List<SolicitudDTO> solicitudes = solicitudRepository.findAll()
-                .stream()
-                .map(solicitudMapper::toDTO)
-                .collect(Collectors.toList());
-        logger.info("Se encontraron {} solicitudes", solicitudes.size());
-        return solicitudes;
+    @Transactional(readOnly = true)
+    public PaginaDTO<SolicitudDTO> listar(String estado, Long clienteId, LocalDate fechaDesde, LocalDate fechaHasta,
+                                          ConsultaPagina pagina) {
+        logger.info("Listando solicitudes (estado: {}, cliente: {}, desde: {}, hasta: {})", estado, clienteId, fechaDesde, fechaHasta);
+        // fechaSolicitud se guarda como texto ISO (yyyy-MM-dd...), así que se compara como texto
+        Specification<Solicitud> filtro = (root, query, cb) -> cb.conjunction();
+        if (estado != null) {
+            filtro = filtro.and((root, query, cb) -> cb.equal(root.get("estado"), estado.toUpperCase()));
+        }
+        if (clienteId != null) {
+            filtro = filtro.and((root, query, cb) -> cb.equal(root.get("cliente").get("id"), clienteId));
+        }
+        if (fechaDesde != null) {
+            filtro = filtro.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("fechaSolicitud"), fechaDesde.toString()));
+        }
+        if (fechaHasta != null) {
+            filtro = filtro.and((root, query, cb) -> cb.lessThan(root.get("fechaSolicitud"), fechaHasta.plusDays(1).toString()));
+        }
+        PaginaDTO<SolicitudDTO> resultado = paginadorKeyset.paginar(solicitudRepository, filtro, pagina, CAMPOS_ORDEN,
+                solicitudMapper::toDTO);
+        logger.info("Se devolvieron {} solicitudes (hay más: {})", resultado.getItems().size(), resultado.isHayMas());
+        return resultado;
     }
 
     /**
@@ -88,7 +125,7 @@ public class SolicitudService {
      */
     public Optional<SolicitudDTO> obtenerPorId(Long id) {
         logger.info("Buscando Solicitud con ID: {}", id);
-        Optional<SolicitudDTO> solicitudOpt = solicitudRepository.findById(id)
+        Optional<SolicitudDTO> solicitudOpt = solicitudRepository.findConRutaById(id)
                 .map(solicitudMapper::toDTO);
         if (solicitudOpt.isEmpty()) {
             logger.warn("Solicitud con ID: {} no encontrada", id);
@@ -104,7 +141,7 @@ public class SolicitudService {
      */
     public SolicitudDTO actualizarSolicitud(Long id, SolicitudUpdateDTO dto) {
         logger.info("Actualizando solicitud con ID: {}", id);
-        Optional<Solicitud> solicitudOpt = solicitudRepository.findById(id);
+        Optional<Solicitud> solicitudOpt = solicitudRepository.findConRutaById(id);
         if (solicitudOpt.isPresent()) {
             Solicitud solicitud = solicitudOpt.get();
             solicitudMapper.updateEntity(dto, solicitud);
@@ -174,8 +211,8 @@ public class SolicitudService {
         nuevaRuta.setLatitudDestino(dto.getLatitudDestino());
         nuevaRuta.setLongitudDestino(dto.getLongitudDestino());
         
-        // La distancia y tiempo se calcularán cuando se consulten las rutas tentativas (RF#3)
-        // usando Google Maps Distance Matrix API
+        // La distancia y tiempo se precalculan en segundo plano después del commit
+        // (ver paso 5) o, si no llegó a terminar, al consultar las rutas tentativas (RF#3)
         nuevaRuta.setDistanciaKm(0.0);
         nuevaRuta.setTiempoEstimadoHoras(0);
         
@@ -190,74 +227,103 @@ public class SolicitudService {
         nuevaSolicitud.setEstado("BORRADOR"); // Estado inicial según documento de diseño
         nuevaSolicitud.setFechaSolicitud(LocalDateTime.now().toString()); // Convertir a String
         
-        // Los costos y tiempos se calcularán cuando se consulten las rutas tentativas
+        // Los costos y tiempos se completan con el precálculo de rutas tentativas
         nuevaSolicitud.setCostoEstimado(0.0);
         nuevaSolicitud.setTiempoEstimado(0.0);
 
         Solicitud solicitudGuardada = solicitudRepository.save(nuevaSolicitud);
+
+        // 5. Precalcular rutas tentativas en segundo plano una vez confirmada la transacción
+        trabajoRutasService.precalcularDespuesDelCommit(solicitudGuardada.getId());
         return solicitudMapper.toDTO(solicitudGuardada);
     }
     
     /**
      * RF#2: Consultar estado completo de una solicitud de transporte
-     * Incluye estado del contenedor, ruta e historial de tramos
+     * Incluye estado del contenedor, ruta e historial de tramos. Todo sale de una sola consulta
+     * (solicitud, contenedor, cliente, ruta y tramos con camión y depósitos); el progreso y el ETA
+     * se calculan a partir de los tramos finalizados y en curso.
      * 
      * @param id ID de la solicitud
      * @return Optional con SolicitudEstadoDTO si la solicitud existe
      */
+    @Transactional(readOnly = true)
     public Optional<SolicitudEstadoDTO> consultarEstadoSolicitud(Long id) {
-        return solicitudRepository.findById(id).map(solicitud -> {
-            SolicitudEstadoDTO estadoDTO = new SolicitudEstadoDTO();
-            
-            // Información básica de la solicitud
-            estadoDTO.setId(solicitud.getId());
-            estadoDTO.setEstado(solicitud.getEstado());
+        List<Object[]> filas = solicitudRepository.findSeguimiento(id);
+        if (filas.isEmpty()) {
+            return Optional.empty();
+        }
+        Solicitud solicitud = (Solicitud) filas.get(0)[0];
+        List<Tramo> tramos = filas.stream()
+                .map(fila -> (Tramo) fila[1])
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+
+        SolicitudEstadoDTO estadoDTO = new SolicitudEstadoDTO();
+        
+        // Información básica de la solicitud
+        estadoDTO.setId(solicitud.getId());
+        estadoDTO.setEstado(solicitud.getEstado());
+        
+        // Estado del contenedor
+        if (solicitud.getContenedor() != null) {
+            ContenedorEstadoDTO contenedorEstado = new ContenedorEstadoDTO();
+            contenedorEstado.setId(solicitud.getContenedor().getId());
+            contenedorEstado.setNumero(solicitud.getContenedor().getNumero());
+            contenedorEstado.setEstado(solicitud.getContenedor().getEstado());
             
-            // Estado del contenedor
-            if (solicitud.getContenedor() != null) {
-                ContenedorEstadoDTO contenedorEstado = new ContenedorEstadoDTO();
-                contenedorEstado.setId(solicitud.getContenedor().getId());
-                contenedorEstado.setNumero(solicitud.getContenedor().getNumero());
-                contenedorEstado.setEstado(solicitud.getContenedor().getEstado());
-                
-                // Ubicación del contenedor
-                String ubicacion = determinarUbicacionContenedor(solicitud.getContenedor().getEstado());
-                contenedorEstado.setUbicacionActual(ubicacion);
-                
-                if (solicitud.getCliente() != null) {
-                    contenedorEstado.setNombreCliente(solicitud.getCliente().getNombre());
-                }
-                contenedorEstado.setSolicitudId(solicitud.getId());
-                
-                estadoDTO.setContenedor(contenedorEstado);
-            }
+            // Ubicación del contenedor
+            String ubicacion = determinarUbicacionContenedor(solicitud.getContenedor().getEstado(), tramos);
+            contenedorEstado.setUbicacionActual(ubicacion);
             
-            // Información de la ruta
-            if (solicitud.getRuta() != null) {
-                RutaDTO rutaDTO = rutaMapper.toDTO(solicitud.getRuta());
-                rutaDTO.setSolicitudId(solicitud.getId());
-                estadoDTO.setRutaActual(rutaDTO);
+            if (solicitud.getCliente() != null) {
+                contenedorEstado.setNombreCliente(solicitud.getCliente().getNombre());
             }
+            contenedorEstado.setSolicitudId(solicitud.getId());
             
-            // Historial de tramos (por ahora vacío, se completará cuando implementemos tramos)
-            estadoDTO.setHistorialTramos(new ArrayList<>());
-            
-            // Calcular progreso basado en el estado
-            double progreso = calcularProgreso(solicitud.getEstado());
-            estadoDTO.setProgreso(progreso);
-            
-            // ETA al destino
-            String eta = calcularETA(solicitud);
-            estadoDTO.setEtaDestino(eta);
-            
-            return estadoDTO;
-        });
+            estadoDTO.setContenedor(contenedorEstado);
+        }
+        
+        // Información de la ruta (con los tramos ya cargados)
+        if (solicitud.getRuta() != null) {
+            RutaDTO rutaDTO = rutaMapper.toDTO(solicitud.getRuta(), tramos);
+            rutaDTO.setSolicitudId(solicitud.getId());
+            estadoDTO.setRutaActual(rutaDTO);
+        }
+        
+        // Historial de tramos, en el orden de la ruta
+        estadoDTO.setHistorialTramos(tramos.stream()
+                .map(this::toHistorial)
+                .collect(Collectors.toList()));
+        
+        // Progreso y ETA según el avance real de los tramos
+        LocalDateTime ahora = LocalDateTime.now();
+        estadoDTO.setProgreso(calcularProgreso(solicitud, tramos, ahora));
+        estadoDTO.setEtaDestino(calcularETA(solicitud, tramos, ahora));
+        
+        return Optional.of(estadoDTO);
+    }
+    
+    private TramoHistorialDTO toHistorial(Tramo tramo) {
+        TramoHistorialDTO historial = new TramoHistorialDTO();
+        historial.setOrden(tramo.getOrden());
+        historial.setTipo(tramo.getTipo());
+        historial.setEstado(tramo.getEstado());
+        historial.setPuntoInicio(tramo.getPuntoInicio());
+        historial.setPuntoFin(tramo.getPuntoFin());
+        historial.setFechaHoraInicio(tramo.getFechaRealInicio());
+        historial.setFechaHoraFin(tramo.getFechaRealFin());
+        historial.setCamion(tramo.getCamionReference() != null ? tramo.getCamionReference().getDominio() : null);
+        historial.setDepositoOrigen(tramo.getDepositoOrigen() != null ? tramo.getDepositoOrigen().getNombre() : null);
+        historial.setDepositoDestino(tramo.getDepositoDestino() != null ? tramo.getDepositoDestino().getNombre() : null);
+        return historial;
     }
     
     /**
      * Determina la ubicación textual del contenedor según su estado
+     * (en depósito, indica el depósito de destino del último tramo finalizado)
      */
-    private String determinarUbicacionContenedor(String estado) {
+    private String determinarUbicacionContenedor(String estado, List<Tramo> tramos) {
         if (estado == null) {
             return "Estado desconocido";
         }
@@ -266,7 +332,11 @@ public class SolicitudService {
             case "EN_ORIGEN":
                 return "El contenedor se encuentra en la dirección de origen, listo para ser recogido.";
             case "EN_DEPOSITO":
-                return "El contenedor está almacenado en un depósito intermedio de la ruta.";
+                return tramos.stream()
+                        .filter(t -> "FINALIZADO".equals(t.getEstado()) && t.getDepositoDestino() != null)
+                        .reduce((anterior, siguiente) -> siguiente)
+                        .map(t -> "El contenedor está almacenado en el depósito " + t.getDepositoDestino().getNombre() + ".")
+                        .orElse("El contenedor está almacenado en un depósito intermedio de la ruta.");
             case "EN_VIAJE":
                 return "El contenedor está en tránsito hacia el siguiente punto de la ruta.";
             case "ENTREGADO":
@@ -277,51 +347,75 @@ public class SolicitudService {
     }
     
     /**
-     * Calcula el porcentaje de progreso basado en el estado de la solicitud
+     * Calcula el porcentaje de progreso según el avance de los tramos, ponderado por distancia
+     * (por cantidad de tramos si no hay distancias): los finalizados cuentan completos y el
+     * tramo iniciado según el tiempo transcurrido sobre su tiempo estimado (hasta un 95%).
      */
-    private double calcularProgreso(String estado) {
-        if (estado == null) {
+    private double calcularProgreso(Solicitud solicitud, List<Tramo> tramos, LocalDateTime ahora) {
+        if ("ENTREGADA".equalsIgnoreCase(solicitud.getEstado())) {
+            return 100.0;
+        }
+        if (tramos.isEmpty()) {
             return 0.0;
         }
-        
-        switch (estado.toUpperCase()) {
-            case "BORRADOR":
-                return 10.0; // 10% - Solicitud creada
-            case "PROGRAMADA":
-                return 25.0; // 25% - Ruta asignada
-            case "EN_TRANSITO":
-                return 60.0; // 60% - En viaje
-            case "ENTREGADA":
-                return 100.0; // 100% - Completada
-            default:
-                return 0.0;
+        boolean porDistancia = tramos.stream().mapToDouble(Tramo::getDistanciaKm).sum() > 0;
+        double total = 0;
+        double recorrido = 0;
+        for (Tramo tramo : tramos) {
+            double peso = porDistancia ? tramo.getDistanciaKm() : 1.0;
+            total += peso;
+            if ("FINALIZADO".equals(tramo.getEstado())) {
+                recorrido += peso;
+            } else if ("INICIADO".equals(tramo.getEstado()) && tramo.getFechaRealInicio() != null
+                    && tramo.getTiempoEstimadoHoras() > 0) {
+                double horas = Duration.between(tramo.getFechaRealInicio(), ahora).toMinutes() / 60.0;
+                recorrido += peso * Math.min(0.95, Math.max(0.0, horas / tramo.getTiempoEstimadoHoras()));
+            }
         }
+        return Math.round(recorrido / total * 1000.0) / 10.0;
     }
     
     /**
-     * Calcula el tiempo estimado de llegada (ETA) al destino
+     * Calcula el tiempo estimado de llegada (ETA) al destino: lo que resta del tramo iniciado
+     * más el tiempo estimado de los tramos pendientes, a partir de ahora o del inicio
+     * estimado del tramo si es posterior.
      */
-    private String calcularETA(Solicitud solicitud) {
-        if (solicitud.getEstado() == null) {
-            return "No disponible";
+    private String calcularETA(Solicitud solicitud, List<Tramo> tramos, LocalDateTime ahora) {
+        if ("ENTREGADA".equalsIgnoreCase(solicitud.getEstado())) {
+            return "Ya entregado";
+        }
+        if (tramos.isEmpty()) {
+            return "Pendiente de programación";
+        }
+        if (tramos.stream().allMatch(t -> "FINALIZADO".equals(t.getEstado()))) {
+            return "Tramos completados, pendiente de cierre";
+        }
+        boolean enCurso = tramos.stream().anyMatch(t -> t.getFechaRealInicio() != null);
+        if (!enCurso && tramos.get(0).getFechaEstimadaInicio() == null) {
+            int horas = tramos.stream().mapToInt(Tramo::getTiempoEstimadoHoras).sum();
+            return horas > 0
+                    ? "Esperando inicio de transporte (aproximadamente " + horas + " horas de viaje)"
+                    : "Esperando inicio de transporte";
         }
         
-        switch (solicitud.getEstado().toUpperCase()) {
-            case "BORRADOR":
-                return "Pendiente de programación";
-            case "PROGRAMADA":
-                return "Esperando inicio de transporte";
-            case "EN_TRANSITO":
-                if (solicitud.getTiempoEstimado() > 0) {
-                    int horas = (int) solicitud.getTiempoEstimado();
-                    return "Aproximadamente " + horas + " horas";
+        LocalDateTime llegada = ahora;
+        for (Tramo tramo : tramos) {
+            if ("FINALIZADO".equals(tramo.getEstado())) {
+                continue;
+            }
+            Duration estimado = Duration.ofHours(tramo.getTiempoEstimadoHoras());
+            if (tramo.getFechaRealInicio() != null) {
+                LocalDateTime finEstimado = tramo.getFechaRealInicio().plus(estimado);
+                llegada = finEstimado.isAfter(llegada) ? finEstimado : llegada;
+            } else {
+                if (tramo.getFechaEstimadaInicio() != null && tramo.getFechaEstimadaInicio().isAfter(llegada)) {
+                    llegada = tramo.getFechaEstimadaInicio();
                 }
-                return "Calculando...";
-            case "ENTREGADA":
-                return "Ya entregado";
-            default:
-                return "No disponible";
+                llegada = llegada.plus(estimado);
+            }
         }
+        long horasRestantes = Math.round(Duration.between(ahora, llegada).toMinutes() / 60.0);
+        return llegada.truncatedTo(ChronoUnit.MINUTES) + " (aproximadamente " + horasRestantes + " horas)";
     }
     
     /**
@@ -337,7 +431,7 @@ public class SolicitudService {
         logger.info("Iniciando finalización de solicitud ID: {}", solicitudId);
         
         // 1. Buscar la solicitud
-        Optional<Solicitud> optionalSolicitud = solicitudRepository.findById(solicitudId);
+        Optional<Solicitud> optionalSolicitud = solicitudRepository.findConRutaById(solicitudId);
         if (optionalSolicitud.isEmpty()) {
             logger.warn("Solicitud ID: {} no encontrada para finalizar", solicitudId);
             return Optional.empty();
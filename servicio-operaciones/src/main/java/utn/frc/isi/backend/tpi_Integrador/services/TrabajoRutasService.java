@@ -0,0 +1,292 @@
+package utn.frc.isi.backend.tpi_Integrador.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import utn.frc.isi.backend.tpi_Integrador.clients.CuotaGoogleMaps;
+import utn.frc.isi.backend.tpi_Integrador.dtos.RutaTentativaDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.TrabajoRutasDTO;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cálculo asíncrono de rutas tentativas (RF#3).
+ * Cada pedido crea un trabajo que se resuelve en un pool acotado de hilos; el cliente consulta
+ * el estado (o espera con long-polling) sin bloquear un hilo del servidor durante el cálculo.
+ * Los trabajos terminados se conservan durante la ventana de retención, y un pedido repetido
+ * para la misma solicitud y modo reutiliza el trabajo existente.
+ * Al crear una solicitud se precalculan sus rutas en un pool aparte de baja prioridad
+ * (después del commit), para que la primera consulta RF#3 encuentre el resultado listo.
+ */
+@Service
+public class TrabajoRutasService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrabajoRutasService.class);
+
+    public static final String ESTADO_PENDIENTE = "PENDIENTE";
+    public static final String ESTADO_EN_CURSO = "EN_CURSO";
+    public static final String ESTADO_COMPLETADO = "COMPLETADO";
+    public static final String ESTADO_ERROR = "ERROR";
+
+    private final RutaService rutaService;
+    private final CuotaGoogleMaps cuotaGoogleMaps;
+    private final Duration retencion;
+    private final ThreadPoolExecutor ejecutor;
+    // Precálculo especulativo: pool separado para no competir con los pedidos de los operadores
+    private final ThreadPoolExecutor ejecutorPrecalculo;
+
+    private final ConcurrentHashMap<String, Trabajo> trabajos = new ConcurrentHashMap<>();
+    // Trabajo vigente por solicitud y modo, para no repetir cálculos idénticos
+    private final ConcurrentHashMap<String, String> vigentes = new ConcurrentHashMap<>();
+
+    public TrabajoRutasService(RutaService rutaService,
+                               CuotaGoogleMaps cuotaGoogleMaps,
+                               @Value("${rutas.trabajos.hilos:4}") int hilos,
+                               @Value("${rutas.trabajos.capacidad-cola:50}") int capacidadCola,
+                               @Value("${rutas.trabajos.retencion-minutos:10}") long retencionMinutos,
+                               @Value("${rutas.precalculo.hilos:1}") int hilosPrecalculo,
+                               @Value("${rutas.precalculo.capacidad-cola:100}") int capacidadColaPrecalculo,
+                               MeterRegistry meterRegistry) {
+        this.rutaService = rutaService;
+        this.cuotaGoogleMaps = cuotaGoogleMaps;
+        this.retencion = Duration.ofMinutes(retencionMinutos);
+        AtomicInteger numeroHilo = new AtomicInteger();
+        this.ejecutor = new ThreadPoolExecutor(hilos, hilos, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadCola),
+                r -> new Thread(r, "rutas-trabajo-" + numeroHilo.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.ejecutorPrecalculo = new ThreadPoolExecutor(hilosPrecalculo, hilosPrecalculo, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadColaPrecalculo),
+                r -> {
+                    Thread hilo = new Thread(r, "rutas-precalculo-" + numeroHilo.incrementAndGet());
+                    hilo.setPriority(Thread.MIN_PRIORITY);
+                    return hilo;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        meterRegistry.gauge("rutas.trabajos.cola", ejecutor, e -> e.getQueue().size());
+        meterRegistry.gauge("rutas.trabajos.activos", ejecutor, ThreadPoolExecutor::getActiveCount);
+        meterRegistry.gauge("rutas.trabajos.retenidos", trabajos, ConcurrentHashMap::size);
+        meterRegistry.gauge("rutas.precalculo.cola", ejecutorPrecalculo, e -> e.getQueue().size());
+    }
+
+    /**
+     * Programa el precálculo de las rutas tentativas de una solicitud recién creada.
+     * Si hay una transacción activa se encola recién después del commit, para que el hilo
+     * de cálculo vea la solicitud y su ruta; si la transacción se revierte no se hace nada.
+     */
+    public void precalcularDespuesDelCommit(Long solicitudId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    precalcular(solicitudId);
+                }
+            });
+        } else {
+            precalcular(solicitudId);
+        }
+    }
+
+    private void precalcular(Long solicitudId) {
+        String modo = RutaService.MODO_PRECISO;
+        String claveVigente = solicitudId + "|" + modo;
+        Trabajo trabajo = new Trabajo(UUID.randomUUID().toString(), solicitudId, modo, true);
+        if (vigentes.putIfAbsent(claveVigente, trabajo.id) != null) {
+            return; // Ya hay un cálculo vigente para esta solicitud
+        }
+        trabajos.put(trabajo.id, trabajo);
+        try {
+            ejecutorPrecalculo.execute(new DelegatingSecurityContextRunnable(() -> {
+                if (!trabajo.id.equals(vigentes.get(claveVigente))) {
+                    // Un pedido interactivo lo reemplazó mientras esperaba en la cola
+                    descartar(trabajo);
+                    return;
+                }
+                // Las llamadas a Google Maps del precálculo van detrás de las interactivas
+                cuotaGoogleMaps.enSegundoPlano(() -> {
+                    ejecutar(trabajo);
+                    return null;
+                });
+                if (ESTADO_COMPLETADO.equals(trabajo.estado) && !trabajo.rutas.isEmpty()) {
+                    try {
+                        rutaService.registrarEstimacion(solicitudId, trabajo.rutas.get(0));
+                    } catch (RuntimeException e) {
+                        logger.warn("No se pudo registrar la estimación de la solicitud ID: {}: {}", solicitudId, e.getMessage());
+                    }
+                }
+            }));
+            logger.debug("Precálculo de rutas encolado para solicitud ID: {}", solicitudId);
+        } catch (RejectedExecutionException e) {
+            // Cola de precálculo llena: se descarta, la consulta RF#3 calculará en el momento
+            trabajos.remove(trabajo.id);
+            vigentes.remove(solicitudId + "|" + modo, trabajo.id);
+            logger.debug("Cola de precálculo llena, se omite la solicitud ID: {}", solicitudId);
+        }
+    }
+
+    /**
+     * Rutas ya calculadas para la solicitud y modo, sin esperar: solo se reutiliza un trabajo
+     * COMPLETADO. Si está pendiente o en curso (p. ej. el precálculo de baja prioridad) la consulta
+     * sincrónica calcula en el momento, con prioridad interactiva, en lugar de bloquear su hilo.
+     * @return Optional vacío si no hay un resultado listo
+     */
+    public Optional<List<RutaTentativaDTO>> obtenerRutasCalculadas(Long solicitudId, String modo) {
+        purgarVencidos();
+        String trabajoId = vigentes.get(solicitudId + "|" + modo);
+        Trabajo trabajo = trabajoId != null ? trabajos.get(trabajoId) : null;
+        if (trabajo == null || !ESTADO_COMPLETADO.equals(trabajo.estado)) {
+            return Optional.empty();
+        }
+        return Optional.of(trabajo.rutas);
+    }
+
+    /**
+     * Crea (o reutiliza) un trabajo de cálculo de rutas tentativas
+     * @throws IllegalArgumentException si el modo no es válido
+     * @throws IllegalStateException si el pool está saturado y no se puede encolar
+     */
+    public TrabajoRutasDTO crearTrabajo(Long solicitudId, String modo) {
+        if (!RutaService.MODO_ESTIMADO.equals(modo) && !RutaService.MODO_PRECISO.equals(modo)) {
+            throw new IllegalArgumentException("Modo de cálculo inválido: " + modo + ". Valores permitidos: ESTIMADO, PRECISO");
+        }
+        purgarVencidos();
+
+        String claveVigente = solicitudId + "|" + modo;
+        String existenteId = vigentes.get(claveVigente);
+        Trabajo existente = existenteId != null ? trabajos.get(existenteId) : null;
+        // Un precálculo que todavía espera en la cola de baja prioridad se reemplaza por un trabajo
+        // interactivo (al llegar su turno, el precálculo se descarta)
+        boolean precalculoEnCola = existente != null && existente.precalculo && ESTADO_PENDIENTE.equals(existente.estado);
+        if (existente != null && !ESTADO_ERROR.equals(existente.estado) && !precalculoEnCola) {
+            logger.debug("Se reutiliza el trabajo {} para solicitud ID: {} (modo {})", existente.id, solicitudId, modo);
+            return existente.toDTO();
+        }
+
+        Trabajo trabajo = new Trabajo(UUID.randomUUID().toString(), solicitudId, modo, false);
+        trabajos.put(trabajo.id, trabajo);
+        vigentes.put(claveVigente, trabajo.id);
+        try {
+            // Propagar el contexto de seguridad (JWT) para las llamadas a servicio-flota
+            ejecutor.execute(new DelegatingSecurityContextRunnable(() -> ejecutar(trabajo)));
+        } catch (RejectedExecutionException e) {
+            trabajos.remove(trabajo.id);
+            vigentes.remove(claveVigente, trabajo.id);
+            logger.warn("Cola de cálculo de rutas llena, se rechaza el trabajo para solicitud ID: {}", solicitudId);
+            throw new IllegalStateException("Hay demasiados cálculos de rutas en curso, reintente en unos segundos");
+        }
+        logger.info("Trabajo {} creado para solicitud ID: {} (modo {})", trabajo.id, solicitudId, modo);
+        return trabajo.toDTO();
+    }
+
+    /**
+     * Consulta el estado de un trabajo sin esperar
+     */
+    public Optional<TrabajoRutasDTO> obtenerTrabajo(String trabajoId) {
+        purgarVencidos();
+        return Optional.ofNullable(trabajos.get(trabajoId)).map(Trabajo::toDTO);
+    }
+
+    /**
+     * Long-polling: se completa cuando el trabajo termina o vence la espera, lo que ocurra primero.
+     * No bloquea el hilo que llama.
+     * @return Optional vacío si el trabajo no existe (o ya venció su retención)
+     */
+    public Optional<CompletableFuture<TrabajoRutasDTO>> esperarTrabajo(String trabajoId, long esperaSegundos) {
+        purgarVencidos();
+        Trabajo trabajo = trabajos.get(trabajoId);
+        if (trabajo == null) {
+            return Optional.empty();
+        }
+        // Se espera sobre una copia para que el vencimiento no complete el trabajo compartido
+        return Optional.of(trabajo.terminado.copy()
+                .completeOnTimeout(null, esperaSegundos, TimeUnit.SECONDS)
+                .thenApply(ignorado -> trabajo.toDTO()));
+    }
+
+    private void ejecutar(Trabajo trabajo) {
+        trabajo.estado = ESTADO_EN_CURSO;
+        try {
+            trabajo.rutas = rutaService.calcularRutasTentativas(trabajo.solicitudId, trabajo.modo);
+            trabajo.estado = ESTADO_COMPLETADO;
+        } catch (RuntimeException e) {
+            logger.warn("Trabajo {} para solicitud ID: {} terminó con error: {}", trabajo.id, trabajo.solicitudId, e.getMessage());
+            trabajo.error = e.getMessage();
+            trabajo.estado = ESTADO_ERROR;
+        } finally {
+            trabajo.fechaFinalizacion = LocalDateTime.now();
+            trabajo.terminado.complete(null);
+        }
+    }
+
+    /**
+     * Quita un trabajo de precálculo reemplazado antes de ejecutarse
+     */
+    private void descartar(Trabajo trabajo) {
+        trabajos.remove(trabajo.id);
+        trabajo.fechaFinalizacion = LocalDateTime.now();
+        trabajo.terminado.complete(null);
+        logger.debug("Precálculo {} de la solicitud ID: {} reemplazado por un pedido interactivo", trabajo.id, trabajo.solicitudId);
+    }
+
+    /**
+     * Descarta los trabajos terminados cuya ventana de retención ya pasó
+     */
+    private void purgarVencidos() {
+        LocalDateTime limite = LocalDateTime.now().minus(retencion);
+        trabajos.values().removeIf(t -> {
+            boolean vencido = t.fechaFinalizacion != null && t.fechaFinalizacion.isBefore(limite);
+            if (vencido) {
+                vigentes.remove(t.solicitudId + "|" + t.modo, t.id);
+            }
+            return vencido;
+        });
+    }
+
+    @PreDestroy
+    void detener() {
+        ejecutor.shutdownNow();
+        ejecutorPrecalculo.shutdownNow();
+    }
+
+    private static final class Trabajo {
+        final String id;
+        final Long solicitudId;
+        final String modo;
+        final boolean precalculo; // Encolado en el pool de baja prioridad
+        final LocalDateTime fechaCreacion = LocalDateTime.now();
+        final CompletableFuture<Void> terminado = new CompletableFuture<>();
+        volatile String estado = ESTADO_PENDIENTE;
+        volatile LocalDateTime fechaFinalizacion;
+        volatile List<RutaTentativaDTO> rutas;
+        volatile String error;
+
+        Trabajo(String id, Long solicitudId, String modo, boolean precalculo) {
+            this.id = id;
+            this.solicitudId = solicitudId;
+            this.modo = modo;
+            this.precalculo = precalculo;
+        }
+
+        TrabajoRutasDTO toDTO() {
+            return new TrabajoRutasDTO(id, solicitudId, modo, estado, fechaCreacion, fechaFinalizacion, rutas, error);
+        }
+    }
+}
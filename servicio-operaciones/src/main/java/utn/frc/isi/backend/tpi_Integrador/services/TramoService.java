@@ -2,26 +2,31 @@ package utn.frc.isi.backend.tpi_Integrador.services;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
-import utn.frc.isi.backend.tpi_Integrador.clients.FlotaServiceClient;
+import org.springframework.transaction.support.TransactionTemplate;
 import utn.frc.isi.backend.tpi_Integrador.dtos.AsignacionCamionDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.PaginaDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.TramoDTO;
-import utn.frc.isi.backend.tpi_Integrador.dtos.flota.CamionDTO;
-import utn.frc.isi.backend.tpi_Integrador.dtos.flota.TarifaDTO;
 import utn.frc.isi.backend.tpi_Integrador.mappers.TramoMapper;
 import utn.frc.isi.backend.tpi_Integrador.models.CamionReference;
 import utn.frc.isi.backend.tpi_Integrador.models.Contenedor;
 import utn.frc.isi.backend.tpi_Integrador.models.Solicitud;
 import utn.frc.isi.backend.tpi_Integrador.models.Tramo;
+import utn.frc.isi.backend.tpi_Integrador.paginacion.ConsultaPagina;
+import utn.frc.isi.backend.tpi_Integrador.paginacion.PaginadorKeyset;
 import utn.frc.isi.backend.tpi_Integrador.repositories.CamionReferenceRepository;
 import utn.frc.isi.backend.tpi_Integrador.repositories.ContenedorRepository;
 import utn.frc.isi.backend.tpi_Integrador.repositories.SolicitudRepository;
 import utn.frc.isi.backend.tpi_Integrador.repositories.TramoRepository;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -34,33 +39,66 @@ public class TramoService {
     private final CamionReferenceRepository camionReferenceRepository;
     private final SolicitudRepository solicitudRepository;
     private final ContenedorRepository contenedorRepository;
-    private final FlotaServiceClient flotaServiceClient;
+    private final CostoTramoService costoTramoService;
+    private final OutboxDisponibilidadService outboxDisponibilidadService;
     private final TramoMapper tramoMapper;
+    private final PaginadorKeyset paginadorKeyset;
+    private final TransactionTemplate transactionTemplate;
+
+    // Campos por los que se puede ordenar el listado (no nulos)
+    private static final Map<String, Class<?>> CAMPOS_ORDEN = Map.of("id", Long.class, "orden", Integer.class);
 
     // Inyección de dependencias a través del constructor (práctica recomendada)
     public TramoService(TramoRepository tramoRepository, 
                         CamionReferenceRepository camionReferenceRepository, 
                         SolicitudRepository solicitudRepository, 
                         ContenedorRepository contenedorRepository,
-                        FlotaServiceClient flotaServiceClient,
-                        TramoMapper tramoMapper) {
+                        CostoTramoService costoTramoService,
+                        OutboxDisponibilidadService outboxDisponibilidadService,
+                        TramoMapper tramoMapper,
+                        PaginadorKeyset paginadorKeyset,
+                        PlatformTransactionManager transactionManager) {
         this.tramoRepository = tramoRepository;
         this.camionReferenceRepository = camionReferenceRepository;
         this.solicitudRepository = solicitudRepository;
         this.contenedorRepository = contenedorRepository;
-        this.flotaServiceClient = flotaServiceClient;
+        this.costoTramoService = costoTramoService;
+        this.outboxDisponibilidadService = outboxDisponibilidadService;
         this.tramoMapper = tramoMapper;
+        this.paginadorKeyset = paginadorKeyset;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
-    public List<TramoDTO> obtenerTodos() {
-        return tramoRepository.findAll()
-                .stream()
-                .map(tramoMapper::toDTO)
-                .collect(Collectors.toList());
+    /**
+     * Lista los tramos de a una página (paginación por keyset, ver PaginadorKeyset)
+     * @param estado si no es null, solo los tramos en ese estado
+     * @param rutaId si no es null, solo los tramos de esa ruta
+     * @param fechaDesde si no es null, solo los tramos con inicio estimado desde esa fecha
+     * @param fechaHasta si no es null, solo los tramos con inicio estimado hasta esa fecha inclusive
+     * @param pagina cursor, tamaño de página y orden
+     */
+    @Transactional(readOnly = true)
+    public PaginaDTO<TramoDTO> listar(String estado, Long rutaId, LocalDate fechaDesde, LocalDate fechaHasta,
+                                      ConsultaPagina pagina) {
+        logger.info("Listando tramos (estado: {}, ruta: {}, desde: {}, hasta: {})", estado, rutaId, fechaDesde, fechaHasta);
+        Specification<Tramo> filtro = (root, query, cb) -> cb.conjunction();
+        if (estado != null) {
+            filtro = filtro.and((root, query, cb) -> cb.equal(root.get("estado"), estado.toUpperCase()));
+        }
+        if (rutaId != null) {
+            filtro = filtro.and((root, query, cb) -> cb.equal(root.get("ruta").get("id"), rutaId));
+        }
+        if (fechaDesde != null) {
+            filtro = filtro.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("fechaEstimadaInicio"), fechaDesde.atStartOfDay()));
+        }
+        if (fechaHasta != null) {
+            filtro = filtro.and((root, query, cb) -> cb.lessThan(root.get("fechaEstimadaInicio"), fechaHasta.plusDays(1).atStartOfDay()));
+        }
+        return paginadorKeyset.paginar(tramoRepository, filtro, pagina, CAMPOS_ORDEN, tramoMapper::toDTO);
     }
 
     public Optional<TramoDTO> obtenerPorId(Long id) {
-        return tramoRepository.findById(id)
+        return tramoRepository.findDetalleById(id)
                 .map(tramoMapper::toDTO);
     }
 
@@ -111,15 +149,22 @@ public class TramoService {
      * Asigna un camión a un tramo (RF#6)
      * Valida disponibilidad y capacidad del camión antes de asignar.
      * Actualiza el estado del tramo a "ASIGNADO" y marca el camión como no disponible.
+     * Los precios del tramo se consultan a servicio-flota antes de abrir la transacción.
      * 
      * @param tramoId ID del tramo
      * @param dto DTO con el ID del camión a asignar
      * @return TramoDTO actualizado con el camión asignado
      */
-    @Transactional
     public TramoDTO asignarCamion(Long tramoId, AsignacionCamionDTO dto) {
+        // PASO 0: Resolver tarifa y coeficientes del camión sin retener una conexión de la base
+        Optional<CostoTramoService.PreciosTramo> precios = camionReferenceRepository.findCamionIdFlotaById(dto.getCamionId())
+                .flatMap(costoTramoService::resolverPrecios);
+        return transactionTemplate.execute(estado -> asignarCamion(tramoId, dto, precios));
+    }
+    
+    private TramoDTO asignarCamion(Long tramoId, AsignacionCamionDTO dto, Optional<CostoTramoService.PreciosTramo> precios) {
         // PASO 1: Buscar el tramo
-        Tramo tramo = tramoRepository.findById(tramoId)
+        Tramo tramo = tramoRepository.findDetalleById(tramoId)
                 .orElseThrow(() -> new RuntimeException("Tramo no encontrado con ID: " + tramoId));
         
         // Validar que el tramo no tenga ya un camión asignado
@@ -177,11 +222,15 @@ public class TramoService {
         tramo.setCamionReference(camionRef);
         tramo.setEstado("ASIGNADO");
         
-        // PASO 5: Marcar el camión como no disponible
-        // En el futuro, aquí llamaríamos a: PATCH /api/camiones/{id}/disponibilidad en servicio-flota
-        // Por ahora, actualizamos la referencia local
+        // Capturar tarifa y coeficientes del camión para costear el tramo al finalizar sin llamadas remotas;
+        // si servicio-flota no respondió, se capturan al finalizar
+        precios.ifPresent(p -> costoTramoService.capturarPrecios(tramo, p));
+        
+        // PASO 5: Marcar el camión como no disponible en la referencia local y registrar
+        // el cambio en el outbox para entregarlo a servicio-flota después del commit
         camionRef.setDisponible(false);
         camionReferenceRepository.save(camionRef);
+        outboxDisponibilidadService.registrar(camionRef.getCamionIdFlota(), false);
         
         // PASO 6: Guardar y retornar el tramo actualizado como DTO
         Tramo tramoGuardado = tramoRepository.save(tramo);
@@ -199,7 +248,7 @@ public class TramoService {
     @Transactional
     public TramoDTO iniciarTramo(Long tramoId) {
         // 1. Buscar el tramo
-        Tramo tramo = tramoRepository.findById(tramoId)
+        Tramo tramo = tramoRepository.findDetalleById(tramoId)
                 .orElseThrow(() -> new RuntimeException("Tramo no encontrado con ID: " + tramoId));
         
         // 2. Validaciones de negocio
@@ -234,18 +283,25 @@ public class TramoService {
     /**
      * Finaliza un tramo de transporte (RF#8)
      * El transportista marca el fin del viaje.
-     * Calcula el costo real del tramo usando datos de servicio-flota:
-     * - Tarifa actual (cargo gestión, precio combustible, costo por km)
+     * Calcula el costo real del tramo con los precios capturados al asignar el camión:
+     * - Tarifa (cargo gestión, precio combustible, estadía diaria)
      * - Datos del camión (consumo combustible, costo por km)
+     * Si el tramo no tiene precios capturados, se consultan a servicio-flota antes de abrir la transacción.
      * Actualiza el estado del tramo y, si es el último, del contenedor y solicitud.
      * 
      * @param tramoId ID del tramo a finalizar
      * @return TramoDTO actualizado con costo real calculado
      */
-    @Transactional
     public TramoDTO finalizarTramo(Long tramoId) {
+        // 0. Solo si al tramo le faltan precios, resolverlos sin retener una conexión de la base
+        Optional<CostoTramoService.PreciosTramo> precios = tramoRepository.findCamionIdFlotaSinPreciosCapturados(tramoId)
+                .flatMap(costoTramoService::resolverPrecios);
+        return transactionTemplate.execute(estado -> finalizarTramo(tramoId, precios));
+    }
+    
+    private TramoDTO finalizarTramo(Long tramoId, Optional<CostoTramoService.PreciosTramo> precios) {
         // 1. Buscar el tramo
-        Tramo tramo = tramoRepository.findById(tramoId)
+        Tramo tramo = tramoRepository.findDetalleById(tramoId)
                 .orElseThrow(() -> new RuntimeException("Tramo no encontrado con ID: " + tramoId));
         
         // 2. Validaciones de negocio
@@ -256,13 +312,6 @@ public class TramoService {
         // 3. CALCULAR COSTO REAL (RF#8)
         logger.info("Calculando costo real para tramo ID: {}", tramoId);
         
-        // 3.1 Obtener tarifa actual desde servicio-flota
-        TarifaDTO tarifa = flotaServiceClient.obtenerTarifaActiva()
-                .orElseThrow(() -> new RuntimeException("No se pudo obtener la tarifa activa desde servicio-flota"));
-        logger.debug("Tarifa obtenida: cargoGestion={}, precioCombustible={}", 
-                    tarifa.getCargoGestionPorTramo(), tarifa.getPrecioLitroCombustible());
-        
-        // 3.2 Obtener datos del camión desde servicio-flota
         if (tramo.getCamionReference() == null) {
             throw new RuntimeException("El tramo no tiene un camión asignado");
         }
@@ -272,38 +321,20 @@ public class TramoService {
             throw new RuntimeException("La referencia del camión no tiene el ID del servicio de flota");
         }
         
-        CamionDTO camion = flotaServiceClient.obtenerCamionPorId(camionIdFlota)
-                .orElseThrow(() -> new RuntimeException("No se pudo obtener los datos del camión ID: " + camionIdFlota));
-        logger.debug("Camión obtenido: consumo={} L/km, costoPorKm={}", 
-                    camion.getConsumoCombustiblePorKm(), camion.getCostoPorKm());
-        
-        // 3.3 Calcular componentes del costo según el enunciado:
-        // Cargo de Gestión por Tramo
-        double cargoGestion = tarifa.getCargoGestionPorTramo();
-        
-        // Costo por Kilometraje
-        double costoKilometraje = camion.getCostoPorKm() * tramo.getDistanciaKm();
-        
-        // Costo de Combustible
-        double costoCombustible = camion.getConsumoCombustiblePorKm() 
-                                  * tramo.getDistanciaKm() 
-                                  * tarifa.getPrecioLitroCombustible();
-        
-        // Costo de Estadía (si el tramo termina en depósito)
-        double costoEstadia = calcularCostoEstadia(tramo, tarifa);
-        
-        // Costo Total
-        double costoTotalTramo = cargoGestion + costoKilometraje + costoCombustible + costoEstadia;
-        
-        logger.info("Costo real calculado para tramo {}: cargoGestion={}, costoKm={}, combustible={}, estadia={}, TOTAL={}", 
-                   tramoId, cargoGestion, costoKilometraje, costoCombustible, costoEstadia, costoTotalTramo);
+        // 3.1 Los precios se capturaron al asignar el camión; si faltan, se usan los resueltos antes de la transacción
+        if (!tramo.tienePreciosCapturados()) {
+            CostoTramoService.PreciosTramo preciosResueltos = precios.orElseThrow(() -> new RuntimeException(
+                    "No se pudo obtener la tarifa activa y los datos del camión ID: " + camionIdFlota + " desde servicio-flota"));
+            costoTramoService.capturarPrecios(tramo, preciosResueltos);
+        }
         
-        // 3.4 Asignar costo real al tramo
-        tramo.setCostoReal(costoTotalTramo);
+        // 3.2 Calcular y asignar el costo real con los precios del tramo (sin llamadas remotas)
+        LocalDateTime fechaFin = LocalDateTime.now();
+        tramo.setCostoReal(costoTramoService.calcularCostoReal(tramo, fechaFin));
         
         // 4. Actualizar estado del Tramo
         tramo.setEstado("FINALIZADO");
-        tramo.setFechaRealFin(LocalDateTime.now());
+        tramo.setFechaRealFin(fechaFin);
         
         // 5. Si el tramo termina en depósito intermedio, actualizar estado del contenedor
         Solicitud solicitud = solicitudRepository.findByRuta(tramo.getRuta())
@@ -319,66 +350,20 @@ public class TramoService {
         // NOTA: La solicitud se finalizará explícitamente con el endpoint PATCH /solicitudes/{id}/finalizar
         // cuando TODOS los tramos estén finalizados. Esto permite al usuario revisar antes de cerrar.
         
-        // 8. Guardar el tramo actualizado
+        // 6. Guardar el tramo actualizado
         Tramo tramoGuardado = tramoRepository.save(tramo);
         
-        // 9. Liberar el camión en servicio-flota (marca como disponible)
-        try {
-            flotaServiceClient.actualizarDisponibilidadCamion(camionIdFlota, true);
-            logger.info("Camión ID {} marcado como disponible en servicio-flota", camionIdFlota);
-        } catch (Exception e) {
-            logger.warn("No se pudo actualizar disponibilidad del camión en servicio-flota: {}", e.getMessage());
-            // Fallback: actualizar la referencia local
-            CamionReference camionRef = tramo.getCamionReference();
-            camionRef.setDisponible(true);
-            camionReferenceRepository.save(camionRef);
-            logger.debug("Camión {} liberado localmente como fallback", camionRef.getDominio());
-        }
-        
-        // 10. Retornar el tramo actualizado como DTO
-        return tramoMapper.toDTO(tramoGuardado);
-    }
-    
-    /**
-     * Calcula el costo de estadía si el tramo finaliza en un depósito
-     * 
-     * @param tramo El tramo que está finalizando
-     * @param tarifa La tarifa activa con el costo de estadía diaria
-     * @return Costo de estadía calculado (0 si no termina en depósito)
-     */
-    private double calcularCostoEstadia(Tramo tramo, TarifaDTO tarifa) {
-        // Verificar si el tramo termina en un depósito
-        if (tramo.getDepositoDestino() == null) {
-            logger.debug("Tramo {} no termina en depósito, costo estadía = 0", tramo.getId());
-            return 0.0;
-        }
-        
-        // Calcular días de estadía
-        LocalDateTime fechaInicio = tramo.getFechaRealInicio();
-        LocalDateTime fechaFin = LocalDateTime.now(); // Momento de finalización
-        
-        if (fechaInicio == null) {
-            logger.warn("Tramo {} no tiene fecha de inicio, asumiendo 0 días de estadía", tramo.getId());
-            return 0.0;
-        }
-        
-        // Calcular diferencia en días (redondeado hacia arriba)
-        long horasEstadia = java.time.Duration.between(fechaInicio, fechaFin).toHours();
-        int diasEstadia = (int) Math.ceil(horasEstadia / 24.0);
-        
-        // Si la estadía es menor a 1 día, cobrar 1 día mínimo
-        if (diasEstadia < 1 && horasEstadia > 0) {
-            diasEstadia = 1;
-        }
-        
-        // Obtener costo de estadía diaria desde la tarifa
-        double costoEstadiaDiaria = tarifa.getCostoEstadiaDiaria();
-        double costoTotal = diasEstadia * costoEstadiaDiaria;
+        // 7. Liberar el camión: referencia local y outbox hacia servicio-flota (se entrega después del commit)
+        CamionReference camionRef = tramo.getCamionReference();
+        camionRef.setDisponible(true);
+        camionReferenceRepository.save(camionRef);
+        outboxDisponibilidadService.registrar(camionIdFlota, true);
         
-        logger.debug("Costo estadía para tramo {}: {} días × {} = {}", 
-                    tramo.getId(), diasEstadia, costoEstadiaDiaria, costoTotal);
+        // 8. Si está habilitado, reconciliar el costo con los precios vigentes después del commit
+        costoTramoService.reconciliarDespuesDelCommit(tramoGuardado.getId());
         
-        return costoTotal;
+        // 9. Retornar el tramo actualizado como DTO
+        return tramoMapper.toDTO(tramoGuardado);
     }
     
     // Aquí se podrían agregar más métodos de negocio en el futuro,
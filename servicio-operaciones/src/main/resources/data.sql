@@ -32,6 +32,15 @@ VALUES ('CONT-002', 'REFRIGERADO', 3500.0, 18.0, 'EN_DEPOSITO', 2);
 INSERT INTO contenedor (numero, tipo, peso, volumen, estado, cliente_id) 
 VALUES ('CONT-003', 'STANDARD', 7500.0, 40.0, 'EN_ORIGEN', 3);
 
+-- ============================================
+-- DEPÓSITOS (referencias a servicio-flota, mismos IDs)
+-- ============================================
+INSERT INTO deposito_reference (id, nombre, direccion, latitud, longitud) 
+VALUES (1, 'Depósito Central Córdoba', 'Av. Circunvalación 1500, Córdoba, Argentina', -31.4201, -64.1888);
+
+INSERT INTO deposito_reference (id, nombre, direccion, latitud, longitud) 
+VALUES (2, 'Depósito Rosario Norte', 'Ruta Nacional 9 Km 305, Rosario, Santa Fe, Argentina', -32.9442, -60.6505);
+
 -- ============================================
 -- RUTAS
 -- ============================================
@@ -47,13 +56,13 @@ VALUES ('Rosario, Santa Fe', 'Mendoza, Argentina', -32.9442, -60.6505, -32.8895,
 -- SOLICITUDES
 -- ============================================
 -- Solicitud 1: Cliente Juan Perez (BORRADOR - sin ruta asignada)
-INSERT INTO solicitud (contenedor_id, cliente_id, ruta_id, fecha_solicitud, estado, observaciones, costo_estimado, tiempo_estimado, costo_final, tiempo_real) 
-VALUES (1, 1, NULL, '2025-10-20', 'BORRADOR', 'Entrega urgente.', 0, 0, 0, 0);
+INSERT INTO solicitud (contenedor_id, cliente_id, ruta_id, fecha_solicitud, estado, observaciones, costo_estimado, tiempo_estimado, costo_final, tiempo_real, fecha_actualizacion) 
+VALUES (1, 1, NULL, '2025-10-20', 'BORRADOR', 'Entrega urgente.', 0, 0, 0, 0, CURRENT_TIMESTAMP);
 
 -- Solicitud 2: Empresa Logística SA (PENDIENTE - con ruta asignada)
-INSERT INTO solicitud (contenedor_id, cliente_id, ruta_id, fecha_solicitud, estado, observaciones, costo_estimado, tiempo_estimado, costo_final, tiempo_real) 
-VALUES (2, 2, 1, '2025-10-20', 'PENDIENTE', 'Transporte estándar a Buenos Aires', 0, 0, 0, 0);
+INSERT INTO solicitud (contenedor_id, cliente_id, ruta_id, fecha_solicitud, estado, observaciones, costo_estimado, tiempo_estimado, costo_final, tiempo_real, fecha_actualizacion) 
+VALUES (2, 2, 1, '2025-10-20', 'PENDIENTE', 'Transporte estándar a Buenos Aires', 0, 0, 0, 0, CURRENT_TIMESTAMP);
 
 -- Solicitud 3: Transportes del Sur (PENDIENTE - con ruta asignada)
-INSERT INTO solicitud (contenedor_id, cliente_id, ruta_id, fecha_solicitud, estado, observaciones, costo_estimado, tiempo_estimado, costo_final, tiempo_real) 
-VALUES (4, 3, 2, '2025-10-21', 'PENDIENTE', 'Carga pesada a Mendoza', 0, 0, 0, 0);
+INSERT INTO solicitud (contenedor_id, cliente_id, ruta_id, fecha_solicitud, estado, observaciones, costo_estimado, tiempo_estimado, costo_final, tiempo_real, fecha_actualizacion) 
+VALUES (4, 3, 2, '2025-10-21', 'PENDIENTE', 'Carga pesada a Mendoza', 0, 0, 0, 0, CURRENT_TIMESTAMP);
@@ -0,0 +1,159 @@
+package utn.frc.isi.backend.tpi_Integrador.clients;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import utn.frc.isi.backend.tpi_Integrador.dtos.flota.CamionDTO;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Agrupamiento de consultas concurrentes de camiones: una llamada batch por lote, un lote por
+ * token, cierre anticipado al llegar al máximo y ningún hilo esperando si la llamada falla.
+ */
+class CargadorCamionesTests {
+
+    private static final long VENTANA_LARGA_MS = 1_000;
+
+    private final FlotaServiceClient flotaServiceClient = mock(FlotaServiceClient.class);
+    private final ExecutorService hilos = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void detenerHilos() {
+        hilos.shutdownNow();
+    }
+
+    @Test
+    void pedidosConcurrentesSeResuelvenEnUnaSolaLlamada() throws Exception {
+        List<Collection<Long>> llamadas = new ArrayList<>();
+        when(flotaServiceClient.obtenerCamionesPorIds(anyCollection())).thenAnswer(invocacion -> {
+            Collection<Long> ids = invocacion.getArgument(0);
+            synchronized (llamadas) {
+                llamadas.add(List.copyOf(ids));
+            }
+            return camiones(ids);
+        });
+        CargadorCamiones cargador = cargador(VENTANA_LARGA_MS, 200);
+
+        List<Future<Optional<CamionDTO>>> resultados = pedirEnParalelo(cargador, LongStream.rangeClosed(1, 20).boxed().toList(), id -> "");
+
+        for (int i = 0; i < resultados.size(); i++) {
+            assertEquals(i + 1L, resultados.get(i).get(5, TimeUnit.SECONDS).orElseThrow().getId());
+        }
+        assertEquals(1, llamadas.size());
+        assertEquals(20, Set.copyOf(llamadas.get(0)).size());
+    }
+
+    @Test
+    void losLotesNoMezclanTokens() throws Exception {
+        Map<String, Set<Long>> idsPorToken = new ConcurrentHashMap<>();
+        when(flotaServiceClient.obtenerCamionesPorIds(anyCollection())).thenAnswer(invocacion -> {
+            Collection<Long> ids = invocacion.getArgument(0);
+            // La llamada sale con el token del hilo que abrió el lote
+            JwtAuthenticationToken autenticacion = (JwtAuthenticationToken) SecurityContextHolder.getContext().getAuthentication();
+            assertNull(idsPorToken.put(autenticacion.getToken().getTokenValue(), Set.copyOf(ids)));
+            return camiones(ids);
+        });
+        CargadorCamiones cargador = cargador(VENTANA_LARGA_MS, 200);
+
+        List<Future<Optional<CamionDTO>>> resultados = pedirEnParalelo(cargador, LongStream.rangeClosed(1, 10).boxed().toList(),
+                id -> id % 2 == 0 ? "token-par" : "token-impar");
+
+        for (Future<Optional<CamionDTO>> resultado : resultados) {
+            assertTrue(resultado.get(5, TimeUnit.SECONDS).isPresent());
+        }
+        assertEquals(Map.of("token-par", Set.of(2L, 4L, 6L, 8L, 10L), "token-impar", Set.of(1L, 3L, 5L, 7L, 9L)), idsPorToken);
+    }
+
+    @Test
+    void elLoteSeCierraAntesDeLaVentanaAlLlegarAlMaximo() throws Exception {
+        when(flotaServiceClient.obtenerCamionesPorIds(anyCollection()))
+                .thenAnswer(invocacion -> camiones(invocacion.getArgument(0)));
+        // Con esta ventana, solo el cierre por lote lleno puede resolver los pedidos a tiempo
+        CargadorCamiones cargador = cargador(60_000, 3);
+
+        long inicio = System.nanoTime();
+        List<Future<Optional<CamionDTO>>> resultados = pedirEnParalelo(cargador, List.of(1L, 2L, 3L), id -> "");
+
+        for (Future<Optional<CamionDTO>> resultado : resultados) {
+            assertTrue(resultado.get(5, TimeUnit.SECONDS).isPresent());
+        }
+        assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - inicio) < 5);
+        verify(flotaServiceClient, times(1)).obtenerCamionesPorIds(Set.of(1L, 2L, 3L));
+    }
+
+    @Test
+    void siLaLlamadaFallaTodosLosPedidosTerminanVacios() throws Exception {
+        when(flotaServiceClient.obtenerCamionesPorIds(anyCollection()))
+                .thenThrow(new IllegalStateException("falla inesperada"));
+        CargadorCamiones cargador = cargador(VENTANA_LARGA_MS, 200);
+
+        List<Future<Optional<CamionDTO>>> resultados = pedirEnParalelo(cargador, LongStream.rangeClosed(1, 10).boxed().toList(), id -> "");
+
+        for (Future<Optional<CamionDTO>> resultado : resultados) {
+            assertEquals(Optional.empty(), resultado.get(5, TimeUnit.SECONDS));
+        }
+        verify(flotaServiceClient, times(1)).obtenerCamionesPorIds(anyCollection());
+    }
+
+    private CargadorCamiones cargador(long ventanaMillis, int maximoPorLote) {
+        return new CargadorCamiones(flotaServiceClient, ventanaMillis, maximoPorLote, new SimpleMeterRegistry());
+    }
+
+    /**
+     * Lanza un pedido por camión, todos a la vez, cada uno autenticado con el token indicado
+     */
+    private List<Future<Optional<CamionDTO>>> pedirEnParalelo(CargadorCamiones cargador, List<Long> camionIds,
+                                                              LongFunction<String> tokenDe) {
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<Optional<CamionDTO>>> resultados = new ArrayList<>();
+        for (Long camionId : camionIds) {
+            resultados.add(hilos.submit(() -> {
+                String token = tokenDe.apply(camionId);
+                if (!token.isEmpty()) {
+                    Jwt jwt = Jwt.withTokenValue(token).header("alg", "none").subject("usuario").build();
+                    SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+                }
+                try {
+                    largada.await();
+                    return cargador.obtener(camionId);
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+            }));
+        }
+        largada.countDown();
+        return resultados;
+    }
+
+    private static Map<Long, CamionDTO> camiones(Collection<Long> ids) {
+        return ids.stream().collect(Collectors.toMap(id -> id,
+                id -> new CamionDTO(id, "AB" + (100 + id) + "CD", "Transportista " + id, "351-555-0001", 20000, 60, 0.3, true, 120)));
+    }
+}
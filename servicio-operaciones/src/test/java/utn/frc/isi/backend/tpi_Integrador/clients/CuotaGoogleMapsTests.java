@@ -0,0 +1,116 @@
+package utn.frc.isi.backend.tpi_Integrador.clients;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import utn.frc.isi.backend.tpi_Integrador.clients.CuotaGoogleMaps.Prioridad;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CuotaGoogleMapsTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private CuotaGoogleMaps cuota(double requestsPorSegundo, double rafaga, long elementosPorDia,
+                                  long esperaInteractivaMs, long esperaSegundoPlanoMs) {
+        return new CuotaGoogleMaps(requestsPorSegundo, rafaga, elementosPorDia, 0.2, "UTC",
+                esperaInteractivaMs, esperaSegundoPlanoMs, meterRegistry);
+    }
+
+    private double rechazos(String motivo) {
+        return meterRegistry.find("google-maps.cuota.rechazos").tag("motivo", motivo).counters().stream()
+                .mapToDouble(c -> c.count())
+                .sum();
+    }
+
+    @Test
+    void laRafagaSeAgotaYLosTokensSeRecarganConElTiempo() throws InterruptedException {
+        // 20 requests/s: un token cada 50 ms, hasta 2 acumulados
+        CuotaGoogleMaps cuota = cuota(20, 2, 0, 0, 0);
+
+        assertTrue(cuota.adquirir(1));
+        assertTrue(cuota.adquirir(1));
+        assertFalse(cuota.adquirir(1));
+        assertEquals(1, rechazos("tiempo-espera"));
+
+        Thread.sleep(250);
+        // La recarga no supera la capacidad de ráfaga
+        assertTrue(cuota.adquirir(1));
+        assertTrue(cuota.adquirir(1));
+        assertFalse(cuota.adquirir(1));
+    }
+
+    @Test
+    void sinTokensEsperaLaRecargaDentroDelTiempoMaximo() {
+        // 10 requests/s: el siguiente token llega a los ~100 ms, antes de la espera máxima
+        CuotaGoogleMaps cuota = cuota(10, 1, 0, 2000, 2000);
+        assertTrue(cuota.adquirir(1));
+
+        long inicio = System.nanoTime();
+        assertTrue(cuota.adquirir(1));
+        long esperaMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+        assertTrue(esperaMs >= 50 && esperaMs < 1500, "espera de " + esperaMs + " ms");
+    }
+
+    @Test
+    void laCuotaDiariaReservaUnaParteParaLasInteractivas() {
+        // Sin límite por segundo; 100 elementos por día con 20% reservado a las interactivas
+        CuotaGoogleMaps cuota = cuota(0, 1, 100, 0, 0);
+
+        assertTrue(cuota.enSegundoPlano(() -> cuota.adquirir(80)));
+        assertFalse(cuota.enSegundoPlano(() -> cuota.adquirir(1)));
+        assertTrue(cuota.adquirir(20));
+        assertFalse(cuota.adquirir(1));
+
+        assertEquals(100, cuota.getElementosHoy());
+        assertEquals(2, rechazos("cuota-diaria"));
+    }
+
+    @Test
+    void lasInteractivasTomanElSiguienteTokenAntesQueElSegundoPlano() throws Exception {
+        // 2 requests/s: un token cada 500 ms, margen para que ambas queden esperando
+        CuotaGoogleMaps cuota = cuota(2, 1, 0, 5000, 5000);
+        assertTrue(cuota.adquirir(1));
+
+        ConcurrentLinkedQueue<Prioridad> orden = new ConcurrentLinkedQueue<>();
+        ExecutorService hilos = Executors.newFixedThreadPool(2);
+        try {
+            CompletableFuture<Boolean> interactiva = CompletableFuture.supplyAsync(() -> {
+                boolean obtenido = cuota.adquirir(1);
+                orden.add(Prioridad.INTERACTIVA);
+                return obtenido;
+            }, hilos);
+            esperarHasta(() -> cuota.enEspera(Prioridad.INTERACTIVA) == 1);
+
+            CompletableFuture<Boolean> segundoPlano = CompletableFuture.supplyAsync(() -> cuota.enSegundoPlano(() -> {
+                boolean obtenido = cuota.adquirir(1);
+                orden.add(Prioridad.SEGUNDO_PLANO);
+                return obtenido;
+            }), hilos);
+            esperarHasta(() -> cuota.enEspera(Prioridad.SEGUNDO_PLANO) == 1);
+
+            assertTrue(interactiva.get(5, TimeUnit.SECONDS));
+            assertTrue(segundoPlano.get(5, TimeUnit.SECONDS));
+            assertEquals(List.of(Prioridad.INTERACTIVA, Prioridad.SEGUNDO_PLANO), List.copyOf(orden));
+        } finally {
+            hilos.shutdownNow();
+        }
+    }
+
+    private static void esperarHasta(BooleanSupplier condicion) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (!condicion.getAsBoolean()) {
+            assertTrue(System.nanoTime() < limite, "la condición no se cumplió a tiempo");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package utn.frc.isi.backend.tpi_Integrador.clients;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.client.RequestMatcher;
+import org.springframework.web.client.RestClient;
+import utn.frc.isi.backend.tpi_Integrador.dtos.flota.CambiosDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.flota.CamionDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.flota.CamionReplicaDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.flota.DisponibilidadLoteResultadoDTO;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * Con servicio-flota.protocolo-binario=true, las llamadas de alto volumen viajan en CBOR en ambos
+ * sentidos: el cuerpo enviado se decodifica como CBOR y la respuesta CBOR llega a los DTOs.
+ */
+class FlotaServiceClientCborTests {
+
+    private final ObjectMapper cbor = Jackson2ObjectMapperBuilder.cbor().build();
+
+    private MockRestServiceServer servidor;
+    private FlotaServiceClient cliente;
+
+    @BeforeEach
+    void crearCliente() {
+        RestClient.Builder builder = RestClient.builder().baseUrl("http://flota");
+        servidor = MockRestServiceServer.bindTo(builder).build();
+        RestClient restClient = builder.build();
+        cliente = new FlotaServiceClient(restClient, restClient, 300, 600, 1000, 86400, true, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void consultaPorLote() throws IOException {
+        CamionDTO camion = new CamionDTO(1L, "AB123CD", "Juan", "351-555-0001", 20000, 60, 0.3, true, 120);
+        servidor.expect(requestTo("http://flota/api/camiones/batch"))
+                .andExpect(method(HttpMethod.POST))
+                .andExpect(cuerpoCbor(new TypeReference<Map<String, List<Long>>>() {}, Map.of("ids", List.of(1L, 2L))))
+                .andRespond(withSuccess(cbor.writeValueAsBytes(Map.of(1L, camion)), MediaType.APPLICATION_CBOR));
+
+        Map<Long, CamionDTO> camiones = cliente.obtenerCamionesPorIds(List.of(1L, 2L));
+
+        servidor.verify();
+        assertEquals(Map.of(1L, camion), camiones);
+    }
+
+    @Test
+    void feedDeCambios() throws IOException {
+        CamionReplicaDTO camion = new CamionReplicaDTO(1L, "AB123CD", 20000, 60, 0.3, 120, true, 42);
+        CambiosDTO<CamionReplicaDTO> pagina = new CambiosDTO<>(0, 42, 42, false, List.of(camion), List.of(7L));
+        servidor.expect(requestTo("http://flota/api/camiones/changes?sinceVersion=0&limite=500"))
+                .andExpect(method(HttpMethod.GET))
+                .andExpect(header(HttpHeaders.ACCEPT, MediaType.APPLICATION_CBOR_VALUE))
+                .andRespond(withSuccess(cbor.writeValueAsBytes(pagina), MediaType.APPLICATION_CBOR));
+
+        CambiosDTO<CamionReplicaDTO> recibida = cliente.obtenerCambiosCamiones(0, 500);
+
+        servidor.verify();
+        assertEquals(pagina, recibida);
+    }
+
+    @Test
+    void disponibilidadPorLote() throws IOException {
+        Map<Long, Boolean> disponibilidad = new LinkedHashMap<>();
+        disponibilidad.put(1L, false);
+        disponibilidad.put(2L, true);
+        servidor.expect(requestTo("http://flota/api/camiones/disponibilidad"))
+                .andExpect(method(HttpMethod.PATCH))
+                .andExpect(cuerpoCbor(new TypeReference<List<Map<String, Object>>>() {}, List.of(
+                        Map.of("camionId", 1, "disponible", false),
+                        Map.of("camionId", 2, "disponible", true))))
+                .andRespond(withSuccess(cbor.writeValueAsBytes(new DisponibilidadLoteResultadoDTO(List.of(1L), List.of(2L))),
+                        MediaType.APPLICATION_CBOR));
+
+        DisponibilidadLoteResultadoDTO resultado = cliente.actualizarDisponibilidadCamiones(disponibilidad);
+
+        servidor.verify();
+        assertEquals(List.of(1L), resultado.getActualizados());
+        assertEquals(List.of(2L), resultado.getNoEncontrados());
+    }
+
+    /**
+     * El request se envía como CBOR (Content-Type y Accept) y su cuerpo decodificado es el esperado
+     */
+    private <T> RequestMatcher cuerpoCbor(TypeReference<T> tipo, T esperado) {
+        return request -> {
+            assertEquals(MediaType.APPLICATION_CBOR, request.getHeaders().getContentType());
+            assertTrue(request.getHeaders().getAccept().contains(MediaType.APPLICATION_CBOR));
+            byte[] cuerpo = ((MockClientHttpRequest) request).getBodyAsBytes();
+            assertEquals(esperado, cbor.readValue(cuerpo, tipo));
+        };
+    }
+}
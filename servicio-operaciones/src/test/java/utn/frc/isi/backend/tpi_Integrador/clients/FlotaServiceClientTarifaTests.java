@@ -0,0 +1,82 @@
+package utn.frc.isi.backend.tpi_Integrador.clients;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.client.ResponseCreator;
+import org.springframework.web.client.RestClient;
+import utn.frc.isi.backend.tpi_Integrador.clients.FlotaServiceClient.SnapshotTarifa;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * Foto local de la tarifa activa: un aviso de cambio que llega mientras el refresco está en vuelo
+ * no se pierde (la foto queda vencida y la próxima consulta revalida).
+ */
+class FlotaServiceClientTarifaTests {
+
+    private static final String TARIFA_JSON = """
+            {"id": 1, "costoKmBase": 100, "precioLitroCombustible": 1200,
+             "cargoGestionPorTramo": 5000, "costoEstadiaDiaria": 2500, "activa": true}""";
+
+    private MockRestServiceServer servidor;
+    private FlotaServiceClient cliente;
+
+    @BeforeEach
+    void crearCliente() {
+        RestClient.Builder builder = RestClient.builder().baseUrl("http://flota");
+        servidor = MockRestServiceServer.bindTo(builder).build();
+        RestClient restClient = builder.build();
+        cliente = new FlotaServiceClient(restClient, restClient, 300, 600, 1000, 86400, false, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void sinAvisosLaFotoQuedaVigente() {
+        servidor.expect(ExpectedCount.once(), requestTo("http://flota/api/tarifas/actual"))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(respuestaTarifa());
+
+        SnapshotTarifa snapshot = cliente.obtenerSnapshotTarifa().orElseThrow();
+        cliente.obtenerSnapshotTarifa();
+
+        servidor.verify();
+        assertTrue(snapshot.vigente(System.currentTimeMillis()));
+    }
+
+    @Test
+    void unAvisoDuranteElRefrescoObligaARevalidar() {
+        servidor.expect(requestTo("http://flota/api/tarifas/actual"))
+                .andRespond(request -> {
+                    // El aviso de cambio llega mientras la respuesta (previa al cambio) está en vuelo
+                    cliente.invalidarTarifa();
+                    return respuestaTarifa().createResponse(request);
+                });
+        servidor.expect(requestTo("http://flota/api/tarifas/actual"))
+                .andRespond(respuestaTarifa());
+
+        SnapshotTarifa primera = cliente.obtenerSnapshotTarifa().orElseThrow();
+        assertFalse(primera.vigente(System.currentTimeMillis()));
+
+        SnapshotTarifa segunda = cliente.obtenerSnapshotTarifa().orElseThrow();
+
+        servidor.verify();
+        assertTrue(segunda.vigente(System.currentTimeMillis()));
+        assertEquals(1L, segunda.tarifa().getId());
+    }
+
+    private static ResponseCreator respuestaTarifa() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag("\"1\"");
+        return withSuccess(TARIFA_JSON, MediaType.APPLICATION_JSON).headers(headers);
+    }
+}
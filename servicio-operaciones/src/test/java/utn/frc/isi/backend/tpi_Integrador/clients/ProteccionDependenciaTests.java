@@ -0,0 +1,78 @@
+package utn.frc.isi.backend.tpi_Integrador.clients;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ProteccionDependenciaTests {
+
+    private final MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET, URI.create("http://flota/api/camiones/1"));
+
+    private static CircuitBreaker circuito() {
+        return CircuitBreaker.of("flota", CircuitBreakerConfig.custom()
+                .slidingWindow(4, 4, CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .failureRateThreshold(50)
+                .waitDurationInOpenState(Duration.ofHours(1))
+                .recordResult(ProteccionDependencia::esFalla)
+                .build());
+    }
+
+    private static ClientHttpRequestExecution responde(HttpStatus estado, AtomicInteger llamadas) {
+        return (req, body) -> {
+            llamadas.incrementAndGet();
+            return new MockClientHttpResponse(new byte[0], estado);
+        };
+    }
+
+    @Test
+    void respuestas5xxAbrenElCircuitoYLuegoSeRechazaSinLlamar() throws IOException {
+        CircuitBreaker circuitBreaker = circuito();
+        ProteccionDependencia proteccion = new ProteccionDependencia(circuitBreaker, Bulkhead.ofDefaults("flota"));
+        AtomicInteger llamadas = new AtomicInteger();
+
+        proteccion.intercept(request, new byte[0], responde(HttpStatus.OK, llamadas));
+        proteccion.intercept(request, new byte[0], responde(HttpStatus.NOT_FOUND, llamadas));
+        proteccion.intercept(request, new byte[0], responde(HttpStatus.SERVICE_UNAVAILABLE, llamadas));
+        proteccion.intercept(request, new byte[0], responde(HttpStatus.BAD_GATEWAY, llamadas));
+
+        assertEquals(CircuitBreaker.State.OPEN, proteccion.getEstado());
+        assertThrows(DependenciaNoDisponibleException.class,
+                () -> proteccion.intercept(request, new byte[0], responde(HttpStatus.OK, llamadas)));
+        assertEquals(4, llamadas.get());
+    }
+
+    @Test
+    void bulkheadLlenoRechazaYDevuelveElPermisoDelCircuito() {
+        CircuitBreaker circuitBreaker = circuito();
+        Bulkhead bulkhead = Bulkhead.of("flota", BulkheadConfig.custom()
+                .maxConcurrentCalls(1)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        ProteccionDependencia proteccion = new ProteccionDependencia(circuitBreaker, bulkhead);
+        AtomicInteger llamadas = new AtomicInteger();
+
+        // Otra llamada ocupa el único lugar del bulkhead
+        bulkhead.acquirePermission();
+        assertThrows(DependenciaNoDisponibleException.class,
+                () -> proteccion.intercept(request, new byte[0], responde(HttpStatus.OK, llamadas)));
+
+        assertEquals(0, llamadas.get());
+        assertEquals(0, circuitBreaker.getMetrics().getNumberOfBufferedCalls());
+        assertEquals(CircuitBreaker.State.CLOSED, proteccion.getEstado());
+    }
+}
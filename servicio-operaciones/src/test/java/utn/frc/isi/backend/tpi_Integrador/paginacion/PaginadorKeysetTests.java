@@ -0,0 +1,125 @@
+package utn.frc.isi.backend.tpi_Integrador.paginacion;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.jpa.domain.Specification;
+import utn.frc.isi.backend.tpi_Integrador.dtos.PaginaDTO;
+import utn.frc.isi.backend.tpi_Integrador.models.Cliente;
+import utn.frc.isi.backend.tpi_Integrador.repositories.ClienteRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+class PaginadorKeysetTests {
+
+    private static final Map<String, Class<?>> CAMPOS_ORDEN = Map.of("id", Long.class, "nombre", String.class);
+    private static final Specification<Cliente> TODOS = (root, query, cb) -> cb.conjunction();
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    private final PaginadorKeyset paginador = new PaginadorKeyset(new ObjectMapper());
+
+    @BeforeEach
+    void agregarClientes() {
+        // Nombres repetidos para que el ID tenga que desempatar entre páginas
+        for (String nombre : List.of("Ana", "Bruno", "Ana", "Carla", "Bruno", "Ana", "Diego")) {
+            Cliente cliente = new Cliente();
+            cliente.setNombre(nombre);
+            clienteRepository.save(cliente);
+        }
+    }
+
+    private PaginaDTO<Cliente> pagina(String cursor, int limit, String sort) {
+        return paginador.paginar(clienteRepository, TODOS, new ConsultaPagina(cursor, limit, sort), CAMPOS_ORDEN, Function.identity());
+    }
+
+    /**
+     * Recorre todas las páginas siguiendo siguienteCursor
+     */
+    private List<Long> recorrer(int limit, String sort) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            PaginaDTO<Cliente> pagina = pagina(cursor, limit, sort);
+            assertTrue(pagina.getItems().size() <= limit);
+            pagina.getItems().forEach(c -> ids.add(c.getId()));
+            assertEquals(pagina.isHayMas(), pagina.getSiguienteCursor() != null);
+            cursor = pagina.getSiguienteCursor();
+        } while (cursor != null);
+        return ids;
+    }
+
+    @Test
+    void elCursorRecorreTodosLosElementosPorIdSinRepetirNiSaltear() {
+        List<Long> esperados = clienteRepository.findAll().stream()
+                .map(Cliente::getId)
+                .sorted()
+                .toList();
+
+        for (int limit = 1; limit <= esperados.size() + 1; limit++) {
+            assertEquals(esperados, recorrer(limit, null), "limit " + limit);
+        }
+    }
+
+    @Test
+    void elCursorRecorreUnOrdenConValoresRepetidosDesempatandoPorId() {
+        Comparator<Cliente> porNombre = Comparator.comparing(Cliente::getNombre).thenComparing(Cliente::getId);
+        List<Cliente> clientes = clienteRepository.findAll();
+
+        List<Long> ascendente = clientes.stream().sorted(porNombre).map(Cliente::getId).toList();
+        List<Long> descendente = clientes.stream().sorted(porNombre.reversed()).map(Cliente::getId).toList();
+
+        for (int limit = 1; limit <= 4; limit++) {
+            assertEquals(ascendente, recorrer(limit, "nombre"), "limit " + limit);
+            assertEquals(descendente, recorrer(limit, "nombre,DESC"), "limit " + limit);
+        }
+    }
+
+    @Test
+    void laUltimaPaginaNoTraeCursor() {
+        int total = (int) clienteRepository.count();
+
+        PaginaDTO<Cliente> unica = pagina(null, total, "id");
+
+        assertEquals(total, unica.getItems().size());
+        assertFalse(unica.isHayMas());
+        assertNull(unica.getSiguienteCursor());
+    }
+
+    @Test
+    void elCursorSeRechazaSiCambiaElOrden() {
+        String cursor = pagina(null, 2, "nombre").getSiguienteCursor();
+        assertNotNull(cursor);
+
+        // Mismo orden escrito de otra forma: se acepta
+        assertEquals(2, pagina(cursor, 2, "nombre,asc").getItems().size());
+
+        assertThrows(IllegalArgumentException.class, () -> pagina(cursor, 2, "nombre,desc"));
+        assertThrows(IllegalArgumentException.class, () -> pagina(cursor, 2, "id"));
+        assertThrows(IllegalArgumentException.class, () -> pagina(cursor, 2, null));
+    }
+
+    @Test
+    void parametrosNoValidosSeRechazan() {
+        assertThrows(IllegalArgumentException.class, () -> pagina("no-es-un-cursor", 2, "id"));
+        assertThrows(IllegalArgumentException.class, () -> pagina(null, 2, "email"));
+        assertThrows(IllegalArgumentException.class, () -> pagina(null, 2, "nombre,arriba"));
+        assertThrows(IllegalArgumentException.class, () -> pagina(null, 0, "id"));
+        assertThrows(IllegalArgumentException.class, () -> pagina(null, ConsultaPagina.LIMITE_MAXIMO + 1, "id"));
+    }
+}
@@ -0,0 +1,119 @@
+package utn.frc.isi.backend.tpi_Integrador.routing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import utn.frc.isi.backend.tpi_Integrador.routing.BuscadorRutas.Alternativa;
+import utn.frc.isi.backend.tpi_Integrador.routing.BuscadorRutas.ModeloCosto;
+import utn.frc.isi.backend.tpi_Integrador.routing.BuscadorRutas.Punto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compara la búsqueda best-first con una enumeración exhaustiva de todos los caminos
+ * sin ciclos (origen, permutación de hasta maxDepositos depósitos, destino)
+ */
+class BuscadorRutasTests {
+
+    private static final double TOLERANCIA = 1e-6;
+
+    private final EstimadorDistancia estimador = new EstimadorDistancia(1.25, "", 35, 75, 30);
+    private final ModeloCosto modelo = new ModeloCosto(5000, 355, 2500);
+
+    private BuscadorRutas buscador(int k, int maxDepositos, double factorCostoMaximo) {
+        return new BuscadorRutas(estimador, k, maxDepositos, factorCostoMaximo,
+                5000, 100, 850, 2500, 0.3, 1, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void sinLimiteDeCostoDevuelveLosKCaminosMasBaratos() {
+        Random random = new Random(42);
+        for (int caso = 0; caso < 200; caso++) {
+            int n = random.nextInt(7);
+            int k = 1 + random.nextInt(5);
+            int maxDepositos = random.nextInt(4);
+            comparar(random, n, k, maxDepositos, Double.MAX_VALUE);
+        }
+    }
+
+    @Test
+    void conLimiteDeCostoRelativoSoloDevuelveCaminosDentroDelLimite() {
+        Random random = new Random(7);
+        for (int caso = 0; caso < 200; caso++) {
+            int n = random.nextInt(7);
+            int k = 1 + random.nextInt(5);
+            int maxDepositos = random.nextInt(4);
+            comparar(random, n, k, maxDepositos, 1.1 + random.nextDouble());
+        }
+    }
+
+    private void comparar(Random random, int n, int k, int maxDepositos, double factorCostoMaximo) {
+        Punto origen = punto(random, null);
+        Punto destino = punto(random, null);
+        List<Punto> depositos = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            depositos.add(punto(random, (long) i + 1));
+        }
+
+        List<Double> esperados = fuerzaBruta(origen, destino, depositos, k, maxDepositos, factorCostoMaximo);
+        List<Alternativa> alternativas = buscador(k, maxDepositos, factorCostoMaximo).buscar(origen, destino, depositos, modelo);
+
+        String caso = "n=" + n + " k=" + k + " maxDepositos=" + maxDepositos + " factor=" + factorCostoMaximo;
+        assertEquals(esperados.size(), alternativas.size(), caso);
+        for (int i = 0; i < esperados.size(); i++) {
+            Alternativa alternativa = alternativas.get(i);
+            assertEquals(esperados.get(i), alternativa.costo(), TOLERANCIA, caso);
+            // El costo informado corresponde al camino devuelto
+            assertEquals(costo(alternativa.puntos()), alternativa.costo(), TOLERANCIA, caso);
+        }
+    }
+
+    private List<Double> fuerzaBruta(Punto origen, Punto destino, List<Punto> depositos,
+                                     int k, int maxDepositos, double factorCostoMaximo) {
+        List<Double> costos = new ArrayList<>();
+        List<Punto> camino = new ArrayList<>(List.of(origen));
+        enumerar(camino, destino, depositos, new boolean[depositos.size()], maxDepositos, costos);
+        costos.sort(Double::compare);
+        double limite = costos.get(0) * factorCostoMaximo;
+        return costos.stream().filter(c -> c <= limite).limit(k).toList();
+    }
+
+    private void enumerar(List<Punto> camino, Punto destino, List<Punto> depositos, boolean[] usados,
+                          int restantes, List<Double> costos) {
+        camino.add(destino);
+        costos.add(costo(camino));
+        camino.remove(camino.size() - 1);
+        if (restantes == 0) {
+            return;
+        }
+        for (int i = 0; i < depositos.size(); i++) {
+            if (!usados[i]) {
+                usados[i] = true;
+                camino.add(depositos.get(i));
+                enumerar(camino, destino, depositos, usados, restantes - 1, costos);
+                camino.remove(camino.size() - 1);
+                usados[i] = false;
+            }
+        }
+    }
+
+    private double costo(List<Punto> puntos) {
+        double total = 0;
+        for (int i = 1; i < puntos.size(); i++) {
+            Punto desde = puntos.get(i - 1);
+            Punto hasta = puntos.get(i);
+            double km = estimador.distanciaVialKm(desde.latitud(), desde.longitud(), hasta.latitud(), hasta.longitud());
+            total += modelo.costoTramo(km, i < puntos.size() - 1);
+        }
+        return total;
+    }
+
+    private static Punto punto(Random random, Long depositoId) {
+        // Puntos dentro de la región centro del país
+        return new Punto(depositoId, depositoId != null ? "Depósito " + depositoId : "Extremo",
+                -35 + random.nextDouble() * 5, -65 + random.nextDouble() * 6);
+    }
+}
@@ -0,0 +1,74 @@
+package utn.frc.isi.backend.tpi_Integrador.routing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import utn.frc.isi.backend.tpi_Integrador.routing.BuscadorRutas.ModeloCosto;
+import utn.frc.isi.backend.tpi_Integrador.routing.BuscadorRutas.Punto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Latencia de la búsqueda de rutas tentativas según la cantidad de depósitos del catálogo,
+ * con la configuración por defecto (3 alternativas, hasta 2 depósitos, factor de costo 1.5).
+ * Informa mediana y percentil 95 por tamaño; es solo una medición (la correctitud la verifica
+ * BuscadorRutasTests). No corre con mvn test; se corre con mvn test -Pbenchmark.
+ */
+@Tag("benchmark")
+class BuscadorRutasTiemposTests {
+
+    private static final Logger logger = LoggerFactory.getLogger(BuscadorRutasTiemposTests.class);
+
+    private static final int CALENTAMIENTO = 200;
+    private static final int MEDICIONES = 200;
+
+    private final EstimadorDistancia estimador = new EstimadorDistancia(1.25, "", 35, 75, 30);
+    private final ModeloCosto modelo = new ModeloCosto(5000, 355, 2500);
+    private final BuscadorRutas buscador = new BuscadorRutas(estimador, 3, 2, 1.5,
+            5000, 100, 850, 2500, 0.3, 1, new SimpleMeterRegistry());
+
+    @ParameterizedTest(name = "{0} depósitos")
+    @ValueSource(ints = {10, 200, 1000})
+    void latenciaSegunCantidadDeDepositos(int cantidadDepositos) {
+        Random random = new Random(cantidadDepositos);
+        List<Punto> depositos = new ArrayList<>();
+        for (int i = 0; i < cantidadDepositos; i++) {
+            depositos.add(punto(random, (long) i + 1));
+        }
+        Punto[][] consultas = new Punto[CALENTAMIENTO + MEDICIONES][];
+        for (int i = 0; i < consultas.length; i++) {
+            consultas[i] = new Punto[]{punto(random, null), punto(random, null)};
+        }
+
+        for (int i = 0; i < CALENTAMIENTO; i++) {
+            assertFalse(buscador.buscar(consultas[i][0], consultas[i][1], depositos, modelo).isEmpty());
+        }
+        long[] nanos = new long[MEDICIONES];
+        for (int i = 0; i < MEDICIONES; i++) {
+            Punto[] consulta = consultas[CALENTAMIENTO + i];
+            long inicio = System.nanoTime();
+            buscador.buscar(consulta[0], consulta[1], depositos, modelo);
+            nanos[i] = System.nanoTime() - inicio;
+        }
+        Arrays.sort(nanos);
+
+        double medianaMs = nanos[MEDICIONES / 2] / 1e6;
+        double p95Ms = nanos[(int) (MEDICIONES * 0.95)] / 1e6;
+        logger.info("Búsqueda de rutas con {} depósitos: mediana {} ms, p95 {} ms",
+                cantidadDepositos, String.format("%.3f", medianaMs), String.format("%.3f", p95Ms));
+    }
+
+    private static Punto punto(Random random, Long depositoId) {
+        // Puntos dentro de la región centro del país
+        return new Punto(depositoId, depositoId != null ? "Depósito " + depositoId : "Extremo",
+                -35 + random.nextDouble() * 5, -65 + random.nextDouble() * 6);
+    }
+}
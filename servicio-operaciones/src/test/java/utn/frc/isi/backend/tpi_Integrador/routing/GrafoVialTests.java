@@ -0,0 +1,121 @@
+package utn.frc.isi.backend.tpi_Integrador.routing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Compara las consultas sobre la jerarquía contraída con un Dijkstra simple sobre el grafo original
+ */
+class GrafoVialTests {
+
+    private static final double TOLERANCIA = 1e-6;
+    // Metros por segundo de las aristas generadas, para que la distancia del camino mínimo sea única
+    private static final double METROS_POR_SEGUNDO = 20;
+
+    @Test
+    void caminoDeAristasDePesoCeroGeneraAtajos() {
+        GrafoVial.Constructor constructor = new GrafoVial.Constructor();
+        for (int i = 0; i < 4; i++) {
+            constructor.agregarNodo(-31.4, -64.2 + i * 0.01);
+        }
+        constructor.agregarArista(0, 1, 0, 0);
+        constructor.agregarArista(1, 2, 0, 0);
+        constructor.agregarArista(2, 3, 0, 0);
+        GrafoVial grafo = constructor.construir();
+
+        for (int origen = 0; origen < 4; origen++) {
+            for (int destino = 0; destino < 4; destino++) {
+                GrafoVial.Camino camino = grafo.consultar(origen, destino);
+                if (origen <= destino) {
+                    assertNotNull(camino, origen + " -> " + destino);
+                    assertEquals(0, camino.segundos(), TOLERANCIA);
+                } else {
+                    assertNull(camino, origen + " -> " + destino);
+                }
+            }
+        }
+    }
+
+    @Test
+    void coincideConDijkstraEnGrafosAleatorios() {
+        Random random = new Random(4);
+        for (int caso = 0; caso < 150; caso++) {
+            int n = 2 + random.nextInt(40);
+            int m = random.nextInt(4 * n);
+            GrafoVial.Constructor constructor = new GrafoVial.Constructor();
+            double[][] pesos = new double[n][n];
+            for (double[] fila : pesos) {
+                Arrays.fill(fila, Double.POSITIVE_INFINITY);
+            }
+            for (int i = 0; i < n; i++) {
+                constructor.agregarNodo(-31 - random.nextDouble(), -64 - random.nextDouble());
+            }
+            for (int e = 0; e < m; e++) {
+                int desde = random.nextInt(n);
+                int hasta = random.nextInt(n);
+                // Un tercio de las aristas con peso cero y pocos valores distintos para forzar empates
+                double segundos = random.nextInt(3) == 0 ? 0 : 1 + random.nextInt(10);
+                constructor.agregarArista(desde, hasta, segundos * METROS_POR_SEGUNDO, segundos);
+                boolean dobleSentido = random.nextBoolean();
+                if (dobleSentido) {
+                    constructor.agregarArista(hasta, desde, segundos * METROS_POR_SEGUNDO, segundos);
+                }
+                if (desde != hasta) {
+                    pesos[desde][hasta] = Math.min(pesos[desde][hasta], segundos);
+                    if (dobleSentido) {
+                        pesos[hasta][desde] = Math.min(pesos[hasta][desde], segundos);
+                    }
+                }
+            }
+            GrafoVial grafo = constructor.construir();
+
+            for (int origen = 0; origen < n; origen++) {
+                double[] esperados = dijkstra(pesos, origen);
+                for (int destino = 0; destino < n; destino++) {
+                    GrafoVial.Camino camino = grafo.consultar(origen, destino);
+                    String descripcion = "caso " + caso + ": " + origen + " -> " + destino;
+                    if (esperados[destino] == Double.POSITIVE_INFINITY) {
+                        assertNull(camino, descripcion);
+                    } else {
+                        assertNotNull(camino, descripcion);
+                        assertEquals(esperados[destino], camino.segundos(), TOLERANCIA, descripcion);
+                        assertEquals(esperados[destino] * METROS_POR_SEGUNDO, camino.metros(), TOLERANCIA, descripcion);
+                    }
+                }
+            }
+        }
+    }
+
+    private static double[] dijkstra(double[][] pesos, int origen) {
+        int n = pesos.length;
+        double[] distancia = new double[n];
+        Arrays.fill(distancia, Double.POSITIVE_INFINITY);
+        distancia[origen] = 0;
+        PriorityQueue<double[]> cola = new PriorityQueue<>((a, b) -> Double.compare(a[1], b[1]));
+        cola.add(new double[]{origen, 0});
+        while (!cola.isEmpty()) {
+            double[] actual = cola.poll();
+            int nodo = (int) actual[0];
+            if (actual[1] > distancia[nodo]) {
+                continue;
+            }
+            for (int w = 0; w < n; w++) {
+                double nuevo = actual[1] + pesos[nodo][w];
+                if (nuevo < distancia[w]) {
+                    distancia[w] = nuevo;
+                    cola.add(new double[]{w, nuevo});
+                }
+            }
+        }
+        return distancia;
+    }
+}
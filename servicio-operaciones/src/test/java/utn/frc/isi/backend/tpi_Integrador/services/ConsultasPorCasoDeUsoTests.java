@@ -0,0 +1,139 @@
+package utn.frc.isi.backend.tpi_Integrador.services;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import utn.frc.isi.backend.tpi_Integrador.models.CamionReference;
+import utn.frc.isi.backend.tpi_Integrador.models.DepositoReference;
+import utn.frc.isi.backend.tpi_Integrador.models.Ruta;
+import utn.frc.isi.backend.tpi_Integrador.models.Tramo;
+import utn.frc.isi.backend.tpi_Integrador.paginacion.ConsultaPagina;
+import utn.frc.isi.backend.tpi_Integrador.repositories.CamionReferenceRepository;
+import utn.frc.isi.backend.tpi_Integrador.repositories.DepositoReferenceRepository;
+import utn.frc.isi.backend.tpi_Integrador.repositories.RutaRepository;
+import utn.frc.isi.backend.tpi_Integrador.repositories.TramoRepository;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Cantidad de sentencias SQL por caso de uso (estadísticas de Hibernate).
+ * Cada ruta de los datos iniciales recibe 3 tramos con camión y depósitos, así un N+1
+ * en cualquiera de las asociaciones aparece como sentencias de más.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:consultas-por-caso-de-uso",
+        "servicio-flota.replicacion.habilitada=false",
+        "depositos.matriz.archivo=",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ConsultasPorCasoDeUsoTests {
+
+    private static final ConsultaPagina PRIMERA_PAGINA = new ConsultaPagina(null, 50, "id");
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private RutaRepository rutaRepository;
+    @Autowired
+    private TramoRepository tramoRepository;
+    @Autowired
+    private CamionReferenceRepository camionReferenceRepository;
+    @Autowired
+    private DepositoReferenceRepository depositoReferenceRepository;
+    @Autowired
+    private SolicitudService solicitudService;
+    @Autowired
+    private TramoService tramoService;
+    @Autowired
+    private ContenedorService contenedorService;
+
+    private Long camionId;
+    private Long tramoId;
+
+    @BeforeAll
+    void cargarTramos() {
+        CamionReference camion = new CamionReference();
+        camion.setDominio("AA123BB");
+        camion.setCamionIdFlota(99L);
+        camionId = camionReferenceRepository.save(camion).getId();
+
+        List<DepositoReference> depositos = depositoReferenceRepository.findAll();
+        for (Ruta ruta : rutaRepository.findAll()) {
+            for (int i = 0; i < 3; i++) {
+                Tramo tramo = new Tramo();
+                tramo.setRuta(ruta);
+                tramo.setOrden(i + 1);
+                tramo.setEstado("ASIGNADO");
+                tramo.setTipo("DEPOSITO-DEPOSITO");
+                tramo.setCamionReference(camion);
+                tramo.setDepositoOrigen(depositos.get(i % depositos.size()));
+                tramo.setDepositoDestino(depositos.get((i + 1) % depositos.size()));
+                tramo.setLatitudInicio(-31.4);
+                tramo.setLongitudInicio(-64.2);
+                tramo.setLatitudFin(-32.9);
+                tramo.setLongitudFin(-60.6);
+                tramoId = tramoRepository.save(tramo).getId();
+            }
+        }
+    }
+
+    @Test
+    void solicitudPorIdConRutaYTramos() {
+        assertSentencias(2, () -> solicitudService.obtenerPorId(2L).orElse(null));
+    }
+
+    @Test
+    void estadoDeSolicitudEnUnaConsulta() {
+        assertSentencias(1, () -> solicitudService.consultarEstadoSolicitud(2L).orElse(null));
+    }
+
+    @Test
+    void listadoDeSolicitudes() {
+        assertSentencias(4, () -> solicitudService.listar(null, null, null, null, PRIMERA_PAGINA));
+    }
+
+    @Test
+    void tramoPorId() {
+        assertSentencias(1, () -> tramoService.obtenerPorId(tramoId).orElse(null));
+    }
+
+    @Test
+    void tramosAsignadosATransportista() {
+        assertSentencias(1, () -> tramoService.obtenerTramosAsignadosTransportista(camionId));
+    }
+
+    @Test
+    void listadoDeTramos() {
+        assertSentencias(3, () -> tramoService.listar(null, null, null, null, PRIMERA_PAGINA));
+    }
+
+    @Test
+    void contenedorPorId() {
+        assertSentencias(1, () -> contenedorService.obtenerPorId(1L).orElse(null));
+    }
+
+    @Test
+    void listadoDeContenedores() {
+        assertSentencias(2, () -> contenedorService.listar(null, null, PRIMERA_PAGINA));
+    }
+
+    private void assertSentencias(long esperadas, Supplier<Object> casoDeUso) {
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+        Object resultado = casoDeUso.get();
+        assertNotNull(resultado);
+        assertEquals(esperadas, estadisticas.getPrepareStatementCount(), "Sentencias SQL ejecutadas");
+    }
+}
@@ -0,0 +1,167 @@
+package utn.frc.isi.backend.tpi_Integrador.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import utn.frc.isi.backend.tpi_Integrador.clients.FlotaServiceClient;
+import utn.frc.isi.backend.tpi_Integrador.dtos.flota.DisponibilidadLoteResultadoDTO;
+import utn.frc.isi.backend.tpi_Integrador.models.DisponibilidadCamionPendiente;
+import utn.frc.isi.backend.tpi_Integrador.repositories.DisponibilidadCamionPendienteRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Outbox de disponibilidad contra la base H2: secuencia por camión, entrega, reintentos con backoff.
+ * El despacho automático está deshabilitado y cada test llama a despachar() explícitamente.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox-disponibilidad",
+        "servicio-flota.replicacion.habilitada=false",
+        "servicio-flota.outbox.despacho-automatico=false",
+        "servicio-flota.outbox.backoff-inicial-ms=1000",
+        "servicio-flota.outbox.backoff-maximo-ms=3000",
+        "depositos.matriz.archivo=",
+        "spring.jpa.show-sql=false"
+})
+class OutboxDisponibilidadServiceTests {
+
+    @Autowired
+    private OutboxDisponibilidadService outbox;
+    @Autowired
+    private DisponibilidadCamionPendienteRepository pendienteRepository;
+    @MockitoBean
+    private FlotaServiceClient flotaServiceClient;
+
+    @BeforeEach
+    void limpiar() {
+        pendienteRepository.deleteAll();
+        reset(flotaServiceClient);
+    }
+
+    @Test
+    void ganaElUltimoCambioDeCadaCamion() {
+        when(flotaServiceClient.actualizarDisponibilidadCamiones(anyMap()))
+                .thenReturn(new DisponibilidadLoteResultadoDTO(List.of(10L, 11L), List.of()));
+
+        outbox.registrar(10L, false);
+        outbox.registrar(11L, false);
+        outbox.registrar(10L, true);
+        outbox.registrar(10L, false);
+
+        assertEquals(3, fila(10L).getSecuencia());
+        outbox.despachar();
+
+        verify(flotaServiceClient, times(1)).actualizarDisponibilidadCamiones(Map.of(10L, false, 11L, false));
+        // La fila queda, sin cambio pendiente
+        assertNull(fila(10L).getProximoIntento());
+        assertNull(fila(11L).getProximoIntento());
+        assertEquals(0, pendienteRepository.countByProximoIntentoIsNotNull());
+
+        // Sin cambios pendientes no se vuelve a llamar a servicio-flota
+        outbox.despachar();
+        verify(flotaServiceClient, times(1)).actualizarDisponibilidadCamiones(anyMap());
+    }
+
+    @Test
+    void unCambioRegistradoDuranteLaEntregaNoSePierde() {
+        outbox.registrar(20L, false);
+        when(flotaServiceClient.actualizarDisponibilidadCamiones(anyMap())).thenAnswer(invocacion -> {
+            // Otro tramo cambia el camión mientras el lote anterior está en vuelo
+            outbox.registrar(20L, true);
+            return new DisponibilidadLoteResultadoDTO(List.of(20L), List.of());
+        }).thenReturn(new DisponibilidadLoteResultadoDTO(List.of(20L), List.of()));
+
+        outbox.despachar();
+
+        // La secuencia entregada (1) ya no coincide: el cambio nuevo (2) sigue pendiente
+        DisponibilidadCamionPendiente pendiente = fila(20L);
+        assertEquals(2, pendiente.getSecuencia());
+        assertTrue(pendiente.isDisponible());
+        assertNotNull(pendiente.getProximoIntento());
+
+        outbox.despachar();
+        verify(flotaServiceClient).actualizarDisponibilidadCamiones(Map.of(20L, false));
+        verify(flotaServiceClient).actualizarDisponibilidadCamiones(Map.of(20L, true));
+        assertNull(fila(20L).getProximoIntento());
+    }
+
+    @Test
+    void losReintentosEsperanCadaVezMasHastaElMaximo() {
+        when(flotaServiceClient.actualizarDisponibilidadCamiones(anyMap()))
+                .thenThrow(new RuntimeException("servicio-flota no disponible"));
+        outbox.registrar(30L, false);
+
+        long[] esperadosMs = {1000, 2000, 3000, 3000};
+        for (int intento = 0; intento < esperadosMs.length; intento++) {
+            LocalDateTime antes = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+            outbox.despachar();
+            LocalDateTime despues = LocalDateTime.now();
+
+            DisponibilidadCamionPendiente pendiente = fila(30L);
+            assertEquals(intento + 1, pendiente.getIntentos());
+            assertEquals("servicio-flota no disponible", pendiente.getUltimoError());
+            Duration espera = Duration.ofMillis(esperadosMs[intento]);
+            assertFalse(pendiente.getProximoIntento().isBefore(antes.plus(espera)), "intento " + (intento + 1));
+            assertFalse(pendiente.getProximoIntento().isAfter(despues.plus(espera)), "intento " + (intento + 1));
+
+            // Mientras no vence el backoff no se reintenta
+            outbox.despachar();
+            verify(flotaServiceClient, times(intento + 1)).actualizarDisponibilidadCamiones(anyMap());
+
+            vencerBackoff(pendiente);
+        }
+    }
+
+    @Test
+    void unCambioNuevoReiniciaLosReintentos() {
+        when(flotaServiceClient.actualizarDisponibilidadCamiones(anyMap()))
+                .thenThrow(new RuntimeException("servicio-flota no disponible"));
+        outbox.registrar(40L, false);
+        outbox.despachar();
+        assertEquals(1, fila(40L).getIntentos());
+
+        outbox.registrar(40L, true);
+
+        DisponibilidadCamionPendiente pendiente = fila(40L);
+        assertEquals(0, pendiente.getIntentos());
+        assertNull(pendiente.getUltimoError());
+        assertFalse(pendiente.getProximoIntento().isAfter(LocalDateTime.now()));
+        verify(flotaServiceClient, times(1)).actualizarDisponibilidadCamiones(anyMap());
+    }
+
+    @Test
+    void sinIdDeFlotaNoSeRegistraNada() {
+        outbox.registrar(null, true);
+
+        assertEquals(0, pendienteRepository.count());
+        outbox.despachar();
+        verify(flotaServiceClient, never()).actualizarDisponibilidadCamiones(anyMap());
+    }
+
+    private DisponibilidadCamionPendiente fila(Long camionIdFlota) {
+        return pendienteRepository.findByCamionIdFlota(camionIdFlota).orElseThrow();
+    }
+
+    private void vencerBackoff(DisponibilidadCamionPendiente pendiente) {
+        pendiente.setProximoIntento(LocalDateTime.now().minusSeconds(1));
+        pendienteRepository.save(pendiente);
+    }
+}
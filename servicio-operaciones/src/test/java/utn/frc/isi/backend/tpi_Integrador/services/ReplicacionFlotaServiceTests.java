@@ -0,0 +1,190 @@
+package utn.frc.isi.backend.tpi_Integrador.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import utn.frc.isi.backend.tpi_Integrador.clients.FlotaServiceClient;
+import utn.frc.isi.backend.tpi_Integrador.dtos.flota.CambiosDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.flota.CamionReplicaDTO;
+import utn.frc.isi.backend.tpi_Integrador.models.CamionReference;
+import utn.frc.isi.backend.tpi_Integrador.models.DepositoReference;
+import utn.frc.isi.backend.tpi_Integrador.models.EstadoReplicacion;
+import utn.frc.isi.backend.tpi_Integrador.models.Ruta;
+import utn.frc.isi.backend.tpi_Integrador.models.Tramo;
+import utn.frc.isi.backend.tpi_Integrador.repositories.CamionReferenceRepository;
+import utn.frc.isi.backend.tpi_Integrador.repositories.DepositoReferenceRepository;
+import utn.frc.isi.backend.tpi_Integrador.repositories.DisponibilidadCamionPendienteRepository;
+import utn.frc.isi.backend.tpi_Integrador.repositories.EstadoReplicacionRepository;
+import utn.frc.isi.backend.tpi_Integrador.repositories.RutaRepository;
+import utn.frc.isi.backend.tpi_Integrador.repositories.TramoRepository;
+import utn.frc.isi.backend.tpi_Integrador.routing.MatrizDepositos;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Aplicación de los feeds de cambios de servicio-flota sobre las referencias locales, contra la base H2.
+ * La réplica periódica está deshabilitada y cada test llama a sincronizar() explícitamente.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:replicacion-flota",
+        "servicio-flota.replicacion.habilitada=false",
+        "servicio-flota.outbox.despacho-automatico=false",
+        "depositos.matriz.archivo=",
+        "spring.jpa.show-sql=false"
+})
+class ReplicacionFlotaServiceTests {
+
+    @Autowired
+    private ReplicacionFlotaService replicacion;
+    @Autowired
+    private OutboxDisponibilidadService outbox;
+    @Autowired
+    private CamionReferenceRepository camionReferenceRepository;
+    @Autowired
+    private DepositoReferenceRepository depositoReferenceRepository;
+    @Autowired
+    private DisponibilidadCamionPendienteRepository pendienteRepository;
+    @Autowired
+    private RutaRepository rutaRepository;
+    @Autowired
+    private TramoRepository tramoRepository;
+    @MockitoSpyBean
+    private EstadoReplicacionRepository estadoRepository;
+    @MockitoBean
+    private FlotaServiceClient flotaServiceClient;
+    @MockitoBean
+    private MatrizDepositos matrizDepositos;
+
+    @BeforeEach
+    void limpiar() {
+        tramoRepository.deleteAll();
+        pendienteRepository.deleteAll();
+        estadoRepository.deleteAll();
+        reset(flotaServiceClient, matrizDepositos, estadoRepository);
+        when(flotaServiceClient.obtenerCambiosCamiones(anyLong(), anyInt())).thenReturn(pagina(0, false, List.of(), List.of()));
+        when(flotaServiceClient.obtenerCambiosDepositos(anyLong(), anyInt())).thenReturn(pagina(0, false, List.of(), List.of()));
+    }
+
+    @Test
+    void laDisponibilidadConUnCambioPendienteEnElOutboxNoSePisa() {
+        camionLocal(100L, false);
+        camionLocal(101L, false);
+        // El tramo que tomó el camión 100 todavía no entregó el cambio a servicio-flota
+        outbox.registrar(100L, false);
+        when(flotaServiceClient.obtenerCambiosCamiones(0L, 500)).thenReturn(pagina(10, false,
+                List.of(camion(100L, "AA100AA", true), camion(101L, "AA101AA", true)), List.of()));
+
+        replicacion.sincronizar();
+
+        CamionReference conPendiente = camionLocal(100L);
+        assertFalse(conPendiente.isDisponible());
+        // El resto de los datos sí se replica
+        assertEquals("AA100AA", conPendiente.getDominio());
+        assertTrue(camionLocal(101L).isDisponible());
+    }
+
+    @Test
+    void unaBajaConservaLasReferenciasQueUsanLosTramos() {
+        CamionReference usado = camionLocal(200L, true);
+        camionLocal(201L, true);
+        DepositoReference depositoUsado = depositoLocal(900L);
+        depositoLocal(901L);
+        Ruta ruta = new Ruta();
+        ruta.setOrigen("Origen");
+        ruta.setDestino("Destino");
+        Tramo tramo = new Tramo();
+        tramo.setRuta(rutaRepository.save(ruta));
+        tramo.setOrden(1);
+        tramo.setEstado("ASIGNADO");
+        tramo.setCamionReference(usado);
+        tramo.setDepositoDestino(depositoUsado);
+        tramoRepository.save(tramo);
+        when(flotaServiceClient.obtenerCambiosCamiones(0L, 500)).thenReturn(pagina(10, false, List.of(), List.of(200L, 201L)));
+        when(flotaServiceClient.obtenerCambiosDepositos(0L, 500)).thenReturn(pagina(10, false, List.of(), List.of(900L, 901L)));
+
+        replicacion.sincronizar();
+
+        // El camión usado queda, pero no se vuelve a ofrecer
+        assertFalse(camionLocal(200L).isDisponible());
+        assertTrue(camionReferenceRepository.findByCamionIdFlotaIn(List.of(201L)).isEmpty());
+        assertTrue(depositoReferenceRepository.existsById(900L));
+        assertFalse(depositoReferenceRepository.existsById(901L));
+        verify(matrizDepositos).depositosModificados();
+    }
+
+    @Test
+    void laMarcaDeAguaSeGuardaEnLaMismaTransaccionQueLaPagina() {
+        when(flotaServiceClient.obtenerCambiosCamiones(0L, 500))
+                .thenReturn(pagina(10, true, List.of(camion(300L, "AA300AA", true)), List.of()));
+        when(flotaServiceClient.obtenerCambiosCamiones(10L, 500))
+                .thenReturn(pagina(20, false, List.of(camion(301L, "AA301AA", true)), List.of()));
+        // Falla el guardado de la marca de la segunda página
+        doThrow(new IllegalStateException("falla al guardar la marca de agua"))
+                .when(estadoRepository).save(argThat(estado -> estado.getVersionAplicada() == 20));
+
+        replicacion.sincronizar();
+
+        // La primera página quedó aplicada con su marca; la segunda se revirtió completa
+        assertEquals(10, marcaDeAgua());
+        assertEquals(1, camionReferenceRepository.findByCamionIdFlotaIn(List.of(300L)).size());
+        assertTrue(camionReferenceRepository.findByCamionIdFlotaIn(List.of(301L)).isEmpty());
+
+        // El próximo ciclo retoma desde la marca guardada
+        reset(estadoRepository);
+        replicacion.sincronizar();
+
+        verify(flotaServiceClient, times(2)).obtenerCambiosCamiones(eq(10L), anyInt());
+        assertEquals(20, marcaDeAgua());
+        assertEquals(1, camionReferenceRepository.findByCamionIdFlotaIn(List.of(301L)).size());
+    }
+
+    private long marcaDeAgua() {
+        return estadoRepository.findById(ReplicacionFlotaService.CAMIONES).map(EstadoReplicacion::getVersionAplicada).orElse(0L);
+    }
+
+    private CamionReference camionLocal(Long camionIdFlota, boolean disponible) {
+        camionReferenceRepository.findByCamionIdFlotaIn(List.of(camionIdFlota)).forEach(camionReferenceRepository::delete);
+        CamionReference referencia = new CamionReference();
+        referencia.setCamionIdFlota(camionIdFlota);
+        referencia.setDominio("XX000XX");
+        referencia.setDisponible(disponible);
+        return camionReferenceRepository.save(referencia);
+    }
+
+    private CamionReference camionLocal(Long camionIdFlota) {
+        return camionReferenceRepository.findByCamionIdFlotaIn(List.of(camionIdFlota)).stream().findFirst().orElseThrow();
+    }
+
+    private DepositoReference depositoLocal(Long id) {
+        DepositoReference deposito = new DepositoReference();
+        deposito.setId(id);
+        deposito.setNombre("Depósito " + id);
+        deposito.setLatitud(-31.4);
+        deposito.setLongitud(-64.2);
+        return depositoReferenceRepository.save(deposito);
+    }
+
+    private static CamionReplicaDTO camion(Long id, String dominio, boolean disponible) {
+        return new CamionReplicaDTO(id, dominio, 20000, 60, 0.3, 120, disponible, 1);
+    }
+
+    private static <T> CambiosDTO<T> pagina(long versionHasta, boolean hayMas, List<T> actualizados, List<Long> eliminados) {
+        return new CambiosDTO<>(0, versionHasta, versionHasta, hayMas, actualizados, eliminados);
+    }
+}